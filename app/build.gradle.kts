@@ -33,8 +33,8 @@ android {
 }
 
 dependencies {
-    // Inclui a biblioteca local 'mylibrary2'
-    implementation("com.example:mylibrary:1.0.0")
+    // Inclui as bibliotecas locais 'mylibrary' e 'mylibrary2'
+    implementation(project(":mylibrary"))
     implementation(project(":mylibrary2"))
     implementation(libs.appcompat)
     implementation(libs.material)
@@ -0,0 +1,148 @@
+package com.example.myapplication;
+
+import android.util.Log;
+
+import com.example.mylibrary.utils.CarStateStore;
+import com.example.mylibrary.utils.TickJournalReader;
+
+/**
+ * Reproduz uma corrida gravada no diário (`TickJournalWriter`), copiando o estado dos carros de cada
+ * ciclo para o `CarStateStore` dos carros desenhados pelo `TrackView`.
+ * A reprodução segue os tempos gravados, na velocidade escolhida (`SPEED_REALTIME`, `SPEED_FAST`
+ * ou qualquer outra); com velocidade 0 fica pausada e avança quadro a quadro com `step`.
+ * `seek` vai para qualquer ciclo usando o índice esparso do diário.
+ */
+public class ReplayDriver {
+
+    private static final String TAG = "ReplayDriver";
+    public static final double SPEED_REALTIME = 1.0;
+    public static final double SPEED_FAST = 10.0;
+    public static final double SPEED_PAUSED = 0.0; // Quadro a quadro
+    private static final long MAX_LAG_NANOS = 250_000_000L; // Atraso após o qual a cadência é reiniciada
+
+    private final TickJournalReader journal;
+    private final CarStateStore cars;
+    private final Runnable onFrame;
+    private Thread thread;
+    private boolean running;
+    private double speed = SPEED_REALTIME;
+    private long record = -1;        // Registro exibido
+    private long shownAtNanos;       // Quando o registro exibido deveria ter aparecido
+
+    /**
+     * @param journal Diário da corrida.
+     * @param cars    Armazenamento dos carros desenhados, com os slots criados por
+     *                `TickJournalReader.createStore` ou na mesma ordem do diário.
+     * @param onFrame Chamado após cada quadro copiado (ex.: `TrackView::postInvalidate`).
+     */
+    public ReplayDriver(TickJournalReader journal, CarStateStore cars, Runnable onFrame) {
+        this.journal = journal;
+        this.cars = cars;
+        this.onFrame = onFrame;
+    }
+
+    /**
+     * Exibe o primeiro ciclo e inicia a reprodução.
+     */
+    public synchronized void start() {
+        if (running || journal.getRecordCount() == 0) {
+            return;
+        }
+        running = true;
+        show(0);
+        thread = new Thread(this::playLoop, TAG);
+        thread.setDaemon(true);
+        thread.start();
+        Log.d(TAG, "Reprodução iniciada: " + journal.getRecordCount() + " ciclos, " + journal.getCarCount() + " carros.");
+    }
+
+    /**
+     * Encerra a reprodução, mantendo o último quadro exibido.
+     */
+    public void stop() {
+        Thread playing;
+        synchronized (this) {
+            running = false;
+            notifyAll();
+            playing = thread;
+            thread = null;
+        }
+        if (playing != null) {
+            try {
+                playing.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Define a velocidade da reprodução em relação ao tempo gravado (ex.: 1, 10); 0 pausa.
+     */
+    public synchronized void setSpeed(double speed) {
+        this.speed = Math.max(0, speed);
+        shownAtNanos = System.nanoTime(); // O próximo quadro é contado a partir de agora
+        notifyAll();
+    }
+
+    public synchronized double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Pausa e avança (ou volta, com valores negativos) a quantidade de quadros informada.
+     */
+    public synchronized void step(int frames) {
+        speed = SPEED_PAUSED;
+        show(Math.max(0, Math.min(journal.getRecordCount() - 1, record + frames)));
+    }
+
+    /**
+     * Vai para o último ciclo gravado até o ciclo informado, mantendo a velocidade atual.
+     */
+    public synchronized void seek(long tick) {
+        show(Math.max(0, journal.findRecord(tick)));
+        notifyAll();
+    }
+
+    /**
+     * Ciclo do quadro exibido, ou -1 antes do início.
+     */
+    public synchronized long getCurrentTick() {
+        return record < 0 ? -1 : journal.getTick(record);
+    }
+
+    private void show(long next) {
+        journal.read(next, cars);
+        record = next;
+        shownAtNanos = System.nanoTime();
+        if (onFrame != null) {
+            onFrame.run();
+        }
+    }
+
+    private synchronized void playLoop() {
+        try {
+            while (running) {
+                if (speed <= 0 || record + 1 >= journal.getRecordCount()) {
+                    wait(); // Pausada ou no fim do diário
+                    continue;
+                }
+                long delayNanos = (long) ((journal.getElapsedNanos(record + 1) - journal.getElapsedNanos(record)) / speed);
+                long dueNanos = shownAtNanos + delayNanos;
+                long remainingNanos = dueNanos - System.nanoTime();
+                if (remainingNanos > 0) {
+                    wait(remainingNanos / 1_000_000, (int) (remainingNanos % 1_000_000));
+                    continue; // Velocidade, busca ou parada podem ter mudado durante a espera
+                }
+                show(record + 1);
+                // Mantém a cadência dos tempos gravados, sem acumular atraso de quadros muito lentos
+                shownAtNanos = Math.max(dueNanos, shownAtNanos - MAX_LAG_NANOS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Erro na reprodução do diário", e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.myapplication;
+
+import android.util.Log;
+
+import com.example.myapplication.models.Car;
+import com.example.myapplication.utils.CarCollisionPass;
+import com.example.myapplication.utils.CarSpatialIndex;
+import com.example.mylibrary2.utils.RealTimeScheduler;
+import com.example.mylibrary2.utils.ThreadCpuSampler;
+import com.example.mylibrary2.utils.ThreadManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Laço único de simulação com passo de tempo fixo.
+ * Em vez de uma thread por carro, cada ciclo divide os carros em blocos e executa as fases
+ * (percepção, decisão, integração e resolução) no pool do `ThreadManager`. Cada fase termina
+ * antes da próxima começar, e todos os carros avançam com o mesmo `FIXED_DELTA_TIME`.
+ * O ciclo é a tarefa periódica `TICK_TASK_NAME` do `RealTimeScheduler`, que mede seu jitter,
+ * tempo de resposta e perdas de deadline. Cada carro mede também o próprio passo: do instante de
+ * liberação do ciclo até o início da sua percepção (jitter) e até o fim da sua resolução (resposta).
+ * As threads que executam o ciclo e as fases são registradas no `ThreadCpuSampler` como `TICK_TASK_NAME`.
+ */
+public class SimulationEngine implements Runnable {
+
+    private static final String TAG = "SimulationEngine";
+    public static final String TICK_TASK_NAME = "SimulationTick";
+    public static final double FIXED_DELTA_TIME = 0.05; // Passo fixo em segundos, igual ao antigo ciclo dos carros
+    private static final long TICK_MILLIS = (long) (FIXED_DELTA_TIME * 1000);
+
+    private static final int PHASE_SENSE = 0;
+    private static final int PHASE_DECIDE = 1;
+    private static final int PHASE_INTEGRATE = 2;
+    private static final int PHASE_RESOLVE = 3;
+    private static final String TIMELINE_CATEGORY = "engine";
+    private static final String[] PHASE_NAMES = {"percepção", "decisão", "integração", "resolução"};
+
+    private final List<Car> cars;
+    private final CarSpatialIndex spatialIndex;
+    private final CarCollisionPass collisionPass;
+    private final RealTimeScheduler scheduler;
+    private final ThreadCpuSampler cpuSampler;
+    private final List<PhaseChunk> chunks = new ArrayList<>();
+
+    // Estado do ciclo atual, lido pelos blocos; a visibilidade é garantida por `invokeAll`
+    private Car[] tickCars = new Car[0];
+    private int phase;
+    private long tickReleaseNanos;
+    private volatile Runnable tickListener; // Chamado ao fim de cada ciclo, na thread do ciclo
+
+    public SimulationEngine(List<Car> cars, CarSpatialIndex spatialIndex, CarCollisionPass collisionPass,
+                            RealTimeScheduler scheduler, ThreadCpuSampler cpuSampler) {
+        this.cars = cars;
+        this.spatialIndex = spatialIndex;
+        this.collisionPass = collisionPass;
+        this.scheduler = scheduler;
+        this.cpuSampler = cpuSampler;
+    }
+
+    /**
+     * Agenda o ciclo de simulação como tarefa periódica, com deadline igual ao período.
+     */
+    public void start() {
+        scheduler.schedulePeriodicTask(TICK_TASK_NAME, TICK_MILLIS, TICK_MILLIS, Thread.MAX_PRIORITY, this);
+        Log.d(TAG, "Motor de simulação iniciado.");
+    }
+
+    /**
+     * Define uma ação executada ao fim de cada ciclo, quando nenhum carro está sendo atualizado
+     * (ex.: copiar o estado para um checkpoint). Deve ser curta, pois conta no tempo do ciclo.
+     *
+     * @param tickListener Ação, ou null para remover.
+     */
+    public void setTickListener(Runnable tickListener) {
+        this.tickListener = tickListener;
+    }
+
+    /**
+     * Cancela o ciclo de simulação; um ciclo em andamento termina normalmente.
+     */
+    public void stop() {
+        scheduler.cancelPeriodicTask(TICK_TASK_NAME);
+        Log.d(TAG, "Motor de simulação parado.");
+    }
+
+    /**
+     * Executa um ciclo, chamado pelo executor do `RealTimeScheduler` a cada período.
+     */
+    @Override
+    public void run() {
+        cpuSampler.registerCurrentThread(TICK_TASK_NAME);
+        long releaseNanos = RealTimeScheduler.currentReleaseNanos();
+        tickReleaseNanos = releaseNanos == RealTimeScheduler.NO_RELEASE ? System.nanoTime() : releaseNanos;
+
+        try {
+            tick();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.e(TAG, "Erro no ciclo de simulação", e);
+        }
+    }
+
+    /**
+     * Executa um ciclo completo da simulação.
+     *
+     * @throws InterruptedException Se a thread do motor for interrompida durante uma fase.
+     */
+    void tick() throws InterruptedException {
+        tickCars = cars.toArray(tickCars);
+        int count = 0;
+        while (count < tickCars.length && tickCars[count] != null) {
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+
+        ExecutorService executor = ThreadManager.getExecutorService();
+        List<PhaseChunk> phaseChunks = chunksFor(count, ThreadManager.getConfiguredProcessors());
+
+        spatialIndex.rebuild(); // Instantâneo das posições usado por toda a fase de percepção
+        runPhase(executor, phaseChunks, PHASE_SENSE);
+        runPhase(executor, phaseChunks, PHASE_DECIDE);
+        runPhase(executor, phaseChunks, PHASE_INTEGRATE);
+
+        collisionPass.run(count == tickCars.length ? tickCars : Arrays.copyOf(tickCars, count));
+        runPhase(executor, phaseChunks, PHASE_RESOLVE);
+
+        Runnable listener = tickListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private void runPhase(ExecutorService executor, List<PhaseChunk> phaseChunks, int phase)
+            throws InterruptedException {
+        this.phase = phase;
+        if (phaseChunks.size() == 1) {
+            phaseChunks.get(0).call(); // Um único bloco: executa na própria thread do ciclo
+        } else {
+            executor.invokeAll(phaseChunks); // Barreira: retorna só quando todos os blocos terminarem
+        }
+    }
+
+    /**
+     * Divide os carros em até `parallelism` blocos contíguos, reaproveitando os blocos do ciclo anterior.
+     */
+    private List<PhaseChunk> chunksFor(int count, int parallelism) {
+        int chunkCount = Math.max(1, Math.min(parallelism, count));
+        while (chunks.size() < chunkCount) {
+            chunks.add(new PhaseChunk());
+        }
+        int base = count / chunkCount;
+        int remainder = count % chunkCount;
+        int from = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            PhaseChunk chunk = chunks.get(i);
+            chunk.from = from;
+            chunk.to = from + base + (i < remainder ? 1 : 0);
+            from = chunk.to;
+        }
+        return chunks.subList(0, chunkCount);
+    }
+
+    /**
+     * Bloco contíguo de carros processado por uma thread do pool em cada fase.
+     */
+    private final class PhaseChunk implements Callable<Void> {
+        int from;
+        int to;
+
+        @Override
+        public Void call() {
+            cpuSampler.registerCurrentThread(TICK_TASK_NAME); // Threads do pool contam como CPU do ciclo
+            Car[] carsInTick = tickCars;
+            int currentPhase = phase;
+            Car.TIMELINE.begin(TIMELINE_CATEGORY, PHASE_NAMES[currentPhase]);
+            try {
+                runCars(carsInTick, currentPhase);
+            } finally {
+                Car.TIMELINE.end(TIMELINE_CATEGORY, PHASE_NAMES[currentPhase]);
+            }
+            return null;
+        }
+
+        private void runCars(Car[] carsInTick, int currentPhase) {
+            for (int i = from; i < to; i++) {
+                Car car = carsInTick[i];
+                if (!car.isActive()) {
+                    continue;
+                }
+                try {
+                    switch (currentPhase) {
+                        case PHASE_SENSE:
+                            car.beginStep(tickReleaseNanos);
+                            car.senseStep();
+                            break;
+                        case PHASE_DECIDE:
+                            car.decideStep(FIXED_DELTA_TIME);
+                            break;
+                        case PHASE_INTEGRATE:
+                            car.integrateStep(FIXED_DELTA_TIME);
+                            break;
+                        default:
+                            car.resolveStep(FIXED_DELTA_TIME);
+                            break;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    Log.e(TAG, "Erro ao atualizar o carro " + car.getName(), e);
+                }
+            }
+        }
+    }
+}
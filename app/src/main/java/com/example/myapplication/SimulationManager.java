@@ -3,6 +3,7 @@ package com.example.myapplication;
 import android.Manifest;
 import android.content.Context;
 import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.os.Build;
 import android.util.Log;
@@ -11,20 +12,41 @@ import androidx.core.content.ContextCompat;
 
 import com.example.myapplication.interfaces.Vehicle;
 import com.example.myapplication.models.Car;
+import com.example.myapplication.models.ReplayCar;
 import com.example.myapplication.models.SafetyCar;
+import com.example.myapplication.utils.CarCollisionPass;
+import com.example.myapplication.utils.CarSpatialIndex;
 import com.example.mylibrary.utils.CarStateRepository;
+import com.example.mylibrary.utils.CarStateStore;
+import com.example.mylibrary.utils.RaceCheckpoint;
+import com.example.mylibrary.utils.RaceCheckpointWriter;
+import com.example.mylibrary.utils.TickJournalReader;
+import com.example.mylibrary.utils.TickJournalWriter;
+import com.example.mylibrary2.utils.DeadlineUtils;
+import com.example.mylibrary2.utils.EventTracer;
 import com.example.mylibrary2.utils.MetricsCollector;
+import com.example.mylibrary2.utils.MetricsExporter;
+import com.example.mylibrary2.utils.PhaseProfiler;
 import com.example.mylibrary2.utils.RealTimeScheduler;
+import com.example.mylibrary2.utils.ThreadCpuSampler;
 import com.example.mylibrary2.utils.ThreadManager;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SimulationManager {
 
     private final CopyOnWriteArrayList<Vehicle> vehicles;
     private final CopyOnWriteArrayList<Car> cars;
+    private final CarSpatialIndex carSpatialIndex;
+    private final CarCollisionPass collisionPass = new CarCollisionPass();
+    private final CarStateStore carStateStore = new CarStateStore(64); // Estado de todos os carros em arrays
+    private final SimulationEngine simulationEngine;
     private TrackView trackView;
     private SafetyCar safetyCar;
     private boolean isRunning;
@@ -34,18 +56,56 @@ public class SimulationManager {
     private final float startY = 400;
     private final int[] carColors = {Color.BLUE, Color.RED, Color.GREEN, Color.MAGENTA};
     private static final String TAG = "SimulationManager";
+    private static final int SCHEDULER_WORKERS = 2; // Ciclo da simulação + eventos aperiódicos
+    private static final boolean METRICS_GZIP = false;
+    private static final long TICK_PERIOD_NANOS = (long) (SimulationEngine.FIXED_DELTA_TIME * 1_000_000_000L);
+    private static final long CPU_SAMPLE_INTERVAL_MILLIS = 250;
+    private static final int CPU_WINDOW_SAMPLES = 8; // Janela deslizante de 2 s
+    private static final long METRICS_MAX_FILE_BYTES = 16L * 1024 * 1024; // Rotação dos arquivos de métricas
+    private static final List<String> TICK_TASK_NAMES = Collections.singletonList(SimulationEngine.TICK_TASK_NAME);
+    private static final List<Long> TICK_PERIODS = Collections.singletonList(TICK_PERIOD_NANOS);
+    // Eventos do monitor, gravados pelo EventTracer e escritos em "event_trace.txt" ao finalizar
+    private static final int EVENT_CAR_STATUS = EventTracer.register(EventTracer.DEBUG, TAG,
+            "{s} - Tempo restante: {} ms - Distância: {}");
+    private static final int EVENT_TICK_STATS = EventTracer.register(EventTracer.DEBUG, TAG,
+            "{s}: {} concluídas, {} deadlines perdidos, resposta máx. {} µs");
+    private static final int EVENT_TASK_CPU = EventTracer.register(EventTracer.DEBUG, TAG,
+            "{s} - Utilização de CPU: {d}%");
+    private static final int EVENT_TICK_UTILIZATION = EventTracer.register(EventTracer.DEBUG, TAG,
+            "Utilização do processador pelo ciclo (C/T): {d}");
+    private static final String TIMELINE_CATEGORY = "simulation";
+    private static final String TIMELINE_MONITOR = "monitor";
+    private static final String TIMELINE_APERIODIC_EVENT = "evento aperiódico";
+    private static final String CHECKPOINT_FILE_NAME = "race.ckpt";
+    private static final int CHECKPOINT_INTERVAL_TICKS = 100; // Um checkpoint a cada 5 s de simulação
+    private static final String JOURNAL_FILE_NAME = "race.tjr"; // Diário de todos os ciclos, para reprodução
+    private static final double JOURNAL_MAX_OVERHEAD_PERCENT = 5.0; // Custo aceitável do diário por ciclo
 
     private final CarStateRepository carStateRepository = new CarStateRepository();
     private final RealTimeScheduler scheduler;
+    private final ThreadCpuSampler cpuSampler = new ThreadCpuSampler(CPU_SAMPLE_INTERVAL_MILLIS, CPU_WINDOW_SAMPLES);
     private final MetricsCollector metricsCollector;
+    private MetricsExporter metricsExporter;
+    private volatile RaceCheckpointWriter checkpointWriter;
+    private int ticksSinceCheckpoint; // Acessado apenas na thread do ciclo
+    private volatile boolean checkpointRequested;
+    private volatile TickJournalWriter tickJournal;
+    private long journalTick; // Acessado apenas na thread do ciclo
+    private TickJournalReader replayJournal;
+    private ReplayDriver replayDriver;
+    private boolean resumeFromCheckpoint;
     private final Context context;
 
     public SimulationManager(Context context) {
         this.context = context;
         this.vehicles = new CopyOnWriteArrayList<>();
         this.cars = new CopyOnWriteArrayList<>();
+        this.carSpatialIndex = new CarSpatialIndex(cars);
         this.trackView = new TrackView(context, new Car[0]);
         this.scheduler = new RealTimeScheduler();
+        this.scheduler.setTimelineRecorder(Car.TIMELINE);
+        this.simulationEngine = new SimulationEngine(cars, carSpatialIndex, collisionPass, scheduler, cpuSampler);
+        this.simulationEngine.setTickListener(this::onTickCompleted);
         this.metricsCollector = new MetricsCollector(context);
 
         resetSimulationState();
@@ -77,24 +137,26 @@ public class SimulationManager {
         }
 
         if (!isRunning) {
+            stopReplay();
             resetSimulationState();
             ThreadManager.configureProcessors(4);
             loadCarStatesAndInitialize(vehicleCount);
 
             trackView.updateCars(cars.toArray(new Car[0]));
+            startCars();
 
             isRunning = true;
+            cpuSampler.start();
+            scheduler.start(SCHEDULER_WORKERS);
+            simulationEngine.start();
             Log.d(TAG, "Simulação iniciada.");
 
-            startDynamicPriorityAdjustment();
             monitorSimulation();
             triggerAperiodicEvents();
 
-            File exportFile = createMetricsFile("simulation_metrics.csv");
-            if (exportFile != null) {
-                metricsCollector.exportMetrics(exportFile.getAbsolutePath());
-                Log.d(TAG, "Métricas exportadas para: " + exportFile.getAbsolutePath());
-            }
+            startMetricsExport();
+            startCheckpoints();
+            startTickJournal();
         }
     }
 
@@ -104,6 +166,9 @@ public class SimulationManager {
             for (Vehicle vehicle : vehicles) {
                 vehicle.pauseRace();
             }
+            carStateRepository.saveCarStates(cars);
+            carStateRepository.flush();
+            checkpointRequested = true; // O próximo ciclo grava o estado pausado
             Log.d(TAG, "Simulação pausada.");
         }
     }
@@ -123,11 +188,22 @@ public class SimulationManager {
             isRunning = false;
             isPaused = false;
             isFinished = true;
+            simulationEngine.stop();
+            scheduler.shutdown();
+            cpuSampler.stop();
+            for (RealTimeScheduler.TaskStats taskStats : scheduler.getAllTaskStats()) {
+                Log.d(TAG, taskStats.toString());
+            }
 
             for (Vehicle vehicle : vehicles) {
                 vehicle.stopRace();
             }
+            carStateRepository.saveCarStates(cars);
+            carStateRepository.flush();
+            stopCheckpoints();
+            stopTickJournal();
 
+            stopMetricsExport();
             File exportFile = createMetricsFile("final_metrics.csv");
             if (exportFile != null) {
                 try {
@@ -138,31 +214,69 @@ public class SimulationManager {
                 }
             }
 
+            dumpEventTrace();
+            exportTimeline();
             vehicles.clear();
             cars.clear();
             Log.d(TAG, "Simulação finalizada.");
         }
     }
 
-    private void startDynamicPriorityAdjustment() {
-        new Thread(() -> {
-            while (isRunning) {
-                for (Car car : cars) {
-                    scheduler.adjustTaskPriority(car.getName(), calculatePriority(car));
-                }
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }).start();
+    /**
+     * Define se o próximo `startSimulation` retoma a corrida do último checkpoint local, em vez de
+     * começar do zero. Carros que não estiverem no checkpoint começam na posição inicial.
+     */
+    public void setResumeFromCheckpoint(boolean resumeFromCheckpoint) {
+        this.resumeFromCheckpoint = resumeFromCheckpoint;
+    }
+
+    /**
+     * Liga ou desliga, durante a execução, a medição do tempo de cada etapa do passo dos carros.
+     * O resumo é registrado a cada segundo pelo monitor da simulação.
+     */
+    public void setPhaseProfilingEnabled(boolean enabled) {
+        Car.PHASE_PROFILER.setEnabled(enabled);
+    }
+
+    /**
+     * Tempos acumulados de cada etapa do passo, por carro.
+     */
+    public List<PhaseProfiler.Snapshot> getPhaseProfile() {
+        return Car.PHASE_PROFILER.snapshot();
+    }
+
+    /**
+     * Liga ou desliga, durante a execução, a linha do tempo das threads da simulação. Ao finalizar,
+     * os eventos registrados são exportados em "timeline.json" (formato Chrome trace-event).
+     */
+    public void setTimelineEnabled(boolean enabled) {
+        Car.TIMELINE.setEnabled(enabled);
+    }
+
+    /**
+     * Prepara os carros para serem atualizados pelo SimulationEngine, sem threads próprias.
+     */
+    private void startCars() {
+        Bitmap trackBitmap = trackView.getTrackBitmap();
+        if (trackBitmap == null) {
+            Log.e(TAG, "Bitmap da pista indisponível; os carros não foram iniciados.");
+            return;
+        }
+        int trackWidth = trackView.getWidth() > 0 ? trackView.getWidth() : trackBitmap.getWidth();
+        int trackHeight = trackView.getHeight() > 0 ? trackView.getHeight() : trackBitmap.getHeight();
+
+        for (Car car : cars) {
+            car.setEngineManaged(true);
+            car.setCpuSampler(cpuSampler, SimulationEngine.TICK_TASK_NAME);
+            car.startRace(trackBitmap, trackWidth, trackHeight);
+        }
     }
 
     private void triggerAperiodicEvents() {
         new Thread(() -> {
             while (isRunning) {
                 scheduler.scheduleTask("AperiodicEvent", System.currentTimeMillis() + 2000, 1, () -> {
+                    Car.TIMELINE.instant(TIMELINE_CATEGORY, TIMELINE_APERIODIC_EVENT);
                     Log.d(TAG, "[T4 - Evento Aperiódico] Iniciado.");
                     pauseVehiclesTemporarily();
                     Log.d(TAG, "[T4 - Evento Aperiódico] Concluído.");
@@ -173,7 +287,7 @@ public class SimulationManager {
                     Thread.currentThread().interrupt();
                 }
             }
-        }).start();
+        }, "AperiodicEvents").start();
     }
 
     private void pauseVehiclesTemporarily() {
@@ -190,30 +304,359 @@ public class SimulationManager {
         }
     }
 
-    private int calculatePriority(Car car) {
-        long remainingTime = car.getDeadlineRemaining();
-        int distance = car.getDistance();
-
-        if (remainingTime < 3000) return Thread.MAX_PRIORITY;
-        if (distance > 500) return Thread.NORM_PRIORITY + 2;
-        return Thread.NORM_PRIORITY;
-    }
-
     private void monitorSimulation() {
         new Thread(() -> {
             while (isRunning) {
+                Car.TIMELINE.begin(TIMELINE_CATEGORY, TIMELINE_MONITOR);
                 for (Car car : cars) {
-                    long remainingTime = car.getDeadlineRemaining();
-                    Log.d(TAG, String.format("%s - Tempo restante: %d ms - Distância: %d",
-                            car.getName(), remainingTime, car.getDistance()));
+                    EventTracer.trace(EVENT_CAR_STATUS, car.getTraceNameId(), car.getDeadlineRemaining(),
+                            car.getDistance());
+                }
+                carStateRepository.saveCarStates(cars); // Agrupado por carro e gravado em lotes em segundo plano
+                metricsCollector.drain(); // Transfere as métricas das threads antes que os buffers circulares encham
+                RealTimeScheduler.TaskStats tickStats = scheduler.getTaskStats(SimulationEngine.TICK_TASK_NAME);
+                if (tickStats != null) {
+                    EventTracer.trace(EVENT_TICK_STATS, EventTracer.internString(tickStats.getTaskName()),
+                            tickStats.getCompletions(), tickStats.getDeadlineMisses(),
+                            tickStats.getMaxResponseNanos() / 1_000L);
                 }
+                logProcessorUtilization();
+                if (Car.PHASE_PROFILER.isEnabled()) {
+                    Log.d(TAG, "Fases por carro (média/máx.): " + Car.PHASE_PROFILER.summaryLine());
+                }
+                Car.TIMELINE.end(TIMELINE_CATEGORY, TIMELINE_MONITOR);
                 try {
                     Thread.sleep(1000);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                 }
             }
-        }).start();
+        }, "SimulationMonitor").start();
+    }
+
+    /**
+     * Registra a utilização medida de cada tarefa e a utilização total do ciclo (soma de C/T),
+     * calculada a partir do tempo de CPU medido em vez de valores fixos.
+     */
+    private void logProcessorUtilization() {
+        if (!EventTracer.isLoggable(EVENT_TICK_UTILIZATION)) {
+            return;
+        }
+        for (String taskName : cpuSampler.getTaskNames()) {
+            EventTracer.trace(EVENT_TASK_CPU, EventTracer.internString(taskName),
+                    EventTracer.d(cpuSampler.getUtilization(taskName)));
+        }
+        double utilization = DeadlineUtils.calculateProcessorUtilization(
+                cpuSampler.getExecutionTimes(TICK_TASK_NAMES, TICK_PERIODS), TICK_PERIODS);
+        EventTracer.trace(EVENT_TICK_UTILIZATION, EventTracer.d(utilization));
+    }
+
+    /**
+     * Inicia a exportação contínua: a cada `drain` as métricas novas são gravadas em segundo plano,
+     * em um log binário único no diretório "metrics" (convertido para CSV por MetricLogReader).
+     */
+    private void startMetricsExport() {
+        File dir = context.getExternalFilesDir(null);
+        if (dir == null) {
+            Log.e(TAG, "Erro ao acessar diretório de métricas.");
+            return;
+        }
+        try {
+            metricsExporter = new MetricsExporter(new File(dir, "metrics"), "simulation",
+                    MetricsExporter.Format.BINARY, METRICS_GZIP, METRICS_MAX_FILE_BYTES);
+            metricsCollector.setExporter(metricsExporter);
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao iniciar a exportação de métricas.", e);
+        }
+    }
+
+    private void stopMetricsExport() {
+        if (metricsExporter == null) {
+            return;
+        }
+        metricsCollector.drain(); // Entrega as últimas métricas antes de fechar os arquivos
+        metricsCollector.setExporter(null);
+        try {
+            metricsExporter.close();
+            Log.d(TAG, "Exportação de métricas encerrada: " + metricsExporter.getWrittenRows()
+                    + " linhas, " + metricsExporter.getDroppedBatches() + " lotes descartados.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        metricsExporter = null;
+    }
+
+    private void startCheckpoints() {
+        File file = createMetricsFile(CHECKPOINT_FILE_NAME);
+        if (file == null) {
+            return;
+        }
+        ticksSinceCheckpoint = 0;
+        RaceCheckpointWriter writer = new RaceCheckpointWriter(file, carStateStore.size());
+        writer.start();
+        checkpointWriter = writer;
+    }
+
+    /**
+     * Chamado pelo SimulationEngine ao fim de cada ciclo: acrescenta o ciclo ao diário da corrida e,
+     * a cada `CHECKPOINT_INTERVAL_TICKS` ciclos,
+     * copia o estado da corrida e o entrega à gravação em segundo plano. Se a gravação anterior ainda
+     * não terminou, tenta novamente no próximo ciclo.
+     */
+    private void onTickCompleted() {
+        recordTick();
+        RaceCheckpointWriter writer = checkpointWriter;
+        if (writer == null || (++ticksSinceCheckpoint < CHECKPOINT_INTERVAL_TICKS && !checkpointRequested)) {
+            return;
+        }
+        RaceCheckpoint checkpoint = writer.beginCapture();
+        if (checkpoint == null) {
+            return;
+        }
+        fillCheckpoint(checkpoint);
+        writer.commitCapture();
+        ticksSinceCheckpoint = 0;
+        checkpointRequested = false;
+    }
+
+    private void startTickJournal() {
+        File file = createMetricsFile(JOURNAL_FILE_NAME);
+        if (file == null) {
+            return;
+        }
+        try {
+            journalTick = 0;
+            tickJournal = new TickJournalWriter(file, carStateStore, TickJournalWriter.DEFAULT_KEYFRAME_INTERVAL);
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao criar o diário da corrida; a corrida não será gravada.", e);
+        }
+    }
+
+    /**
+     * Acrescenta o estado dos carros no fim do ciclo ao diário. Uma falha encerra a gravação do
+     * diário, sem afetar a corrida.
+     */
+    private void recordTick() {
+        TickJournalWriter journal = tickJournal;
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.append(++journalTick, carStateStore);
+        } catch (IOException | RuntimeException e) {
+            tickJournal = null;
+            Log.e(TAG, "Erro ao gravar o diário da corrida; gravação interrompida.", e);
+        }
+    }
+
+    private void stopTickJournal() {
+        TickJournalWriter journal = tickJournal;
+        if (journal == null) {
+            return;
+        }
+        tickJournal = null;
+        try {
+            journal.close(); // Espera um append em andamento; appends posteriores falham com IOException
+            long records = journal.getRecordCount();
+            double appendMicros = records == 0 ? 0 : journal.getAppendNanos() / 1000.0 / records;
+            // O tempo de resposta medido do ciclo inclui a gravação do diário
+            RealTimeScheduler.TaskStats tickStats = scheduler.getTaskStats(SimulationEngine.TICK_TASK_NAME);
+            double tickMicros = tickStats == null ? 0 : tickStats.getAverageResponseNanos() / 1000.0 - appendMicros;
+            double overhead = tickMicros <= 0 ? 0 : 100.0 * appendMicros / tickMicros;
+            Log.d(TAG, String.format("Diário da corrida: %d ciclos, %.1f MB, %.1f µs por ciclo (%.2f%% do ciclo de %.1f µs).",
+                    records, journal.getLength() / 1e6, appendMicros, overhead, tickMicros));
+            if (overhead > JOURNAL_MAX_OVERHEAD_PERCENT) {
+                Log.w(TAG, "A gravação do diário passou de " + JOURNAL_MAX_OVERHEAD_PERCENT + "% do tempo do ciclo.");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao fechar o diário da corrida.", e);
+        }
+    }
+
+    /**
+     * Reproduz no TrackView a última corrida gravada no diário, com a simulação parada.
+     *
+     * @return O controle da reprodução (velocidade, quadro a quadro, busca), ou null se não houver
+     * diário ou a simulação estiver em execução.
+     */
+    public ReplayDriver startReplay() {
+        if (isRunning) {
+            Log.e(TAG, "A reprodução só pode ser iniciada com a simulação parada.");
+            return null;
+        }
+        stopReplay();
+        File dir = context.getExternalFilesDir(null);
+        File file = dir == null ? null : new File(dir, JOURNAL_FILE_NAME);
+        if (file == null || !file.isFile()) {
+            Log.d(TAG, "Nenhum diário de corrida para reproduzir.");
+            return null;
+        }
+        try {
+            replayJournal = TickJournalReader.open(file);
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao abrir o diário da corrida.", e);
+            return null;
+        }
+        // Carros apenas para desenho, fora das métricas e do perfilador da simulação
+        CarStateStore replayStore = replayJournal.createStore();
+        ReplayCar[] replayCars = new ReplayCar[replayJournal.getCarCount()];
+        for (int slot = 0; slot < replayCars.length; slot++) {
+            String name = replayJournal.getCarName(slot);
+            int color = name.equals("SafetyCar") ? Color.BLACK : carColors[slot % carColors.length];
+            replayCars[slot] = new ReplayCar(name, slot, replayStore, color);
+        }
+        trackView.showReplay(replayCars);
+        replayDriver = new ReplayDriver(replayJournal, replayStore, trackView::postInvalidate);
+        replayDriver.start();
+        return replayDriver;
+    }
+
+    /**
+     * Encerra a reprodução em andamento, se houver.
+     */
+    public void stopReplay() {
+        if (replayDriver == null) {
+            return;
+        }
+        replayDriver.stop();
+        replayDriver = null;
+        try {
+            replayJournal.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao fechar o diário da corrida.", e);
+        }
+        replayJournal = null;
+        trackView.updateCars(new Car[0]);
+    }
+
+    private void fillCheckpoint(RaceCheckpoint checkpoint) {
+        checkpoint.capture(carStateStore);
+        for (Car car : cars) {
+            checkpoint.setDeadlineRemaining(car.getStateSlot(), car.getDeadlineRemaining());
+        }
+        if (safetyCar != null) {
+            checkpoint.setDeadlineRemaining(safetyCar.getStateSlot(), safetyCar.getDeadlineRemaining());
+            checkpoint.setSafetyCarSlot(safetyCar.getStateSlot());
+        }
+        checkpoint.setMetricsCursor(metricsCollector.getCollectedSampleCount());
+    }
+
+    /**
+     * Encerra os checkpoints periódicos e grava o estado final, com a corrida já parada.
+     */
+    private void stopCheckpoints() {
+        RaceCheckpointWriter writer = checkpointWriter;
+        if (writer == null) {
+            return;
+        }
+        checkpointWriter = null;
+        try {
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        File file = createMetricsFile(CHECKPOINT_FILE_NAME);
+        if (file == null) {
+            return;
+        }
+        RaceCheckpoint checkpoint = new RaceCheckpoint(carStateStore.size());
+        fillCheckpoint(checkpoint);
+        try {
+            long bytes = checkpoint.writeTo(file);
+            Log.d(TAG, "Checkpoint final gravado (" + bytes + " bytes); " + writer.getWrittenCheckpoints()
+                    + " periódicos, " + writer.getFailedWrites() + " falhas.");
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao gravar o checkpoint final.", e);
+        }
+    }
+
+    /**
+     * Aplica aos carros criados o estado do último checkpoint local: uma leitura do arquivo, em vez
+     * de uma consulta ao Firestore por carro. Os deadlines são recalculados a partir do tempo restante salvo.
+     *
+     * @return true se o Safety Car foi retomado do checkpoint.
+     */
+    private boolean restoreFromCheckpoint() {
+        File dir = context.getExternalFilesDir(null);
+        File file = dir == null ? null : new File(dir, CHECKPOINT_FILE_NAME);
+        if (file == null || !file.isFile() || file.length() == 0) {
+            Log.d(TAG, "Nenhum checkpoint para retomar; a corrida começa do zero.");
+            return false;
+        }
+        long start = System.nanoTime();
+        RaceCheckpoint checkpoint;
+        try {
+            checkpoint = RaceCheckpoint.read(file);
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao ler o checkpoint; a corrida começa do zero.", e);
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        for (Car car : cars) {
+            if (car != safetyCar && restoreCar(checkpoint, car, now)) {
+                restored++;
+            }
+        }
+        boolean safetyCarRestored = restoreCar(checkpoint, safetyCar, now);
+        Log.d(TAG, String.format("%d carros retomados do checkpoint em %.2f ms.",
+                restored, (System.nanoTime() - start) / 1e6));
+        return safetyCarRestored;
+    }
+
+    private static boolean restoreCar(RaceCheckpoint checkpoint, Car car, long now) {
+        int slot = checkpoint.findSlot(car.getName());
+        if (slot < 0) {
+            return false;
+        }
+        CarStateStore saved = checkpoint.getCars();
+        car.setPosition(saved.getX(slot), saved.getY(slot));
+        car.setDirection(saved.getHeading(slot));
+        car.setSpeed(saved.getSpeed(slot));
+        car.setFuelTank(saved.getFuelTank(slot));
+        car.setDistance(saved.getDistance(slot));
+        car.setPenalty(saved.getPenalty(slot));
+        car.setLapsCompleted(saved.getLapsCompleted(slot));
+        car.setDeadline(now + checkpoint.getDeadlineRemaining(slot));
+        return true;
+    }
+
+    /**
+     * Escreve os eventos rastreados durante a simulação em "event_trace.txt" e os descarta.
+     */
+    private void dumpEventTrace() {
+        File traceFile = createMetricsFile("event_trace.txt");
+        if (traceFile == null) {
+            return;
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(traceFile))) {
+            int events = EventTracer.dump(writer);
+            EventTracer.clear();
+            Log.d(TAG, events + " eventos rastreados exportados.");
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao exportar os eventos rastreados.", e);
+        }
+    }
+
+    /**
+     * Exporta a linha do tempo das threads em "timeline.json", se ela estiver ligada, e a descarta.
+     * O arquivo pode ser aberto no Perfetto (ui.perfetto.dev) ou em chrome://tracing.
+     */
+    private void exportTimeline() {
+        if (!Car.TIMELINE.isEnabled()) {
+            return;
+        }
+        File timelineFile = createMetricsFile("timeline.json");
+        if (timelineFile == null) {
+            return;
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(timelineFile))) {
+            int events = Car.TIMELINE.writeChromeTrace(writer);
+            Car.TIMELINE.clear();
+            Log.d(TAG, events + " eventos da linha do tempo exportados.");
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao exportar a linha do tempo.", e);
+        }
     }
 
     private File createMetricsFile(String fileName) {
@@ -237,23 +680,29 @@ public class SimulationManager {
     private void loadCarStatesAndInitialize(int vehicleCount) {
         vehicles.clear();
         cars.clear();
+        carStateStore.truncate(1); // Mantém apenas o slot do Safety Car, reservado no construtor
+        initializeSafetyCar();
 
         long currentTime = System.currentTimeMillis();
         for (int i = 0; i < vehicleCount; i++) {
             int carColor = carColors[i % carColors.length];
-            Car car = new Car("Car" + (i + 1), startX, startY, carColor, cars, metricsCollector);
+            Car car = new Car("Car" + (i + 1), startX, startY, carColor, cars, metricsCollector, carStateStore);
             car.setDeadline(currentTime + (i + 1) * 5000);
+            car.setSpatialIndex(carSpatialIndex);
             vehicles.add(car);
             cars.add(car);
         }
+        // O Safety Car só volta à largada se não for retomado do checkpoint
+        if (!resumeFromCheckpoint || !restoreFromCheckpoint()) {
+            safetyCar.setPosition(startX, startY);
+        }
     }
 
     private void initializeSafetyCar() {
         if (safetyCar == null) {
-            safetyCar = new SafetyCar("SafetyCar", startX, startY, Color.BLACK, metricsCollector);
+            safetyCar = new SafetyCar("SafetyCar", startX, startY, Color.BLACK, metricsCollector, carStateStore);
         }
-        vehicles.add(safetyCar);
-        cars.add(safetyCar);
-        safetyCar.setPosition(startX, startY);
+        vehicles.addIfAbsent(safetyCar);
+        cars.addIfAbsent(safetyCar);
     }
 }
@@ -12,8 +12,11 @@ import android.view.View;
 
 import androidx.annotation.NonNull;
 
+import com.example.myapplication.interfaces.DrawableCar;
 import com.example.myapplication.models.Car;
+import com.example.myapplication.utils.TrackGeometryCache;
 import com.example.mylibrary2.utils.MetricsCollector;
+import com.example.mylibrary2.utils.StepTimer;
 
 /**
  * A classe TrackView é responsável por renderizar a pista e os carros na tela.
@@ -21,11 +24,13 @@ import com.example.mylibrary2.utils.MetricsCollector;
 @SuppressLint("ViewConstructor")
 public class TrackView extends View {
 
-    private Car[] cars;                           // Array de carros para desenhar na pista
+    private DrawableCar[] cars;                   // Array de carros para desenhar na pista
+    private boolean collectCarMetrics = true;     // Desligado na reprodução de corridas gravadas
     private final Paint trackPaint = new Paint(); // Paint para desenhar a pista
     private Bitmap trackBitmap;                   // Bitmap da imagem da pista
-    private long lastUpdateTime;                  // Tempo da última atualização da tela
     private static final String TAG = "TrackView";
+    private static final long FRAME_PERIOD_NANOS = 16_666_667L; // Quadro esperado a 60 Hz
+    private final StepTimer frameTimer = new StepTimer(FRAME_PERIOD_NANOS); // Usado só pela thread de UI
 
     private final MetricsCollector metricsCollector; // Coleta de métricas de desempenho
 
@@ -39,8 +44,8 @@ public class TrackView extends View {
         super(context);
         this.cars = cars;
         this.metricsCollector = new MetricsCollector(context); // Passa o Context ao MetricsCollector
+        TrackGeometryCache.setCacheDir(context.getCacheDir());
         initializeTrackBitmap();
-        lastUpdateTime = System.currentTimeMillis();
     }
 
     /**
@@ -57,6 +62,20 @@ public class TrackView extends View {
         }
     }
 
+    /**
+     * Pré-calcula as estruturas da pista assim que o tamanho da tela é conhecido,
+     * já que a máscara de contorno depende da escala entre a imagem e a tela.
+     */
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (trackBitmap != null && w > 0 && h > 0) {
+            float scaleX = (float) trackBitmap.getWidth() / w;
+            float scaleY = (float) trackBitmap.getHeight() / h;
+            TrackGeometryCache.preloadAsync(trackBitmap, Car.CAR_WIDTH / 2, Car.CAR_HEIGHT / 2, scaleX, scaleY);
+        }
+    }
+
     /**
      * Método chamado para desenhar a pista e os carros na tela.
      */
@@ -68,6 +87,7 @@ public class TrackView extends View {
                 Log.e(TAG, "trackBitmap não foi carregado corretamente.");
                 return;
             }
+            frameTimer.startPeriodic(); // Liberação prevista do quadro, a partir do quadro anterior
             drawTrack(canvas);  // Desenha o fundo da pista
             drawCars(canvas);   // Desenha os carros na pista
 
@@ -92,23 +112,22 @@ public class TrackView extends View {
     }
 
     /**
-     * Desenha todos os carros na tela e atualiza suas posições.
+     * Desenha todos os carros na tela. As posições são atualizadas pelo SimulationEngine.
      *
      * @param canvas Canvas no qual os carros serão desenhados
      */
     private void drawCars(Canvas canvas) {
         try {
-            long currentTime = System.currentTimeMillis();
-            double deltaTime = (currentTime - lastUpdateTime) / 1000.0; // Delta time em segundos
-            lastUpdateTime = currentTime;
-
-            for (Car car : cars) {
+            DrawableCar[] carsToDraw = cars;
+            boolean withMetrics = collectCarMetrics;
+            for (DrawableCar car : carsToDraw) {
                 if (car != null) {
-                    car.move(deltaTime);  // Atualiza a posição do carro
                     car.draw(canvas);     // Desenha o carro
 
-                    // Coleta métricas para cada carro
-                    collectCarMetrics(car, deltaTime);
+                    // Coleta métricas para cada carro da corrida
+                    if (withMetrics) {
+                        collectCarMetrics(car);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -117,18 +136,18 @@ public class TrackView extends View {
     }
 
     /**
-     * Coleta métricas de desempenho para o carro atual.
+     * Coleta métricas de desenho para o carro atual: o jitter é o atraso do início do quadro em
+     * relação ao previsto e o tempo de resposta vai da liberação prevista até o carro ser desenhado.
      *
-     * @param car       Carro para o qual as métricas serão coletadas.
-     * @param deltaTime Tempo decorrido desde a última atualização.
+     * @param car Carro para o qual as métricas serão coletadas.
      */
-    private void collectCarMetrics(Car car, double deltaTime) {
+    private void collectCarMetrics(DrawableCar car) {
         try {
-            long jitter = (long) (Math.random() * 50); // Simula jitter
-            long responseTime = (long) (deltaTime * 1000); // Delta time em ms
-            double utilization = Math.random() * 100; // Simula utilização
+            frameTimer.end();
+            double utilization = 100.0 * frameTimer.getExecutionNanos() / FRAME_PERIOD_NANOS; // Fração do quadro já usada
 
-            metricsCollector.collectMetric(car.getName(), jitter, responseTime, utilization);
+            metricsCollector.collectMetricNanos(metricsCollector.registerTask(car.getName()),
+                    frameTimer.getStartNanos(), frameTimer.getJitterNanos(), frameTimer.getResponseNanos(), utilization);
         } catch (Exception e) {
             Log.e(TAG, "Erro ao coletar métricas para o carro " + car.getName(), e);
         }
@@ -140,7 +159,21 @@ public class TrackView extends View {
      * @param newCars Novo array de carros
      */
     public void updateCars(Car[] newCars) {
+        showCars(newCars, true);
+    }
+
+    /**
+     * Desenha os carros de uma corrida gravada, sem coletar métricas de desenho para eles.
+     *
+     * @param replayCars Carros da reprodução
+     */
+    public void showReplay(DrawableCar[] replayCars) {
+        showCars(replayCars, false);
+    }
+
+    private void showCars(DrawableCar[] newCars, boolean withMetrics) {
         try {
+            this.collectCarMetrics = withMetrics;
             this.cars = newCars;
             invalidate();
         } catch (Exception e) {
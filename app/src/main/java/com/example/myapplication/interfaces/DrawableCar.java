@@ -0,0 +1,24 @@
+// Caminho do arquivo: com/example/myapplication/interfaces/DrawableCar.java
+
+package com.example.myapplication.interfaces;
+
+import android.graphics.Canvas;
+
+/**
+ * Interface de um carro que o TrackView sabe desenhar: os carros da corrida e as suas
+ * representações apenas visuais (ex.: na reprodução de uma corrida gravada).
+ */
+public interface DrawableCar {
+
+    /**
+     * @return O nome do carro.
+     */
+    String getName();
+
+    /**
+     * Desenha o carro na posição e direção atuais.
+     *
+     * @param canvas Canvas no qual o carro será desenhado.
+     */
+    void draw(Canvas canvas);
+}
@@ -4,19 +4,26 @@ package com.example.myapplication.models;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.util.Log;
+import com.example.myapplication.interfaces.DrawableCar;
 import com.example.myapplication.interfaces.Vehicle;
+import com.example.myapplication.utils.CarSpatialIndex;
+import com.example.myapplication.utils.TrackGeometryCache;
 import com.example.mylibrary.utils.CalculationUtils;
 import com.example.mylibrary.utils.CarState;
+import com.example.mylibrary.utils.CarStateStore;
+import com.example.mylibrary.utils.TrackClearanceMask;
+import com.example.mylibrary.utils.TrackDistanceField;
+import com.example.mylibrary2.utils.EventTracer;
 import com.example.mylibrary2.utils.MetricsCollector; // Importação para coleta de métricas
-import com.example.mylibrary2.utils.RealTimeScheduler; // Importação para escalonamento de tarefas
+import com.example.mylibrary2.utils.PhaseProfiler;
+import com.example.mylibrary2.utils.StepTimer;
+import com.example.mylibrary2.utils.ThreadCpuSampler;
+import com.example.mylibrary2.utils.TimelineRecorder;
 import com.example.myapplication.Metrics;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Semaphore;
 
 /**
@@ -32,34 +39,51 @@ import java.util.concurrent.Semaphore;
  *   - Coleta métricas de desempenho e integra-se a um escalonador de tarefas.
  */
 
-public class Car implements Vehicle, Runnable, CarState {
+public class Car implements Vehicle, Runnable, CarState, DrawableCar {
     private final String name;
-    private float x, y;
-    private double direction;
-    private float speed;
+    private final CarStateStore state; // Estado cinemático em arrays compartilhados com os demais carros
+    private final int slot;            // Índice deste carro em `state`
     protected final float initialSpeed = 50.0f;
     public static final float CAR_WIDTH = 46;
     public static final float CAR_HEIGHT = 20;
     private final Paint carPaint;
-    private int distance;
-    private int penalty;
-    private int lapsCompleted;
     private final float startX;
     private final float startY;
     private volatile boolean isRunning = false;
     private volatile boolean isPaused = false;
-    private Bitmap trackBitmap;
+    private TrackClearanceMask clearanceMask; // Máscara "o carro cabe aqui" compartilhada entre os carros
+    private TrackDistanceField trackDistanceField; // Distâncias até a parede, usadas pelos sensores
     private final List<Car> otherCars;
+    private CarSpatialIndex spatialIndex; // Índice espacial compartilhado; se nulo, percorre `otherCars`
+    private int[] neighbourBuffer = new int[16];
+    private static final float LOOK_AHEAD_DISTANCE = 80;
+    // Margem para o deslocamento dos carros desde a última reconstrução do índice
+    private static final float SPATIAL_INDEX_MARGIN = 16;
     private float scaleX, scaleY;
     private static final String TAG = "CarMovement";
+    // Eventos dos trechos executados a cada passo, gravados sem alocação pelo EventTracer
+    private static final int EVENT_METRICS = EventTracer.register(EventTracer.VERBOSE, "Car",
+            "Métricas coletadas para {s}: Jitter={}ms, Tempo de resposta={}ms, Utilização={d}%");
+    private static final int EVENT_OUT_OF_FUEL = EventTracer.register(EventTracer.DEBUG, TAG,
+            "{s} está sem combustível. Parando o carro.");
+    private static final int EVENT_FUEL_EMPTIED = EventTracer.register(EventTracer.DEBUG, TAG,
+            "{s} está sem combustível. Chamando stopRace.");
+    private static final int EVENT_LAP = EventTracer.register(EventTracer.DEBUG, TAG, "{s} completou {} voltas.");
+    private static final int EVENT_PAUSED = EventTracer.register(EventTracer.DEBUG, TAG, "{s} está pausado.");
+    private static final int EVENT_RESUMED = EventTracer.register(EventTracer.DEBUG, TAG, "{s} retomou a corrida.");
+    protected final int traceNameId; // Nome do carro internado no EventTracer
 
     private Thread carThread;
+    private volatile boolean engineManaged = false; // Quando true, o SimulationEngine executa os passos do carro
+    private Car carAhead; // Resultado da fase de percepção, usado na fase de decisão
     private float accumulatedMoveX = 0;
     private float accumulatedMoveY = 0;
 
-    private int fuelTank;
     private final int initialFuel = 5000;
-    private final Map<Integer, Integer> sensor;
+    private static final int[] SENSOR_ANGLES = {0, 45, 90, 135, 180, 225, 270, 315};
+    private static final int SENSOR_RANGE = 100;
+    private final int[] sensor; // Leituras dos sensores, na mesma ordem de SENSOR_ANGLES
+    private final TrackDistanceField.FootprintProbe footprintProbe = (testX, testY) -> isOnTrack(testX, testY, getDirection());
 
     private static final Semaphore regionSemaphore = new Semaphore(1);
     private static final float CRITICAL_REGION_X_START = 120;
@@ -68,38 +92,71 @@ public class Car implements Vehicle, Runnable, CarState {
     private static final float CRITICAL_REGION_Y_END = 493;
 
     protected final MetricsCollector metricsCollector;
+    protected final int metricTaskId;  // Id do carro no MetricsCollector
+    protected static final long STEP_PERIOD_NANOS = 50_000_000L; // Período do passo quando o carro roda na própria thread
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    // Liberação, início e término do passo atual; escrito apenas pela thread que executa o passo
+    protected final StepTimer stepTimer = new StepTimer(STEP_PERIOD_NANOS);
+    // Tempo de cada etapa do passo, por carro; desligado por padrão
+    public static final int PHASE_SENSORS = 0;
+    public static final int PHASE_SPEED_AND_DIRECTION = 1;
+    public static final int PHASE_SEMAPHORE_WAIT = 2;
+    public static final int PHASE_MOVE = 3;
+    public static final int PHASE_LAP_CHECK = 4;
+    public static final PhaseProfiler PHASE_PROFILER =
+            new PhaseProfiler("sensores", "velocidade/direção", "semáforo", "movimento", "voltas");
+    protected final PhaseProfiler.Counters phaseCounters;
+    // Linha do tempo das threads da simulação (passos, semáforo, pausas); desligada por padrão
+    public static final TimelineRecorder TIMELINE = new TimelineRecorder(TimelineRecorder.DEFAULT_CAPACITY);
+    protected static final String TIMELINE_CATEGORY = "car";
+    private static final String TIMELINE_SEMAPHORE_WAIT = "espera do semáforo";
+    private static final String TIMELINE_SEMAPHORE_RELEASE = "semáforo liberado";
+    private static final String TIMELINE_PAUSE_CATEGORY = "car.pause";
+    private static final String TIMELINE_RESUME_CATEGORY = "car.resume";
+    protected ThreadCpuSampler cpuSampler; // Fonte da utilização medida; se nulo, a utilização é 0
+    private String cpuTaskName;            // Tarefa cujas threads executam os passos deste carro
     private long deadline; // Deadline do carro em milissegundos
 
     public Car(String name, float startX, float startY, int carColor, List<Car> otherCars, MetricsCollector metricsCollector) {
+        this(name, startX, startY, carColor, otherCars, metricsCollector, new CarStateStore(1));
+    }
+
+    /**
+     * Cria um carro cujo estado é mantido no armazenamento compartilhado informado.
+     *
+     * @param state Armazenamento em arrays onde o carro reserva o seu slot.
+     */
+    public Car(String name, float startX, float startY, int carColor, List<Car> otherCars,
+               MetricsCollector metricsCollector, CarStateStore state) {
         this.name = name;
-        this.x = startX;
-        this.y = startY;
+        this.state = state;
+        this.slot = state.allocate(name);
         this.startX = startX;
         this.startY = startY;
-        this.speed = initialSpeed;
         this.carPaint = new Paint();
         this.carPaint.setColor(carColor);
-        this.distance = 0;
-        this.penalty = 0;
-        this.lapsCompleted = 0;
-        this.fuelTank = initialFuel;
-        this.sensor = new HashMap<>();
+        state.setPosition(slot, startX, startY);
+        state.setSpeed(slot, initialSpeed);
+        state.setFuelTank(slot, initialFuel);
+        this.sensor = new int[SENSOR_ANGLES.length];
         this.otherCars = otherCars;
         this.metricsCollector = metricsCollector; // Assign passed MetricsCollector
+        this.metricTaskId = metricsCollector.registerTask(name);
+        this.phaseCounters = PHASE_PROFILER.counters(name);
+        this.traceNameId = EventTracer.internString(name);
     }
 
 
     @Override
     public void resetParameters() {
         // Redefine os valores iniciais para o carro
-        this.x = this.startX;
-        this.y = this.startY;
-        this.direction = 90; // Direção inicial (90 graus)
-        this.speed = this.initialSpeed; // Velocidade inicial
-        this.distance = 0; // Reinicia a distância
-        this.penalty = 0; // Remove penalidades
-        this.lapsCompleted = 0; // Zera as voltas completas
-        this.fuelTank = this.initialFuel; // Reabastece o tanque de combustível
+        state.setPosition(slot, this.startX, this.startY);
+        state.setHeading(slot, 90); // Direção inicial (90 graus)
+        state.setSpeed(slot, this.initialSpeed); // Velocidade inicial
+        state.setDistance(slot, 0); // Reinicia a distância
+        state.setPenalty(slot, 0); // Remove penalidades
+        state.setLapsCompleted(slot, 0); // Zera as voltas completas
+        state.setFuelTank(slot, this.initialFuel); // Reabastece o tanque de combustível
         this.accumulatedMoveX = 0; // Reinicia o movimento acumulado no eixo X
         this.accumulatedMoveY = 0; // Reinicia o movimento acumulado no eixo Y
         Log.d("Car", this.name + " resetou os parâmetros para os valores iniciais.");
@@ -107,23 +164,33 @@ public class Car implements Vehicle, Runnable, CarState {
 
     @Override
     public Metrics collectMetrics() {
-        // Calcula métricas como jitter, tempo de resposta e utilização
-        long jitter = System.currentTimeMillis() % 100; // Simulação de jitter
-        long responseTime = (long) (Math.random() * 500); // Simulação de tempo de resposta
-        double utilization = (speed / initialSpeed) * 100; // Exemplo de cálculo de utilização
+        // Jitter e tempo de resposta medidos no último passo concluído
+        long jitter = stepTimer.getJitterNanos() / NANOS_PER_MILLI;
+        long responseTime = stepTimer.getResponseNanos() / NANOS_PER_MILLI;
+        double utilization = getCpuUtilization();
 
-        Log.d("Car", "Métricas coletadas para " + name + ": Jitter=" + jitter +
-                "ms, Tempo de resposta=" + responseTime + "ms, Utilização=" + utilization + "%");
+        EventTracer.trace(EVENT_METRICS, traceNameId, jitter, responseTime, EventTracer.d(utilization));
 
         return new Metrics(jitter, responseTime, utilization);
     }
 
 
+    public void setSpatialIndex(CarSpatialIndex spatialIndex) {
+        this.spatialIndex = spatialIndex;
+    }
+
     public void setDeadline(long deadline) {
         this.deadline = deadline;
     }
 
 
+    /**
+     * Slot do carro no `CarStateStore` compartilhado.
+     */
+    public int getStateSlot() {
+        return slot;
+    }
+
     public long getDeadlineRemaining() {
         return Math.max(0, deadline - System.currentTimeMillis());
     }
@@ -134,84 +201,90 @@ public class Car implements Vehicle, Runnable, CarState {
         return name;
     }
 
+    /**
+     * Id do nome do carro no EventTracer, para eventos com `{s}`.
+     */
+    public int getTraceNameId() {
+        return traceNameId;
+    }
+
     @Override
     public float getX() {
-        return x;
+        return state.getX(slot);
     }
 
     @Override
     public float getY() {
-        return y;
+        return state.getY(slot);
     }
 
     @Override
     public double getDirection() {
-        return direction;
+        return state.getHeading(slot);
     }
 
     @Override
     public float getSpeed() {
-        return speed;
+        return state.getSpeed(slot);
     }
 
     @Override
     public int getFuelTank() {
-        return fuelTank;
+        return state.getFuelTank(slot);
     }
 
     @Override
     public int getDistance() {
-        return distance;
+        return state.getDistance(slot);
     }
 
     @Override
     public int getPenalty() {
-        return penalty;
+        return state.getPenalty(slot);
     }
 
     @Override
     public int getLapsCompleted() {
-        return lapsCompleted;
+        return state.getLapsCompleted(slot);
     }
 
     @Override
     public void setPosition(float x, float y) {
-        this.x = x;
-        this.y = y;
+        state.setPosition(slot, x, y);
     }
 
     @Override
     public void setDirection(double direction) {
-        this.direction = direction;
+        state.setHeading(slot, direction);
     }
 
     @Override
     public void setSpeed(float speed) {
-        this.speed = speed;
+        state.setSpeed(slot, speed);
     }
 
     @Override
     public void setFuelTank(int fuelTank) {
-        this.fuelTank = fuelTank;
+        state.setFuelTank(slot, fuelTank);
     }
 
     @Override
     public void setDistance(int distance) {
-        this.distance = distance;
+        state.setDistance(slot, distance);
     }
 
     @Override
     public void setPenalty(int penalty) {
-        this.penalty = penalty;
+        state.setPenalty(slot, penalty);
     }
 
     @Override
     public void setLapsCompleted(int lapsCompleted) {
-        this.lapsCompleted = lapsCompleted;
+        state.setLapsCompleted(slot, lapsCompleted);
     }
 
     public void resetFuel() {
-        this.fuelTank = initialFuel;
+        state.setFuelTank(slot, initialFuel);
     }
 
     public void setRunning(boolean running) {
@@ -225,16 +298,16 @@ public class Car implements Vehicle, Runnable, CarState {
             return;
         }
 
-        this.trackBitmap = trackBitmap;
         this.scaleX = (float) trackBitmap.getWidth() / trackWidth;
         this.scaleY = (float) trackBitmap.getHeight() / trackHeight;
+        this.trackDistanceField = TrackGeometryCache.getDistanceField(trackBitmap);
+        this.clearanceMask = TrackGeometryCache.getClearanceMask(trackBitmap, CAR_WIDTH / 2, CAR_HEIGHT / 2, scaleX, scaleY);
         isRunning = true;
         isPaused = false;
 
-        // Integrar com o RealTimeScheduler
-        RealTimeScheduler scheduler = new RealTimeScheduler();
-        long deadline = System.currentTimeMillis() + 5000; // Exemplo de deadline
-        scheduler.scheduleTask(getName(), deadline, Thread.NORM_PRIORITY, this::run);
+        if (engineManaged) {
+            return; // Os passos são executados pelo SimulationEngine, sem thread própria
+        }
 
         if (carThread == null || !carThread.isAlive()) {
             carThread = new Thread(this);
@@ -256,7 +329,10 @@ public class Car implements Vehicle, Runnable, CarState {
 
     @Override
     public void run() {
-        long lastUpdateTime = System.currentTimeMillis();
+        if (cpuSampler != null) {
+            cpuSampler.registerCurrentThread(name); // A thread própria é amostrada com o nome do carro
+        }
+        long lastStartNanos = System.nanoTime();
 
         while (isRunning) {
             try {
@@ -266,58 +342,173 @@ public class Car implements Vehicle, Runnable, CarState {
                     }
                 }
 
-                long currentTime = System.currentTimeMillis();
-                double deltaTime = (currentTime - lastUpdateTime) / 1000.0;
-                long jitter = currentTime - lastUpdateTime;
-                lastUpdateTime = currentTime;
-
-                boolean inCriticalRegion = isInCriticalRegion(x, y);
-                if (inCriticalRegion) {
-                    regionSemaphore.acquire();
-                }
-
-                if (fuelTank > 0) {
-                    updateSensors();
-                    manageSpeedAndDirection(deltaTime);
-                    move(deltaTime);
-                    checkLapCompletion();
-                } else {
-                    Log.d(TAG, name + " está sem combustível. Parando o carro.");
-                    stopRace();
+                stepTimer.startPeriodic(); // Liberação prevista a cada STEP_PERIOD_NANOS
+                double deltaTime = (stepTimer.getStartNanos() - lastStartNanos) / 1e9;
+                lastStartNanos = stepTimer.getStartNanos();
+
+                // Mesmas fases executadas pelo SimulationEngine, em sequência nesta thread
+                TIMELINE.begin(TIMELINE_CATEGORY, name);
+                try {
+                    senseStep();
+                    decideStep(deltaTime);
+                    integrateStep(deltaTime);
+                    resolveStep(deltaTime);
+                } finally {
+                    TIMELINE.end(TIMELINE_CATEGORY, name);
                 }
-
-                // Collect metrics using the instance passed to the constructor
-                metricsCollector.collectMetric(getName(), jitter, (long) (deltaTime * 1000), (long) speed);
-
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             } catch (Exception e) {
                 Log.e(TAG, "Erro no método run para o carro " + name, e);
-            } finally {
-                if (isInCriticalRegion(x, y) && regionSemaphore.availablePermits() == 0) {
-                    regionSemaphore.release();
-                }
             }
 
             try {
-                Thread.sleep(50); // Controle de taxa de atualização
+                stepTimer.sleepUntilNextRelease(); // Controle de taxa de atualização
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
+    }
+
+    /**
+     * Marca o início do passo deste carro em um ciclo liberado pelo escalonador.
+     * Chamado pelo SimulationEngine antes da fase de percepção.
+     *
+     * @param releaseNanos Liberação prevista do ciclo (`System.nanoTime`).
+     */
+    public void beginStep(long releaseNanos) {
+        stepTimer.start(releaseNanos);
+    }
+
+    /**
+     * Fase de percepção: lê os sensores e procura um carro à frente.
+     * Só lê o estado dos outros carros, por isso pode rodar em paralelo com a mesma fase deles.
+     */
+    public void senseStep() {
+        if (getFuelTank() > 0) {
+            long phaseStart = phaseCounters.start();
+            updateSensors();
+            carAhead = detectCarAhead();
+            phaseCounters.lap(PHASE_SENSORS, phaseStart);
+        } else {
+            carAhead = null;
+        }
+    }
 
-        // Export metrics at the end of the simulation
+    /**
+     * Fase de decisão: ajusta velocidade e direção a partir do resultado da percepção.
+     *
+     * @param deltaTime Passo de tempo em segundos.
+     */
+    public void decideStep(double deltaTime) {
+        if (getFuelTank() > 0) {
+            long phaseStart = phaseCounters.start();
+            manageSpeedAndDirection(deltaTime);
+            phaseCounters.lap(PHASE_SPEED_AND_DIRECTION, phaseStart);
+        }
+    }
+
+    /**
+     * Fase de integração: move o carro, respeitando o semáforo da região crítica da pista.
+     *
+     * @param deltaTime Passo de tempo em segundos.
+     * @throws InterruptedException Se a espera pelo semáforo for interrompida.
+     */
+    public void integrateStep(double deltaTime) throws InterruptedException {
+        if (getFuelTank() <= 0) {
+            EventTracer.trace(EVENT_OUT_OF_FUEL, traceNameId);
+            stopRace();
+            return;
+        }
+
+        long phaseStart = phaseCounters.start();
+        boolean acquired = false;
+        if (isInCriticalRegion(getX(), getY())) {
+            TIMELINE.begin(TIMELINE_CATEGORY, TIMELINE_SEMAPHORE_WAIT);
+            try {
+                regionSemaphore.acquire();
+            } finally {
+                TIMELINE.end(TIMELINE_CATEGORY, TIMELINE_SEMAPHORE_WAIT);
+            }
+            acquired = true;
+        }
+        phaseStart = phaseCounters.lap(PHASE_SEMAPHORE_WAIT, phaseStart);
         try {
-            metricsCollector.exportMetrics("car_metrics_" + getName() + ".csv");
-        } catch (Exception e) {
-            Log.e(TAG, "Erro ao exportar métricas", e);
+            move(deltaTime);
+        } finally {
+            if (acquired) {
+                regionSemaphore.release();
+                TIMELINE.instant(TIMELINE_CATEGORY, TIMELINE_SEMAPHORE_RELEASE);
+            }
         }
+        phaseCounters.lap(PHASE_MOVE, phaseStart);
+    }
+
+    /**
+     * Fase de resolução: verifica a conclusão de voltas e registra as métricas do passo.
+     *
+     * @param deltaTime Passo de tempo em segundos.
+     */
+    public void resolveStep(double deltaTime) {
+        if (getFuelTank() > 0) {
+            long phaseStart = phaseCounters.start();
+            checkLapCompletion();
+            phaseCounters.lap(PHASE_LAP_CHECK, phaseStart);
+        }
+        recordStepMetrics(getCpuUtilization());
+    }
+
+    /**
+     * Utilização do processador medida para as threads que executam os passos deste carro.
+     */
+    protected double getCpuUtilization() {
+        return cpuSampler == null ? 0.0 : cpuSampler.getUtilization(cpuTaskName);
+    }
+
+    /**
+     * Encerra o passo atual e registra o jitter e o tempo de resposta medidos em relação à liberação prevista.
+     */
+    protected void recordStepMetrics(double processorUtilization) {
+        stepTimer.end();
+        metricsCollector.collectStep(metricTaskId, stepTimer, processorUtilization);
+    }
+
+    /**
+     * Indica se o carro deve ser atualizado neste ciclo (em corrida e não pausado).
+     */
+    public boolean isActive() {
+        return isRunning && !isPaused;
+    }
+
+    /**
+     * Define se o carro é atualizado pelo SimulationEngine em vez de uma thread própria.
+     * Deve ser chamado antes de `startRace`.
+     */
+    public void setEngineManaged(boolean engineManaged) {
+        this.engineManaged = engineManaged;
+    }
+
+    /**
+     * Define o amostrador de CPU usado nas métricas de utilização do carro.
+     *
+     * @param cpuSampler  Amostrador compartilhado.
+     * @param cpuTaskName Tarefa das threads que executam os passos: o ciclo do SimulationEngine, ou
+     *                    o próprio nome do carro quando ele roda na sua thread.
+     */
+    public void setCpuSampler(ThreadCpuSampler cpuSampler, String cpuTaskName) {
+        this.cpuSampler = cpuSampler;
+        this.cpuTaskName = cpuTaskName;
+    }
+
+    protected boolean isEngineManaged() {
+        return engineManaged;
     }
 
     @Override
     public synchronized void pauseRace() {
         this.isPaused = true;
-        Log.d(TAG, name + " está pausado.");
+        EventTracer.trace(EVENT_PAUSED, traceNameId);
+        TIMELINE.instant(TIMELINE_PAUSE_CATEGORY, name);
     }
 
     @Override
@@ -325,7 +516,8 @@ public class Car implements Vehicle, Runnable, CarState {
         if (isPaused) {
             isPaused = false;
             notifyAll();
-            Log.d(TAG, name + " retomou a corrida.");
+            EventTracer.trace(EVENT_RESUMED, traceNameId);
+            TIMELINE.instant(TIMELINE_RESUME_CATEGORY, name);
         }
     }
 
@@ -344,92 +536,130 @@ public class Car implements Vehicle, Runnable, CarState {
     }
 
     private void updateSensors() {
-        sensor.clear();
-        int[] angles = {0, 45, 90, 135, 180, 225, 270, 315};
-        for (int angle : angles) {
-            int distance = measureDistanceInDirection(angle);
-            sensor.put(angle, distance);
+        for (int i = 0; i < SENSOR_ANGLES.length; i++) {
+            sensor[i] = measureDistanceInDirection(SENSOR_ANGLES[i]);
         }
     }
 
     private int measureDistanceInDirection(int angle) {
-        float testX = x, testY = y;
-        int maxDistance = 100;
-        for (int d = 1; d <= maxDistance; d++) {
-            testX = x + (float) (Math.cos(Math.toRadians(direction + angle)) * d);
-            testY = y + (float) (Math.sin(Math.toRadians(direction + angle)) * d);
-
-            if (!isOnTrack(testX, testY)) {
-                penalty++;
-                return d;
+        // Seno e cosseno calculados uma vez por raio, e não a cada passo
+        float x = getX();
+        float y = getY();
+        double heading = getDirection();
+        double radians = Math.toRadians(heading + angle);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+
+        int hit = -1;
+        if (trackDistanceField != null) {
+            hit = trackDistanceField.castRay(x, y, cos, sin, SENSOR_RANGE, scaleX, scaleY, CAR_WIDTH / 2, footprintProbe);
+        } else {
+            for (int d = 1; d <= SENSOR_RANGE; d++) {
+                if (!isOnTrack(x + (float) (cos * d), y + (float) (sin * d), heading)) {
+                    hit = d;
+                    break;
+                }
             }
         }
-        return maxDistance;
+
+        if (hit < 0) {
+            return SENSOR_RANGE;
+        }
+        state.addPenalty(slot, 1);
+        return hit;
     }
 
     /**
      * Gerencia a velocidade e direção do carro, considerando possíveis carros à frente.
      */
     private void manageSpeedAndDirection(double deltaTime) {
-        Car carAhead = detectCarAhead();
+        Car carAhead = this.carAhead;
 
         float maxSpeed = 150.0f;
         if (carAhead != null) {
             if (canOvertake(carAhead)) {
                 adjustDirectionToOvertake(carAhead);
-                speed = Math.min(speed + 5 * (float) deltaTime, maxSpeed);
+                setSpeed(Math.min(getSpeed() + 5 * (float) deltaTime, maxSpeed));
             } else {
                 slowDownSmoothly();
             }
         } else {
-            speed = Math.min(speed + 2 * (float) deltaTime, maxSpeed);
+            setSpeed(Math.min(getSpeed() + 2 * (float) deltaTime, maxSpeed));
         }
     }
 
     private Car detectCarAhead() {
-        for (Car otherCar : otherCars) {
-            if (otherCar != this && isCarInFront(otherCar) && isWithinStoppingDistance(otherCar)) {
-                return otherCar;
+        if (spatialIndex == null) {
+            for (Car otherCar : otherCars) {
+                if (otherCar != this && isCarInFront(otherCar) && isWithinStoppingDistance(otherCar)) {
+                    return otherCar;
+                }
             }
+            return null;
         }
-        return null;
+
+        // Consulta apenas as células vizinhas; entre os candidatos, mantém a ordem da lista de carros
+        CarSpatialIndex.Snapshot snapshot = spatialIndex.acquire();
+        float x = getX();
+        float y = getY();
+        float radius = LOOK_AHEAD_DISTANCE + SPATIAL_INDEX_MARGIN;
+        int found = snapshot.query(x, y, radius, neighbourBuffer);
+        if (found > neighbourBuffer.length) {
+            neighbourBuffer = new int[Integer.highestOneBit(found) << 1];
+            found = snapshot.query(x, y, radius, neighbourBuffer);
+        }
+
+        int bestIndex = Integer.MAX_VALUE;
+        for (int i = 0; i < found; i++) {
+            int index = neighbourBuffer[i];
+            Car otherCar = snapshot.getCar(index);
+            if (index < bestIndex && otherCar != this && isCarInFront(otherCar) && isWithinStoppingDistance(otherCar)) {
+                bestIndex = index;
+            }
+        }
+        return bestIndex == Integer.MAX_VALUE ? null : snapshot.getCar(bestIndex);
     }
 
     private boolean isWithinStoppingDistance(Car otherCar) {
-        float distanceToOtherCar = CalculationUtils.calculateDistance(this.x, this.y, otherCar.getX(), otherCar.getY());
-        return distanceToOtherCar < CAR_WIDTH * 2;
+        float distanceSquared = CalculationUtils.calculateDistanceSquared(getX(), getY(), otherCar.getX(), otherCar.getY());
+        return distanceSquared < (CAR_WIDTH * 2) * (CAR_WIDTH * 2);
     }
 
     private boolean isCarInFront(Car otherCar) {
-        float distanceToOtherCar = CalculationUtils.calculateDistance(this.x, this.y, otherCar.getX(), otherCar.getY());
-        return distanceToOtherCar < 80 && distanceToOtherCar > 0;
+        float distanceSquared = CalculationUtils.calculateDistanceSquared(getX(), getY(), otherCar.getX(), otherCar.getY());
+        return distanceSquared < LOOK_AHEAD_DISTANCE * LOOK_AHEAD_DISTANCE && distanceSquared > 0;
     }
 
     private boolean canOvertake(Car carAhead) {
-        return Math.abs(this.y - carAhead.getY()) > CAR_HEIGHT * 1.5 && isClearPathForOvertake(carAhead);
+        return Math.abs(getY() - carAhead.getY()) > CAR_HEIGHT * 1.5 && isClearPathForOvertake(carAhead);
     }
 
     private boolean isClearPathForOvertake(Car carAhead) {
         float offset = CAR_WIDTH * 2;
-        float potentialY = this.y > carAhead.getY() ? carAhead.getY() - offset : carAhead.getY() + offset;
-        return isOnTrack(this.x, potentialY);
+        float potentialY = getY() > carAhead.getY() ? carAhead.getY() - offset : carAhead.getY() + offset;
+        return isOnTrack(getX(), potentialY, getDirection());
     }
 
     private void adjustDirectionToOvertake(Car carAhead) {
-        if (this.y > carAhead.getY()) {
-            direction += 5;
+        if (getY() > carAhead.getY()) {
+            setDirection(getDirection() + 5);
         } else {
-            direction -= 5;
+            setDirection(getDirection() - 5);
         }
     }
 
     private void slowDownSmoothly() {
         float minSpeed = 25.0f;
-        speed = Math.max(speed - 5, minSpeed);
+        setSpeed(Math.max(getSpeed() - 5, minSpeed));
     }
 
     public void move(double deltaTime) {
-        if (isPaused || fuelTank <= 0) return;
+        if (isPaused || getFuelTank() <= 0) return;
+
+        float x = getX();
+        float y = getY();
+        double direction = getDirection();
+        float speed = getSpeed();
 
         // Calcula o deslocamento direto baseado em direção, velocidade e deltaTime
         float moveX = (float) Math.cos(Math.toRadians(direction)) * (float) deltaTime * speed;
@@ -439,35 +669,36 @@ public class Car implements Vehicle, Runnable, CarState {
         float targetX = x + moveX;
         float targetY = y + moveY;
 
-        boolean canMoveX = isOnTrack(targetX, y);
-        boolean canMoveY = isOnTrack(x, targetY);
+        boolean canMoveX = isOnTrack(targetX, y, direction);
+        boolean canMoveY = isOnTrack(x, targetY, direction);
 
         // Atualiza a posição X e Y, se permitido
         if (canMoveX) {
-            x = targetX;
-            distance += Math.abs(moveX);
+            state.setX(slot, targetX);
+            state.setDistance(slot, (int) (state.getDistance(slot) + Math.abs(moveX)));
             consumeFuel();
         } else {
-            penalty++;
+            state.addPenalty(slot, 1);
             adjustDirection();
         }
 
         if (canMoveY) {
-            y = targetY;
-            distance += Math.abs(moveY);
+            state.setY(slot, targetY);
+            state.setDistance(slot, (int) (state.getDistance(slot) + Math.abs(moveY)));
             consumeFuel();
         } else {
-            penalty++;
+            state.addPenalty(slot, 1);
             adjustDirection();
         }
     }
 
     private void consumeFuel() {
+        int fuelTank = getFuelTank();
         if (fuelTank > 0) {
             fuelTank -= 0.1;
+            state.setFuelTank(slot, Math.max(fuelTank, 0));
             if (fuelTank <= 0) {
-                fuelTank = 0;
-                Log.d(TAG, name + " está sem combustível. Chamando stopRace.");
+                EventTracer.trace(EVENT_FUEL_EMPTIED, traceNameId);
                 stopRace();
             }
         }
@@ -475,57 +706,56 @@ public class Car implements Vehicle, Runnable, CarState {
 
     private void checkLapCompletion() {
         if (isNearStart()) {
-            lapsCompleted++;
-            Log.d(TAG, name + " completou " + lapsCompleted + " voltas.");
+            int lapsCompleted = getLapsCompleted() + 1;
+            state.setLapsCompleted(slot, lapsCompleted);
+            EventTracer.trace(EVENT_LAP, traceNameId, lapsCompleted);
         }
     }
 
     private boolean isNearStart() {
-        float distanceToStart = CalculationUtils.calculateDistance(this.x, this.y, startX, startY);
-        return distanceToStart < CAR_WIDTH;
+        return CalculationUtils.calculateDistanceSquared(getX(), getY(), startX, startY) < CAR_WIDTH * CAR_WIDTH;
     }
 
+    @Override
     public void draw(Canvas canvas) {
         canvas.save();
-        canvas.translate(x, y);
-        canvas.rotate((float) direction, CAR_WIDTH / 2, CAR_HEIGHT / 2);
+        canvas.translate(getX(), getY());
+        canvas.rotate((float) getDirection(), CAR_WIDTH / 2, CAR_HEIGHT / 2);
         RectF rect = new RectF(-CAR_WIDTH / 2, -CAR_HEIGHT / 2, CAR_WIDTH / 2, CAR_HEIGHT / 2);
         canvas.drawRect(rect, carPaint);
         canvas.restore();
     }
 
+    /**
+     * Teste exato de colisão entre os retângulos orientados dos dois carros.
+     */
     public boolean checkCollision(Car otherCar) {
-        return CalculationUtils.calculateDistance(this.x, this.y, otherCar.getX(), otherCar.getY()) < CAR_WIDTH;
+        return CalculationUtils.orientedBoxesOverlap(getX(), getY(), getDirection(),
+                otherCar.getX(), otherCar.getY(), otherCar.getDirection(), CAR_WIDTH / 2, CAR_HEIGHT / 2);
     }
 
-    private boolean isOnTrack(float testX, float testY) {
-        return trackBitmap != null &&
-                isPointOnTrack(testX, testY) &&
-                isPointOnTrack(testX + CAR_WIDTH / 2, testY) &&
-                isPointOnTrack(testX - CAR_WIDTH / 2, testY) &&
-                isPointOnTrack(testX, testY + CAR_HEIGHT / 2) &&
-                isPointOnTrack(testX, testY - CAR_HEIGHT / 2);
+    /**
+     * Registra um contato novo com outro carro, detectado pelo passo de colisões da simulação,
+     * somando uma penalidade.
+     */
+    public void registerCollision() {
+        state.addPenalty(slot, 1);
     }
 
-    private boolean isPointOnTrack(float testX, float testY) {
-        if (trackBitmap == null) {
-            Log.e(TAG, "trackBitmap é null ao tentar acessar isPointOnTrack para o carro " + name);
+    /**
+     * Verifica se o contorno do carro cabe na pista, com um único teste na máscara pré-calculada.
+     */
+    private boolean isOnTrack(float testX, float testY, double heading) {
+        if (clearanceMask == null) {
+            Log.e(TAG, "clearanceMask é null ao tentar acessar isOnTrack para o carro " + name);
             return false;
         }
-
-        int bitmapX = (int) (testX * scaleX);
-        int bitmapY = (int) (testY * scaleY);
-
-        if (bitmapX >= 0 && bitmapX < trackBitmap.getWidth() && bitmapY >= 0 && bitmapY < trackBitmap.getHeight()) {
-            int pixelColor = trackBitmap.getPixel(bitmapX, bitmapY);
-            return pixelColor == Color.WHITE;
-        }
-        return false;
+        return clearanceMask.fits((int) (testX * scaleX), (int) (testY * scaleY), heading);
     }
 
     private void adjustDirection() {
         double adjustmentAngle = 10.0;
-        double initialDirection = direction;
+        double initialDirection = getDirection();
 
         for (int i = 1; i <= 9; i++) {
             double newDirection = initialDirection + i * adjustmentAngle;
@@ -541,11 +771,11 @@ public class Car implements Vehicle, Runnable, CarState {
     }
 
     private boolean tryDirection(double newDirection) {
-        float forwardX = x + (float) Math.cos(Math.toRadians(newDirection)) * 5;
-        float forwardY = y + (float) Math.sin(Math.toRadians(newDirection)) * 5;
+        float forwardX = getX() + (float) Math.cos(Math.toRadians(newDirection)) * 5;
+        float forwardY = getY() + (float) Math.sin(Math.toRadians(newDirection)) * 5;
 
-        if (isOnTrack(forwardX, forwardY)) {
-            direction = newDirection;
+        if (isOnTrack(forwardX, forwardY, newDirection)) {
+            setDirection(newDirection);
             return true;
         }
         return false;
@@ -0,0 +1,53 @@
+package com.example.myapplication.models;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import com.example.myapplication.interfaces.DrawableCar;
+import com.example.mylibrary.utils.CarStateStore;
+
+/**
+ * A classe ReplayCar é a representação apenas visual de um carro na reprodução de uma corrida
+ * gravada: desenha o estado do seu slot no `CarStateStore` preenchido pelo `ReplayDriver`.
+ * Diferente de `Car`, não tem sensores, threads nem métricas, e não registra nada no estado da
+ * simulação em andamento.
+ */
+public class ReplayCar implements DrawableCar {
+
+    private final String name;
+    private final int slot;
+    private final CarStateStore state;
+    private final Paint carPaint = new Paint();
+    private final RectF rect = new RectF(-Car.CAR_WIDTH / 2, -Car.CAR_HEIGHT / 2, Car.CAR_WIDTH / 2, Car.CAR_HEIGHT / 2);
+
+    /**
+     * @param name     Nome do carro.
+     * @param slot     Slot do carro no armazenamento da reprodução.
+     * @param state    Armazenamento preenchido pelo `ReplayDriver`.
+     * @param carColor Cor do carro.
+     */
+    public ReplayCar(String name, int slot, CarStateStore state, int carColor) {
+        this.name = name;
+        this.slot = slot;
+        this.state = state;
+        this.carPaint.setColor(carColor);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Desenha o carro como `Car.draw`, na posição e direção gravadas.
+     */
+    @Override
+    public void draw(Canvas canvas) {
+        canvas.save();
+        canvas.translate(state.getX(slot), state.getY(slot));
+        canvas.rotate((float) state.getHeading(slot), Car.CAR_WIDTH / 2, Car.CAR_HEIGHT / 2);
+        canvas.drawRect(rect, carPaint);
+        canvas.restore();
+    }
+}
@@ -3,8 +3,9 @@ package com.example.myapplication.models;
 import android.graphics.Bitmap;
 import android.util.Log;
 
+import com.example.mylibrary.utils.CarStateStore;
+import com.example.mylibrary2.utils.EventTracer;
 import com.example.mylibrary2.utils.MetricsCollector;
-import com.example.mylibrary2.utils.RealTimeScheduler;
 
 /**
  * Classe que estende `Car` e representa o carro de segurança na pista.
@@ -13,9 +14,14 @@ import com.example.mylibrary2.utils.RealTimeScheduler;
 public class SafetyCar extends Car {
 
     private static final String TAG = "SafetyCar";
+    private static final int EVENT_MOVED = EventTracer.register(EventTracer.VERBOSE, TAG,
+            "{s} moveu com métricas coletadas.");
+    private static final int EVENT_PAUSED = EventTracer.register(EventTracer.DEBUG, TAG,
+            "{s} está pausado como Safety Car.");
+    private static final int EVENT_RESUMED = EventTracer.register(EventTracer.DEBUG, TAG,
+            "{s} retomou a corrida como Safety Car.");
     private Thread safetyCarThread; // Thread dedicada para o Safety Car
     private volatile boolean isSafetyCarRunning = false; // Controle para execução da thread
-    private final RealTimeScheduler scheduler; // Escalonador para gerenciar tarefas críticas
 
     /**
      * Construtor do SafetyCar.
@@ -27,8 +33,17 @@ public class SafetyCar extends Car {
      * @param metricsCollector Coletor de métricas compartilhado
      */
     public SafetyCar(String name, float startX, float startY, int carColor, MetricsCollector metricsCollector) {
-        super(name, startX, startY, carColor, null, metricsCollector); // Passa null para lista de outros carros
-        this.scheduler = new RealTimeScheduler(); // Inicializa o escalonador
+        this(name, startX, startY, carColor, metricsCollector, new CarStateStore(1));
+    }
+
+    /**
+     * Construtor do SafetyCar com o estado mantido em um armazenamento compartilhado.
+     *
+     * @param state Armazenamento em arrays onde o SafetyCar reserva o seu slot.
+     */
+    public SafetyCar(String name, float startX, float startY, int carColor, MetricsCollector metricsCollector,
+                     CarStateStore state) {
+        super(name, startX, startY, carColor, null, metricsCollector, state); // Passa null para lista de outros carros
     }
 
     @Override
@@ -36,13 +51,9 @@ public class SafetyCar extends Car {
         try {
             super.startRace(trackBitmap, trackWidth, trackHeight);
 
-            // Adiciona tarefa ao escalonador com alta prioridade e deadline curto
-            scheduler.scheduleTask(
-                    "SafetyCar Movement",
-                    System.currentTimeMillis() + 5000, // Deadline de 5 segundos
-                    10, // Alta prioridade
-                    this::collectAndMove // Ação a ser executada
-            );
+            if (isEngineManaged()) {
+                return; // Movido pelo SimulationEngine junto com os demais carros
+            }
 
             if (safetyCarThread == null || !safetyCarThread.isAlive()) {
                 isSafetyCarRunning = true;
@@ -57,8 +68,9 @@ public class SafetyCar extends Car {
 
     @Override
     public void run() {
-        long lastUpdateTime = System.currentTimeMillis();
-
+        if (cpuSampler != null) {
+            cpuSampler.registerCurrentThread(getName());
+        }
         while (isSafetyCarRunning) {
             try {
                 if (isPaused()) {
@@ -66,14 +78,15 @@ public class SafetyCar extends Car {
                     continue;
                 }
 
-                long currentTime = System.currentTimeMillis();
-                double deltaTime = (currentTime - lastUpdateTime) / 1000.0;
-                lastUpdateTime = currentTime;
-
-                // Coleta métricas antes de mover
-                collectAndMove();
+                stepTimer.startPeriodic(); // Liberação prevista a cada STEP_PERIOD_NANOS
+                TIMELINE.begin(TIMELINE_CATEGORY, getName());
+                try {
+                    collectAndMove();
+                } finally {
+                    TIMELINE.end(TIMELINE_CATEGORY, getName());
+                }
 
-                Thread.sleep(50); // Taxa de atualização do movimento
+                stepTimer.sleepUntilNextRelease(); // Taxa de atualização do movimento
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 Log.e(TAG, "Thread do Safety Car interrompida", e);
@@ -85,21 +98,42 @@ public class SafetyCar extends Car {
 
     private void collectAndMove() {
         try {
-            long jitter = System.currentTimeMillis() % 100; // Exemplo de cálculo de jitter
-            long responseTime = (long) (Math.random() * 200); // Simula tempo de resposta
-            double utilization = Math.random() * 100; // Simula utilização do processador
-
-            // Adiciona métricas ao coletor
-            metricsCollector.collectMetric(getName(), jitter, responseTime, utilization);
-
             // Move o Safety Car
+            long phaseStart = phaseCounters.start();
             move(0.05); // Passa deltaTime simulado
-            Log.d(TAG, getName() + " moveu com métricas coletadas.");
+            phaseCounters.lap(PHASE_MOVE, phaseStart);
+
+            // Registra o jitter e o tempo de resposta do passo, medidos após o movimento
+            recordStepMetrics(getCpuUtilization());
+            EventTracer.trace(EVENT_MOVED, traceNameId);
         } catch (Exception e) {
             Log.e(TAG, "Erro ao coletar métricas ou mover o Safety Car", e);
         }
     }
 
+    /**
+     * O Safety Car não usa sensores nem decide a direção: apenas segue em frente.
+     */
+    @Override
+    public void senseStep() {
+    }
+
+    @Override
+    public void decideStep(double deltaTime) {
+    }
+
+    @Override
+    public void integrateStep(double deltaTime) {
+        long phaseStart = phaseCounters.start();
+        move(deltaTime);
+        phaseCounters.lap(PHASE_MOVE, phaseStart);
+    }
+
+    @Override
+    public void resolveStep(double deltaTime) {
+        recordStepMetrics(getCpuUtilization());
+    }
+
     @Override
     public void stopRace() {
         super.stopRace();
@@ -108,26 +142,18 @@ public class SafetyCar extends Car {
             safetyCarThread.interrupt();
             Log.d(TAG, getName() + " finalizou a corrida como Safety Car.");
         }
-
-        // Exporta métricas coletadas
-        try {
-            metricsCollector.exportMetrics("safety_car_metrics.csv");
-            Log.d(TAG, "Métricas exportadas para 'safety_car_metrics.csv'.");
-        } catch (Exception e) {
-            Log.e(TAG, "Erro ao exportar métricas do Safety Car", e);
-        }
     }
 
     @Override
     public void pauseRace() {
         super.pauseRace();
-        Log.d(TAG, getName() + " está pausado como Safety Car.");
+        EventTracer.trace(EVENT_PAUSED, traceNameId);
     }
 
     @Override
     public void resumeRace() {
         super.resumeRace();
-        Log.d(TAG, getName() + " retomou a corrida como Safety Car.");
+        EventTracer.trace(EVENT_RESUMED, traceNameId);
     }
 
     public void resetParameters() {
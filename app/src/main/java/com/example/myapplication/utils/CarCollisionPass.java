@@ -0,0 +1,94 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Car;
+import com.example.mylibrary.utils.SweepAndPrune;
+
+import java.util.Arrays;
+
+/**
+ * Passo de colisões executado uma vez por ciclo da simulação.
+ * A fase ampla usa ordenação e varredura ({@link SweepAndPrune}) sobre as caixas alinhadas aos eixos
+ * de cada carro; a fase exata testa os retângulos orientados de `CAR_WIDTH` × `CAR_HEIGHT`.
+ * Cada contato novo é reportado aos dois carros envolvidos, que somam uma penalidade;
+ * contatos que persistem entre ciclos não são penalizados novamente.
+ */
+public class CarCollisionPass {
+
+    private final SweepAndPrune broadphase = new SweepAndPrune();
+
+    private Car[] cars = new Car[0];
+    private float[] minX = new float[0];
+    private float[] maxX = new float[0];
+    private float[] minY = new float[0];
+    private float[] maxY = new float[0];
+
+    private long[] contacts = new long[16];         // Contatos do ciclo atual (pares codificados)
+    private int contactCount;
+    private long[] previousContacts = new long[16]; // Contatos do ciclo anterior, ordenados
+    private int previousContactCount;
+
+    private final SweepAndPrune.PairConsumer narrowphase = this::testPair;
+
+    /**
+     * Executa o passo de colisões sobre os carros informados.
+     *
+     * @param carsInRace Carros da corrida; a posição de cada carro no array identifica seus contatos.
+     * @return Número de contatos novos neste ciclo.
+     */
+    public synchronized int run(Car[] carsInRace) {
+        int count = carsInRace.length;
+        if (count != cars.length) {
+            minX = new float[count];
+            maxX = new float[count];
+            minY = new float[count];
+            maxY = new float[count];
+            previousContactCount = 0;
+        }
+        cars = carsInRace;
+
+        float halfLength = Car.CAR_WIDTH / 2;
+        float halfWidth = Car.CAR_HEIGHT / 2;
+        for (int i = 0; i < count; i++) {
+            Car car = carsInRace[i];
+            double radians = Math.toRadians(car.getDirection());
+            float cos = Math.abs((float) Math.cos(radians));
+            float sin = Math.abs((float) Math.sin(radians));
+            float extentX = cos * halfLength + sin * halfWidth;
+            float extentY = sin * halfLength + cos * halfWidth;
+            minX[i] = car.getX() - extentX;
+            maxX[i] = car.getX() + extentX;
+            minY[i] = car.getY() - extentY;
+            maxY[i] = car.getY() + extentY;
+        }
+
+        contactCount = 0;
+        broadphase.findOverlaps(minX, maxX, minY, maxY, count, narrowphase);
+
+        // Apenas os contatos que não existiam no ciclo anterior geram penalidade
+        Arrays.sort(contacts, 0, contactCount);
+        int newContacts = 0;
+        for (int i = 0; i < contactCount; i++) {
+            long key = contacts[i];
+            if (Arrays.binarySearch(previousContacts, 0, previousContactCount, key) < 0) {
+                carsInRace[(int) (key >>> 32)].registerCollision();
+                carsInRace[(int) key].registerCollision();
+                newContacts++;
+            }
+        }
+
+        long[] swap = previousContacts;
+        previousContacts = contacts;
+        previousContactCount = contactCount;
+        contacts = swap;
+        return newContacts;
+    }
+
+    private void testPair(int first, int second) {
+        if (cars[first].checkCollision(cars[second])) {
+            if (contactCount == contacts.length) {
+                contacts = Arrays.copyOf(contacts, contactCount * 2);
+            }
+            contacts[contactCount++] = ((long) first << 32) | second;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Car;
+import com.example.mylibrary.utils.SpatialHashGrid;
+
+import java.util.List;
+
+/**
+ * Índice espacial compartilhado pelos carros de uma corrida.
+ * Mantém um instantâneo imutável (carros + grade de hash espacial) que é reconstruído,
+ * no máximo, uma vez por ciclo de atualização, pelo primeiro carro que o consultar.
+ */
+public class CarSpatialIndex {
+
+    /** Tamanho da célula, igual ao alcance com que um carro procura outro à sua frente. */
+    public static final float CELL_SIZE = 80f;
+    private static final long REFRESH_INTERVAL_NANOS = 50_000_000L; // Mesmo período do ciclo dos carros
+
+    /**
+     * Instantâneo das posições dos carros e da grade construída sobre elas.
+     */
+    public static class Snapshot {
+        private final Car[] cars;
+        private final SpatialHashGrid grid;
+        private final long builtAtNanos;
+
+        Snapshot(Car[] cars, SpatialHashGrid grid, long builtAtNanos) {
+            this.cars = cars;
+            this.grid = grid;
+            this.builtAtNanos = builtAtNanos;
+        }
+
+        /**
+         * Consulta os índices dos carros próximos ao ponto (ver {@link SpatialHashGrid#query}).
+         */
+        public int query(float x, float y, float radius, int[] out) {
+            return grid.query(x, y, radius, out);
+        }
+
+        public Car getCar(int index) {
+            return cars[index];
+        }
+
+        public int size() {
+            return cars.length;
+        }
+    }
+
+    private final List<Car> cars;
+    private volatile Snapshot snapshot;
+
+    public CarSpatialIndex(List<Car> cars) {
+        this.cars = cars;
+    }
+
+    /**
+     * Retorna o instantâneo atual, reconstruindo-o se já tiver passado um ciclo desde a última construção.
+     *
+     * @return Instantâneo com as posições dos carros.
+     */
+    public Snapshot acquire() {
+        Snapshot current = snapshot;
+        if (current == null || System.nanoTime() - current.builtAtNanos >= REFRESH_INTERVAL_NANOS) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || System.nanoTime() - current.builtAtNanos >= REFRESH_INTERVAL_NANOS) {
+                    current = rebuild();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reconstrói o instantâneo imediatamente com as posições atuais dos carros.
+     *
+     * @return O novo instantâneo.
+     */
+    public synchronized Snapshot rebuild() {
+        Car[] carArray = cars.toArray(new Car[0]);
+        float[] xs = new float[carArray.length];
+        float[] ys = new float[carArray.length];
+        for (int i = 0; i < carArray.length; i++) {
+            xs[i] = carArray[i].getX();
+            ys[i] = carArray[i].getY();
+        }
+
+        // Cada instantâneo tem a sua própria grade, já que consultas do ciclo anterior ainda podem estar em andamento
+        SpatialHashGrid grid = new SpatialHashGrid(CELL_SIZE);
+        grid.rebuild(xs, ys, carArray.length);
+        snapshot = new Snapshot(carArray, grid, System.nanoTime());
+        return snapshot;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.myapplication.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.util.Log;
+
+import com.example.mylibrary.utils.TrackClearanceMask;
+import com.example.mylibrary.utils.TrackDistanceField;
+import com.example.mylibrary.utils.TrackOccupancyGrid;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Cache compartilhado das estruturas derivadas da imagem da pista.
+ * A grade de ocupação, o campo de distâncias e a máscara de contorno do carro são construídos
+ * uma única vez por bitmap e reutilizados por todos os carros. A máscara de contorno também
+ * é gravada no diretório de cache, usando o hash da pista como chave.
+ */
+public class TrackGeometryCache {
+
+    private static final String TAG = "TrackGeometryCache";
+    private static final int HEADING_BUCKETS = 16; // Setores de 22,5 graus para a direção do carro
+
+    private static Bitmap cachedBitmap;
+    private static TrackOccupancyGrid cachedGrid;
+    private static TrackDistanceField cachedDistanceField;
+    private static TrackClearanceMask cachedClearanceMask;
+    private static File cacheDir;
+
+    /**
+     * Define o diretório onde as máscaras de contorno são gravadas entre execuções.
+     *
+     * @param dir Diretório de cache da aplicação.
+     */
+    public static synchronized void setCacheDir(File dir) {
+        cacheDir = dir;
+    }
+
+    /**
+     * Obtém a grade de ocupação da pista, construindo-a na primeira chamada para o bitmap informado.
+     *
+     * @param trackBitmap Bitmap da pista.
+     * @return Grade de ocupação compartilhada.
+     */
+    public static synchronized TrackOccupancyGrid getOccupancyGrid(Bitmap trackBitmap) {
+        if (trackBitmap != cachedBitmap || cachedGrid == null) {
+            int width = trackBitmap.getWidth();
+            int height = trackBitmap.getHeight();
+            int[] pixels = new int[width * height];
+            trackBitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+
+            cachedGrid = TrackOccupancyGrid.fromPixels(pixels, width, height, Color.WHITE);
+            cachedDistanceField = null;
+            cachedClearanceMask = null;
+            cachedBitmap = trackBitmap;
+            Log.d(TAG, "Grade de ocupação da pista construída: " + width + "x" + height);
+        }
+        return cachedGrid;
+    }
+
+    /**
+     * Obtém o campo de distâncias até a parede, calculado a partir da grade de ocupação.
+     *
+     * @param trackBitmap Bitmap da pista.
+     * @return Campo de distâncias compartilhado.
+     */
+    public static synchronized TrackDistanceField getDistanceField(Bitmap trackBitmap) {
+        TrackOccupancyGrid grid = getOccupancyGrid(trackBitmap);
+        if (cachedDistanceField == null) {
+            long start = System.nanoTime();
+            cachedDistanceField = TrackDistanceField.fromGrid(grid);
+            Log.d(TAG, "Campo de distâncias calculado em " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        return cachedDistanceField;
+    }
+
+    /**
+     * Obtém a máscara "o carro cabe aqui" para o contorno e a escala informados.
+     * A máscara é procurada primeiro na memória, depois no disco, e só então construída.
+     *
+     * @param trackBitmap Bitmap da pista.
+     * @param halfLength  Metade do comprimento do carro, em unidades de tela.
+     * @param halfWidth   Metade da largura do carro, em unidades de tela.
+     * @param scaleX      Escala tela → imagem no eixo X.
+     * @param scaleY      Escala tela → imagem no eixo Y.
+     * @return Máscara de contorno compartilhada.
+     */
+    public static synchronized TrackClearanceMask getClearanceMask(Bitmap trackBitmap, float halfLength, float halfWidth,
+                                                                   float scaleX, float scaleY) {
+        TrackOccupancyGrid grid = getOccupancyGrid(trackBitmap);
+        long key = TrackClearanceMask.cacheKey(grid, halfLength, halfWidth, scaleX, scaleY, HEADING_BUCKETS);
+        if (cachedClearanceMask != null && cachedClearanceMask.getKey() == key) {
+            return cachedClearanceMask;
+        }
+
+        File cacheFile = cacheDir != null ? new File(cacheDir, String.format("track_clearance_%016x.bin", key)) : null;
+        if (cacheFile != null) {
+            try {
+                cachedClearanceMask = TrackClearanceMask.readFrom(cacheFile, key);
+            } catch (IOException e) {
+                Log.e(TAG, "Erro ao ler a máscara de contorno do disco.", e);
+            }
+            if (cachedClearanceMask != null) {
+                Log.d(TAG, "Máscara de contorno carregada de " + cacheFile.getAbsolutePath());
+                return cachedClearanceMask;
+            }
+        }
+
+        long start = System.nanoTime();
+        cachedClearanceMask = TrackClearanceMask.build(grid, halfLength, halfWidth, scaleX, scaleY, HEADING_BUCKETS);
+        Log.d(TAG, "Máscara de contorno construída em " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        if (cacheFile != null) {
+            try {
+                cachedClearanceMask.writeTo(cacheFile);
+            } catch (IOException e) {
+                Log.e(TAG, "Erro ao gravar a máscara de contorno em disco.", e);
+            }
+        }
+        return cachedClearanceMask;
+    }
+
+    /**
+     * Constrói em segundo plano todas as estruturas da pista, para que o início da corrida não espere por elas.
+     */
+    public static void preloadAsync(Bitmap trackBitmap, float halfLength, float halfWidth, float scaleX, float scaleY) {
+        new Thread(() -> {
+            try {
+                getDistanceField(trackBitmap);
+                getClearanceMask(trackBitmap, halfLength, halfWidth, scaleX, scaleY);
+            } catch (Exception e) {
+                Log.e(TAG, "Erro ao pré-carregar as estruturas da pista.", e);
+            }
+        }, TAG).start();
+    }
+}
@@ -25,6 +25,62 @@ public class CalculationUtils {
         float deltaY = y2 - y1;
 
         // Aplica a fórmula da distância euclidiana e retorna o valor
-        return (float) Math.sqrt(Math.pow(deltaX, 2) + Math.pow(deltaY, 2));
+        return (float) Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+    }
+
+    /**
+     * Calcula o quadrado da distância entre dois pontos, evitando a raiz quadrada.
+     * Útil para comparações com um limite, que pode ser elevado ao quadrado uma única vez.
+     *
+     * @param x1 Coordenada X do primeiro ponto.
+     * @param y1 Coordenada Y do primeiro ponto.
+     * @param x2 Coordenada X do segundo ponto.
+     * @param y2 Coordenada Y do segundo ponto.
+     * @return Quadrado da distância entre os dois pontos.
+     */
+    public static float calculateDistanceSquared(float x1, float y1, float x2, float y2) {
+        float deltaX = x2 - x1;
+        float deltaY = y2 - y1;
+        return deltaX * deltaX + deltaY * deltaY;
+    }
+
+    /**
+     * Verifica se dois retângulos orientados de mesmo tamanho se sobrepõem,
+     * pelo teorema dos eixos separadores (quatro eixos: os dois de cada retângulo).
+     *
+     * @param x1         Centro X do primeiro retângulo.
+     * @param y1         Centro Y do primeiro retângulo.
+     * @param heading1   Direção do primeiro retângulo, em graus.
+     * @param x2         Centro X do segundo retângulo.
+     * @param y2         Centro Y do segundo retângulo.
+     * @param heading2   Direção do segundo retângulo, em graus.
+     * @param halfLength Metade do comprimento dos retângulos (ao longo da direção).
+     * @param halfWidth  Metade da largura dos retângulos.
+     * @return true se os retângulos se sobrepõem.
+     */
+    public static boolean orientedBoxesOverlap(float x1, float y1, double heading1,
+                                               float x2, float y2, double heading2,
+                                               float halfLength, float halfWidth) {
+        double a1 = Math.toRadians(heading1);
+        double a2 = Math.toRadians(heading2);
+        float c1 = (float) Math.cos(a1), s1 = (float) Math.sin(a1);
+        float c2 = (float) Math.cos(a2), s2 = (float) Math.sin(a2);
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+
+        // Eixos do primeiro retângulo: (c1, s1) e (-s1, c1); do segundo: (c2, s2) e (-s2, c2)
+        return !separatedOnAxis(c1, s1, dx, dy, c1, s1, c2, s2, halfLength, halfWidth)
+                && !separatedOnAxis(-s1, c1, dx, dy, c1, s1, c2, s2, halfLength, halfWidth)
+                && !separatedOnAxis(c2, s2, dx, dy, c1, s1, c2, s2, halfLength, halfWidth)
+                && !separatedOnAxis(-s2, c2, dx, dy, c1, s1, c2, s2, halfLength, halfWidth);
+    }
+
+    private static boolean separatedOnAxis(float axisX, float axisY, float dx, float dy,
+                                           float c1, float s1, float c2, float s2,
+                                           float halfLength, float halfWidth) {
+        float distance = Math.abs(dx * axisX + dy * axisY);
+        float radius1 = halfLength * Math.abs(c1 * axisX + s1 * axisY) + halfWidth * Math.abs(-s1 * axisX + c1 * axisY);
+        float radius2 = halfLength * Math.abs(c2 * axisX + s2 * axisY) + halfWidth * Math.abs(-s2 * axisX + c2 * axisY);
+        return distance > radius1 + radius2;
     }
 }
@@ -7,6 +7,8 @@ package com.example.mylibrary.utils;
  * como posição, direção, velocidade, combustível, distância, penalidades e voltas completas.
  * Funcionalidade: Fornece uma estrutura comum para manipular e armazenar o estado dos carros,
  * facilitando a persistência no banco de dados.
+ * Implementações: `Car` e as visões por índice de `CarStateStore`, que guardam os valores
+ * em arrays compartilhados por todos os carros.
  */
 
 public interface CarState {
@@ -0,0 +1,58 @@
+// Caminho do arquivo: com/example/mylibrary/utils/CarStateBackend.java
+
+package com.example.mylibrary.utils;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CarStateBackend (Interface)
+ * Define onde os estados dos carros são gravados e lidos, em lotes. É o ponto de extensão da
+ * persistência: o `CarStateRepository` e o `CarStateWriteBehind` dependem apenas desta interface,
+ * permitindo rodar sem o Firestore (ex.: testes na JVM) e comparar as opções de armazenamento com
+ * o `CarStateBackendHarness`.
+ * Implementações: `InMemoryCarStateBackend`, `FileCarStateBackend` e `FirestoreCarStateBackend`.
+ */
+public interface CarStateBackend extends Closeable {
+
+    /**
+     * Maior quantidade de estados aceita em uma única chamada de {@link #writeBatch} ou de carros
+     * em {@link #loadBatch}.
+     */
+    int getMaxBatchSize();
+
+    /**
+     * Grava um lote de estados, no máximo um por carro. Pode concluir de forma assíncrona, mas deve
+     * chamar o callback exatamente uma vez. Estados parciais (`isKeyframe()` falso) devem gravar ao
+     * menos os campos de `getChangedFields()`, sem alterar os demais campos já salvos; gravar o
+     * estado inteiro também é válido.
+     *
+     * @param states   Estados a gravar; a lista não é alterada depois da chamada.
+     * @param callback Notificado quando o lote for gravado ou falhar.
+     */
+    void writeBatch(List<CarStateSnapshot> states, WriteCallback callback);
+
+    /**
+     * Lê os estados salvos dos carros informados. Pode concluir de forma assíncrona, mas deve chamar
+     * o callback exatamente uma vez.
+     *
+     * @param names    Nomes dos carros; a lista não é alterada depois da chamada.
+     * @param callback Recebe os estados encontrados, por nome; carros sem estado salvo ficam de fora.
+     */
+    void loadBatch(List<String> names, LoadCallback callback);
+
+    /**
+     * Callback de conclusão de um lote gravado.
+     */
+    interface WriteCallback {
+        void onComplete(Exception error); // `error` é null em caso de sucesso
+    }
+
+    /**
+     * Callback de conclusão de um lote lido.
+     */
+    interface LoadCallback {
+        void onComplete(Map<String, CarStateSnapshot> states, Exception error); // `states` é null em caso de falha
+    }
+}
@@ -0,0 +1,176 @@
+// Caminho do arquivo: com/example/mylibrary/utils/CarStateBackendHarness.java
+
+package com.example.mylibrary.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ### CarStateBackendHarness
+ * - **Descrição**: Mede a vazão e a latência de gravação e leitura de um `CarStateBackend` com a
+ *   mesma carga para qualquer implementação, permitindo comparar memória, arquivo local e Firestore.
+ * - **Funcionalidades**:
+ *   - Grava e depois lê o estado de `cars` carros em lotes do tamanho máximo aceito pelo backend,
+ *     todos disparados de uma vez, repetindo por `rounds` rodadas.
+ *   - Vazão em carros por segundo e latência por lote (p50 e p99), do envio ao callback.
+ *   - Conta lotes com falha e carros não encontrados na leitura.
+ * - **Observação**: Bloqueia a thread chamadora até os callbacks; não deve rodar na thread principal,
+ *   onde o Firestore entrega as respostas.
+ */
+public final class CarStateBackendHarness {
+
+    private CarStateBackendHarness() {
+    }
+
+    /**
+     * Executa a medição.
+     *
+     * @param backend       Backend medido; os estados gravados ficam nele ao final.
+     * @param cars          Quantidade de carros por rodada.
+     * @param rounds        Rodadas de gravação e leitura.
+     * @param timeoutMillis Espera máxima pelos callbacks de cada rodada.
+     * @return Resultado da medição.
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public static Result run(CarStateBackend backend, int cars, int rounds, long timeoutMillis)
+            throws InterruptedException {
+        int batchSize = Math.max(1, Math.min(cars, backend.getMaxBatchSize()));
+        List<List<String>> nameBatches = new ArrayList<>();
+        for (int start = 0; start < cars; start += batchSize) {
+            List<String> names = new ArrayList<>(batchSize);
+            for (int i = start; i < Math.min(cars, start + batchSize); i++) {
+                names.add("Car" + i);
+            }
+            nameBatches.add(names);
+        }
+        int batches = nameBatches.size();
+        long[] saveLatencies = new long[batches * rounds];
+        long[] loadLatencies = new long[batches * rounds];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger missing = new AtomicInteger();
+        long saveNanos = 0;
+        long loadNanos = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            List<List<CarStateSnapshot>> stateBatches = new ArrayList<>(batches);
+            for (List<String> names : nameBatches) {
+                List<CarStateSnapshot> states = new ArrayList<>(names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    states.add(new CarStateSnapshot(names.get(i), i, round, i % 360, 50 + i % 100,
+                            5000 - round, round * 100 + i, i % 5, round));
+                }
+                stateBatches.add(states);
+            }
+
+            int offset = round * batches;
+            CountDownLatch saved = new CountDownLatch(batches);
+            long start = System.nanoTime();
+            for (int b = 0; b < batches; b++) {
+                int slot = offset + b;
+                long issued = System.nanoTime();
+                backend.writeBatch(stateBatches.get(b), error -> {
+                    saveLatencies[slot] = System.nanoTime() - issued;
+                    if (error != null) {
+                        failures.incrementAndGet();
+                    }
+                    saved.countDown();
+                });
+            }
+            if (!saved.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                failures.addAndGet((int) saved.getCount());
+            }
+            saveNanos += System.nanoTime() - start;
+
+            CountDownLatch loaded = new CountDownLatch(batches);
+            start = System.nanoTime();
+            for (int b = 0; b < batches; b++) {
+                int slot = offset + b;
+                int expected = nameBatches.get(b).size();
+                long issued = System.nanoTime();
+                backend.loadBatch(nameBatches.get(b), (states, error) -> {
+                    loadLatencies[slot] = System.nanoTime() - issued;
+                    if (error != null) {
+                        failures.incrementAndGet();
+                    } else {
+                        missing.addAndGet(expected - count(states));
+                    }
+                    loaded.countDown();
+                });
+            }
+            if (!loaded.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                failures.addAndGet((int) loaded.getCount());
+            }
+            loadNanos += System.nanoTime() - start;
+        }
+
+        long operations = (long) cars * rounds;
+        return new Result(backend.getClass().getSimpleName(), cars, batchSize,
+                perSecond(operations, saveNanos), percentile(saveLatencies, 0.50), percentile(saveLatencies, 0.99),
+                perSecond(operations, loadNanos), percentile(loadLatencies, 0.50), percentile(loadLatencies, 0.99),
+                failures.get(), missing.get());
+    }
+
+    private static int count(Map<String, CarStateSnapshot> states) {
+        return states == null ? 0 : states.size();
+    }
+
+    private static double perSecond(long operations, long nanos) {
+        return nanos == 0 ? 0 : operations * 1e9 / nanos;
+    }
+
+    private static long percentile(long[] latencies, double quantile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000;
+    }
+
+    /**
+     * Resultado de uma medição; latências em microssegundos por lote.
+     */
+    public static final class Result {
+        public final String backend;
+        public final int cars;
+        public final int batchSize;
+        public final double saveCarsPerSecond;
+        public final long saveP50Micros;
+        public final long saveP99Micros;
+        public final double loadCarsPerSecond;
+        public final long loadP50Micros;
+        public final long loadP99Micros;
+        public final int failedBatches;
+        public final int missingCars;
+
+        Result(String backend, int cars, int batchSize,
+               double saveCarsPerSecond, long saveP50Micros, long saveP99Micros,
+               double loadCarsPerSecond, long loadP50Micros, long loadP99Micros,
+               int failedBatches, int missingCars) {
+            this.backend = backend;
+            this.cars = cars;
+            this.batchSize = batchSize;
+            this.saveCarsPerSecond = saveCarsPerSecond;
+            this.saveP50Micros = saveP50Micros;
+            this.saveP99Micros = saveP99Micros;
+            this.loadCarsPerSecond = loadCarsPerSecond;
+            this.loadP50Micros = loadP50Micros;
+            this.loadP99Micros = loadP99Micros;
+            this.failedBatches = failedBatches;
+            this.missingCars = missingCars;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%-24s %6d carros (lotes de %4d): gravação %10.0f carros/s p50 %7d µs p99 %7d µs | "
+                            + "leitura %10.0f carros/s p50 %7d µs p99 %7d µs | falhas %d, ausentes %d",
+                    backend, cars, batchSize, saveCarsPerSecond, saveP50Micros, saveP99Micros,
+                    loadCarsPerSecond, loadP50Micros, loadP99Micros, failedBatches, missingCars);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+// Caminho do arquivo: com/example/mylibrary/utils/CarStateCache.java
+
+package com.example.mylibrary.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ### CarStateCache
+ * - **Descrição**: Cache em memória dos estados de carros lidos ou gravados pelo `CarStateRepository`,
+ *   na frente do `CarStateBackend`. Leituras repetidas (ex.: classificação, thread de monitoramento)
+ *   são atendidas sem consultar o backend.
+ * - **Funcionalidades**:
+ *   - Capacidade limitada com descarte do estado usado há mais tempo (LRU).
+ *   - Validade (TTL) por estado, contada a partir da leitura ou gravação; estados vencidos são
+ *     removidos ao serem consultados.
+ *   - Contadores de acertos, faltas, vencimentos e descartes.
+ */
+public class CarStateCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, CachedState> entries;
+
+    private long hits;
+    private long misses;
+    private long expirations;
+    private long evictions;
+
+    /**
+     * @param maxEntries Quantidade máxima de carros em cache.
+     * @param ttlMillis  Validade de cada estado.
+     */
+    public CarStateCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Parâmetros de cache inválidos.");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<String, CachedState>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedState> eldest) {
+                if (size() > CarStateCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Estado do carro em cache, ou null se ausente ou vencido.
+     */
+    public synchronized CarStateSnapshot get(String name) {
+        CarStateSnapshot state = lookup(name, System.nanoTime());
+        if (state == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return state;
+    }
+
+    /**
+     * Consulta vários carros de uma vez.
+     *
+     * @param names   Nomes dos carros.
+     * @param found   Recebe os estados em cache, por nome.
+     * @param missing Recebe os nomes ausentes ou vencidos.
+     */
+    public synchronized void getAll(Collection<String> names, Map<String, CarStateSnapshot> found, List<String> missing) {
+        long now = System.nanoTime();
+        for (String name : names) {
+            CarStateSnapshot state = lookup(name, now);
+            if (state == null) {
+                misses++;
+                missing.add(name);
+            } else {
+                hits++;
+                found.put(name, state);
+            }
+        }
+    }
+
+    private CarStateSnapshot lookup(String name, long now) {
+        CachedState entry = entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        if (now - entry.storedAtNanos > ttlNanos) {
+            entries.remove(name);
+            expirations++;
+            return null;
+        }
+        return entry.state;
+    }
+
+    public synchronized void put(CarStateSnapshot state) {
+        entries.put(state.getName(), new CachedState(state, System.nanoTime()));
+    }
+
+    public synchronized void putAll(Collection<CarStateSnapshot> states) {
+        long now = System.nanoTime();
+        for (CarStateSnapshot state : states) {
+            entries.put(state.getName(), new CachedState(state, now));
+        }
+    }
+
+    public synchronized void invalidate(String name) {
+        entries.remove(name);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Estados removidos por terem passado da validade.
+     */
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * Estados descartados para respeitar a capacidade.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private static final class CachedState {
+        final CarStateSnapshot state;
+        final long storedAtNanos;
+
+        CachedState(CarStateSnapshot state, long storedAtNanos) {
+            this.state = state;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+// Caminho do arquivo: com/example/mylibrary/utils/CarStateDeltaTracker.java
+
+package com.example.mylibrary.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ### CarStateDeltaTracker
+ * - **Descrição**: Guarda a última versão gravada do estado de cada carro e decide quais campos de um
+ *   novo estado precisam ser enviados. Carros parados, sem combustível ou atrás do safety car mudam
+ *   poucos campos (ou nenhum) entre gravações, e só esses campos vão para o backend.
+ * - **Funcionalidades**:
+ *   - Campos de ponto flutuante só contam como alterados acima de uma tolerância (posição, direção
+ *     e velocidade); campos inteiros, em qualquer mudança.
+ *   - A primeira gravação de cada carro e, depois, uma a cada `keyframeInterval` estados são
+ *     quadros-chave com todos os campos, limitando a divergência acumulada abaixo das tolerâncias.
+ *   - Estados sem nenhum campo alterado não são gravados.
+ *   - `invalidate` descarta a versão conhecida de um carro (ex.: lote com falha), forçando um
+ *     quadro-chave na próxima gravação.
+ */
+public class CarStateDeltaTracker {
+
+    private final float positionEpsilon;
+    private final double directionEpsilon;
+    private final float speedEpsilon;
+    private final int keyframeInterval;
+    private final Map<String, Entry> persisted = new HashMap<>();
+
+    private long keyframes;
+    private long deltas;
+    private long skippedStates;
+    private long writtenFields;
+
+    /**
+     * @param positionEpsilon  Variação mínima de x ou y para gravar o campo.
+     * @param directionEpsilon Variação mínima da direção, em graus.
+     * @param speedEpsilon     Variação mínima da velocidade.
+     * @param keyframeInterval Estados de um carro entre quadros-chave.
+     */
+    public CarStateDeltaTracker(float positionEpsilon, double directionEpsilon, float speedEpsilon,
+                                int keyframeInterval) {
+        if (positionEpsilon < 0 || directionEpsilon < 0 || speedEpsilon < 0 || keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Parâmetros de gravação parcial inválidos.");
+        }
+        this.positionEpsilon = positionEpsilon;
+        this.directionEpsilon = directionEpsilon;
+        this.speedEpsilon = speedEpsilon;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Compara o estado com a última versão gravada do carro e registra o que será enviado.
+     *
+     * @param state Estado atual do carro.
+     * @return O estado marcado com os campos a gravar, ou null se nada mudou além das tolerâncias.
+     */
+    public synchronized CarStateSnapshot encode(CarStateSnapshot state) {
+        Entry entry = persisted.get(state.getName());
+        if (entry == null || ++entry.statesSinceKeyframe >= keyframeInterval) {
+            CarStateSnapshot keyframe = state.withChangedFields(CarStateSnapshot.ALL_FIELDS);
+            persisted.put(state.getName(), new Entry(keyframe));
+            keyframes++;
+            writtenFields += Integer.bitCount(CarStateSnapshot.ALL_FIELDS);
+            return keyframe;
+        }
+        int fields = changedFields(entry.state, state);
+        if (fields == 0) {
+            skippedStates++;
+            return null;
+        }
+        entry.state = entry.state.merge(state, fields);
+        deltas++;
+        writtenFields += Integer.bitCount(fields);
+        return state.withChangedFields(fields);
+    }
+
+    /**
+     * Esquece a versão gravada do carro; o próximo estado dele será um quadro-chave.
+     */
+    public synchronized void invalidate(String name) {
+        persisted.remove(name);
+    }
+
+    private int changedFields(CarStateSnapshot previous, CarStateSnapshot current) {
+        int fields = 0;
+        if (Math.abs(current.getX() - previous.getX()) > positionEpsilon) fields |= CarStateSnapshot.FIELD_X;
+        if (Math.abs(current.getY() - previous.getY()) > positionEpsilon) fields |= CarStateSnapshot.FIELD_Y;
+        if (angleDelta(current.getDirection(), previous.getDirection()) > directionEpsilon) {
+            fields |= CarStateSnapshot.FIELD_DIRECTION;
+        }
+        if (Math.abs(current.getSpeed() - previous.getSpeed()) > speedEpsilon) fields |= CarStateSnapshot.FIELD_SPEED;
+        if (current.getFuelTank() != previous.getFuelTank()) fields |= CarStateSnapshot.FIELD_FUEL_TANK;
+        if (current.getDistance() != previous.getDistance()) fields |= CarStateSnapshot.FIELD_DISTANCE;
+        if (current.getPenalty() != previous.getPenalty()) fields |= CarStateSnapshot.FIELD_PENALTY;
+        if (current.getLapsCompleted() != previous.getLapsCompleted()) fields |= CarStateSnapshot.FIELD_LAPS_COMPLETED;
+        return fields;
+    }
+
+    /**
+     * Menor diferença entre dois ângulos em graus (ex.: 359 e 1 diferem em 2).
+     */
+    private static double angleDelta(double a, double b) {
+        double delta = Math.abs(a - b) % 360;
+        return delta > 180 ? 360 - delta : delta;
+    }
+
+    public synchronized long getKeyframes() {
+        return keyframes;
+    }
+
+    public synchronized long getDeltas() {
+        return deltas;
+    }
+
+    /**
+     * Estados não gravados por não terem campos alterados.
+     */
+    public synchronized long getSkippedStates() {
+        return skippedStates;
+    }
+
+    /**
+     * Total de campos enviados (8 por quadro-chave).
+     */
+    public synchronized long getWrittenFields() {
+        return writtenFields;
+    }
+
+    private static final class Entry {
+        CarStateSnapshot state; // Valores como estão no backend
+        int statesSinceKeyframe;
+
+        Entry(CarStateSnapshot state) {
+            this.state = state;
+        }
+    }
+}
@@ -5,96 +5,195 @@ package com.example.mylibrary.utils;
 import android.util.Log;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * ### 4.1. CarStateRepository
  * - **Descrição**: Classe responsável por salvar e carregar o estado dos carros no Firestore,
- *   possibilitando a persistência do estado entre sessões da simulação.
+ *   possibilitando a persistência do estado entre sessões da simulação. O armazenamento pode ser
+ *   trocado por qualquer `CarStateBackend` (ex.: `FileCarStateBackend` para rodar sem rede).
  * - **Funcionalidades**:
- *   - Salva o estado dos carros ao pausar ou finalizar a simulação.
+ *   - Salva o estado dos carros ao pausar ou finalizar a simulação. As gravações passam por um
+ *     `CarStateWriteBehind`: estados do mesmo carro são agrupados e enviados em lotes (`WriteBatch`),
+ *     em vez de um `set` por chamada. Apenas os campos alterados desde a última gravação de cada carro
+ *     são enviados (`CarStateDeltaTracker`), com um quadro-chave completo a cada `KEYFRAME_INTERVAL` estados.
  *   - Carrega o estado dos carros ao reiniciar, permitindo continuar a partir do ponto onde foi interrompido.
- *   - Implementa um listener (`OnCarStateLoadedListener`) para notificar quando o estado dos carros é
- *     carregado com sucesso.
+ *     `loadCarStates` carrega todos os carros de uma corrida com uma única leitura do backend.
+ *   - Mantém um `CarStateCache` (LRU com validade) com os estados lidos e os aceitos para gravação: leituras seguintes,
+ *     como `getCachedCarState` na classificação ou no monitoramento, não consultam o backend.
+ *   - Implementa listeners (`OnCarStateLoadedListener` e `OnCarStatesLoadedListener`) para notificar
+ *     quando o estado dos carros é carregado com sucesso.
  */
 
 public class CarStateRepository {
 
     private static final String TAG = "CarStateRepository";
     private static final String COLLECTION_NAME = "car_states";  // Nome da coleção no Firestore
-    private final FirebaseFirestore firestore;  // Instância do Firebase Firestore
+    private static final long FLUSH_INTERVAL_MILLIS = 2000;  // Intervalo máximo entre gravações
+    private static final int FLUSH_THRESHOLD = 64;           // Carros pendentes que antecipam a gravação
+    private static final int MAX_PENDING = 1024;             // Carros pendentes antes da contrapressão
+    private static final int MAX_IN_FLIGHT_BATCHES = 2;      // Lotes aguardando o Firestore ao mesmo tempo
+    private static final long SAVE_TIMEOUT_MILLIS = 100;     // Espera máxima por espaço em saveCarState
+    private static final float POSITION_EPSILON = 0.5f;      // Variação de x/y que justifica gravar o campo
+    private static final double DIRECTION_EPSILON = 1.0;     // Variação da direção (graus)
+    private static final float SPEED_EPSILON = 0.5f;         // Variação da velocidade
+    private static final int KEYFRAME_INTERVAL = 30;         // Estados de um carro entre gravações completas
+    private static final int CACHE_MAX_ENTRIES = 10_000;     // Carros mantidos no cache de leitura
+    private static final long CACHE_TTL_MILLIS = 60_000;     // Validade de um estado no cache
+    private final CarStateBackend backend;  // Onde os estados são gravados e lidos
+    private final CarStateWriteBehind writeBehind;
+    private final CarStateDeltaTracker deltaTracker;
+    private final CarStateCache cache = new CarStateCache(CACHE_MAX_ENTRIES, CACHE_TTL_MILLIS);
 
     /**
      * Construtor que inicializa a conexão com o Firestore.
      */
     public CarStateRepository() {
-        this.firestore = FirebaseFirestore.getInstance();
+        this(new FirestoreCarStateBackend(FirebaseFirestore.getInstance(), COLLECTION_NAME));
     }
 
     /**
-     * Salva o estado atual de um carro no Firestore.
+     * Construtor que usa o backend informado no lugar do Firestore.
+     *
+     * @param backend Armazenamento dos estados dos carros.
+     */
+    public CarStateRepository(CarStateBackend backend) {
+        this.backend = backend;
+        this.writeBehind = new CarStateWriteBehind(backend,
+                FLUSH_INTERVAL_MILLIS, FLUSH_THRESHOLD, MAX_PENDING, MAX_IN_FLIGHT_BATCHES);
+        this.deltaTracker = new CarStateDeltaTracker(POSITION_EPSILON, DIRECTION_EPSILON, SPEED_EPSILON, KEYFRAME_INTERVAL);
+        this.writeBehind.setDeltaTracker(deltaTracker);
+        this.writeBehind.start();
+    }
+
+    /**
+     * Agenda a gravação do estado atual de um carro no Firestore. O estado é copiado na chamada;
+     * se o carro já tiver um estado pendente, apenas o mais recente é gravado. Com muitos carros
+     * pendentes, aguarda até `SAVE_TIMEOUT_MILLIS` por espaço antes de descartar o estado.
      *
      * @param car Instância de CarState que contém o estado atual do carro.
      */
     public void saveCarState(CarState car) {
-        // Cria um mapa de dados representando o estado atual do carro
-        Map<String, Object> carState = new HashMap<>();
-        carState.put("x", car.getX());
-        carState.put("y", car.getY());
-        carState.put("direction", car.getDirection());
-        carState.put("speed", car.getSpeed());
-        carState.put("fuelTank", car.getFuelTank());
-        carState.put("distance", car.getDistance());
-        carState.put("penalty", car.getPenalty());
-        carState.put("lapsCompleted", car.getLapsCompleted());
-
-        // Envia o estado do carro para o Firestore e trata o sucesso ou falha
-        firestore.collection(COLLECTION_NAME).document(car.getName())
-                .set(carState)
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "Estado do carro salvo com sucesso: " + car.getName()))
-                .addOnFailureListener(e -> Log.e(TAG, "Erro ao salvar estado do carro: " + car.getName(), e));
+        CarStateSnapshot state = CarStateSnapshot.from(car);
+        try {
+            // Só entra no cache o estado aceito para gravação: um estado descartado não seria lido de volta
+            if (writeBehind.save(state, SAVE_TIMEOUT_MILLIS)) {
+                cache.put(state);
+            } else {
+                Log.e(TAG, "Fila de gravação cheia; estado descartado: " + car.getName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Agenda a gravação do estado de todos os carros informados.
+     */
+    public void saveCarStates(Iterable<? extends CarState> cars) {
+        for (CarState car : cars) {
+            saveCarState(car);
+        }
     }
 
     /**
-     * Carrega o estado salvo de um carro do Firestore e aplica os dados ao carro fornecido.
+     * Antecipa a gravação dos estados pendentes, sem aguardar o Firestore.
+     */
+    public void flush() {
+        writeBehind.flush();
+        Log.d(TAG, "Estados gravados: " + writeBehind.getWrittenStates() + " em " + writeBehind.getWrittenBatches()
+                + " lotes; " + writeBehind.getCoalescedStates() + " agrupados, " + writeBehind.getFailedBatches()
+                + " lotes com falha; " + deltaTracker.getKeyframes() + " completos, " + deltaTracker.getDeltas()
+                + " parciais, " + deltaTracker.getSkippedStates() + " sem alterações, "
+                + deltaTracker.getWrittenFields() + " campos enviados.");
+    }
+
+    /**
+     * Grava os estados pendentes e fecha o backend (ex.: grava o índice do `FileCarStateBackend`).
+     *
+     * @param timeoutMillis Tempo máximo de espera pelas gravações pendentes.
+     */
+    public void close(long timeoutMillis) {
+        try {
+            if (!writeBehind.close(timeoutMillis)) {
+                Log.e(TAG, "Estados pendentes não gravados ao fechar o repositório.");
+            }
+            backend.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao fechar o armazenamento dos estados", e);
+        }
+    }
+
+    /**
+     * Carrega o estado salvo de um carro e aplica os dados ao carro fornecido. Usa o estado em cache,
+     * se houver.
      *
      * @param car      Instância de CarState onde os dados serão aplicados.
      * @param listener Listener para notificar quando o estado do carro foi carregado.
      */
     public void loadCarState(CarState car, OnCarStateLoadedListener listener) {
-        // Consulta o Firestore usando o nome do carro como ID do documento
-        firestore.collection(COLLECTION_NAME).document(car.getName())
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        // Recupera os dados do estado salvo, se disponível
-                        Map<String, Object> carState = documentSnapshot.getData();
-                        if (carState != null) {
-                            // Aplica cada atributo do estado carregado ao carro
-                            car.setPosition(
-                                    ((Number) carState.get("x")).floatValue(),
-                                    ((Number) carState.get("y")).floatValue());
-                            car.setDirection(((Number) carState.get("direction")).doubleValue());
-                            car.setSpeed(((Number) carState.get("speed")).floatValue());
-                            car.setFuelTank(((Number) carState.get("fuelTank")).intValue());
-                            car.setDistance(((Number) carState.get("distance")).intValue());
-                            car.setPenalty(((Number) carState.get("penalty")).intValue());
-                            car.setLapsCompleted(((Number) carState.get("lapsCompleted")).intValue());
-
-                            // Notifica que o estado foi carregado com sucesso
-                            listener.onCarStateLoaded(car);
-                        }
-                    } else {
-                        // Notifica que não há estado salvo para o carro
-                        listener.onCarStateLoaded(null);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    // Loga e notifica falha ao carregar o estado do carro
-                    Log.e(TAG, "Erro ao carregar estado do carro: " + car.getName(), e);
-                    listener.onCarStateLoaded(null);
-                });
+        loadCarStates(Collections.singletonList(car),
+                loaded -> listener.onCarStateLoaded(loaded.isEmpty() ? null : car));
+    }
+
+    /**
+     * Carrega o estado salvo de vários carros (ex.: todos os carros de uma corrida) e aplica os dados
+     * a cada um. Os carros em cache são atendidos da memória; os demais são lidos do backend em uma
+     * única chamada e guardados no cache.
+     *
+     * @param cars     Carros onde os dados serão aplicados.
+     * @param listener Recebe os carros que tinham estado salvo; chamado uma vez, mesmo em caso de falha.
+     */
+    public void loadCarStates(List<? extends CarState> cars, OnCarStatesLoadedListener listener) {
+        Map<String, CarStateSnapshot> states = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<String> names = new ArrayList<>(cars.size());
+        for (CarState car : cars) {
+            names.add(car.getName());
+        }
+        cache.getAll(names, states, missing);
+        if (missing.isEmpty()) {
+            listener.onCarStatesLoaded(apply(cars, states));
+            return;
+        }
+        // Consulta o backend apenas pelos carros fora do cache, usando o nome do carro como chave
+        backend.loadBatch(missing, (loaded, error) -> {
+            if (error != null) {
+                // Loga a falha e aplica apenas os estados que estavam em cache
+                Log.e(TAG, "Erro ao carregar o estado de " + missing.size() + " carros", error);
+            } else {
+                cache.putAll(loaded.values());
+                states.putAll(loaded);
+            }
+            listener.onCarStatesLoaded(apply(cars, states));
+        });
+    }
+
+    private static List<CarState> apply(List<? extends CarState> cars, Map<String, CarStateSnapshot> states) {
+        List<CarState> loaded = new ArrayList<>(states.size());
+        for (CarState car : cars) {
+            CarStateSnapshot state = states.get(car.getName());
+            if (state != null) {
+                state.applyTo(car);
+                loaded.add(car);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Último estado conhecido do carro, apenas da memória (lido ou salvo há menos de
+     * `CACHE_TTL_MILLIS`), ou null. Não consulta o backend e pode ser chamado de qualquer thread.
+     */
+    public CarStateSnapshot getCachedCarState(String name) {
+        return cache.get(name);
     }
 
     /**
@@ -103,4 +202,11 @@ public class CarStateRepository {
     public interface OnCarStateLoadedListener {
         void onCarStateLoaded(CarState car);
     }
+
+    /**
+     * Interface de callback para notificar quando o estado de vários carros foi carregado.
+     */
+    public interface OnCarStatesLoadedListener {
+        void onCarStatesLoaded(List<CarState> loadedCars);
+    }
 }
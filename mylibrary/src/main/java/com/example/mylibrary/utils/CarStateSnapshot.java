@@ -0,0 +1,210 @@
+// Caminho do arquivo: com/example/mylibrary/utils/CarStateSnapshot.java
+
+package com.example.mylibrary.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ### CarStateSnapshot
+ * - **Descrição**: Cópia imutável do estado de um carro em um instante, usada para persistir o estado
+ *   fora da thread da simulação sem ler os campos do carro enquanto ele se move.
+ * - **Funcionalidades**:
+ *   - `from` copia um `CarState`; `applyTo` restaura os valores em outro `CarState`.
+ *   - `toMap` gera o documento com os mesmos campos usados no Firestore.
+ *   - Máscara de campos alterados (`FIELD_*`): um estado com todos os campos é um quadro-chave; com
+ *     parte deles, apenas esses campos precisam ser gravados (ver `CarStateDeltaTracker`).
+ */
+public final class CarStateSnapshot {
+
+    public static final int FIELD_X = 1;
+    public static final int FIELD_Y = 1 << 1;
+    public static final int FIELD_DIRECTION = 1 << 2;
+    public static final int FIELD_SPEED = 1 << 3;
+    public static final int FIELD_FUEL_TANK = 1 << 4;
+    public static final int FIELD_DISTANCE = 1 << 5;
+    public static final int FIELD_PENALTY = 1 << 6;
+    public static final int FIELD_LAPS_COMPLETED = 1 << 7;
+    public static final int ALL_FIELDS = (1 << 8) - 1;
+
+    private final String name;
+    private final float x;
+    private final float y;
+    private final double direction;
+    private final float speed;
+    private final int fuelTank;
+    private final int distance;
+    private final int penalty;
+    private final int lapsCompleted;
+    private final int changedFields;
+
+    public CarStateSnapshot(String name, float x, float y, double direction, float speed,
+                            int fuelTank, int distance, int penalty, int lapsCompleted) {
+        this(name, x, y, direction, speed, fuelTank, distance, penalty, lapsCompleted, ALL_FIELDS);
+    }
+
+    private CarStateSnapshot(String name, float x, float y, double direction, float speed,
+                             int fuelTank, int distance, int penalty, int lapsCompleted, int changedFields) {
+        if (name == null) {
+            throw new IllegalArgumentException("O nome do carro é obrigatório.");
+        }
+        this.name = name;
+        this.x = x;
+        this.y = y;
+        this.direction = direction;
+        this.speed = speed;
+        this.fuelTank = fuelTank;
+        this.distance = distance;
+        this.penalty = penalty;
+        this.lapsCompleted = lapsCompleted;
+        this.changedFields = changedFields;
+    }
+
+    /**
+     * Copia o estado atual de um carro.
+     */
+    public static CarStateSnapshot from(CarState car) {
+        return new CarStateSnapshot(car.getName(), car.getX(), car.getY(), car.getDirection(), car.getSpeed(),
+                car.getFuelTank(), car.getDistance(), car.getPenalty(), car.getLapsCompleted());
+    }
+
+    /**
+     * Lê um documento no formato gerado por {@link #toMap()}.
+     *
+     * @throws IllegalArgumentException Se faltar algum campo.
+     */
+    public static CarStateSnapshot fromMap(String name, Map<String, Object> document) {
+        return new CarStateSnapshot(name,
+                number(document, "x").floatValue(), number(document, "y").floatValue(),
+                number(document, "direction").doubleValue(), number(document, "speed").floatValue(),
+                number(document, "fuelTank").intValue(), number(document, "distance").intValue(),
+                number(document, "penalty").intValue(), number(document, "lapsCompleted").intValue());
+    }
+
+    private static Number number(Map<String, Object> document, String field) {
+        Object value = document.get(field);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Campo ausente no estado do carro: " + field);
+        }
+        return (Number) value;
+    }
+
+    /**
+     * Cópia com os mesmos valores, marcando apenas os campos informados como alterados.
+     *
+     * @param fields Combinação de constantes `FIELD_*`.
+     */
+    public CarStateSnapshot withChangedFields(int fields) {
+        if ((fields & ~ALL_FIELDS) != 0) {
+            throw new IllegalArgumentException("Máscara de campos inválida: " + fields);
+        }
+        if (fields == changedFields) {
+            return this;
+        }
+        return new CarStateSnapshot(name, x, y, direction, speed, fuelTank, distance, penalty, lapsCompleted, fields);
+    }
+
+    /**
+     * Cópia com os campos da máscara vindos de `changes` e os demais deste estado.
+     */
+    CarStateSnapshot merge(CarStateSnapshot changes, int fields) {
+        return new CarStateSnapshot(name,
+                (fields & FIELD_X) != 0 ? changes.x : x,
+                (fields & FIELD_Y) != 0 ? changes.y : y,
+                (fields & FIELD_DIRECTION) != 0 ? changes.direction : direction,
+                (fields & FIELD_SPEED) != 0 ? changes.speed : speed,
+                (fields & FIELD_FUEL_TANK) != 0 ? changes.fuelTank : fuelTank,
+                (fields & FIELD_DISTANCE) != 0 ? changes.distance : distance,
+                (fields & FIELD_PENALTY) != 0 ? changes.penalty : penalty,
+                (fields & FIELD_LAPS_COMPLETED) != 0 ? changes.lapsCompleted : lapsCompleted,
+                ALL_FIELDS);
+    }
+
+    /**
+     * Aplica os valores copiados ao carro informado.
+     */
+    public void applyTo(CarState car) {
+        car.setPosition(x, y);
+        car.setDirection(direction);
+        car.setSpeed(speed);
+        car.setFuelTank(fuelTank);
+        car.setDistance(distance);
+        car.setPenalty(penalty);
+        car.setLapsCompleted(lapsCompleted);
+    }
+
+    /**
+     * Documento com os campos do estado, no formato salvo no Firestore.
+     */
+    public Map<String, Object> toMap() {
+        return toMap(ALL_FIELDS);
+    }
+
+    /**
+     * Documento apenas com os campos da máscara, para atualizações parciais.
+     *
+     * @param fields Combinação de constantes `FIELD_*`.
+     */
+    public Map<String, Object> toMap(int fields) {
+        Map<String, Object> document = new HashMap<>();
+        if ((fields & FIELD_X) != 0) document.put("x", x);
+        if ((fields & FIELD_Y) != 0) document.put("y", y);
+        if ((fields & FIELD_DIRECTION) != 0) document.put("direction", direction);
+        if ((fields & FIELD_SPEED) != 0) document.put("speed", speed);
+        if ((fields & FIELD_FUEL_TANK) != 0) document.put("fuelTank", fuelTank);
+        if ((fields & FIELD_DISTANCE) != 0) document.put("distance", distance);
+        if ((fields & FIELD_PENALTY) != 0) document.put("penalty", penalty);
+        if ((fields & FIELD_LAPS_COMPLETED) != 0) document.put("lapsCompleted", lapsCompleted);
+        return document;
+    }
+
+    /**
+     * Campos alterados desde o último estado gravado (constantes `FIELD_*`).
+     */
+    public int getChangedFields() {
+        return changedFields;
+    }
+
+    /**
+     * Indica se o estado deve ser gravado por inteiro.
+     */
+    public boolean isKeyframe() {
+        return changedFields == ALL_FIELDS;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public double getDirection() {
+        return direction;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public int getFuelTank() {
+        return fuelTank;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public int getPenalty() {
+        return penalty;
+    }
+
+    public int getLapsCompleted() {
+        return lapsCompleted;
+    }
+}
@@ -0,0 +1,342 @@
+// Caminho do arquivo: com/example/mylibrary/utils/CarStateStore.java
+
+package com.example.mylibrary.utils;
+
+import java.util.Arrays;
+
+/**
+ * ### CarStateStore
+ * - **Descrição**: Armazena o estado cinemático de todos os carros em arrays primitivos paralelos
+ *   (estrutura de arrays), em vez de campos espalhados em um objeto por carro.
+ *   Cada carro ocupa um índice (*slot*), e `Car`/`CarState` passam a ser visões finas sobre esse índice.
+ * - **Funcionalidades**:
+ *   - Acesso por índice a posição, direção, velocidade, combustível, distância, penalidades e voltas.
+ *   - Arrays contíguos por campo, adequados para atualizações em lote sobre todos os carros.
+ *   - `allocate` e `truncate` devem ser chamados antes da corrida começar; durante a corrida, apenas
+ *     os valores dos slots já alocados são lidos e escritos.
+ *   - Os arrays ficam juntos em um `Columns` publicado por um campo volátil: quando `allocate` aumenta
+ *     a capacidade, outras threads passam a ver os novos arrays completos, já com os valores copiados.
+ */
+public final class CarStateStore {
+
+    /**
+     * Arrays de uma capacidade. Imutável quanto às referências: crescer cria um novo `Columns`.
+     */
+    private static final class Columns {
+        final String[] names;
+        final float[] x;
+        final float[] y;
+        final double[] heading;
+        final float[] speed;
+        final int[] fuelTank;
+        final int[] distance;
+        final int[] penalty;
+        final int[] lapsCompleted;
+
+        Columns(int capacity) {
+            names = new String[capacity];
+            x = new float[capacity];
+            y = new float[capacity];
+            heading = new double[capacity];
+            speed = new float[capacity];
+            fuelTank = new int[capacity];
+            distance = new int[capacity];
+            penalty = new int[capacity];
+            lapsCompleted = new int[capacity];
+        }
+
+        Columns(Columns source, int capacity) {
+            names = Arrays.copyOf(source.names, capacity);
+            x = Arrays.copyOf(source.x, capacity);
+            y = Arrays.copyOf(source.y, capacity);
+            heading = Arrays.copyOf(source.heading, capacity);
+            speed = Arrays.copyOf(source.speed, capacity);
+            fuelTank = Arrays.copyOf(source.fuelTank, capacity);
+            distance = Arrays.copyOf(source.distance, capacity);
+            penalty = Arrays.copyOf(source.penalty, capacity);
+            lapsCompleted = Arrays.copyOf(source.lapsCompleted, capacity);
+        }
+
+        int capacity() {
+            return names.length;
+        }
+    }
+
+    private volatile Columns columns;
+    private volatile int size;
+
+    public CarStateStore(int initialCapacity) {
+        columns = new Columns(Math.max(1, initialCapacity));
+    }
+
+    /**
+     * Reserva um novo slot para um carro.
+     *
+     * @param name Nome do carro.
+     * @return Índice do slot reservado.
+     */
+    public synchronized int allocate(String name) {
+        Columns c = columns;
+        if (size == c.capacity()) {
+            c = grow(c.capacity() * 2);
+        }
+        int slot = size;
+        c.names[slot] = name;
+        size = slot + 1;
+        return slot;
+    }
+
+    /**
+     * Descarta os slots a partir de `newSize`, zerando seus valores.
+     *
+     * @param newSize Número de slots mantidos.
+     */
+    public synchronized void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IllegalArgumentException("Tamanho inválido para o armazenamento de estados: " + newSize);
+        }
+        Columns c = columns;
+        Arrays.fill(c.names, newSize, size, null);
+        Arrays.fill(c.x, newSize, size, 0f);
+        Arrays.fill(c.y, newSize, size, 0f);
+        Arrays.fill(c.heading, newSize, size, 0.0);
+        Arrays.fill(c.speed, newSize, size, 0f);
+        Arrays.fill(c.fuelTank, newSize, size, 0);
+        Arrays.fill(c.distance, newSize, size, 0);
+        Arrays.fill(c.penalty, newSize, size, 0);
+        Arrays.fill(c.lapsCompleted, newSize, size, 0);
+        size = newSize;
+    }
+
+    /**
+     * Copia os valores para arrays maiores e os publica. Deve ser chamado com o monitor do armazenamento.
+     */
+    private Columns grow(int capacity) {
+        Columns grown = new Columns(columns, capacity);
+        columns = grown;
+        return grown;
+    }
+
+    /**
+     * Quantidade de slots que cabem sem aumentar os arrays.
+     */
+    public int capacity() {
+        return columns.capacity();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copia todos os slots para `target`, substituindo o seu conteúdo. Cópia campo a campo com
+     * `System.arraycopy`, sem bloquear quem escreve: para um instantâneo consistente, deve ser
+     * chamada entre dois ciclos da simulação.
+     *
+     * @param target Armazenamento que recebe a cópia; os seus arrays são reaproveitados quando cabem.
+     */
+    public void copyInto(CarStateStore target) {
+        int count = size; // Lido antes dos arrays: os arrays publicados sempre comportam `size` slots
+        Columns from = columns;
+        synchronized (target) {
+            if (target.columns.capacity() < count) {
+                target.grow(count);
+            }
+            if (target.size > count) {
+                target.truncate(count);
+            }
+            Columns to = target.columns;
+            System.arraycopy(from.names, 0, to.names, 0, count);
+            System.arraycopy(from.x, 0, to.x, 0, count);
+            System.arraycopy(from.y, 0, to.y, 0, count);
+            System.arraycopy(from.heading, 0, to.heading, 0, count);
+            System.arraycopy(from.speed, 0, to.speed, 0, count);
+            System.arraycopy(from.fuelTank, 0, to.fuelTank, 0, count);
+            System.arraycopy(from.distance, 0, to.distance, 0, count);
+            System.arraycopy(from.penalty, 0, to.penalty, 0, count);
+            System.arraycopy(from.lapsCompleted, 0, to.lapsCompleted, 0, count);
+            target.size = count;
+        }
+    }
+
+    /**
+     * Retorna uma visão `CarState` sobre o slot informado.
+     *
+     * @param slot Índice do carro.
+     * @return Visão que lê e escreve diretamente nos arrays do armazenamento.
+     */
+    public CarState view(int slot) {
+        return new SlotView(slot);
+    }
+
+    public String getName(int slot) {
+        return columns.names[slot];
+    }
+
+    public float getX(int slot) {
+        return columns.x[slot];
+    }
+
+    public float getY(int slot) {
+        return columns.y[slot];
+    }
+
+    public double getHeading(int slot) {
+        return columns.heading[slot];
+    }
+
+    public float getSpeed(int slot) {
+        return columns.speed[slot];
+    }
+
+    public int getFuelTank(int slot) {
+        return columns.fuelTank[slot];
+    }
+
+    public int getDistance(int slot) {
+        return columns.distance[slot];
+    }
+
+    public int getPenalty(int slot) {
+        return columns.penalty[slot];
+    }
+
+    public int getLapsCompleted(int slot) {
+        return columns.lapsCompleted[slot];
+    }
+
+    public void setPosition(int slot, float newX, float newY) {
+        Columns c = columns;
+        c.x[slot] = newX;
+        c.y[slot] = newY;
+    }
+
+    public void setX(int slot, float newX) {
+        columns.x[slot] = newX;
+    }
+
+    public void setY(int slot, float newY) {
+        columns.y[slot] = newY;
+    }
+
+    public void setHeading(int slot, double newHeading) {
+        columns.heading[slot] = newHeading;
+    }
+
+    public void setSpeed(int slot, float newSpeed) {
+        columns.speed[slot] = newSpeed;
+    }
+
+    public void setFuelTank(int slot, int newFuelTank) {
+        columns.fuelTank[slot] = newFuelTank;
+    }
+
+    public void setDistance(int slot, int newDistance) {
+        columns.distance[slot] = newDistance;
+    }
+
+    public void setPenalty(int slot, int newPenalty) {
+        columns.penalty[slot] = newPenalty;
+    }
+
+    public void addPenalty(int slot, int amount) {
+        columns.penalty[slot] += amount;
+    }
+
+    public void setLapsCompleted(int slot, int newLapsCompleted) {
+        columns.lapsCompleted[slot] = newLapsCompleted;
+    }
+
+    /**
+     * Visão de um único slot através da interface `CarState`.
+     */
+    private final class SlotView implements CarState {
+        private final int slot;
+
+        SlotView(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getName() {
+            return columns.names[slot];
+        }
+
+        @Override
+        public float getX() {
+            return columns.x[slot];
+        }
+
+        @Override
+        public float getY() {
+            return columns.y[slot];
+        }
+
+        @Override
+        public double getDirection() {
+            return columns.heading[slot];
+        }
+
+        @Override
+        public float getSpeed() {
+            return columns.speed[slot];
+        }
+
+        @Override
+        public int getFuelTank() {
+            return columns.fuelTank[slot];
+        }
+
+        @Override
+        public int getDistance() {
+            return columns.distance[slot];
+        }
+
+        @Override
+        public int getPenalty() {
+            return columns.penalty[slot];
+        }
+
+        @Override
+        public int getLapsCompleted() {
+            return columns.lapsCompleted[slot];
+        }
+
+        @Override
+        public void setPosition(float newX, float newY) {
+            Columns c = columns;
+            c.x[slot] = newX;
+            c.y[slot] = newY;
+        }
+
+        @Override
+        public void setDirection(double direction) {
+            columns.heading[slot] = direction;
+        }
+
+        @Override
+        public void setSpeed(float newSpeed) {
+            columns.speed[slot] = newSpeed;
+        }
+
+        @Override
+        public void setFuelTank(int newFuelTank) {
+            columns.fuelTank[slot] = newFuelTank;
+        }
+
+        @Override
+        public void setDistance(int newDistance) {
+            columns.distance[slot] = newDistance;
+        }
+
+        @Override
+        public void setPenalty(int newPenalty) {
+            columns.penalty[slot] = newPenalty;
+        }
+
+        @Override
+        public void setLapsCompleted(int newLapsCompleted) {
+            columns.lapsCompleted[slot] = newLapsCompleted;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+// Caminho do arquivo: com/example/mylibrary/utils/CarStateWriteBehind.java
+
+package com.example.mylibrary.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ### CarStateWriteBehind
+ * - **Descrição**: Camada de escrita atrasada (*write-behind*) entre a simulação e um `CarStateBackend`.
+ *   Os estados salvos ficam pendentes, um por carro: um novo estado do mesmo carro substitui o anterior
+ *   ainda não gravado, então apenas o mais recente chega ao backend.
+ * - **Funcionalidades**:
+ *   - Uma thread de gravação envia os pendentes a cada `flushIntervalMillis`, ou antes, quando há
+ *     `flushThreshold` carros pendentes, em lotes de até `getMaxBatchSize()` do backend.
+ *   - No máximo `maxInFlightBatches` lotes aguardam resposta do backend ao mesmo tempo.
+ *   - Contrapressão: com `maxPending` carros pendentes, estados de novos carros são recusados por
+ *     `offer` ou aguardam espaço em `save`; estados de carros já pendentes sempre são aceitos.
+ *   - Lotes com falha voltam a ficar pendentes, sem substituir estados mais novos dos mesmos carros:
+ *     cada envio recebe um número de sequência, e a nova tentativa de um estado mais antigo que o
+ *     último enviado do carro é descartada (ou, com gravações parciais, trocada pelo último estado
+ *     enviado, completo).
+ *   - Com um `CarStateDeltaTracker`, cada estado leva apenas os campos alterados desde a última
+ *     gravação do carro, e estados sem alterações não são enviados.
+ */
+public class CarStateWriteBehind {
+
+    private final CarStateBackend backend;
+    private final long flushIntervalMillis;
+    private final int flushThreshold;
+    private final int maxPending;
+    private final int maxInFlightBatches;
+    private final Semaphore inFlight;
+    private final Map<String, CarStateSnapshot> pending = new LinkedHashMap<>();
+    private final Map<String, SentState> lastSent = new HashMap<>(); // Último estado enviado de cada carro
+    private long sendSequence;
+    private volatile CarStateDeltaTracker deltaTracker;
+    private Thread flusher;
+    private volatile boolean running;
+    private boolean flushRequested;
+
+    private final AtomicLong acceptedStates = new AtomicLong();
+    private final AtomicLong coalescedStates = new AtomicLong();
+    private final AtomicLong rejectedStates = new AtomicLong();
+    private final AtomicLong writtenStates = new AtomicLong();
+    private final AtomicLong writtenBatches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong discardedStates = new AtomicLong();
+    private final AtomicLong supersededRetries = new AtomicLong();
+
+    /**
+     * @param backend             Destino das gravações.
+     * @param flushIntervalMillis Intervalo máximo entre gravações.
+     * @param flushThreshold      Quantidade de carros pendentes que antecipa a gravação.
+     * @param maxPending          Quantidade máxima de carros pendentes.
+     * @param maxInFlightBatches  Lotes aguardando resposta do backend ao mesmo tempo.
+     */
+    public CarStateWriteBehind(CarStateBackend backend, long flushIntervalMillis, int flushThreshold,
+                               int maxPending, int maxInFlightBatches) {
+        if (flushIntervalMillis <= 0 || flushThreshold <= 0 || maxPending < flushThreshold || maxInFlightBatches <= 0) {
+            throw new IllegalArgumentException("Parâmetros de gravação inválidos.");
+        }
+        this.backend = backend;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThreshold = flushThreshold;
+        this.maxPending = maxPending;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.inFlight = new Semaphore(maxInFlightBatches);
+    }
+
+    /**
+     * Define o controle de gravações parciais; null grava sempre todos os campos. Deve ser chamado
+     * antes de `start`.
+     */
+    public void setDeltaTracker(CarStateDeltaTracker deltaTracker) {
+        this.deltaTracker = deltaTracker;
+    }
+
+    /**
+     * Inicia a thread de gravação.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "CarStateWriteBehind");
+        flusher.setDaemon(true);
+        flusher.setPriority(Thread.MIN_PRIORITY);
+        flusher.start();
+    }
+
+    /**
+     * Agenda a gravação do estado sem bloquear.
+     *
+     * @return false se o limite de carros pendentes foi atingido e o estado foi recusado.
+     */
+    public synchronized boolean offer(CarStateSnapshot state) {
+        return enqueue(state);
+    }
+
+    /**
+     * Agenda a gravação do estado, aguardando espaço se o limite de carros pendentes foi atingido.
+     *
+     * @param timeoutMillis Tempo máximo de espera.
+     * @return false se o tempo esgotou e o estado foi recusado.
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public synchronized boolean save(CarStateSnapshot state, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (running && pending.size() >= maxPending && !pending.containsKey(state.getName())) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                break;
+            }
+            wait(remaining);
+        }
+        return enqueue(state);
+    }
+
+    private boolean enqueue(CarStateSnapshot state) {
+        if (pending.put(state.getName(), state) != null) {
+            coalescedStates.incrementAndGet();
+        } else if (pending.size() > maxPending) {
+            pending.remove(state.getName());
+            rejectedStates.incrementAndGet();
+            return false;
+        }
+        acceptedStates.incrementAndGet();
+        if (pending.size() >= flushThreshold) {
+            notifyAll();
+        }
+        return true;
+    }
+
+    /**
+     * Antecipa a gravação dos estados pendentes, sem aguardar a resposta do backend.
+     */
+    public synchronized void flush() {
+        flushRequested = true;
+        notifyAll();
+    }
+
+    /**
+     * Grava os estados pendentes, encerra a thread de gravação e aguarda as respostas do backend.
+     *
+     * @param timeoutMillis Tempo máximo de espera pelas respostas.
+     * @return true se todos os lotes foram concluídos dentro do prazo.
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public boolean close(long timeoutMillis) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            notifyAll();
+            thread = flusher;
+            flusher = null;
+        }
+        if (thread != null) {
+            thread.join(timeoutMillis);
+        }
+        if (!inFlight.tryAcquire(maxInFlightBatches, timeoutMillis, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        inFlight.release(maxInFlightBatches);
+        synchronized (this) {
+            return pending.isEmpty();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<CarStateSnapshot> states;
+            long sequence;
+            synchronized (this) {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (running && !flushRequested && pending.size() < flushThreshold) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                flushRequested = false;
+                if (pending.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+                states = new ArrayList<>(pending.values());
+                pending.clear();
+                sequence = ++sendSequence;
+                for (CarStateSnapshot state : states) {
+                    lastSent.put(state.getName(), new SentState(sequence, state));
+                }
+                notifyAll(); // Libera quem aguarda espaço em `save`
+            }
+            CarStateDeltaTracker tracker = deltaTracker;
+            if (tracker != null) {
+                states = encode(tracker, states);
+            }
+            try {
+                submit(states, sequence);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Substitui cada estado pelos campos alterados desde a última gravação do carro, removendo os
+     * que não mudaram.
+     */
+    private List<CarStateSnapshot> encode(CarStateDeltaTracker tracker, List<CarStateSnapshot> states) {
+        List<CarStateSnapshot> encoded = new ArrayList<>(states.size());
+        for (CarStateSnapshot state : states) {
+            CarStateSnapshot delta = tracker.encode(state);
+            if (delta != null) {
+                encoded.add(delta);
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Divide os estados em lotes do tamanho aceito pelo backend e os envia, respeitando o limite de
+     * lotes aguardando resposta.
+     */
+    private void submit(List<CarStateSnapshot> states, long sequence) throws InterruptedException {
+        int batchSize = Math.max(1, backend.getMaxBatchSize());
+        for (int from = 0; from < states.size(); from += batchSize) {
+            List<CarStateSnapshot> batch = states.subList(from, Math.min(states.size(), from + batchSize));
+            inFlight.acquire();
+            BatchCallback callback = new BatchCallback(batch, sequence);
+            try {
+                backend.writeBatch(batch, callback);
+            } catch (RuntimeException e) {
+                callback.onComplete(e);
+            }
+        }
+    }
+
+    /**
+     * Conclusão de um lote: libera a vaga de lote em andamento e, em caso de falha, devolve os
+     * estados aos pendentes.
+     */
+    private final class BatchCallback implements CarStateBackend.WriteCallback {
+        private final List<CarStateSnapshot> batch;
+        private final long sequence;
+        private boolean completed;
+
+        BatchCallback(List<CarStateSnapshot> batch, long sequence) {
+            this.batch = batch;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void onComplete(Exception error) {
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                completed = true;
+            }
+            if (error == null) {
+                writtenStates.addAndGet(batch.size());
+                writtenBatches.incrementAndGet();
+            } else {
+                requeue(batch, sequence);
+                failedBatches.incrementAndGet(); // Contado depois de voltar aos pendentes
+            }
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Devolve aos pendentes os estados de um lote com falha. Um lote enviado depois (ainda em
+     * andamento ou já gravado) pode levar um estado mais novo do mesmo carro, e a nova tentativa não
+     * pode sobrescrevê-lo no backend.
+     */
+    private void requeue(List<CarStateSnapshot> batch, long sequence) {
+        CarStateDeltaTracker tracker = deltaTracker;
+        if (tracker != null) {
+            for (CarStateSnapshot state : batch) {
+                tracker.invalidate(state.getName()); // O backend pode não ter os campos anteriores do carro
+            }
+        }
+        synchronized (this) {
+            if (!running) {
+                discardedStates.addAndGet(batch.size()); // Encerrado: não há nova tentativa
+                return;
+            }
+            for (CarStateSnapshot state : batch) {
+                SentState sent = lastSent.get(state.getName());
+                CarStateSnapshot retry = sent.state; // Estado completo, mesmo que o lote tivesse só os campos alterados
+                if (sent.sequence > sequence) {
+                    supersededRetries.incrementAndGet();
+                    if (tracker == null) {
+                        continue; // O estado mais novo já enviado prevalece
+                    }
+                    // Com gravações parciais, o estado mais novo pode ter levado só os próprios campos
+                    // alterados: o último estado enviado é reenviado completo, como quadro-chave
+                }
+                pending.putIfAbsent(state.getName(), retry); // Um estado pendente mais novo prevalece
+            }
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getAcceptedStates() {
+        return acceptedStates.get();
+    }
+
+    /**
+     * Estados que substituíram outro do mesmo carro ainda não gravado.
+     */
+    public long getCoalescedStates() {
+        return coalescedStates.get();
+    }
+
+    public long getRejectedStates() {
+        return rejectedStates.get();
+    }
+
+    public long getWrittenStates() {
+        return writtenStates.get();
+    }
+
+    public long getWrittenBatches() {
+        return writtenBatches.get();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.get();
+    }
+
+    /**
+     * Estados de lotes que falharam depois de `close` e não serão gravados.
+     */
+    public long getDiscardedStates() {
+        return discardedStates.get();
+    }
+
+    /**
+     * Estados de lotes com falha para os quais um estado mais novo do carro já havia sido enviado.
+     */
+    public long getSupersededRetries() {
+        return supersededRetries.get();
+    }
+
+    private static final class SentState {
+        final long sequence;
+        final CarStateSnapshot state;
+
+        SentState(long sequence, CarStateSnapshot state) {
+            this.sequence = sequence;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+// Caminho do arquivo: com/example/mylibrary/utils/FileCarStateBackend.java
+
+package com.example.mylibrary.utils;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * ### FileCarStateBackend
+ * - **Descrição**: Persiste os estados dos carros em arquivos locais: um log onde cada gravação é
+ *   acrescentada ao final e um índice com a posição do estado mais recente de cada carro. Permite
+ *   rodar sem rede e com latência de disco em vez de latência do Firestore.
+ * - **Funcionalidades**:
+ *   - `<nome>.log`: cabeçalho ("CSLG", versão, geração) e registros (tamanho, nome, campos do estado,
+ *     CRC32). Um lote é acrescentado com uma única escrita no `FileChannel`.
+ *   - `<nome>.idx`: cópia do índice gravada em `close`, válida apenas para a mesma geração e o mesmo
+ *     tamanho do log; caso contrário o índice é reconstruído lendo o log, que é truncado no primeiro
+ *     registro incompleto (ex.: gravação interrompida).
+ *   - Leituras com uma leitura posicional por carro, guiadas pelo índice em memória.
+ *   - Compactação automática quando os registros substituídos passam do dobro dos válidos. A nova
+ *     geração é montada em um arquivo à parte e só substitui o log depois de renomeada; se a
+ *     compactação falhar, o log atual continua em uso e ela é tentada de novo no próximo lote.
+ */
+public class FileCarStateBackend implements CarStateBackend {
+
+    private static final String TAG = "FileCarStateBackend";
+
+    private static final int LOG_MAGIC = 0x43534C47;   // "CSLG"
+    private static final int INDEX_MAGIC = 0x43534958; // "CSIX"
+    private static final short VERSION = 1;
+    private static final int LOG_HEADER_BYTES = 4 + 2 + 8;
+    private static final int STATE_BYTES = 4 + 4 + 8 + 4 + 4 + 4 + 4 + 4;
+    private static final int MIN_RECORDS_TO_COMPACT = 1024;
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final File logFile;
+    private final File indexFile;
+    private final boolean syncWrites;
+    private final Map<String, Long> index = new HashMap<>(); // Nome -> posição << 16 | tamanho do registro
+    private final CRC32 crc = new CRC32();
+    private RandomAccessFile log;
+    private FileChannel channel;
+    private long generation;
+    private long logLength;
+    private long recordCount;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Abre (ou cria) o log e o índice no diretório informado.
+     *
+     * @param directory  Diretório dos arquivos.
+     * @param name       Prefixo dos arquivos.
+     * @param syncWrites Se true, cada lote é forçado para o disco antes de ser confirmado.
+     * @throws IOException Se os arquivos não puderem ser abertos.
+     */
+    public FileCarStateBackend(File directory, String name, boolean syncWrites) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Não foi possível criar o diretório " + directory);
+        }
+        this.logFile = new File(directory, name + ".log");
+        this.indexFile = new File(directory, name + ".idx");
+        this.syncWrites = syncWrites;
+        open();
+    }
+
+    private void open() throws IOException {
+        openLog();
+        if (channel.size() < LOG_HEADER_BYTES) {
+            generation = new Random().nextLong();
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+            header.putInt(LOG_MAGIC).putShort(VERSION).putLong(generation).flip();
+            channel.truncate(0);
+            writeFully(header, 0);
+            logLength = LOG_HEADER_BYTES;
+            index.clear();
+            recordCount = 0;
+            return;
+        }
+        ByteBuffer header = readAt(0, LOG_HEADER_BYTES);
+        if (header.getInt() != LOG_MAGIC || header.getShort() != VERSION) {
+            throw new IOException("Log de estados inválido: " + logFile);
+        }
+        generation = header.getLong();
+        logLength = channel.size();
+        if (!loadIndex()) {
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public synchronized void writeBatch(List<CarStateSnapshot> states, WriteCallback callback) {
+        try {
+            if (channel == null) {
+                throw new IOException("Backend fechado.");
+            }
+            buffer.clear();
+            long[] recordOffsets = new long[states.size()];
+            for (int i = 0; i < states.size(); i++) {
+                recordOffsets[i] = buffer.position();
+                appendRecord(states.get(i));
+            }
+            buffer.flip();
+            long start = logLength;
+            writeFully(buffer, start);
+            if (syncWrites) {
+                channel.force(false);
+            }
+            for (int i = 0; i < states.size(); i++) {
+                long end = i + 1 < states.size() ? recordOffsets[i + 1] : buffer.limit();
+                index.put(states.get(i).getName(), (start + recordOffsets[i]) << 16 | (end - recordOffsets[i]));
+            }
+            logLength = start + buffer.limit();
+            recordCount += states.size();
+        } catch (IOException | RuntimeException e) {
+            callback.onComplete(e);
+            return;
+        }
+        callback.onComplete(null);
+
+        // O lote já está gravado: uma falha na compactação não é uma falha da gravação
+        if (recordCount > MIN_RECORDS_TO_COMPACT && recordCount > 3L * index.size()) {
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Falha ao compactar o log de estados; nova tentativa no próximo lote", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void loadBatch(List<String> names, LoadCallback callback) {
+        Map<String, CarStateSnapshot> found = new HashMap<>();
+        try {
+            if (channel == null) {
+                throw new IOException("Backend fechado.");
+            }
+            for (String name : names) {
+                Long location = index.get(name);
+                if (location != null) {
+                    ByteBuffer record = readAt(location >>> 16, (int) (location & 0xFFFF));
+                    found.put(name, decodeRecord(record));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            callback.onComplete(null, e);
+            return;
+        }
+        callback.onComplete(found, null);
+    }
+
+    /**
+     * Quantidade de carros com estado salvo.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Tamanho atual do log, em bytes.
+     */
+    public synchronized long getLogLength() {
+        return logLength;
+    }
+
+    /**
+     * Grava o índice e fecha os arquivos.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            saveIndex();
+        } finally {
+            channel.close();
+            log.close();
+            channel = null;
+            log = null;
+        }
+    }
+
+    /**
+     * Reescreve o log apenas com o estado mais recente de cada carro, em uma nova geração.
+     * Se falhar, o log atual e o índice em memória continuam válidos.
+     */
+    public synchronized void compact() throws IOException {
+        if (channel == null) {
+            throw new IOException("Backend fechado.");
+        }
+        File temp = new File(logFile.getPath() + ".tmp");
+        long newGeneration = new Random().nextLong();
+        Map<String, Long> newIndex = new HashMap<>();
+        try (FileOutputStream out = new FileOutputStream(temp);
+             FileChannel target = out.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+            header.putInt(LOG_MAGIC).putShort(VERSION).putLong(newGeneration).flip();
+            while (header.hasRemaining()) {
+                target.write(header);
+            }
+            long position = LOG_HEADER_BYTES;
+            for (Map.Entry<String, Long> entry : index.entrySet()) {
+                int length = (int) (entry.getValue() & 0xFFFF);
+                ByteBuffer record = readAt(entry.getValue() >>> 16, length);
+                record.rewind();
+                while (record.hasRemaining()) {
+                    target.write(record);
+                }
+                newIndex.put(entry.getKey(), position << 16 | length);
+                position += length;
+            }
+            target.force(false);
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        }
+
+        boolean renamed = temp.renameTo(logFile); // O log antigo continua aberto até a troca
+        closeLog();
+        if (!renamed) {
+            renamed = temp.renameTo(logFile); // Alguns sistemas não substituem um arquivo aberto
+        }
+        if (!renamed) {
+            temp.delete();
+        }
+        // Sem a troca, reabre o log antigo, que o índice em memória continua descrevendo. Se a abertura
+        // falhar, o backend fica fechado e as próximas operações informam isso
+        openLog();
+        if (!renamed) {
+            throw new IOException("Falha ao substituir o log de estados: " + logFile);
+        }
+        indexFile.delete(); // O índice antigo é de outra geração
+        generation = newGeneration;
+        logLength = channel.size();
+        index.clear();
+        index.putAll(newIndex);
+        recordCount = index.size();
+    }
+
+    private void openLog() throws IOException {
+        log = new RandomAccessFile(logFile, "rw");
+        channel = log.getChannel();
+    }
+
+    /**
+     * Fecha o log sem lançar exceções, deixando o backend fechado até `openLog`.
+     */
+    private void closeLog() {
+        try {
+            if (log != null) {
+                log.close(); // Fecha também o canal
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao fechar o log de estados", e);
+        }
+        channel = null;
+        log = null;
+    }
+
+    private void appendRecord(CarStateSnapshot state) {
+        byte[] name = state.getName().getBytes(StandardCharsets.UTF_8);
+        int payload = 2 + name.length + STATE_BYTES;
+        if (name.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Nome de carro longo demais: " + state.getName());
+        }
+        int recordBytes = 4 + payload + 4;
+        if (buffer.remaining() < recordBytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + recordBytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        int start = buffer.position();
+        buffer.putInt(payload).putShort((short) name.length).put(name)
+                .putFloat(state.getX()).putFloat(state.getY()).putDouble(state.getDirection())
+                .putFloat(state.getSpeed()).putInt(state.getFuelTank()).putInt(state.getDistance())
+                .putInt(state.getPenalty()).putInt(state.getLapsCompleted());
+        crc.reset();
+        crc.update(buffer.array(), start + 4, payload);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Lê um registro completo (tamanho, dados e CRC) posicionado no início.
+     */
+    private CarStateSnapshot decodeRecord(ByteBuffer record) throws IOException {
+        int payload = record.getInt();
+        if (payload < 2 + STATE_BYTES || record.remaining() != payload + 4) {
+            throw new IOException("Registro de estado inválido.");
+        }
+        crc.reset();
+        crc.update(record.array(), 4, payload);
+        if (record.getInt(4 + payload) != (int) crc.getValue()) {
+            throw new IOException("Registro de estado corrompido.");
+        }
+        int nameLength = record.getShort();
+        String name = new String(record.array(), record.position(), nameLength, StandardCharsets.UTF_8);
+        record.position(record.position() + nameLength);
+        return new CarStateSnapshot(name, record.getFloat(), record.getFloat(), record.getDouble(),
+                record.getFloat(), record.getInt(), record.getInt(), record.getInt(), record.getInt());
+    }
+
+    /**
+     * Reconstrói o índice lendo o log do início ao fim; um registro final incompleto ou corrompido
+     * (gravação interrompida) é descartado.
+     */
+    private void rebuildIndex() throws IOException {
+        index.clear();
+        recordCount = 0;
+        long position = LOG_HEADER_BYTES;
+        long size = channel.size();
+        while (position + 4 <= size) {
+            int payload = readAt(position, 4).getInt();
+            int length = 4 + payload + 4;
+            if (payload < 2 + STATE_BYTES || payload > 2 + Short.MAX_VALUE + STATE_BYTES || position + length > size) {
+                break;
+            }
+            CarStateSnapshot state;
+            try {
+                state = decodeRecord(readAt(position, length));
+            } catch (IOException e) {
+                break;
+            }
+            index.put(state.getName(), position << 16 | length);
+            recordCount++;
+            position += length;
+        }
+        if (position < size) {
+            channel.truncate(position);
+        }
+        logLength = position;
+    }
+
+    private boolean loadIndex() throws IOException {
+        if (!indexFile.isFile()) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(indexFile, "r");
+             FileChannel indexChannel = raf.getChannel()) {
+            ByteBuffer data = ByteBuffer.allocate((int) indexChannel.size());
+            while (data.hasRemaining() && indexChannel.read(data) >= 0) {
+                // Lê o arquivo inteiro
+            }
+            data.flip();
+            if (data.remaining() < 4 + 2 + 8 + 8 + 8 + 4 || data.getInt() != INDEX_MAGIC || data.getShort() != VERSION
+                    || data.getLong() != generation || data.getLong() != logLength) {
+                return false;
+            }
+            long records = data.getLong();
+            int count = data.getInt();
+            Map<String, Long> loaded = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int nameLength = data.getShort();
+                String name = new String(data.array(), data.position(), nameLength, StandardCharsets.UTF_8);
+                data.position(data.position() + nameLength);
+                loaded.put(name, data.getLong());
+            }
+            index.clear();
+            index.putAll(loaded);
+            recordCount = records;
+            return true;
+        } catch (RuntimeException e) {
+            return false; // Índice danificado: reconstruído a partir do log
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        List<byte[]> names = new ArrayList<>(index.size());
+        int length = 4 + 2 + 8 + 8 + 8 + 4;
+        for (String name : index.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            length += 2 + bytes.length + 8;
+        }
+        ByteBuffer data = ByteBuffer.allocate(length);
+        data.putInt(INDEX_MAGIC).putShort(VERSION).putLong(generation).putLong(logLength)
+                .putLong(recordCount).putInt(index.size());
+        int i = 0;
+        for (Long location : index.values()) {
+            byte[] name = names.get(i++);
+            data.putShort((short) name.length).put(name).putLong(location);
+        }
+        data.flip();
+        File temp = new File(indexFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp);
+             FileChannel target = out.getChannel()) {
+            while (data.hasRemaining()) {
+                target.write(data);
+            }
+        }
+        if (!temp.renameTo(indexFile)) {
+            throw new IOException("Falha ao gravar o índice de estados: " + indexFile);
+        }
+    }
+
+    private ByteBuffer readAt(long position, int length) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(length);
+        while (data.hasRemaining()) {
+            if (channel.read(data, position + data.position()) < 0) {
+                throw new IOException("Fim inesperado do log de estados.");
+            }
+        }
+        data.flip();
+        return data;
+    }
+
+    private void writeFully(ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+// Caminho do arquivo: com/example/mylibrary/utils/FirestoreCarStateBackend.java
+
+package com.example.mylibrary.utils;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ### FirestoreCarStateBackend
+ * - **Descrição**: Grava os estados dos carros no Firestore com `WriteBatch`: cada lote é um único
+ *   commit, em vez de um `set` por carro. As leituras também são feitas em lote.
+ * - **Funcionalidades**:
+ *   - Um documento por carro na coleção informada, com o nome do carro como id.
+ *   - Lotes de até `MAX_BATCH_SIZE` escritas, o limite de um `WriteBatch` do Firestore.
+ *   - Quadros-chave substituem o documento; estados parciais atualizam apenas os campos alterados
+ *     (`SetOptions.merge()`, que também cria o documento se ele não existir).
+ *   - Leituras usam consultas `whereIn` de até `MAX_IN_QUERY_SIZE` carros (o limite de valores
+ *     dela). Leituras maiores, como a restauração de uma corrida inteira, dividem os nomes em grupos
+ *     consultados em paralelo, lendo apenas os documentos pedidos, e não a coleção inteira.
+ */
+public class FirestoreCarStateBackend implements CarStateBackend {
+
+    public static final int MAX_BATCH_SIZE = 500; // Limite de operações por WriteBatch no Firestore
+    public static final int MAX_IN_QUERY_SIZE = 30; // Limite de valores em uma consulta whereIn
+
+    private final FirebaseFirestore firestore;
+    private final String collectionName;
+
+    public FirestoreCarStateBackend(FirebaseFirestore firestore, String collectionName) {
+        this.firestore = firestore;
+        this.collectionName = collectionName;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public void writeBatch(List<CarStateSnapshot> states, WriteCallback callback) {
+        CollectionReference collection = firestore.collection(collectionName);
+        WriteBatch batch = firestore.batch();
+        for (CarStateSnapshot state : states) {
+            if (state.isKeyframe()) {
+                batch.set(collection.document(state.getName()), state.toMap());
+            } else {
+                batch.set(collection.document(state.getName()), state.toMap(state.getChangedFields()), SetOptions.merge());
+            }
+        }
+        batch.commit()
+                .addOnSuccessListener(aVoid -> callback.onComplete(null))
+                .addOnFailureListener(callback::onComplete);
+    }
+
+    @Override
+    public void loadBatch(List<String> names, LoadCallback callback) {
+        if (names.isEmpty()) {
+            callback.onComplete(new HashMap<>(), null);
+            return;
+        }
+        CollectionReference collection = firestore.collection(collectionName);
+        int chunks = (names.size() + MAX_IN_QUERY_SIZE - 1) / MAX_IN_QUERY_SIZE;
+        ChunkedLoad load = new ChunkedLoad(chunks, callback);
+        // Os grupos são consultados em paralelo; o callback é chamado quando todos responderem
+        for (int from = 0; from < names.size(); from += MAX_IN_QUERY_SIZE) {
+            List<String> chunk = new ArrayList<>(names.subList(from, Math.min(from + MAX_IN_QUERY_SIZE, names.size())));
+            Query query = collection.whereIn(FieldPath.documentId(), chunk);
+            query.get().addOnCompleteListener(task -> {
+                if (!task.isSuccessful() || task.getResult() == null) {
+                    load.fail(task.getException());
+                    return;
+                }
+                Map<String, CarStateSnapshot> found = new HashMap<>();
+                try {
+                    for (DocumentSnapshot document : task.getResult().getDocuments()) {
+                        Map<String, Object> data = document.getData();
+                        if (data != null) {
+                            found.put(document.getId(), CarStateSnapshot.fromMap(document.getId(), data));
+                        }
+                    }
+                } catch (IllegalArgumentException e) {
+                    load.fail(e);
+                    return;
+                }
+                load.complete(found);
+            });
+        }
+    }
+
+    /**
+     * Junta as respostas dos grupos de uma leitura e chama o callback uma única vez: com todos os
+     * estados encontrados ou com a primeira falha.
+     */
+    private static final class ChunkedLoad {
+        private final LoadCallback callback;
+        private final Map<String, CarStateSnapshot> found = new HashMap<>();
+        private int remaining;
+        private boolean failed;
+
+        ChunkedLoad(int chunks, LoadCallback callback) {
+            this.remaining = chunks;
+            this.callback = callback;
+        }
+
+        void complete(Map<String, CarStateSnapshot> states) {
+            synchronized (this) {
+                if (failed) {
+                    return;
+                }
+                found.putAll(states);
+                if (--remaining > 0) {
+                    return;
+                }
+            }
+            callback.onComplete(found, null);
+        }
+
+        void fail(Exception error) {
+            synchronized (this) {
+                if (failed) {
+                    return;
+                }
+                failed = true;
+            }
+            callback.onComplete(null, error);
+        }
+    }
+
+    @Override
+    public void close() {
+        // A instância do Firestore é compartilhada pelo aplicativo e não é encerrada aqui
+    }
+}
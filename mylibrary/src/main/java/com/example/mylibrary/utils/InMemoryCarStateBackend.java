@@ -0,0 +1,54 @@
+// Caminho do arquivo: com/example/mylibrary/utils/InMemoryCarStateBackend.java
+
+package com.example.mylibrary.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ### InMemoryCarStateBackend
+ * - **Descrição**: Mantém os estados dos carros apenas em memória. Usado em execuções sem
+ *   persistência (ex.: testes na JVM) e como referência nas medições do `CarStateBackendHarness`.
+ * - **Funcionalidades**:
+ *   - Gravações e leituras concluídas na própria chamada, sem limite de tamanho de lote.
+ */
+public class InMemoryCarStateBackend implements CarStateBackend {
+
+    private final Map<String, CarStateSnapshot> states = new ConcurrentHashMap<>();
+
+    @Override
+    public int getMaxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void writeBatch(List<CarStateSnapshot> batch, WriteCallback callback) {
+        for (CarStateSnapshot state : batch) {
+            states.put(state.getName(), state);
+        }
+        callback.onComplete(null);
+    }
+
+    @Override
+    public void loadBatch(List<String> names, LoadCallback callback) {
+        Map<String, CarStateSnapshot> found = new HashMap<>();
+        for (String name : names) {
+            CarStateSnapshot state = states.get(name);
+            if (state != null) {
+                found.put(name, state);
+            }
+        }
+        callback.onComplete(found, null);
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    @Override
+    public void close() {
+        // Nada a liberar
+    }
+}
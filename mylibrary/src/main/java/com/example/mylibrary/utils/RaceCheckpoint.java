@@ -0,0 +1,235 @@
+// Caminho do arquivo: com/example/mylibrary/utils/RaceCheckpoint.java
+
+package com.example.mylibrary.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ### RaceCheckpoint
+ * - **Descrição**: Instantâneo de toda a corrida (estado de cada carro, incluindo o Safety Car, o
+ *   tempo restante até o deadline de cada carro e o cursor das métricas) gravado em um arquivo
+ *   binário local, para retomar a corrida sem consultar o Firestore carro a carro.
+ * - **Funcionalidades**:
+ *   - `capture` copia um `CarStateStore` sem bloquear a corrida (ver `CarStateStore.copyInto`).
+ *   - `writeTo` grava com `FileChannel` em um arquivo temporário, renomeado ao final: um
+ *     checkpoint anterior só é substituído por um arquivo completo.
+ *   - `read` lê o arquivo em uma única passada sobre um `MappedByteBuffer`.
+ * - **Formato** (versão 1, big-endian):
+ *   - Cabeçalho: "RCKP", versão (short), reservado (short), criação em ms (long), cursor das
+ *     métricas (long), quantidade de carros (int), slot do Safety Car (int, -1 se não houver).
+ *   - Um registro por carro: nome (short com o tamanho + bytes UTF-8), x, y (float), direção
+ *     (double), velocidade (float), combustível, distância, penalidades, voltas (int) e tempo
+ *     restante até o deadline em ms (long).
+ *   - Rodapé: "RCKE", para detectar arquivos truncados.
+ */
+public final class RaceCheckpoint {
+
+    public static final int MAGIC = 0x52434B50;     // "RCKP"
+    public static final int END_MAGIC = 0x52434B45; // "RCKE"
+    public static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 8 + 8 + 4 + 4;
+    private static final int RECORD_FIXED_BYTES = 2 + 4 + 4 + 8 + 4 + 4 + 4 + 4 + 4 + 8;
+
+    private final CarStateStore cars;
+    private long[] deadlineRemainingMillis;
+    private int safetyCarSlot = -1;
+    private long createdAtMillis;
+    private long metricsCursor;
+    private Map<String, Integer> slotsByName;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(0);
+
+    public RaceCheckpoint(int initialCapacity) {
+        this.cars = new CarStateStore(initialCapacity);
+        this.deadlineRemainingMillis = new long[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Copia o estado de todos os carros. Os tempos até o deadline são zerados e devem ser
+     * preenchidos com {@link #setDeadlineRemaining(int, long)}.
+     */
+    public void capture(CarStateStore source) {
+        source.copyInto(cars);
+        if (deadlineRemainingMillis.length < cars.size()) {
+            deadlineRemainingMillis = new long[cars.size()];
+        } else {
+            Arrays.fill(deadlineRemainingMillis, 0);
+        }
+        createdAtMillis = System.currentTimeMillis();
+        slotsByName = null;
+    }
+
+    /**
+     * Estados copiados, nos mesmos slots do armazenamento de origem.
+     */
+    public CarStateStore getCars() {
+        return cars;
+    }
+
+    public int getCarCount() {
+        return cars.size();
+    }
+
+    /**
+     * Slot do carro com o nome informado.
+     *
+     * @return O slot, ou -1 se o carro não estiver no checkpoint.
+     */
+    public int findSlot(String name) {
+        if (slotsByName == null) {
+            Map<String, Integer> slots = new HashMap<>();
+            for (int slot = 0; slot < cars.size(); slot++) {
+                slots.put(cars.getName(slot), slot);
+            }
+            slotsByName = slots;
+        }
+        Integer slot = slotsByName.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    public void setDeadlineRemaining(int slot, long remainingMillis) {
+        deadlineRemainingMillis[slot] = remainingMillis;
+    }
+
+    public long getDeadlineRemaining(int slot) {
+        return deadlineRemainingMillis[slot];
+    }
+
+    public void setSafetyCarSlot(int safetyCarSlot) {
+        this.safetyCarSlot = safetyCarSlot;
+    }
+
+    public int getSafetyCarSlot() {
+        return safetyCarSlot;
+    }
+
+    /**
+     * Quantidade de métricas já coletadas no instante do checkpoint, para alinhar os arquivos
+     * de métricas exportados com o estado salvo.
+     */
+    public void setMetricsCursor(long metricsCursor) {
+        this.metricsCursor = metricsCursor;
+    }
+
+    public long getMetricsCursor() {
+        return metricsCursor;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Grava o checkpoint no arquivo informado, substituindo-o apenas depois da gravação completa.
+     *
+     * @return Tamanho do arquivo em bytes.
+     * @throws IOException Se o arquivo não puder ser gravado ou renomeado.
+     */
+    public long writeTo(File file) throws IOException {
+        int count = cars.size();
+        byte[][] names = new byte[count][];
+        int length = HEADER_BYTES + 4;
+        for (int slot = 0; slot < count; slot++) {
+            names[slot] = cars.getName(slot).getBytes(StandardCharsets.UTF_8);
+            if (names[slot].length > Short.MAX_VALUE) {
+                throw new IOException("Nome de carro longo demais: " + cars.getName(slot));
+            }
+            length += RECORD_FIXED_BYTES + names[slot].length;
+        }
+        if (writeBuffer.capacity() < length) {
+            writeBuffer = ByteBuffer.allocate(length);
+        }
+        ByteBuffer buffer = writeBuffer;
+        buffer.clear();
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                .putLong(createdAtMillis).putLong(metricsCursor).putInt(count).putInt(safetyCarSlot);
+        for (int slot = 0; slot < count; slot++) {
+            buffer.putShort((short) names[slot].length).put(names[slot])
+                    .putFloat(cars.getX(slot)).putFloat(cars.getY(slot)).putDouble(cars.getHeading(slot))
+                    .putFloat(cars.getSpeed(slot)).putInt(cars.getFuelTank(slot)).putInt(cars.getDistance(slot))
+                    .putInt(cars.getPenalty(slot)).putInt(cars.getLapsCompleted(slot))
+                    .putLong(deadlineRemainingMillis[slot]);
+        }
+        buffer.putInt(END_MAGIC);
+        buffer.flip();
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp);
+             FileChannel channel = out.getChannel()) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Falha ao substituir o checkpoint: " + file.getAbsolutePath());
+        }
+        return length;
+    }
+
+    /**
+     * Lê um checkpoint gravado por {@link #writeTo(File)}.
+     *
+     * @throws IOException Se o arquivo não existir, for de outra versão ou estiver incompleto.
+     */
+    public static RaceCheckpoint read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES + 4 || buffer.getInt() != MAGIC) {
+                throw new IOException("Arquivo de checkpoint inválido: " + file.getName());
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Versão de checkpoint não suportada: " + version);
+            }
+            buffer.getShort(); // Reservado
+            long createdAtMillis = buffer.getLong();
+            long metricsCursor = buffer.getLong();
+            int count = buffer.getInt();
+            int safetyCarSlot = buffer.getInt();
+            if (count < 0 || (long) count * RECORD_FIXED_BYTES > buffer.remaining()) {
+                throw new IOException("Checkpoint incompleto: " + file.getName());
+            }
+
+            RaceCheckpoint checkpoint = new RaceCheckpoint(count);
+            CarStateStore cars = checkpoint.cars;
+            byte[] name = new byte[64];
+            for (int i = 0; i < count; i++) {
+                int nameLength = buffer.getShort();
+                if (nameLength > name.length) {
+                    name = new byte[nameLength];
+                }
+                buffer.get(name, 0, nameLength);
+                int slot = cars.allocate(new String(name, 0, nameLength, StandardCharsets.UTF_8));
+                cars.setPosition(slot, buffer.getFloat(), buffer.getFloat());
+                cars.setHeading(slot, buffer.getDouble());
+                cars.setSpeed(slot, buffer.getFloat());
+                cars.setFuelTank(slot, buffer.getInt());
+                cars.setDistance(slot, buffer.getInt());
+                cars.setPenalty(slot, buffer.getInt());
+                cars.setLapsCompleted(slot, buffer.getInt());
+                checkpoint.deadlineRemainingMillis[slot] = buffer.getLong();
+            }
+            if (buffer.getInt() != END_MAGIC) {
+                throw new IOException("Checkpoint incompleto: " + file.getName());
+            }
+            checkpoint.createdAtMillis = createdAtMillis;
+            checkpoint.metricsCursor = metricsCursor;
+            checkpoint.safetyCarSlot = safetyCarSlot;
+            return checkpoint;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Checkpoint incompleto: " + file.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+// Caminho do arquivo: com/example/mylibrary/utils/RaceCheckpointWriter.java
+
+package com.example.mylibrary.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ### RaceCheckpointWriter
+ * - **Descrição**: Grava checkpoints periódicos da corrida em segundo plano. A cópia do estado é
+ *   feita pela thread da simulação, entre dois ciclos, em um `RaceCheckpoint` reaproveitado; a
+ *   gravação no arquivo é feita por uma thread de baixa prioridade, sem pausar a corrida.
+ * - **Funcionalidades**:
+ *   - `beginCapture` entrega o checkpoint a preencher, ou null se a gravação anterior ainda não
+ *     terminou (a captura é pulada em vez de esperar).
+ *   - `commitCapture` entrega o checkpoint preenchido à thread de gravação.
+ *   - `close` aguarda a gravação em andamento e encerra a thread.
+ */
+public class RaceCheckpointWriter {
+
+    private final File file;
+    private final RaceCheckpoint checkpoint;
+    private Thread writerThread;
+    private boolean running;
+    private boolean capturing; // Checkpoint entregue a quem captura e ainda não devolvido
+    private boolean pending;   // Checkpoint preenchido aguardando gravação
+
+    private final AtomicLong writtenCheckpoints = new AtomicLong();
+    private final AtomicLong skippedCaptures = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private volatile long lastWriteNanos;
+    private volatile long lastFileBytes;
+    private volatile IOException lastError;
+
+    /**
+     * @param file            Arquivo do checkpoint, substituído a cada gravação.
+     * @param initialCapacity Quantidade de carros esperada.
+     */
+    public RaceCheckpointWriter(File file, int initialCapacity) {
+        this.file = file;
+        this.checkpoint = new RaceCheckpoint(initialCapacity);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "RaceCheckpointWriter");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.MIN_PRIORITY);
+        writerThread.start();
+    }
+
+    /**
+     * Obtém o checkpoint a ser preenchido pela thread da simulação.
+     *
+     * @return O checkpoint, ou null se o anterior ainda estiver sendo gravado.
+     */
+    public synchronized RaceCheckpoint beginCapture() {
+        if (!running || capturing || pending) {
+            skippedCaptures.incrementAndGet();
+            return null;
+        }
+        capturing = true;
+        return checkpoint;
+    }
+
+    /**
+     * Entrega para gravação o checkpoint obtido em {@link #beginCapture()}.
+     */
+    public synchronized void commitCapture() {
+        if (!capturing) {
+            throw new IllegalStateException("commitCapture sem beginCapture.");
+        }
+        capturing = false;
+        pending = true;
+        notifyAll();
+    }
+
+    /**
+     * Aguarda a gravação pendente e encerra a thread de gravação.
+     *
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public void close() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            notifyAll();
+            thread = writerThread;
+            writerThread = null;
+        }
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            synchronized (this) {
+                while (running && !pending) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!pending) {
+                    return;
+                }
+            }
+            long start = System.nanoTime();
+            try {
+                lastFileBytes = checkpoint.writeTo(file);
+                writtenCheckpoints.incrementAndGet();
+            } catch (IOException e) {
+                failedWrites.incrementAndGet();
+                lastError = e;
+            }
+            lastWriteNanos = System.nanoTime() - start;
+            synchronized (this) {
+                pending = false;
+            }
+        }
+    }
+
+    public long getWrittenCheckpoints() {
+        return writtenCheckpoints.get();
+    }
+
+    /**
+     * Capturas puladas porque a gravação anterior ainda não tinha terminado.
+     */
+    public long getSkippedCaptures() {
+        return skippedCaptures.get();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    public long getLastFileBytes() {
+        return lastFileBytes;
+    }
+
+    public IOException getLastError() {
+        return lastError;
+    }
+}
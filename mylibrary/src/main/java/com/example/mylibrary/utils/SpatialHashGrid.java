@@ -0,0 +1,145 @@
+// Caminho do arquivo: com/example/mylibrary/utils/SpatialHashGrid.java
+
+package com.example.mylibrary.utils;
+
+import java.util.Arrays;
+
+/**
+ * ### SpatialHashGrid
+ * - **Descrição**: Grade de hash espacial uniforme para consultas de vizinhança entre carros.
+ *   Cada posição é associada a uma célula quadrada de tamanho fixo, e as células são
+ *   agrupadas em uma tabela de hash por ordenação por contagem (sem objetos por célula).
+ * - **Funcionalidades**:
+ *   - `rebuild` reconstrói a grade em O(n), reaproveitando os arrays internos.
+ *   - `query` devolve os índices candidatos nas células que cobrem o raio consultado; a
+ *     verificação exata de distância fica a cargo de quem consulta.
+ *   - Não é segura para reconstrução concorrente com consultas: quem usa a grade deve
+ *     reconstruí-la fora das consultas ou trocar a instância inteira.
+ */
+public final class SpatialHashGrid {
+
+    private final float cellSize;
+    private final float inverseCellSize;
+
+    private int tableMask;
+    private int[] cellStart = new int[0]; // Início de cada balde em `items` (tamanho tabela + 1)
+    private int[] items = new int[0];     // Índices agrupados por balde
+    private int[] itemBucket = new int[0];
+    private int[] cursor = new int[0];
+    private int count;
+
+    public SpatialHashGrid(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("O tamanho da célula deve ser positivo.");
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+    }
+
+    /**
+     * Reconstrói a grade com as posições informadas. O índice de cada item é a sua posição nos arrays.
+     *
+     * @param xs    Coordenadas X.
+     * @param ys    Coordenadas Y.
+     * @param count Quantidade de posições válidas nos arrays.
+     */
+    public void rebuild(float[] xs, float[] ys, int count) {
+        int tableSize = Integer.highestOneBit(Math.max(16, count * 2 - 1)) << 1;
+        if (cellStart.length != tableSize + 1) {
+            cellStart = new int[tableSize + 1];
+        } else {
+            Arrays.fill(cellStart, 0);
+        }
+        if (items.length < count) {
+            items = new int[count];
+            itemBucket = new int[count];
+        }
+        tableMask = tableSize - 1;
+        this.count = count;
+
+        // Ordenação por contagem: conta, acumula e distribui os itens por balde
+        for (int i = 0; i < count; i++) {
+            int bucket = bucketOf(cellOf(xs[i]), cellOf(ys[i]));
+            itemBucket[i] = bucket;
+            cellStart[bucket + 1]++;
+        }
+        for (int b = 0; b < tableSize; b++) {
+            cellStart[b + 1] += cellStart[b];
+        }
+        if (cursor.length != tableSize) {
+            cursor = new int[tableSize];
+        }
+        System.arraycopy(cellStart, 0, cursor, 0, tableSize);
+        for (int i = 0; i < count; i++) {
+            items[cursor[itemBucket[i]]++] = i;
+        }
+    }
+
+    /**
+     * Consulta os índices candidatos no quadrado de lado `2 * radius` centrado no ponto.
+     *
+     * @param x      Coordenada X do centro da consulta.
+     * @param y      Coordenada Y do centro da consulta.
+     * @param radius Raio da consulta.
+     * @param out    Array de saída para os índices candidatos.
+     * @return Total de candidatos encontrados; se for maior que `out.length`, apenas os primeiros foram copiados.
+     */
+    public int query(float x, float y, float radius, int[] out) {
+        if (count == 0) {
+            return 0;
+        }
+        int minCellX = cellOf(x - radius);
+        int maxCellX = cellOf(x + radius);
+        int minCellY = cellOf(y - radius);
+        int maxCellY = cellOf(y + radius);
+
+        int found = 0;
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                int bucket = bucketOf(cx, cy);
+
+                // Células diferentes podem colidir no mesmo balde; cada balde é percorrido uma única vez
+                if (isBucketVisited(bucket, minCellX, maxCellX, minCellY, cx, cy)) continue;
+
+                for (int k = cellStart[bucket]; k < cellStart[bucket + 1]; k++) {
+                    if (found < out.length) {
+                        out[found] = items[k];
+                    }
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Verifica se alguma célula anterior da consulta caiu no mesmo balde, sem alocar memória.
+     */
+    private boolean isBucketVisited(int bucket, int minCellX, int maxCellX, int minCellY, int cellX, int cellY) {
+        for (int cy = minCellY; cy <= cellY; cy++) {
+            int lastX = cy == cellY ? cellX - 1 : maxCellX;
+            for (int cx = minCellX; cx <= lastX; cx++) {
+                if (bucketOf(cx, cy) == bucket) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private int cellOf(float coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private int bucketOf(int cellX, int cellY) {
+        return ((cellX * 73856093) ^ (cellY * 19349663)) & tableMask;
+    }
+}
@@ -0,0 +1,80 @@
+// Caminho do arquivo: com/example/mylibrary/utils/SweepAndPrune.java
+
+package com.example.mylibrary.utils;
+
+/**
+ * ### SweepAndPrune
+ * - **Descrição**: Fase ampla (*broadphase*) de detecção de colisões por ordenação e varredura no eixo X.
+ *   A ordem dos itens é mantida entre os quadros; como os carros se movem pouco a cada ciclo,
+ *   a reordenação por inserção custa praticamente O(n).
+ * - **Funcionalidades**:
+ *   - Reporta cada par cujas caixas alinhadas aos eixos (AABB) se sobrepõem, uma única vez.
+ *   - Não aloca memória em regime permanente; os arrays só crescem quando o número de itens aumenta.
+ *   - Não é segura para uso concorrente: deve ser chamada por uma única thread por ciclo.
+ */
+public final class SweepAndPrune {
+
+    /**
+     * Recebe os pares candidatos encontrados pela varredura.
+     */
+    public interface PairConsumer {
+        void onPair(int first, int second);
+    }
+
+    private int[] order = new int[0]; // Índices ordenados pelo início da caixa no eixo X
+    private int count;
+
+    /**
+     * Encontra os pares de caixas sobrepostas.
+     *
+     * @param minX     Início de cada caixa no eixo X.
+     * @param maxX     Fim de cada caixa no eixo X.
+     * @param minY     Início de cada caixa no eixo Y.
+     * @param maxY     Fim de cada caixa no eixo Y.
+     * @param count    Quantidade de caixas.
+     * @param consumer Receptor dos pares, sempre com `first < second`.
+     * @return Número de pares reportados.
+     */
+    public int findOverlaps(float[] minX, float[] maxX, float[] minY, float[] maxY, int count, PairConsumer consumer) {
+        if (count != this.count) {
+            // O conjunto mudou: recomeça da ordem natural e deixa a ordenação por inserção ajustá-la
+            if (order.length < count) {
+                order = new int[count];
+            }
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            this.count = count;
+        }
+
+        // Ordenação por inserção sobre a ordem do quadro anterior (quase ordenada)
+        for (int i = 1; i < count; i++) {
+            int item = order[i];
+            float key = minX[item];
+            int j = i - 1;
+            while (j >= 0 && minX[order[j]] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = item;
+        }
+
+        // Varredura: cada caixa só é comparada com as que começam antes de ela terminar
+        int pairs = 0;
+        for (int i = 0; i < count; i++) {
+            int a = order[i];
+            float endA = maxX[a];
+            for (int j = i + 1; j < count; j++) {
+                int b = order[j];
+                if (minX[b] > endA) {
+                    break;
+                }
+                if (minY[b] <= maxY[a] && maxY[b] >= minY[a]) {
+                    consumer.onPair(Math.min(a, b), Math.max(a, b));
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,287 @@
+// Caminho do arquivo: com/example/mylibrary/utils/TickJournalReader.java
+
+package com.example.mylibrary.utils;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ### TickJournalReader
+ * - **Descrição**: Lê o diário gravado pelo `TickJournalWriter` para reproduzir a corrida ciclo a
+ *   ciclo. O arquivo é mapeado em memória por janelas, sob demanda; ler um registro não copia o
+ *   arquivo nem faz chamadas de sistema.
+ * - **Funcionalidades**:
+ *   - `findRecord` localiza o registro de um ciclo em O(log n): busca binária no índice esparso e
+ *     leitura de no máximo `keyframeInterval` registros a partir da entrada encontrada.
+ *   - `read` copia o estado dos carros de um registro para um `CarStateStore` (ver `createStore`).
+ *     Pode ser usado por mais de uma thread (ex.: reprodução e busca pela interface).
+ *   - Diários não fechados são lidos até o último registro completo, localizado por busca binária
+ *     na marca de fim de registro; sem o arquivo `.idx` (ou com um índice de outro diário), o índice
+ *     esparso é reconstruído a partir dos registros.
+ */
+public final class TickJournalReader implements Closeable {
+
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final String[] names;
+    private final int recordBytes;
+    private final int recordsPerSegment;
+    private final long dataOffset;
+    private final long fileLength;
+    private final long startedAtMillis;
+    private final MappedByteBuffer[] segments;
+    private final long recordCount;
+    private int keyframeInterval;
+    private long[] keyframeTicks;
+
+    private TickJournalReader(File file) throws IOException {
+        raf = new RandomAccessFile(file, "r");
+        channel = raf.getChannel();
+        try (DataInputStream header = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            fileLength = channel.size();
+            if (header.readInt() != TickJournalWriter.MAGIC || header.readShort() != TickJournalWriter.VERSION) {
+                throw new IOException("Diário de corrida inválido: " + file);
+            }
+            header.readShort(); // Reservado
+            int carCount = header.readInt();
+            recordBytes = header.readInt();
+            recordsPerSegment = header.readInt();
+            startedAtMillis = header.readLong();
+            if (carCount < 0 || recordBytes != TickJournalWriter.RECORD_HEADER_BYTES
+                    + carCount * TickJournalWriter.CAR_BYTES + TickJournalWriter.RECORD_TRAILER_BYTES
+                    || recordsPerSegment <= 0) {
+                throw new IOException("Cabeçalho do diário corrompido: " + file);
+            }
+            names = new String[carCount];
+            int headerBytes = TickJournalWriter.HEADER_FIXED_BYTES;
+            for (int slot = 0; slot < carCount; slot++) {
+                byte[] name = new byte[header.readShort()];
+                header.readFully(name);
+                names[slot] = new String(name, StandardCharsets.UTF_8);
+                headerBytes += 2 + name.length;
+            }
+            dataOffset = (headerBytes + TickJournalWriter.PAGE_BYTES - 1)
+                    / TickJournalWriter.PAGE_BYTES * (long) TickJournalWriter.PAGE_BYTES;
+        } catch (EOFException | NegativeArraySizeException e) {
+            close();
+            throw new IOException("Cabeçalho do diário truncado: " + file, e);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        long capacity = Math.max(0, (fileLength - dataOffset) / recordBytes);
+        segments = new MappedByteBuffer[(int) ((capacity + recordsPerSegment - 1) / recordsPerSegment)];
+        recordCount = countCompleteRecords(capacity);
+        if (!loadIndex(new File(file.getPath() + ".idx"))) {
+            rebuildIndex(TickJournalWriter.DEFAULT_KEYFRAME_INTERVAL);
+        }
+    }
+
+    /**
+     * Abre um diário para leitura.
+     *
+     * @throws IOException Se o arquivo não existir ou não for um diário válido.
+     */
+    public static TickJournalReader open(File file) throws IOException {
+        return new TickJournalReader(file);
+    }
+
+    /**
+     * Registros gravados formam um prefixo do arquivo: o último completo é encontrado por busca
+     * binária na marca de fim de registro.
+     */
+    private long countCompleteRecords(long capacity) {
+        long low = 0;
+        long high = capacity;
+        while (low < high) {
+            long mid = (low + high + 1) >>> 1;
+            if (isComplete(mid - 1)) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private boolean isComplete(long record) {
+        ByteBuffer segment = segment(record);
+        int position = position(record);
+        return segment.getInt(position + recordBytes - TickJournalWriter.RECORD_TRAILER_BYTES)
+                == TickJournalWriter.RECORD_MAGIC;
+    }
+
+    private boolean loadIndex(File indexFile) throws IOException {
+        if (!indexFile.isFile()) {
+            return false;
+        }
+        try (RandomAccessFile index = new RandomAccessFile(indexFile, "r")) {
+            ByteBuffer data = ByteBuffer.allocate((int) index.length());
+            index.readFully(data.array());
+            if (data.getInt() != TickJournalWriter.INDEX_MAGIC || data.getShort() != TickJournalWriter.VERSION
+                    || data.getLong() != recordCount) {
+                return false;
+            }
+            int interval = data.getInt();
+            int count = data.getInt();
+            if (interval <= 0 || count != (recordCount + interval - 1) / interval) {
+                return false;
+            }
+            long[] ticks = new long[count];
+            for (int i = 0; i < count; i++) {
+                ticks[i] = data.getLong();
+            }
+            keyframeInterval = interval;
+            keyframeTicks = ticks;
+            return true;
+        } catch (BufferUnderflowException e) {
+            return false; // Índice incompleto: reconstruído a partir dos registros
+        }
+    }
+
+    private void rebuildIndex(int interval) {
+        long[] ticks = new long[(int) ((recordCount + interval - 1) / interval)];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = getTick((long) i * interval);
+        }
+        keyframeInterval = interval;
+        keyframeTicks = ticks;
+    }
+
+    private synchronized MappedByteBuffer segment(long record) {
+        int index = (int) (record / recordsPerSegment);
+        MappedByteBuffer segment = segments[index];
+        if (segment == null) {
+            long start = dataOffset + (long) index * recordsPerSegment * recordBytes;
+            long length = Math.min((long) recordsPerSegment * recordBytes, fileLength - start);
+            try {
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha ao mapear o diário.", e);
+            }
+            segments[index] = segment;
+        }
+        return segment;
+    }
+
+    private int position(long record) {
+        return (int) (record % recordsPerSegment) * recordBytes;
+    }
+
+    /**
+     * Localiza o último registro com ciclo menor ou igual ao informado.
+     *
+     * @return O índice do registro, ou -1 se o ciclo for anterior ao primeiro registro.
+     */
+    public long findRecord(long tick) {
+        int low = 0;
+        int high = keyframeTicks.length - 1;
+        int keyframe = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keyframeTicks[mid] <= tick) {
+                keyframe = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (keyframe < 0) {
+            return -1;
+        }
+        long record = (long) keyframe * keyframeInterval;
+        long end = Math.min(recordCount, record + keyframeInterval);
+        while (record + 1 < end && getTick(record + 1) <= tick) {
+            record++;
+        }
+        return record;
+    }
+
+    public long getTick(long record) {
+        checkRecord(record);
+        return segment(record).getLong(position(record));
+    }
+
+    /**
+     * Tempo do registro desde o início da gravação, em ns.
+     */
+    public long getElapsedNanos(long record) {
+        checkRecord(record);
+        return segment(record).getLong(position(record) + 8);
+    }
+
+    /**
+     * Copia o estado dos carros do registro para os slots `0..getCarCount()-1` do armazenamento.
+     * Distância e voltas não fazem parte do diário e não são alteradas.
+     */
+    public void read(long record, CarStateStore target) {
+        checkRecord(record);
+        if (target.size() < names.length) {
+            throw new IllegalArgumentException("O armazenamento tem menos carros que o diário.");
+        }
+        ByteBuffer segment = segment(record);
+        int position = position(record) + TickJournalWriter.RECORD_HEADER_BYTES;
+        for (int slot = 0; slot < names.length; slot++) {
+            target.setPosition(slot, segment.getFloat(position), segment.getFloat(position + 4));
+            target.setHeading(slot, TickJournalWriter.decodeHeading(segment.getChar(position + 8)));
+            target.setSpeed(slot, segment.getFloat(position + 10));
+            target.setFuelTank(slot, segment.getInt(position + 14));
+            target.setPenalty(slot, segment.getShort(position + 18));
+            position += TickJournalWriter.CAR_BYTES;
+        }
+    }
+
+    /**
+     * Armazenamento com um slot por carro do diário, na mesma ordem, para uso com {@link #read}.
+     */
+    public CarStateStore createStore() {
+        CarStateStore store = new CarStateStore(names.length);
+        for (String name : names) {
+            store.allocate(name);
+        }
+        return store;
+    }
+
+    private void checkRecord(long record) {
+        if (record < 0 || record >= recordCount) {
+            throw new IndexOutOfBoundsException("Registro " + record + " de " + recordCount);
+        }
+    }
+
+    public int getCarCount() {
+        return names.length;
+    }
+
+    public String getCarName(int slot) {
+        return names[slot];
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        raf.close();
+    }
+}
@@ -0,0 +1,247 @@
+// Caminho do arquivo: com/example/mylibrary/utils/TickJournalWriter.java
+
+package com.example.mylibrary.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * ### TickJournalWriter
+ * - **Descrição**: Diário da corrida: acrescenta, a cada ciclo, o estado compacto de todos os carros
+ *   a um arquivo mapeado em memória, para reproduzir a corrida depois com o `TickJournalReader`.
+ *   A gravação é feita pela própria thread do ciclo, sem chamadas de sistema: cada registro é
+ *   copiado para a região mapeada, e o sistema operacional grava as páginas em segundo plano.
+ * - **Funcionalidades**:
+ *   - Registros de tamanho fixo, mapeados em janelas de até `SEGMENT_TARGET_BYTES`; a próxima
+ *     janela é mapeada quando a anterior enche.
+ *   - Índice esparso com o ciclo de um registro a cada `keyframeInterval`, gravado em
+ *     `<arquivo>.idx` no `close` e usado pelo leitor para localizar um ciclo em O(log n).
+ *   - Cada registro termina com uma marca gravada por último: um diário não fechado (ex.: processo
+ *     encerrado) continua legível até o último registro completo.
+ *   - `append` e `close` são mutuamente exclusivos: um ciclo ainda em andamento ao finalizar a
+ *     corrida termina antes do arquivo ser truncado, e um ciclo posterior recebe `IOException` em
+ *     vez de escrever numa região já liberada.
+ * - **Formato** (versão 1, big-endian):
+ *   - Cabeçalho: "TJRN", versão (short), reservado (short), quantidade de carros (int), bytes por
+ *     registro (int), registros por janela (int), início em ms (long), nomes dos carros (short com
+ *     o tamanho + bytes UTF-8). Os registros começam em `dataOffset`, múltiplo de 4096.
+ *   - Registro: ciclo (long), tempo desde o início em ns (long), por carro x, y (float), direção
+ *     (char, 1/65536 de volta), velocidade (float), combustível (int), penalidades (short), e a
+ *     marca "TJRC" (int).
+ * - **Observação**: Os carros gravados são os slots do `CarStateStore` existentes na criação; carros
+ *   alocados depois não entram no diário.
+ */
+public class TickJournalWriter {
+
+    public static final int MAGIC = 0x544A524E;        // "TJRN"
+    public static final int RECORD_MAGIC = 0x544A5243; // "TJRC"
+    public static final int INDEX_MAGIC = 0x544A4958;  // "TJIX"
+    public static final short VERSION = 1;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+    static final int HEADER_FIXED_BYTES = 4 + 2 + 2 + 4 + 4 + 4 + 8;
+    static final int RECORD_HEADER_BYTES = 8 + 8;
+    static final int CAR_BYTES = 4 + 4 + 2 + 4 + 4 + 2;
+    static final int RECORD_TRAILER_BYTES = 4;
+    static final int PAGE_BYTES = 4096;
+    private static final int SEGMENT_TARGET_BYTES = 8 * 1024 * 1024;
+
+    private final File file;
+    private final int carCount;
+    private final int recordBytes;
+    private final int recordsPerSegment;
+    private final long dataOffset;
+    private final int keyframeInterval;
+    private final long startNanos = System.nanoTime();
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long recordCount;
+    private long lastTick = Long.MIN_VALUE;
+    private long[] keyframeTicks = new long[256];
+    private int keyframeCount;
+
+    private volatile long appendNanos;
+    private volatile long lastAppendNanos;
+
+    /**
+     * Cria (ou substitui) o diário com os carros atualmente alocados no armazenamento.
+     *
+     * @param file             Arquivo do diário.
+     * @param cars             Armazenamento dos carros da corrida.
+     * @param keyframeInterval Registros entre entradas do índice esparso.
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    public TickJournalWriter(File file, CarStateStore cars, int keyframeInterval) throws IOException {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Intervalo do índice inválido: " + keyframeInterval);
+        }
+        this.file = file;
+        this.carCount = cars.size();
+        this.keyframeInterval = keyframeInterval;
+        this.recordBytes = RECORD_HEADER_BYTES + carCount * CAR_BYTES + RECORD_TRAILER_BYTES;
+        this.recordsPerSegment = Math.max(1, SEGMENT_TARGET_BYTES / recordBytes);
+
+        byte[][] names = new byte[carCount][];
+        int headerBytes = HEADER_FIXED_BYTES;
+        for (int slot = 0; slot < carCount; slot++) {
+            names[slot] = cars.getName(slot).getBytes(StandardCharsets.UTF_8);
+            headerBytes += 2 + names[slot].length;
+        }
+        this.dataOffset = (headerBytes + PAGE_BYTES - 1) / PAGE_BYTES * (long) PAGE_BYTES;
+        ByteBuffer header = ByteBuffer.allocate(headerBytes);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(carCount).putInt(recordBytes)
+                .putInt(recordsPerSegment).putLong(System.currentTimeMillis());
+        for (byte[] name : names) {
+            header.putShort((short) name.length).put(name);
+        }
+        header.flip();
+
+        new File(file.getPath() + ".idx").delete(); // Índice de um diário anterior
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        channel.truncate(0);
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    /**
+     * Acrescenta o estado atual dos carros, com ciclos crescentes.
+     *
+     * @param tick Número do ciclo.
+     * @param cars Armazenamento informado na criação.
+     * @throws IOException Se o diário estiver fechado ou a próxima janela do arquivo não puder ser
+     *                     mapeada.
+     */
+    public synchronized void append(long tick, CarStateStore cars) throws IOException {
+        long start = System.nanoTime();
+        if (channel == null) {
+            throw new IOException("Diário fechado.");
+        }
+        if (tick <= lastTick) {
+            throw new IllegalArgumentException("Ciclo fora de ordem: " + tick);
+        }
+        int index = (int) (recordCount % recordsPerSegment);
+        if (index == 0) {
+            mapSegment((int) (recordCount / recordsPerSegment));
+        }
+        MappedByteBuffer out = segment;
+        int position = index * recordBytes;
+        out.putLong(position, tick);
+        out.putLong(position + 8, start - startNanos);
+        position += RECORD_HEADER_BYTES;
+        for (int slot = 0; slot < carCount; slot++) {
+            out.putFloat(position, cars.getX(slot));
+            out.putFloat(position + 4, cars.getY(slot));
+            out.putChar(position + 8, encodeHeading(cars.getHeading(slot)));
+            out.putFloat(position + 10, cars.getSpeed(slot));
+            out.putInt(position + 14, cars.getFuelTank(slot));
+            out.putShort(position + 18, (short) Math.min(Short.MAX_VALUE, Math.max(0, cars.getPenalty(slot))));
+            position += CAR_BYTES;
+        }
+        out.putInt(position, RECORD_MAGIC); // Por último: o registro passa a valer
+
+        if (recordCount % keyframeInterval == 0) {
+            if (keyframeCount == keyframeTicks.length) {
+                keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            }
+            keyframeTicks[keyframeCount++] = tick;
+        }
+        recordCount++;
+        lastTick = tick;
+        long elapsed = System.nanoTime() - start;
+        lastAppendNanos = elapsed;
+        appendNanos += elapsed; // Escrito apenas sob o monitor
+    }
+
+    private void mapSegment(int index) throws IOException {
+        segment = null; // A janela anterior é liberada pelo coletor de lixo
+        segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                dataOffset + (long) index * recordsPerSegment * recordBytes, (long) recordsPerSegment * recordBytes);
+    }
+
+    /**
+     * Grava as páginas pendentes, ajusta o tamanho do arquivo ao último registro e grava o índice.
+     */
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (segment != null) {
+                segment.force();
+                segment = null;
+            }
+            channel.truncate(dataOffset + recordCount * recordBytes);
+            channel.force(true);
+        } finally {
+            channel.close();
+            raf.close();
+            channel = null;
+            raf = null;
+        }
+        writeIndex();
+    }
+
+    private void writeIndex() throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(4 + 2 + 8 + 4 + 4 + keyframeCount * 8);
+        index.putInt(INDEX_MAGIC).putShort(VERSION).putLong(recordCount).putInt(keyframeInterval).putInt(keyframeCount);
+        for (int i = 0; i < keyframeCount; i++) {
+            index.putLong(keyframeTicks[i]);
+        }
+        index.flip();
+        File temp = new File(file.getPath() + ".idx.tmp");
+        try (FileOutputStream out = new FileOutputStream(temp);
+             FileChannel target = out.getChannel()) {
+            while (index.hasRemaining()) {
+                target.write(index);
+            }
+        }
+        if (!temp.renameTo(new File(file.getPath() + ".idx"))) {
+            throw new IOException("Falha ao gravar o índice do diário: " + file);
+        }
+    }
+
+    static char encodeHeading(double degrees) {
+        double turns = degrees / 360.0;
+        return (char) Math.round((turns - Math.floor(turns)) * 65536.0);
+    }
+
+    static double decodeHeading(char heading) {
+        return heading * 360.0 / 65536.0;
+    }
+
+    public int getCarCount() {
+        return carCount;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Tamanho atual do diário, em bytes.
+     */
+    public synchronized long getLength() {
+        return dataOffset + recordCount * recordBytes;
+    }
+
+    /**
+     * Tempo total gasto em `append`, em ns.
+     */
+    public long getAppendNanos() {
+        return appendNanos;
+    }
+
+    public long getLastAppendNanos() {
+        return lastAppendNanos;
+    }
+}
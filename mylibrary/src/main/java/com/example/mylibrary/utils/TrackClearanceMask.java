@@ -0,0 +1,208 @@
+// Caminho do arquivo: com/example/mylibrary/utils/TrackClearanceMask.java
+
+package com.example.mylibrary.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * ### TrackClearanceMask
+ * - **Descrição**: Máscara "o carro cabe aqui", obtida pela erosão da grade de ocupação da pista
+ *   pelo contorno do carro. A direção do carro é quantizada em setores, e cada setor tem sua
+ *   própria máscara com o contorno rotacionado.
+ * - **Funcionalidades**:
+ *   - Substitui as cinco consultas de pixel de `isOnTrack` (centro e quatro semi-eixos) por um único teste de bit.
+ *   - Pode ser gravada e lida do disco, usando o hash da pista e os parâmetros do contorno como chave.
+ */
+public final class TrackClearanceMask {
+
+    private static final int FILE_MAGIC = 0x54434D4B; // "TCMK"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final int width;
+    private final int height;
+    private final int headingBuckets;
+    private final int wordsPerRow;
+    private final long key;
+    private final long[][] bits; // Uma máscara por setor de direção
+
+    private TrackClearanceMask(int width, int height, int headingBuckets, long key, long[][] bits) {
+        this.width = width;
+        this.height = height;
+        this.headingBuckets = headingBuckets;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.key = key;
+        this.bits = bits;
+    }
+
+    /**
+     * Constrói a máscara a partir da grade de ocupação.
+     *
+     * @param grid           Grade de ocupação da pista.
+     * @param halfLength     Metade do comprimento do carro, em unidades de tela.
+     * @param halfWidth      Metade da largura do carro, em unidades de tela.
+     * @param scaleX         Escala tela → imagem no eixo X.
+     * @param scaleY         Escala tela → imagem no eixo Y.
+     * @param headingBuckets Número de setores em que a direção é quantizada.
+     * @return A máscara construída.
+     */
+    public static TrackClearanceMask build(TrackOccupancyGrid grid, float halfLength, float halfWidth,
+                                           float scaleX, float scaleY, int headingBuckets) {
+        if (headingBuckets < 1) {
+            throw new IllegalArgumentException("O número de setores de direção deve ser pelo menos 1.");
+        }
+
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int stride = (width + 63) >>> 6;
+        long[][] bits = new long[headingBuckets][stride * height];
+        int[] offsetX = new int[5];
+        int[] offsetY = new int[5];
+
+        for (int bucket = 0; bucket < headingBuckets; bucket++) {
+            double radians = Math.toRadians(bucket * 360.0 / headingBuckets);
+            float cos = (float) Math.cos(radians);
+            float sin = (float) Math.sin(radians);
+
+            // Centro e extremidades dos semi-eixos do carro, em pixels da imagem
+            offsetX[1] = Math.round(halfLength * cos * scaleX);
+            offsetY[1] = Math.round(halfLength * sin * scaleY);
+            offsetX[2] = -offsetX[1];
+            offsetY[2] = -offsetY[1];
+            offsetX[3] = Math.round(-halfWidth * sin * scaleX);
+            offsetY[3] = Math.round(halfWidth * cos * scaleY);
+            offsetX[4] = -offsetX[3];
+            offsetY[4] = -offsetY[3];
+
+            long[] mask = bits[bucket];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    boolean fits = true;
+                    for (int i = 0; i < 5 && fits; i++) {
+                        fits = grid.isOnTrack(x + offsetX[i], y + offsetY[i]);
+                    }
+                    if (fits) {
+                        mask[y * stride + (x >>> 6)] |= 1L << x;
+                    }
+                }
+            }
+        }
+
+        long key = cacheKey(grid, halfLength, halfWidth, scaleX, scaleY, headingBuckets);
+        return new TrackClearanceMask(width, height, headingBuckets, key, bits);
+    }
+
+    /**
+     * Calcula a chave de cache a partir do conteúdo da pista e dos parâmetros do contorno.
+     * O hash do conteúdo é calculado uma única vez por grade, então a chave custa O(1).
+     */
+    public static long cacheKey(TrackOccupancyGrid grid, float halfLength, float halfWidth,
+                                float scaleX, float scaleY, int headingBuckets) {
+        long hash = grid.contentHash();
+        hash = mix(hash, Float.floatToIntBits(halfLength));
+        hash = mix(hash, Float.floatToIntBits(halfWidth));
+        hash = mix(hash, Float.floatToIntBits(scaleX));
+        hash = mix(hash, Float.floatToIntBits(scaleY));
+        return mix(hash, headingBuckets);
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x100000001B3L;
+    }
+
+    /**
+     * Verifica se o contorno do carro cabe na pista na posição e direção informadas.
+     *
+     * @param x       Coordenada X do centro do carro na imagem da pista.
+     * @param y       Coordenada Y do centro do carro na imagem da pista.
+     * @param heading Direção do carro em graus.
+     * @return true se todos os pontos do contorno estiverem na pista.
+     */
+    public boolean fits(int x, int y, double heading) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        return (bits[bucketFor(heading)][y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    private int bucketFor(double heading) {
+        int bucket = (int) Math.round(heading * headingBuckets / 360.0) % headingBuckets;
+        return bucket < 0 ? bucket + headingBuckets : bucket;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Grava a máscara em disco.
+     *
+     * @param file Arquivo de destino.
+     * @throws IOException Se ocorrer um erro ao escrever no arquivo.
+     */
+    public void writeTo(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putLong(key)
+                    .putInt(width).putInt(height).putInt(headingBuckets).putInt(0);
+            header.flip();
+            channel.truncate(0);
+            while (header.hasRemaining()) channel.write(header);
+
+            ByteBuffer body = ByteBuffer.allocate(bits[0].length * 8).order(ByteOrder.LITTLE_ENDIAN);
+            for (long[] mask : bits) {
+                body.clear();
+                body.asLongBuffer().put(mask);
+                body.limit(mask.length * 8);
+                while (body.hasRemaining()) channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * Lê uma máscara gravada em disco, caso ela corresponda à chave esperada.
+     *
+     * @param file        Arquivo de origem.
+     * @param expectedKey Chave calculada por `cacheKey` para a pista atual.
+     * @return A máscara lida, ou null se o arquivo não existir ou não corresponder à chave.
+     * @throws IOException Se ocorrer um erro ao ler o arquivo.
+     */
+    public static TrackClearanceMask readFrom(File file, long expectedKey) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            if (channel.size() < HEADER_BYTES) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != FILE_MAGIC || buffer.getInt() != FILE_VERSION || buffer.getLong() != expectedKey) {
+                return null;
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int headingBuckets = buffer.getInt();
+            buffer.getInt();
+
+            int words = ((width + 63) >>> 6) * height;
+            if (buffer.remaining() != (long) words * headingBuckets * 8) {
+                return null;
+            }
+            LongBuffer longs = buffer.asLongBuffer();
+            long[][] bits = new long[headingBuckets][words];
+            for (long[] mask : bits) {
+                longs.get(mask);
+            }
+            return new TrackClearanceMask(width, height, headingBuckets, expectedKey, bits);
+        }
+    }
+}
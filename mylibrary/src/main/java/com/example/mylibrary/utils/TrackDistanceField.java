@@ -0,0 +1,177 @@
+// Caminho do arquivo: com/example/mylibrary/utils/TrackDistanceField.java
+
+package com.example.mylibrary.utils;
+
+/**
+ * ### TrackDistanceField
+ * - **Descrição**: Campo de distâncias até a parede da pista, calculado uma única vez por pista
+ *   com a transformada de distância euclidiana exata (Felzenszwalb & Huttenlocher).
+ *   Cada pixel da pista guarda a distância, em pixels da imagem, até o pixel fora da pista mais próximo.
+ * - **Funcionalidades**:
+ *   - Consulta O(1) da distância até a parede (`distanceAt`).
+ *   - Lançamento de raios por *sphere tracing* (`castRay`): o raio avança aos saltos enquanto
+ *     o campo garante que não há parede no caminho, e só faz a verificação exata perto das bordas.
+ *   - A área fora da imagem é tratada como parede.
+ */
+public final class TrackDistanceField {
+
+    /**
+     * Verificação exata usada pelo raio quando o campo não garante folga suficiente.
+     */
+    public interface FootprintProbe {
+        boolean fits(float x, float y);
+    }
+
+    private static final float INF = 1e20f;
+    private static final float SQRT2 = 1.4142135f; // Erro máximo de truncamento ao converter para pixel
+    // Erro máximo do arredondamento de um deslocamento do contorno para pixels inteiros (meio pixel por
+    // eixo), como em `TrackClearanceMask`: o ponto verificado pode ficar até ~0,7 px além de `clearance`
+    private static final float OFFSET_ROUNDING = 0.70710677f;
+
+    private final int width;
+    private final int height;
+    private final float[] distances;
+
+    private TrackDistanceField(int width, int height, float[] distances) {
+        this.width = width;
+        this.height = height;
+        this.distances = distances;
+    }
+
+    /**
+     * Calcula o campo de distâncias a partir da grade de ocupação da pista.
+     *
+     * @param grid Grade de ocupação da pista.
+     * @return Campo de distâncias até a parede.
+     */
+    public static TrackDistanceField fromGrid(TrackOccupancyGrid grid) {
+        // A grade é expandida com uma borda de parede para que a área fora da imagem conte como obstáculo
+        int w = grid.getWidth() + 2;
+        int h = grid.getHeight() + 2;
+        float[] squared = new float[w * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                squared[y * w + x] = grid.isOnTrack(x - 1, y - 1) ? INF : 0f;
+            }
+        }
+
+        int max = Math.max(w, h);
+        double[] f = new double[max];
+        double[] d = new double[max];
+        int[] v = new int[max];
+        double[] z = new double[max + 1];
+
+        // Passo 1: transformada 1D em cada coluna
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) f[y] = squared[y * w + x];
+            transform1d(f, h, d, v, z);
+            for (int y = 0; y < h; y++) squared[y * w + x] = (float) d[y];
+        }
+        // Passo 2: transformada 1D em cada linha sobre o resultado das colunas
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) f[x] = squared[y * w + x];
+            transform1d(f, w, d, v, z);
+            for (int x = 0; x < w; x++) squared[y * w + x] = (float) d[x];
+        }
+
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        float[] distances = new float[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                distances[y * width + x] = (float) Math.sqrt(squared[(y + 1) * w + (x + 1)]);
+            }
+        }
+        return new TrackDistanceField(width, height, distances);
+    }
+
+    /**
+     * Transformada de distância 1D pelo envelope inferior de parábolas.
+     */
+    private static void transform1d(double[] f, int n, double[] d, int[] v, double[] z) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = -INF;
+        z[1] = INF;
+        for (int q = 1; q < n; q++) {
+            double s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2.0 * q - 2.0 * v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2.0 * q - 2.0 * v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = INF;
+        }
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q) k++;
+            double delta = q - v[k];
+            d[q] = delta * delta + f[v[k]];
+        }
+    }
+
+    /**
+     * Retorna a distância, em pixels da imagem, até a parede mais próxima.
+     *
+     * @param x Coordenada X na imagem da pista.
+     * @param y Coordenada Y na imagem da pista.
+     * @return Distância até a parede, ou 0 fora da pista e fora da imagem.
+     */
+    public float distanceAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return 0f;
+        }
+        return distances[y * width + x];
+    }
+
+    /**
+     * Lança um raio a partir da origem e retorna o primeiro passo inteiro em que a verificação
+     * exata falha, com o mesmo resultado de avançar de 1 em 1 unidade.
+     *
+     * @param originX     Origem X em coordenadas da tela.
+     * @param originY     Origem Y em coordenadas da tela.
+     * @param cos         Cosseno da direção do raio.
+     * @param sin         Seno da direção do raio.
+     * @param maxDistance Alcance máximo do raio.
+     * @param scaleX      Escala tela → imagem no eixo X.
+     * @param scaleY      Escala tela → imagem no eixo Y.
+     * @param clearance   Maior deslocamento, em unidades de tela, verificado pelo `probe` em torno do ponto;
+     *                    o `probe` pode arredondar cada deslocamento para o pixel inteiro mais próximo.
+     * @param probe       Verificação exata do ponto.
+     * @return Passo em que o raio encontrou a parede, ou -1 se não encontrou dentro do alcance.
+     */
+    public int castRay(float originX, float originY, double cos, double sin, int maxDistance,
+                       float scaleX, float scaleY, float clearance, FootprintProbe probe) {
+        float maxScale = Math.max(scaleX, scaleY);
+        int d = 1;
+        while (d <= maxDistance) {
+            float testX = originX + (float) (cos * d);
+            float testY = originY + (float) (sin * d);
+
+            // Folga garantida pelo campo, descontando o tamanho verificado e os erros de truncamento do
+            // ponto e de arredondamento dos deslocamentos
+            float safe = (distanceAt((int) (testX * scaleX), (int) (testY * scaleY)) - SQRT2 - OFFSET_ROUNDING) / maxScale
+                    - clearance;
+            if (safe >= 1f) {
+                d += (int) safe + 1;
+                continue;
+            }
+
+            if (!probe.fits(testX, testY)) {
+                return d;
+            }
+            d++;
+        }
+        return -1;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,104 @@
+// Caminho do arquivo: com/example/mylibrary/utils/TrackOccupancyGrid.java
+
+package com.example.mylibrary.utils;
+
+/**
+ * ### TrackOccupancyGrid
+ * - **Descrição**: Grade de ocupação imutável da pista, armazenada como um bitset compacto
+ *   (`long[]`, um bit por pixel). É gerada uma única vez a partir dos pixels da imagem da pista
+ *   e compartilhada por todos os carros.
+ * - **Funcionalidades**:
+ *   - Substitui as chamadas `Bitmap.getPixel` por um acesso ao array e um teste de bit.
+ *   - Pixels fora dos limites da imagem são considerados fora da pista.
+ */
+public final class TrackOccupancyGrid {
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;  // Quantidade de palavras de 64 bits por linha
+    private final long[] bits;      // Bit ligado = pixel pertence à pista
+    private final long contentHash; // Calculado uma vez: a grade não muda depois de construída
+
+    TrackOccupancyGrid(int width, int height, long[] bits) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = wordsPerRow(width);
+        this.bits = bits;
+        this.contentHash = hash(width, height, bits);
+    }
+
+    /**
+     * Constrói a grade a partir dos pixels ARGB da pista.
+     *
+     * @param pixels     Pixels da imagem, linha a linha (mesmo layout de `Bitmap.getPixels`).
+     * @param width      Largura da imagem em pixels.
+     * @param height     Altura da imagem em pixels.
+     * @param trackColor Cor que identifica a pista (ex.: `Color.WHITE`).
+     * @return A grade de ocupação correspondente.
+     * @throws IllegalArgumentException Se as dimensões não corresponderem ao array de pixels.
+     */
+    public static TrackOccupancyGrid fromPixels(int[] pixels, int width, int height, int trackColor) {
+        if (width <= 0 || height <= 0 || pixels == null || pixels.length < width * height) {
+            throw new IllegalArgumentException("Dimensões inválidas para a grade de ocupação: " + width + "x" + height);
+        }
+
+        int stride = wordsPerRow(width);
+        long[] bits = new long[stride * height];
+        for (int y = 0; y < height; y++) {
+            int rowOffset = y * width;
+            int wordOffset = y * stride;
+            for (int x = 0; x < width; x++) {
+                if (pixels[rowOffset + x] == trackColor) {
+                    bits[wordOffset + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+        return new TrackOccupancyGrid(width, height, bits);
+    }
+
+    /**
+     * Verifica se o pixel informado pertence à pista.
+     *
+     * @param x Coordenada X na imagem da pista.
+     * @param y Coordenada Y na imagem da pista.
+     * @return true se o pixel estiver dentro dos limites e pertencer à pista.
+     */
+    public boolean isOnTrack(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        return (bits[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Hash de 64 bits (FNV-1a) do conteúdo da grade, usado como chave de cache em disco.
+     * Calculado na construção da grade, e não a cada chamada.
+     *
+     * @return Hash das dimensões e dos bits da pista.
+     */
+    public long contentHash() {
+        return contentHash;
+    }
+
+    private static long hash(int width, int height, long[] bits) {
+        long hash = 0xCBF29CE484222325L;
+        hash = (hash ^ width) * 0x100000001B3L;
+        hash = (hash ^ height) * 0x100000001B3L;
+        for (long word : bits) {
+            hash = (hash ^ word) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    private static int wordsPerRow(int width) {
+        return (width + 63) >>> 6;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarStateBackend;
+import com.example.mylibrary.utils.CarStateBackendHarness;
+import com.example.mylibrary.utils.FileCarStateBackend;
+import com.example.mylibrary.utils.InMemoryCarStateBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Benchmark de gravação e leitura dos estados de 10 a 10.000 carros nos backends que rodam na JVM
+ * (memória e arquivo local, com e sem `force` a cada lote). O Firestore usa o mesmo
+ * `CarStateBackendHarness`, executado no dispositivo.
+ * Executar pelo método main na JVM.
+ */
+public class CarStateBackendBenchmark {
+
+    private static final int ROUNDS = 20;
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    public static void main(String[] args) throws Exception {
+        File directory = Files.createTempDirectory("car-states").toFile();
+        for (int cars : new int[]{10, 100, 1_000, 10_000}) {
+            run("memória", new InMemoryCarStateBackend(), cars);
+            run("arquivo", new FileCarStateBackend(directory, "async" + cars, false), cars);
+            run("arquivo + force", new FileCarStateBackend(directory, "sync" + cars, true), cars);
+        }
+    }
+
+    private static void run(String label, CarStateBackend backend, int cars) throws InterruptedException, IOException {
+        try (CarStateBackend measured = backend) {
+            CarStateBackendHarness.run(measured, cars, ROUNDS / 4, TIMEOUT_MILLIS); // Aquecimento
+            System.out.println(String.format("%-16s", label) + CarStateBackendHarness.run(measured, cars, ROUNDS, TIMEOUT_MILLIS));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarStateBackend;
+import com.example.mylibrary.utils.CarStateBackendHarness;
+import com.example.mylibrary.utils.CarStateSnapshot;
+import com.example.mylibrary.utils.FileCarStateBackend;
+import com.example.mylibrary.utils.InMemoryCarStateBackend;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CarStateBackendTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static CarStateSnapshot state(String name, int distance) {
+        return new CarStateSnapshot(name, 1.5f, 2.5f, 90, 50, 100, distance, 1, 2);
+    }
+
+    private static void write(CarStateBackend backend, CarStateSnapshot... states) {
+        Exception[] error = {new IllegalStateException("callback não chamado")};
+        backend.writeBatch(Arrays.asList(states), e -> error[0] = e);
+        assertNull(error[0]);
+    }
+
+    private static Map<String, CarStateSnapshot> load(CarStateBackend backend, String... names) {
+        Map<String, CarStateSnapshot> result = new HashMap<>();
+        backend.loadBatch(Arrays.asList(names), (states, error) -> {
+            assertNull(error);
+            result.putAll(states);
+        });
+        return result;
+    }
+
+    @Test
+    public void fileBackend_keepsLatestStatePerCarAcrossReopen() throws Exception {
+        File directory = temporaryFolder.newFolder("car-states");
+        FileCarStateBackend backend = new FileCarStateBackend(directory, "states", false);
+        write(backend, state("Car1", 10), state("Car2", 20));
+        write(backend, state("Car1", 11));
+        backend.close();
+
+        FileCarStateBackend reopened = new FileCarStateBackend(directory, "states", false);
+        Map<String, CarStateSnapshot> states = load(reopened, "Car1", "Car2", "Car3");
+        assertEquals(2, states.size());
+        assertEquals(11, states.get("Car1").getDistance());
+        assertEquals(20, states.get("Car2").getDistance());
+        assertEquals(2.5f, states.get("Car2").getY(), 0f);
+        assertEquals(2, states.get("Car2").getLapsCompleted());
+        reopened.close();
+    }
+
+    @Test
+    public void fileBackend_rebuildsIndexAndDropsTornRecordAfterCrash() throws Exception {
+        File directory = temporaryFolder.newFolder("car-states");
+        FileCarStateBackend backend = new FileCarStateBackend(directory, "states", false);
+        write(backend, state("Car1", 10));
+        write(backend, state("Car2", 20));
+        long validLength = backend.getLogLength();
+        // Sem close: o índice não é gravado, como em uma interrupção do processo
+        try (RandomAccessFile log = new RandomAccessFile(new File(directory, "states.log"), "rw")) {
+            log.setLength(validLength - 3); // Último registro incompleto
+        }
+
+        FileCarStateBackend recovered = new FileCarStateBackend(directory, "states", false);
+        Map<String, CarStateSnapshot> states = load(recovered, "Car1", "Car2");
+        assertEquals(1, states.size());
+        assertEquals(10, states.get("Car1").getDistance());
+        assertFalse(states.containsKey("Car2"));
+        write(recovered, state("Car2", 21));
+        assertEquals(21, load(recovered, "Car2").get("Car2").getDistance());
+        recovered.close();
+        backend.close();
+    }
+
+    @Test
+    public void fileBackend_compactsSupersededRecords() throws Exception {
+        File directory = temporaryFolder.newFolder("car-states");
+        FileCarStateBackend backend = new FileCarStateBackend(directory, "states", false);
+        long emptyLength = backend.getLogLength();
+        long roundLength = 0;
+        for (int round = 0; round < 20; round++) {
+            List<CarStateSnapshot> batch = new ArrayList<>();
+            for (int car = 0; car < 100; car++) {
+                batch.add(state("Car" + car, round));
+            }
+            write(backend, batch.toArray(new CarStateSnapshot[0]));
+            if (round == 0) {
+                roundLength = backend.getLogLength() - emptyLength;
+            }
+        }
+        assertEquals(100, backend.size());
+        assertTrue(backend.getLogLength() < emptyLength + 20 * roundLength); // Compactado ao menos uma vez
+        assertEquals(19, load(backend, "Car42").get("Car42").getDistance());
+        backend.close();
+    }
+
+    @Test
+    public void fileBackend_keepsWritingWhenCompactionFails() throws Exception {
+        File directory = temporaryFolder.newFolder("car-states");
+        File blocker = new File(directory, "states.log.tmp"); // Diretório não vazio: a nova geração não é criada
+        assertTrue(new File(blocker, "ocupado").mkdirs());
+        FileCarStateBackend backend = new FileCarStateBackend(directory, "states", false);
+        long emptyLength = backend.getLogLength();
+        long roundLength = 0;
+        for (int round = 0; round < 20; round++) {
+            List<CarStateSnapshot> batch = new ArrayList<>();
+            for (int car = 0; car < 100; car++) {
+                batch.add(state("Car" + car, round));
+            }
+            write(backend, batch.toArray(new CarStateSnapshot[0])); // A falha da compactação não falha o lote
+            if (round == 0) {
+                roundLength = backend.getLogLength() - emptyLength;
+            }
+        }
+        assertEquals(emptyLength + 20 * roundLength, backend.getLogLength()); // Nenhuma compactação concluída
+        try {
+            backend.compact();
+            throw new AssertionError("Compactação sem arquivo temporário aceita.");
+        } catch (IOException expected) {
+            // O log atual continua em uso
+        }
+        write(backend, state("Car42", 99));
+        assertEquals(99, load(backend, "Car42").get("Car42").getDistance());
+        assertEquals(19, load(backend, "Car7").get("Car7").getDistance());
+        backend.close();
+
+        FileCarStateBackend reopened = new FileCarStateBackend(directory, "states", false);
+        assertEquals(100, reopened.size());
+        assertEquals(99, load(reopened, "Car42").get("Car42").getDistance());
+        reopened.close();
+    }
+
+    @Test
+    public void harness_measuresEveryBackendWithTheSameLoad() throws Exception {
+        File directory = temporaryFolder.newFolder("car-states");
+        CarStateBackend[] backends = {
+                new InMemoryCarStateBackend(), new FileCarStateBackend(directory, "harness", false)};
+        for (CarStateBackend backend : backends) {
+            CarStateBackendHarness.Result result = CarStateBackendHarness.run(backend, 2_500, 2, 10_000);
+            assertEquals(0, result.failedBatches);
+            assertEquals(0, result.missingCars);
+            assertTrue(result.saveCarsPerSecond > 0);
+            assertTrue(result.loadCarsPerSecond > 0);
+            backend.close();
+        }
+    }
+}
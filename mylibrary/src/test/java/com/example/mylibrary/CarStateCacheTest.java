@@ -0,0 +1,123 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarState;
+import com.example.mylibrary.utils.CarStateCache;
+import com.example.mylibrary.utils.CarStateRepository;
+import com.example.mylibrary.utils.CarStateSnapshot;
+import com.example.mylibrary.utils.CarStateStore;
+import com.example.mylibrary.utils.InMemoryCarStateBackend;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CarStateCacheTest {
+
+    private static CarStateSnapshot state(String name, int distance) {
+        return new CarStateSnapshot(name, 1, 2, 90, 50, 100, distance, 0, 3);
+    }
+
+    @Test
+    public void get_evictsLeastRecentlyUsedAndExpiredStates() throws Exception {
+        CarStateCache cache = new CarStateCache(2, 50);
+        cache.put(state("Car1", 1));
+        cache.put(state("Car2", 2));
+        assertNotNull(cache.get("Car1")); // Car2 passa a ser o usado há mais tempo
+        cache.put(state("Car3", 3));
+        assertNull(cache.get("Car2"));
+        assertEquals(1, cache.getEvictions());
+
+        Thread.sleep(80);
+        Map<String, CarStateSnapshot> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        cache.getAll(Arrays.asList("Car1", "Car3"), found, missing);
+        assertEquals(0, found.size());
+        assertEquals(Arrays.asList("Car1", "Car3"), missing);
+        assertEquals(2, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void loadCarStates_readsWholeRaceInOneBackendCallThenServesFromCache() throws Exception {
+        InMemoryCarStateBackend saved = new InMemoryCarStateBackend();
+        List<CarStateSnapshot> states = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            states.add(state("Car" + i, i));
+        }
+        saved.writeBatch(states, error -> { });
+        AtomicInteger loadCalls = new AtomicInteger();
+        InMemoryCarStateBackend backend = new InMemoryCarStateBackend() {
+            @Override
+            public void loadBatch(List<String> names, LoadCallback callback) {
+                loadCalls.incrementAndGet();
+                saved.loadBatch(names, callback);
+            }
+        };
+        CarStateRepository repository = new CarStateRepository(backend);
+        CarStateStore store = new CarStateStore(501);
+        List<CarState> cars = new ArrayList<>();
+        for (int i = 0; i <= 500; i++) {
+            cars.add(store.view(store.allocate("Car" + i))); // Car500 não tem estado salvo
+        }
+
+        List<List<CarState>> results = new ArrayList<>();
+        repository.loadCarStates(cars, results::add);
+        repository.loadCarStates(cars.subList(0, 10), results::add);
+
+        assertEquals(1, loadCalls.get()); // Segunda chamada atendida pelo cache
+        assertEquals(500, results.get(0).size());
+        assertEquals(10, results.get(1).size());
+        assertEquals(250, store.getDistance(250));
+        assertEquals(3, store.getLapsCompleted(499));
+        assertEquals(42, repository.getCachedCarState("Car42").getDistance());
+        assertNull(repository.getCachedCarState("Car500"));
+        repository.close(5_000);
+    }
+
+    @Test
+    public void saveCarState_cachesOnlyStatesAcceptedForWriting() throws Exception {
+        AtomicInteger sentBatches = new AtomicInteger();
+        InMemoryCarStateBackend backend = new InMemoryCarStateBackend() {
+            @Override
+            public int getMaxBatchSize() {
+                return 1;
+            }
+
+            @Override
+            public void writeBatch(List<CarStateSnapshot> states, WriteCallback callback) {
+                sentBatches.incrementAndGet(); // Nunca responde: a gravação para nos lotes em andamento
+            }
+        };
+        CarStateRepository repository = new CarStateRepository(backend);
+        int firstFlush = 64;    // FLUSH_THRESHOLD: carros levados pela primeira gravação
+        int maxPending = 1_024; // MAX_PENDING
+        int count = firstFlush + maxPending + 2;
+        CarStateStore store = new CarStateStore(count);
+        List<CarState> cars = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cars.add(store.view(store.allocate("Car" + i)));
+        }
+        repository.saveCarStates(cars.subList(0, firstFlush));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sentBatches.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5); // Aguarda os dois lotes em andamento
+        }
+        repository.saveCarStates(cars.subList(firstFlush, count)); // Os dois últimos são recusados
+
+        for (int i = 0; i < count - 2; i++) {
+            assertNotNull(repository.getCachedCarState("Car" + i));
+        }
+        assertNull(repository.getCachedCarState("Car" + (count - 2)));
+        assertNull(repository.getCachedCarState("Car" + (count - 1)));
+        repository.close(100); // Os lotes retidos nunca respondem
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarStateDeltaTracker;
+import com.example.mylibrary.utils.CarStateSnapshot;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CarStateDeltaTrackerTest {
+
+    private static CarStateSnapshot state(float x, double direction, int fuelTank) {
+        return new CarStateSnapshot("Car1", x, 10, direction, 50, fuelTank, 0, 0, 0);
+    }
+
+    @Test
+    public void encode_sendsOnlyFieldsBeyondTheirEpsilon() {
+        CarStateDeltaTracker tracker = new CarStateDeltaTracker(0.5f, 1, 0.5f, 100);
+        assertTrue(tracker.encode(state(0, 359.5, 100)).isKeyframe());
+
+        assertNull(tracker.encode(state(0.4f, 0.2, 100))); // Abaixo das tolerâncias (359,5 -> 0,2 = 0,7 grau)
+        CarStateSnapshot delta = tracker.encode(state(0.6f, 0.2, 99));
+        assertEquals(CarStateSnapshot.FIELD_X | CarStateSnapshot.FIELD_FUEL_TANK, delta.getChangedFields());
+        assertEquals(2, delta.toMap(delta.getChangedFields()).size());
+
+        // A divergência é medida contra o valor gravado, não contra o último estado recebido
+        assertNull(tracker.encode(state(1.0f, 0.4, 99)));
+        assertEquals(CarStateSnapshot.FIELD_X | CarStateSnapshot.FIELD_DIRECTION,
+                tracker.encode(state(1.2f, 1.0, 99)).getChangedFields());
+        assertEquals(1, tracker.getKeyframes());
+        assertEquals(2, tracker.getDeltas());
+        assertEquals(2, tracker.getSkippedStates());
+        assertEquals(8 + 2 + 2, tracker.getWrittenFields());
+    }
+
+    @Test
+    public void encode_sendsPeriodicKeyframesAndAfterInvalidate() {
+        CarStateDeltaTracker tracker = new CarStateDeltaTracker(0.5f, 1, 0.5f, 3);
+        assertTrue(tracker.encode(state(0, 0, 100)).isKeyframe());
+        assertNull(tracker.encode(state(0, 0, 100)));
+        assertNull(tracker.encode(state(0.1f, 0, 100)));
+        assertTrue(tracker.encode(state(0.2f, 0, 100)).isKeyframe()); // Limita a divergência abaixo da tolerância
+
+        tracker.invalidate("Car1");
+        assertTrue(tracker.encode(state(0.2f, 0, 100)).isKeyframe());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarState;
+import com.example.mylibrary.utils.CarStateStore;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CarStateStoreTest {
+
+    private static void fill(CarStateStore store, int slot) {
+        store.setPosition(slot, slot + 0.5f, slot + 0.25f);
+        store.setHeading(slot, slot % 360);
+        store.setSpeed(slot, slot * 2);
+        store.setFuelTank(slot, 100 - slot);
+        store.setDistance(slot, slot * 10);
+        store.setPenalty(slot, slot % 3);
+        store.setLapsCompleted(slot, slot % 5);
+    }
+
+    private static void assertSlot(CarStateStore store, int slot) {
+        assertEquals("Car" + slot, store.getName(slot));
+        assertEquals(slot + 0.5f, store.getX(slot), 0);
+        assertEquals(slot + 0.25f, store.getY(slot), 0);
+        assertEquals(slot % 360, store.getHeading(slot), 0);
+        assertEquals(slot * 2, store.getSpeed(slot), 0);
+        assertEquals(100 - slot, store.getFuelTank(slot));
+        assertEquals(slot * 10, store.getDistance(slot));
+        assertEquals(slot % 3, store.getPenalty(slot));
+        assertEquals(slot % 5, store.getLapsCompleted(slot));
+    }
+
+    @Test
+    public void allocate_growsCapacityAndKeepsEverySlotValue() {
+        CarStateStore store = new CarStateStore(2);
+        for (int slot = 0; slot < 37; slot++) {
+            assertEquals(slot, store.allocate("Car" + slot));
+            fill(store, slot);
+        }
+        assertEquals(37, store.size());
+        assertEquals(64, store.capacity()); // Dobra a cada vez que enche: 2, 4, ..., 64
+        for (int slot = 0; slot < 37; slot++) {
+            assertSlot(store, slot);
+        }
+    }
+
+    @Test
+    public void views_readAndWriteTheSlotAcrossGrowth() {
+        CarStateStore store = new CarStateStore(1);
+        CarState first = store.view(store.allocate("Car0"));
+        first.setPosition(3, 4);
+        for (int slot = 1; slot < 10; slot++) {
+            store.allocate("Car" + slot); // Arrays trocados por maiores
+        }
+        assertEquals(3f, first.getX(), 0);
+        first.setDistance(42);
+        store.addPenalty(0, 2);
+        assertEquals(42, store.getDistance(0));
+        assertEquals(2, first.getPenalty());
+    }
+
+    @Test
+    public void truncate_clearsDiscardedSlotsAndRejectsInvalidSizes() {
+        CarStateStore store = new CarStateStore(8);
+        for (int slot = 0; slot < 6; slot++) {
+            store.allocate("Car" + slot);
+            fill(store, slot);
+        }
+        store.truncate(4);
+        assertEquals(4, store.size());
+        assertSlot(store, 3);
+        assertNull(store.getName(4));
+        assertEquals(0, store.getDistance(5));
+        assertEquals(4, store.allocate("Car4")); // Reaproveita o slot descartado, zerado
+        assertEquals(0f, store.getX(4), 0);
+
+        for (int invalid : new int[]{-1, 6}) {
+            try {
+                store.truncate(invalid);
+                throw new AssertionError("Tamanho aceito: " + invalid);
+            } catch (IllegalArgumentException expected) {
+                assertEquals(5, store.size());
+            }
+        }
+    }
+
+    @Test
+    public void copyInto_growsAndTruncatesTarget() {
+        CarStateStore source = new CarStateStore(4);
+        for (int slot = 0; slot < 20; slot++) {
+            source.allocate("Car" + slot);
+            fill(source, slot);
+        }
+        CarStateStore target = new CarStateStore(1);
+        source.copyInto(target);
+        assertEquals(20, target.size());
+        for (int slot = 0; slot < 20; slot++) {
+            assertSlot(target, slot);
+        }
+
+        source.truncate(5);
+        source.copyInto(target);
+        assertEquals(5, target.size());
+        assertSlot(target, 4);
+        assertNull(target.getName(5));
+    }
+
+    @Test(timeout = 10_000)
+    public void allocate_publishesGrownArraysToReaders() throws Exception {
+        int count = 200_000;
+        CarStateStore store = new CarStateStore(1);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            int checked = 0;
+            while (checked < count && failure.get() == null) {
+                int size = store.size();
+                for (int slot = checked; slot < size; slot++) {
+                    // Um slot dentro de `size` já tem nome, mesmo logo após os arrays crescerem
+                    if (!("Car" + slot).equals(store.getName(slot))) {
+                        failure.set("slot " + slot + ": " + store.getName(slot));
+                        return;
+                    }
+                }
+                checked = size;
+            }
+        });
+        reader.start();
+        for (int slot = 0; slot < count; slot++) {
+            store.allocate("Car" + slot);
+        }
+        reader.join();
+        assertNull(failure.get());
+        assertTrue(store.capacity() >= count);
+    }
+}
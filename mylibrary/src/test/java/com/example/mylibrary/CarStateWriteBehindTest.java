@@ -0,0 +1,259 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarStateBackend;
+import com.example.mylibrary.utils.CarStateDeltaTracker;
+import com.example.mylibrary.utils.CarStateSnapshot;
+import com.example.mylibrary.utils.CarStateWriteBehind;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CarStateWriteBehindTest {
+
+    /**
+     * Backend em memória que registra os lotes recebidos, pode falhar nas primeiras chamadas e pode
+     * reter o próximo lote sem resposta, para o teste concluí-lo depois.
+     */
+    private static final class FakeBackend implements CarStateBackend {
+        final int maxBatchSize;
+        final List<Integer> batchSizes = new ArrayList<>();
+        final Map<String, CarStateSnapshot> documents = new LinkedHashMap<>();
+        final List<Integer> changedFields = new ArrayList<>();
+        int failuresLeft;
+        boolean holdNext;
+        CarStateBackend.WriteCallback held;
+
+        FakeBackend(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        @Override
+        public synchronized void writeBatch(List<CarStateSnapshot> states, WriteCallback callback) {
+            if (holdNext) {
+                holdNext = false;
+                held = callback;
+                notifyAll();
+                return;
+            }
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                callback.onComplete(new IllegalStateException("indisponível"));
+                return;
+            }
+            batchSizes.add(states.size());
+            for (CarStateSnapshot state : states) {
+                documents.put(state.getName(), state);
+                changedFields.add(state.getChangedFields());
+            }
+            callback.onComplete(null);
+        }
+
+        @Override
+        public synchronized void loadBatch(List<String> names, LoadCallback callback) {
+            Map<String, CarStateSnapshot> found = new LinkedHashMap<>();
+            for (String name : names) {
+                if (documents.containsKey(name)) {
+                    found.put(name, documents.get(name));
+                }
+            }
+            callback.onComplete(found, null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static CarStateSnapshot state(String name, int distance) {
+        return new CarStateSnapshot(name, 1, 2, 90, 50, 100, distance, 0, 0);
+    }
+
+    @Test
+    public void flush_coalescesUpdatesPerCarAndSplitsIntoBackendBatches() throws Exception {
+        FakeBackend backend = new FakeBackend(2);
+        CarStateWriteBehind writeBehind = new CarStateWriteBehind(backend, 60_000, 100, 100, 1);
+        writeBehind.start();
+        for (int tick = 1; tick <= 1000; tick++) {
+            for (int car = 1; car <= 5; car++) {
+                assertTrue(writeBehind.offer(state("Car" + car, tick)));
+            }
+        }
+        assertEquals(5, writeBehind.getPendingCount());
+        assertEquals(4995, writeBehind.getCoalescedStates());
+
+        assertTrue(writeBehind.close(5_000));
+        assertEquals(5, writeBehind.getWrittenStates());
+        assertEquals(3, writeBehind.getWrittenBatches());
+        synchronized (backend) {
+            assertEquals("[2, 2, 1]", backend.batchSizes.toString());
+            assertEquals(1000, backend.documents.get("Car3").getDistance()); // Apenas o estado mais recente
+        }
+    }
+
+    @Test
+    public void offerAndSave_applyBackpressureOnlyToNewCars() throws Exception {
+        FakeBackend backend = new FakeBackend(500);
+        CarStateWriteBehind writeBehind = new CarStateWriteBehind(backend, 60_000, 2, 2, 1);
+        // Sem iniciar a gravação: os pendentes não são esvaziados
+        assertTrue(writeBehind.offer(state("Car1", 1)));
+        assertTrue(writeBehind.offer(state("Car2", 1)));
+        assertFalse(writeBehind.offer(state("Car3", 1)));
+        assertTrue(writeBehind.offer(state("Car1", 2))); // Carro já pendente: substitui o estado
+
+        writeBehind.start();
+        assertTrue(writeBehind.save(state("Car3", 1), 5_000)); // Aguarda a gravação liberar espaço
+        assertTrue(writeBehind.close(5_000));
+        assertEquals(1, writeBehind.getRejectedStates());
+        synchronized (backend) {
+            assertEquals(3, backend.documents.size());
+            assertEquals(2, backend.documents.get("Car1").getDistance());
+        }
+    }
+
+    @Test
+    public void failedBatch_isRetriedWithoutOverwritingNewerStates() throws Exception {
+        FakeBackend backend = new FakeBackend(500);
+        CarStateWriteBehind writeBehind = new CarStateWriteBehind(backend, 60_000, 100, 100, 2);
+        writeBehind.start();
+        CarStateBackend.WriteCallback batch = sendHeld(backend, writeBehind, state("Car1", 1), state("Car2", 1));
+        writeBehind.offer(state("Car2", 2)); // Pendente enquanto o lote ainda não respondeu
+
+        batch.onComplete(new IllegalStateException("indisponível"));
+        assertEquals(2, writeBehind.getPendingCount());
+        writeBehind.flush();
+        awaitWritten(writeBehind, 2);
+        assertTrue(writeBehind.close(5_000));
+        assertEquals(1, writeBehind.getFailedBatches());
+        assertEquals(0, writeBehind.getSupersededRetries());
+        synchronized (backend) {
+            assertEquals(1, backend.documents.get("Car1").getDistance()); // Reenviado
+            assertEquals(2, backend.documents.get("Car2").getDistance()); // O estado pendente prevalece
+        }
+    }
+
+    @Test
+    public void failedBatch_doesNotOverwriteNewerStateSentInLaterBatch() throws Exception {
+        FakeBackend backend = new FakeBackend(500);
+        CarStateWriteBehind writeBehind = new CarStateWriteBehind(backend, 60_000, 100, 100, 2);
+        writeBehind.start();
+        CarStateBackend.WriteCallback olderBatch = sendHeld(backend, writeBehind, state("Car1", 1));
+        writeBehind.offer(state("Car1", 2)); // Segundo lote em andamento, gravado antes da falha do primeiro
+        writeBehind.flush();
+        awaitWritten(writeBehind, 1);
+
+        olderBatch.onComplete(new IllegalStateException("tempo esgotado"));
+        assertEquals(1, writeBehind.getSupersededRetries());
+        assertEquals(0, writeBehind.getPendingCount());
+        assertTrue(writeBehind.close(5_000));
+        synchronized (backend) {
+            assertEquals(2, backend.documents.get("Car1").getDistance());
+        }
+    }
+
+    @Test
+    public void deltaTracker_resendsNewestStateAsKeyframeWhenOlderBatchFailsLate() throws Exception {
+        FakeBackend backend = new FakeBackend(500);
+        CarStateWriteBehind writeBehind = new CarStateWriteBehind(backend, 60_000, 100, 100, 2);
+        writeBehind.setDeltaTracker(new CarStateDeltaTracker(0.5f, 1, 0.5f, 100));
+        writeBehind.start();
+        writeBehind.offer(state("Car1", 1));
+        writeBehind.flush();
+        awaitWritten(writeBehind, 1);
+
+        CarStateBackend.WriteCallback olderBatch = sendHeld(backend, writeBehind, state("Car1", 2));
+        writeBehind.offer(state("Car1", 3)); // Só a distância, relativa ao lote ainda sem resposta
+        writeBehind.flush();
+        awaitWritten(writeBehind, 2);
+        olderBatch.onComplete(new IllegalStateException("tempo esgotado"));
+        writeBehind.flush();
+        awaitWritten(writeBehind, 3);
+        assertTrue(writeBehind.close(5_000));
+
+        assertEquals(1, writeBehind.getSupersededRetries());
+        synchronized (backend) {
+            assertEquals(Arrays.asList(CarStateSnapshot.ALL_FIELDS, CarStateSnapshot.FIELD_DISTANCE,
+                    CarStateSnapshot.ALL_FIELDS), backend.changedFields);
+            assertEquals(3, backend.documents.get("Car1").getDistance());
+        }
+    }
+
+    @Test
+    public void deltaTracker_sendsChangedFieldsOnlyAndKeyframeAfterFailure() throws Exception {
+        FakeBackend backend = new FakeBackend(500);
+        CarStateWriteBehind writeBehind = new CarStateWriteBehind(backend, 60_000, 100, 100, 1);
+        writeBehind.setDeltaTracker(new CarStateDeltaTracker(0.5f, 1, 0.5f, 100));
+        writeBehind.start();
+
+        writeBehind.offer(state("Car1", 1));
+        writeBehind.flush();
+        awaitWritten(writeBehind, 1);
+        writeBehind.offer(state("Car1", 1)); // Sem alterações: não é enviado
+        writeBehind.offer(state("Car2", 1));
+        writeBehind.flush();
+        awaitWritten(writeBehind, 2);
+        synchronized (backend) {
+            backend.failuresLeft = 1;
+        }
+        writeBehind.offer(state("Car1", 2)); // Falha e volta aos pendentes
+        writeBehind.flush();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (writeBehind.getFailedBatches() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        writeBehind.flush(); // Reenviado como quadro-chave
+        awaitWritten(writeBehind, 3);
+        writeBehind.offer(state("Car1", 3));
+        assertTrue(writeBehind.close(5_000));
+
+        synchronized (backend) {
+            assertEquals(Arrays.asList(CarStateSnapshot.ALL_FIELDS, CarStateSnapshot.ALL_FIELDS,
+                    CarStateSnapshot.ALL_FIELDS, CarStateSnapshot.FIELD_DISTANCE), backend.changedFields);
+            assertEquals(3, backend.documents.get("Car1").getDistance());
+        }
+    }
+
+    /**
+     * Envia o estado num lote que fica retido no backend, até o teste concluí-lo.
+     */
+    private static CarStateBackend.WriteCallback sendHeld(FakeBackend backend, CarStateWriteBehind writeBehind,
+                                                          CarStateSnapshot... states) throws InterruptedException {
+        synchronized (backend) {
+            backend.holdNext = true;
+            backend.held = null;
+        }
+        for (CarStateSnapshot state : states) {
+            writeBehind.offer(state);
+        }
+        writeBehind.flush();
+        synchronized (backend) {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (backend.held == null && System.currentTimeMillis() < deadline) {
+                backend.wait(100);
+            }
+            assertTrue(backend.held != null);
+            return backend.held;
+        }
+    }
+
+    private static void awaitWritten(CarStateWriteBehind writeBehind, long states) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (writeBehind.getWrittenStates() < states && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(states, writeBehind.getWrittenStates());
+    }
+}
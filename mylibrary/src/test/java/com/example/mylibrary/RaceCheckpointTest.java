@@ -0,0 +1,125 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarStateStore;
+import com.example.mylibrary.utils.RaceCheckpoint;
+import com.example.mylibrary.utils.RaceCheckpointWriter;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RaceCheckpointTest {
+
+    private static final int CARS = 1000;
+
+    private static CarStateStore race() {
+        CarStateStore store = new CarStateStore(CARS);
+        for (int i = 0; i < CARS; i++) {
+            int slot = store.allocate(i == 0 ? "SafetyCar" : "Car" + i);
+            store.setPosition(slot, i * 0.5f, i * 0.25f);
+            store.setHeading(slot, i % 360);
+            store.setSpeed(slot, 50 + i % 7);
+            store.setFuelTank(slot, 5000 - i);
+            store.setDistance(slot, i * 3);
+            store.setPenalty(slot, i % 5);
+            store.setLapsCompleted(slot, i % 11);
+        }
+        return store;
+    }
+
+    @Test
+    public void writeAndRead_restoresEveryCarOfALargeRace() throws Exception {
+        File file = File.createTempFile("race", ".ckpt");
+        file.deleteOnExit();
+        CarStateStore store = race();
+        RaceCheckpoint checkpoint = new RaceCheckpoint(16);
+        checkpoint.capture(store);
+        for (int slot = 0; slot < CARS; slot++) {
+            checkpoint.setDeadlineRemaining(slot, slot * 10L);
+        }
+        checkpoint.setSafetyCarSlot(0);
+        checkpoint.setMetricsCursor(123_456);
+        store.setDistance(500, -1); // Alterações depois da captura não entram no checkpoint
+        long bytes = checkpoint.writeTo(file);
+        assertEquals(file.length(), bytes);
+
+        RaceCheckpoint restored = RaceCheckpoint.read(file);
+        int slot = restored.findSlot("Car999");
+
+        assertEquals(CARS, restored.getCarCount());
+        assertEquals(0, restored.getSafetyCarSlot());
+        assertEquals(123_456, restored.getMetricsCursor());
+        assertEquals(999, slot);
+        CarStateStore cars = restored.getCars();
+        assertEquals(499.5f, cars.getX(slot), 0f);
+        assertEquals(279.0, cars.getHeading(slot), 0.0);
+        assertEquals(4001, cars.getFuelTank(slot));
+        assertEquals(9, cars.getLapsCompleted(slot));
+        assertEquals(9990, restored.getDeadlineRemaining(slot));
+        assertEquals(1500, cars.getDistance(500));
+    }
+
+    @Test
+    public void read_resumesALargeRaceInMilliseconds() throws Exception {
+        File file = File.createTempFile("race", ".ckpt");
+        file.deleteOnExit();
+        RaceCheckpoint checkpoint = new RaceCheckpoint(16);
+        checkpoint.capture(race());
+        checkpoint.writeTo(file);
+        RaceCheckpoint.read(file); // Carregamento das classes e primeira compilação fora da medição
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            RaceCheckpoint restored = RaceCheckpoint.read(file);
+            assertEquals(999, restored.findSlot("Car999"));
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        // Um único arquivo local no lugar de 1.000 leituras no Firestore
+        assertTrue("leitura: " + bestNanos / 1_000 + " µs", bestNanos < 20_000_000L);
+    }
+
+    @Test
+    public void read_rejectsTruncatedFiles() throws Exception {
+        File file = File.createTempFile("race", ".ckpt");
+        file.deleteOnExit();
+        RaceCheckpoint checkpoint = new RaceCheckpoint(16);
+        checkpoint.capture(race());
+        checkpoint.writeTo(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 10);
+        }
+        try {
+            RaceCheckpoint.read(file);
+            fail("Checkpoint truncado aceito.");
+        } catch (IOException expected) {
+            // Esperado
+        }
+    }
+
+    @Test
+    public void writer_skipsCapturesWhileAWriteIsPending() throws Exception {
+        File file = File.createTempFile("race", ".ckpt");
+        file.deleteOnExit();
+        RaceCheckpointWriter writer = new RaceCheckpointWriter(file, CARS);
+        writer.start();
+        RaceCheckpoint checkpoint = writer.beginCapture();
+        assertNotNull(checkpoint);
+        assertNull(writer.beginCapture()); // Captura anterior ainda não entregue
+        checkpoint.capture(race());
+        writer.commitCapture();
+        writer.close();
+
+        assertEquals(1, writer.getWrittenCheckpoints());
+        assertEquals(1, writer.getSkippedCaptures());
+        assertEquals(CARS, RaceCheckpoint.read(file).getCarCount());
+    }
+}
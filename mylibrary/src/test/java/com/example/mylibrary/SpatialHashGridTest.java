@@ -0,0 +1,78 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.SpatialHashGrid;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpatialHashGridTest {
+
+    @Test
+    public void query_returnsEveryPointInRangeOnceAcrossRebuilds() {
+        Random random = new Random(13);
+        int capacity = 400;
+        float[] xs = new float[capacity];
+        float[] ys = new float[capacity];
+        SpatialHashGrid grid = new SpatialHashGrid(40);
+        int[] out = new int[capacity];
+        for (int round = 0; round < 20; round++) {
+            int count = round % 2 == 0 ? capacity : 37; // Cresce e encolhe reaproveitando os arrays
+            for (int i = 0; i < count; i++) {
+                xs[i] = random.nextFloat() * 2_000 - 1_000; // Inclui coordenadas negativas
+                ys[i] = random.nextFloat() * 2_000 - 1_000;
+            }
+            grid.rebuild(xs, ys, count);
+            assertEquals(count, grid.size());
+
+            for (int q = 0; q < 200; q++) {
+                float x = random.nextFloat() * 2_200 - 1_100;
+                float y = random.nextFloat() * 2_200 - 1_100;
+                float radius = random.nextFloat() * 150;
+                int found = grid.query(x, y, radius, out);
+                boolean[] seen = new boolean[count];
+                for (int k = 0; k < found; k++) {
+                    assertTrue("índice fora da grade: " + out[k], out[k] < count);
+                    assertTrue("candidato repetido: " + out[k], !seen[out[k]]);
+                    seen[out[k]] = true;
+                }
+                for (int i = 0; i < count; i++) {
+                    if (Math.abs(xs[i] - x) <= radius && Math.abs(ys[i] - y) <= radius) {
+                        assertTrue("ponto " + i + " ausente na consulta " + q, seen[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void query_countsCandidatesBeyondOutputCapacity() {
+        float[] xs = new float[50];
+        float[] ys = new float[50];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 5 + i * 0.1f; // Todos na mesma célula
+            ys[i] = 5;
+        }
+        SpatialHashGrid grid = new SpatialHashGrid(20);
+        grid.rebuild(xs, ys, xs.length);
+
+        int[] small = new int[8];
+        assertEquals(50, grid.query(10, 5, 1, small));
+        int[] all = new int[50];
+        assertEquals(50, grid.query(10, 5, 1, all));
+        for (int k = 0; k < small.length; k++) {
+            assertEquals(all[k], small[k]); // Os primeiros candidatos são copiados na mesma ordem
+        }
+
+        grid.rebuild(xs, ys, 0);
+        assertEquals(0, grid.query(10, 5, 100, all));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsNonPositiveCellSize() {
+        new SpatialHashGrid(0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CalculationUtils;
+import com.example.mylibrary.utils.SweepAndPrune;
+
+import java.util.Random;
+
+/**
+ * Benchmark do passo de colisões (ordenação e varredura + retângulos orientados) com 100 a 10.000 carros.
+ * A área da pista cresce com o número de carros, mantendo a densidade constante, de modo que
+ * um custo por carro estável indica escalonamento praticamente linear.
+ * Executar pelo método main na JVM.
+ */
+public class SweepAndPruneBenchmark {
+
+    private static final float HALF_LENGTH = 23;
+    private static final float HALF_WIDTH = 10;
+
+    public static void main(String[] args) {
+        for (int cars : new int[]{100, 1_000, 5_000, 10_000}) {
+            run(cars, 200);
+        }
+    }
+
+    private static void run(int count, int frames) {
+        Random random = new Random(11);
+        float side = (float) Math.sqrt(count * 4_000.0); // ~4.000 unidades² por carro
+        float[] x = new float[count];
+        float[] y = new float[count];
+        double[] heading = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextFloat() * side;
+            y[i] = random.nextFloat() * side;
+            heading[i] = random.nextInt(360);
+        }
+
+        float[] minX = new float[count];
+        float[] maxX = new float[count];
+        float[] minY = new float[count];
+        float[] maxY = new float[count];
+        SweepAndPrune broadphase = new SweepAndPrune();
+        int[] contacts = new int[1];
+        SweepAndPrune.PairConsumer narrowphase = (a, b) -> {
+            if (CalculationUtils.orientedBoxesOverlap(x[a], y[a], heading[a], x[b], y[b], heading[b], HALF_LENGTH, HALF_WIDTH)) {
+                contacts[0]++;
+            }
+        };
+
+        long totalNanos = 0;
+        int candidatePairs = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            // Movimento de um ciclo (50 ms a até 150 unidades/s)
+            for (int i = 0; i < count; i++) {
+                double radians = Math.toRadians(heading[i]);
+                x[i] += (float) Math.cos(radians) * 7.5f;
+                y[i] += (float) Math.sin(radians) * 7.5f;
+                if (x[i] < 0 || x[i] > side || y[i] < 0 || y[i] > side) heading[i] = (heading[i] + 180) % 360;
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                double radians = Math.toRadians(heading[i]);
+                float cos = Math.abs((float) Math.cos(radians));
+                float sin = Math.abs((float) Math.sin(radians));
+                float extentX = cos * HALF_LENGTH + sin * HALF_WIDTH;
+                float extentY = sin * HALF_LENGTH + cos * HALF_WIDTH;
+                minX[i] = x[i] - extentX;
+                maxX[i] = x[i] + extentX;
+                minY[i] = y[i] - extentY;
+                maxY[i] = y[i] + extentY;
+            }
+            candidatePairs = broadphase.findOverlaps(minX, maxX, minY, maxY, count, narrowphase);
+            if (frame >= frames / 4) {
+                totalNanos += System.nanoTime() - start; // Descarta o aquecimento
+            }
+        }
+
+        int measured = frames - frames / 4;
+        double frameMicros = totalNanos / 1000.0 / measured;
+        System.out.printf("%6d carros: %8.1f µs/quadro, %6.1f ns/carro, %d pares candidatos no último quadro%n",
+                count, frameMicros, frameMicros * 1000 / count, candidatePairs);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CalculationUtils;
+import com.example.mylibrary.utils.SweepAndPrune;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SweepAndPruneTest {
+
+    private static final float HALF_LENGTH = 23;
+    private static final float HALF_WIDTH = 10;
+
+    private static List<Long> sweep(SweepAndPrune broadphase, float[] minX, float[] maxX, float[] minY, float[] maxY,
+                                    int count) {
+        List<Long> pairs = new ArrayList<>();
+        int reported = broadphase.findOverlaps(minX, maxX, minY, maxY, count, (first, second) -> {
+            assertTrue(first < second);
+            pairs.add(((long) first << 32) | second);
+        });
+        assertEquals(pairs.size(), reported);
+        Collections.sort(pairs);
+        return pairs;
+    }
+
+    private static List<Long> bruteForce(float[] minX, float[] maxX, float[] minY, float[] maxY, int count) {
+        List<Long> pairs = new ArrayList<>();
+        for (int a = 0; a < count; a++) {
+            for (int b = a + 1; b < count; b++) {
+                if (minX[b] <= maxX[a] && maxX[b] >= minX[a] && minY[b] <= maxY[a] && maxY[b] >= minY[a]) {
+                    pairs.add(((long) a << 32) | b);
+                }
+            }
+        }
+        return pairs;
+    }
+
+    @Test
+    public void findOverlaps_matchesBruteForceWhileBoxesMoveAndCountChanges() {
+        Random random = new Random(5);
+        int capacity = 300;
+        float[] x = new float[capacity];
+        float[] y = new float[capacity];
+        float[] minX = new float[capacity];
+        float[] maxX = new float[capacity];
+        float[] minY = new float[capacity];
+        float[] maxY = new float[capacity];
+        for (int i = 0; i < capacity; i++) {
+            x[i] = random.nextFloat() * 1_000;
+            y[i] = random.nextFloat() * 1_000;
+        }
+        SweepAndPrune broadphase = new SweepAndPrune();
+        int count = 200;
+        for (int frame = 0; frame < 50; frame++) {
+            if (frame == 25) {
+                count = capacity; // Novos carros: a ordem é recomeçada
+            }
+            for (int i = 0; i < count; i++) {
+                x[i] += random.nextFloat() * 16 - 8;
+                y[i] += random.nextFloat() * 16 - 8;
+                float extent = 10 + (i % 3) * 8;
+                minX[i] = x[i] - extent;
+                maxX[i] = x[i] + extent;
+                minY[i] = y[i] - extent;
+                maxY[i] = y[i] + extent;
+            }
+            List<Long> expected = bruteForce(minX, maxX, minY, maxY, count);
+            assertEquals("quadro " + frame, expected, sweep(broadphase, minX, maxX, minY, maxY, count));
+        }
+    }
+
+    @Test
+    public void findOverlaps_reportsTouchingBoxesOnceAndSkipsSeparatedOnes() {
+        float[] minX = {0, 10, 10, 30};
+        float[] maxX = {10, 20, 20, 40};
+        float[] minY = {0, 10, 10.5f, 0};
+        float[] maxY = {10, 20, 20, 10};
+        // 0 e 1 se tocam num canto; 1 e 2 se sobrepõem; 0 e 2 só se tocam em X; 3 está afastada
+        assertEquals(listOf(pair(0, 1), pair(1, 2)), sweep(new SweepAndPrune(), minX, maxX, minY, maxY, 4));
+    }
+
+    @Test
+    public void orientedBoxes_overlapAndTouchAlongTheirAxes() {
+        assertTrue(overlap(0, 0, 0, 40, 0, 0));    // Mesmo sentido, 6 unidades de sobreposição
+        assertTrue(overlap(0, 0, 0, 46, 0, 0));    // Traseira encosta na frente: conta como contato
+        assertFalse(overlap(0, 0, 0, 46.5f, 0, 0));
+        assertTrue(overlap(0, 0, 0, 0, 20, 180));  // Lado a lado, em sentidos opostos, encostados
+        assertFalse(overlap(0, 0, 0, 0, 20.5f, 0));
+        assertTrue(overlap(5, 5, 30, 5, 5, 210));  // Mesmo centro
+    }
+
+    @Test
+    public void orientedBoxes_rotatedPairsUseTheExactOutline() {
+        // Perpendiculares: o segundo carro ocupa só HALF_WIDTH no eixo X do primeiro
+        assertTrue(overlap(0, 0, 0, 32, 0, 90));
+        assertTrue(overlap(0, 0, 0, 33, 0, 90));
+        assertFalse(overlap(0, 0, 0, 34, 0, 90));
+
+        // Lado a lado a 45°: as caixas alinhadas aos eixos se sobrepõem, os retângulos não
+        float nx = (float) -Math.sin(Math.toRadians(45));
+        float ny = (float) Math.cos(Math.toRadians(45));
+        assertTrue(overlap(0, 0, 45, nx * 19, ny * 19, 45));
+        assertFalse(overlap(0, 0, 45, nx * 21, ny * 21, 45));
+        float extent = (HALF_LENGTH + HALF_WIDTH) * (float) Math.cos(Math.toRadians(45));
+        assertTrue(Math.abs(nx * 21) < 2 * extent && Math.abs(ny * 21) < 2 * extent);
+
+        // Quina de um carro girado a 45° contra a frente de outro
+        float corner = (float) ((HALF_LENGTH + HALF_WIDTH) * Math.sqrt(0.5)); // Meia diagonal do losango no eixo X
+        assertTrue(overlap(0, 0, 0, HALF_LENGTH + corner - 1, 0, 45));
+        assertFalse(overlap(0, 0, 0, HALF_LENGTH + corner + 1, 0, 45));
+    }
+
+    private static boolean overlap(float x1, float y1, double heading1, float x2, float y2, double heading2) {
+        boolean result = CalculationUtils.orientedBoxesOverlap(x1, y1, heading1, x2, y2, heading2, HALF_LENGTH, HALF_WIDTH);
+        assertEquals("simetria", result,
+                CalculationUtils.orientedBoxesOverlap(x2, y2, heading2, x1, y1, heading1, HALF_LENGTH, HALF_WIDTH));
+        return result;
+    }
+
+    private static long pair(int first, int second) {
+        return ((long) first << 32) | second;
+    }
+
+    private static List<Long> listOf(long... pairs) {
+        List<Long> list = new ArrayList<>();
+        for (long pair : pairs) {
+            list.add(pair);
+        }
+        return list;
+    }
+}
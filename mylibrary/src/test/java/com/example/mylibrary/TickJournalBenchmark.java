@@ -0,0 +1,83 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarStateStore;
+import com.example.mylibrary.utils.TickJournalReader;
+import com.example.mylibrary.utils.TickJournalWriter;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Benchmark da gravação do diário da corrida (um registro por ciclo) e da busca de ciclos na
+ * reprodução, com 100 a 5.000 carros. O custo por ciclo deve ficar abaixo de 5% do tempo do ciclo
+ * da simulação com 500 carros.
+ * Executar pelo método main na JVM, informando o tempo médio do ciclo com 500 carros em µs, como
+ * registrado pelo SimulationEngine (resposta média de "SimulationTick" no log de `finishSimulation`,
+ * que também registra a fração medida durante a corrida).
+ */
+public class TickJournalBenchmark {
+
+    private static final int TICKS = 20_000; // ~17 min de corrida a 20 ciclos/s
+    private static final int REFERENCE_CARS = 500;
+    private static final double MAX_OVERHEAD_PERCENT = 5.0;
+
+    public static void main(String[] args) throws Exception {
+        double tickMicros = args.length > 0 ? Double.parseDouble(args[0]) : 0;
+        if (tickMicros <= 0) {
+            System.out.println("Tempo do ciclo com " + REFERENCE_CARS + " carros não informado: "
+                    + "apenas o custo absoluto da gravação é exibido.");
+        }
+        for (int cars : new int[]{100, REFERENCE_CARS, 1_000, 5_000}) {
+            double appendMicros = run(cars);
+            if (cars == REFERENCE_CARS && tickMicros > 0) {
+                double overhead = 100.0 * appendMicros / tickMicros;
+                System.out.printf("  %.2f%% do ciclo medido de %.1f µs: %s%n", overhead, tickMicros,
+                        overhead < MAX_OVERHEAD_PERCENT ? "dentro do limite" : "ACIMA do limite de 5%");
+            }
+        }
+    }
+
+    /**
+     * @return O custo médio da gravação por ciclo, em µs.
+     */
+    private static double run(int count) throws Exception {
+        File file = File.createTempFile("race", ".tjr");
+        file.deleteOnExit();
+        new File(file.getPath() + ".idx").deleteOnExit();
+        CarStateStore store = new CarStateStore(count);
+        for (int i = 0; i < count; i++) {
+            store.allocate("Car" + i);
+        }
+        int ticks = (int) Math.min(TICKS, 2_000_000_000L / (count * 20L)); // Limita o arquivo a ~2 GB
+        TickJournalWriter writer = new TickJournalWriter(file, store, TickJournalWriter.DEFAULT_KEYFRAME_INTERVAL);
+        long warmupNanos = 0;
+        for (long tick = 1; tick <= ticks; tick++) {
+            for (int slot = 0; slot < count; slot++) {
+                store.setPosition(slot, store.getX(slot) + 0.5f, store.getY(slot) + 0.25f);
+                store.setHeading(slot, (store.getHeading(slot) + 1) % 360);
+            }
+            writer.append(tick, store);
+            if (tick == ticks / 10) {
+                warmupNanos = writer.getAppendNanos(); // Descarta o aquecimento
+            }
+        }
+        writer.close();
+        double appendMicros = (writer.getAppendNanos() - warmupNanos) / 1000.0 / (ticks - ticks / 10);
+
+        try (TickJournalReader reader = TickJournalReader.open(file)) {
+            CarStateStore replay = reader.createStore();
+            Random random = new Random(3);
+            int seeks = 10_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < seeks; i++) {
+                reader.read(reader.findRecord(1 + random.nextInt(ticks)), replay);
+            }
+            double seekMicros = (System.nanoTime() - start) / 1000.0 / seeks;
+            System.out.printf("%5d carros, %6d ciclos: gravação %7.1f µs/ciclo, %6.1f MB, busca + leitura %7.1f µs%n",
+                    count, ticks, appendMicros, file.length() / 1e6, seekMicros);
+        }
+        file.delete();
+        new File(file.getPath() + ".idx").delete();
+        return appendMicros;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.CarStateStore;
+import com.example.mylibrary.utils.TickJournalReader;
+import com.example.mylibrary.utils.TickJournalWriter;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TickJournalTest {
+
+    private static final int CARS = 500;
+
+    private static CarStateStore race() {
+        CarStateStore store = new CarStateStore(CARS);
+        for (int i = 0; i < CARS; i++) {
+            store.allocate(i == 0 ? "SafetyCar" : "Car" + i);
+        }
+        return store;
+    }
+
+    private static void move(CarStateStore store, long tick) {
+        for (int slot = 0; slot < CARS; slot++) {
+            store.setPosition(slot, slot + tick * 0.5f, slot * 2 + tick);
+            store.setHeading(slot, (slot + tick) % 360);
+            store.setSpeed(slot, 50 + slot % 7);
+            store.setFuelTank(slot, (int) (5000 - tick));
+            store.setPenalty(slot, slot % 3);
+        }
+    }
+
+    /**
+     * Grava os ciclos 1..ticks, pulando os múltiplos de 7 (ex.: ciclos sem gravação).
+     */
+    private static TickJournalWriter record(File file, int ticks) throws Exception {
+        CarStateStore store = race();
+        TickJournalWriter writer = new TickJournalWriter(file, store, 16);
+        for (long tick = 1; tick <= ticks; tick++) {
+            if (tick % 7 == 0) {
+                continue;
+            }
+            move(store, tick);
+            writer.append(tick, store);
+        }
+        return writer;
+    }
+
+    @Test
+    public void findRecord_seeksToAnyTickAndRestoresCarStates() throws Exception {
+        File file = File.createTempFile("race", ".tjr");
+        file.deleteOnExit();
+        new File(file.getPath() + ".idx").deleteOnExit();
+        TickJournalWriter writer = record(file, 2_000);
+        writer.close();
+        assertEquals(file.length(), writer.getLength());
+
+        try (TickJournalReader reader = TickJournalReader.open(file)) {
+            assertEquals(CARS, reader.getCarCount());
+            assertEquals("Car42", reader.getCarName(42));
+            assertEquals(2_000 - 2_000 / 7, reader.getRecordCount());
+            assertEquals(16, reader.getKeyframeInterval()); // Índice lido do arquivo .idx
+            assertEquals(-1, reader.findRecord(0));
+
+            long record = reader.findRecord(1_001);
+            assertEquals(1_000, reader.getTick(record));     // 1.001 é múltiplo de 7: ciclo anterior
+            assertEquals(993, reader.getTick(reader.findRecord(994)));
+            assertEquals(2_000, reader.getTick(reader.findRecord(Long.MAX_VALUE)));
+
+            CarStateStore replay = reader.createStore();
+            reader.read(record, replay);
+            assertEquals(250 + 1_000 * 0.5f, replay.getX(250), 0f);
+            assertEquals((250 + 1_000) % 360, replay.getHeading(250), 0.01);
+            assertEquals(50 + 250 % 7, replay.getSpeed(250), 0f);
+            assertEquals(5000 - 1_000, replay.getFuelTank(250));
+            assertEquals(250 % 3, replay.getPenalty(250));
+            assertTrue(reader.getElapsedNanos(record) <= reader.getElapsedNanos(record + 1));
+        }
+    }
+
+    @Test
+    public void open_recoversJournalThatWasNotClosed() throws Exception {
+        File file = File.createTempFile("race", ".tjr");
+        file.deleteOnExit();
+        new File(file.getPath() + ".idx").deleteOnExit(); // Gravado pelo close do final do teste
+        TickJournalWriter writer = record(file, 300); // Sem close: sem .idx e com o fim da janela zerado
+        assertFalse(new File(file.getPath() + ".idx").exists());
+
+        try (TickJournalReader reader = TickJournalReader.open(file)) {
+            assertEquals(300 - 300 / 7, reader.getRecordCount());
+            assertEquals(TickJournalWriter.DEFAULT_KEYFRAME_INTERVAL, reader.getKeyframeInterval());
+            assertEquals(150, reader.getTick(reader.findRecord(150)));
+            assertEquals(300, reader.getTick(reader.getRecordCount() - 1));
+        }
+        writer.close();
+    }
+
+    @Test
+    public void append_afterCloseFailsWithoutChangingTheJournal() throws Exception {
+        File file = File.createTempFile("race", ".tjr");
+        file.deleteOnExit();
+        new File(file.getPath() + ".idx").deleteOnExit();
+        CarStateStore store = race();
+        TickJournalWriter writer = record(file, 10);
+        writer.close();
+        long length = file.length();
+        try {
+            writer.append(11, store); // Ciclo atrasado que termina depois de finalizar a corrida
+            fail("append após close deveria falhar");
+        } catch (IOException expected) {
+            // Esperado
+        }
+        assertEquals(length, file.length());
+        try (TickJournalReader reader = TickJournalReader.open(file)) {
+            assertEquals(10 - 1, reader.getRecordCount());
+            assertEquals(16, reader.getKeyframeInterval()); // O .idx corresponde aos registros gravados
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.TrackClearanceMask;
+import com.example.mylibrary.utils.TrackDistanceField;
+import com.example.mylibrary.utils.TrackOccupancyGrid;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testa a máscara de contorno contra a verificação dos cinco pontos do carro e o raio do campo de
+ * distâncias, usando a máscara como verificação exata, contra o raio de passo unitário.
+ */
+public class TrackClearanceMaskTest {
+
+    private static final int TRACK = 0xFFFFFFFF;
+    private static final int WALL = 0xFF000000;
+    private static final float HALF_LENGTH = 23;
+    private static final float HALF_WIDTH = 10;
+    private static final int BUCKETS = 16;
+
+    /**
+     * Pista em anel com bordas irregulares, para que os contornos encostem na parede em vários ângulos.
+     */
+    private static int[] ringTrack(int width, int height, long seed) {
+        Random random = new Random(seed);
+        double[] wobble = new double[360];
+        for (int i = 0; i < wobble.length; i++) {
+            wobble[i] = random.nextDouble() * 6;
+        }
+        int[] pixels = new int[width * height];
+        double cx = width / 2.0;
+        double cy = height / 2.0;
+        double outer = Math.min(width, height) * 0.47;
+        double inner = outer * 0.45;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double radius = Math.hypot(x - cx, y - cy);
+                int angle = (int) ((Math.toDegrees(Math.atan2(y - cy, x - cx)) + 360) % 360);
+                boolean onTrack = radius < outer - wobble[angle] && radius > inner + wobble[angle];
+                pixels[y * width + x] = onTrack ? TRACK : WALL;
+            }
+        }
+        return pixels;
+    }
+
+    @Test
+    public void fits_matchesFivePointOutlineForEveryHeadingBucket() {
+        int width = 150; // Não é múltiplo de 64
+        int height = 120;
+        float scaleX = 1.3f;
+        float scaleY = 0.9f;
+        TrackOccupancyGrid grid = TrackOccupancyGrid.fromPixels(ringTrack(width, height, 1), width, height, TRACK);
+        TrackClearanceMask mask = TrackClearanceMask.build(grid, HALF_LENGTH, HALF_WIDTH, scaleX, scaleY, BUCKETS);
+
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            double heading = bucket * 360.0 / BUCKETS;
+            double radians = Math.toRadians(heading);
+            float cos = (float) Math.cos(radians);
+            float sin = (float) Math.sin(radians);
+            int lengthX = Math.round(HALF_LENGTH * cos * scaleX);
+            int lengthY = Math.round(HALF_LENGTH * sin * scaleY);
+            int sideX = Math.round(-HALF_WIDTH * sin * scaleX);
+            int sideY = Math.round(HALF_WIDTH * cos * scaleY);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    boolean expected = grid.isOnTrack(x, y)
+                            && grid.isOnTrack(x + lengthX, y + lengthY) && grid.isOnTrack(x - lengthX, y - lengthY)
+                            && grid.isOnTrack(x + sideX, y + sideY) && grid.isOnTrack(x - sideX, y - sideY);
+                    assertEquals("(" + x + "," + y + ") a " + heading + "°", expected, mask.fits(x, y, heading + 5));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fits_rejectsOnlyPixelsWithinOutlinePlusRoundingErrorOfTheWall() {
+        int size = 200;
+        int[] pixels = new int[size * size];
+        Arrays.fill(pixels, TRACK);
+        Random random = new Random(1);
+        for (int i = 0; i < 30; i++) {
+            pixels[random.nextInt(pixels.length)] = WALL; // Obstáculos isolados, alcançados de todos os ângulos
+        }
+        TrackOccupancyGrid grid = TrackOccupancyGrid.fromPixels(pixels, size, size, TRACK);
+        TrackDistanceField field = TrackDistanceField.fromGrid(grid);
+
+        float worstExcess = 0;
+        for (float scale : new float[]{0.8f, 0.93f, 1.0f, 1.1f, 1.25f, 1.5f}) {
+            TrackClearanceMask mask = TrackClearanceMask.build(grid, HALF_LENGTH, HALF_WIDTH, scale, scale, BUCKETS);
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                for (int y = 0; y < size; y++) {
+                    for (int x = 0; x < size; x++) {
+                        if (!mask.fits(x, y, bucket * 360.0 / BUCKETS)) {
+                            worstExcess = Math.max(worstExcess, field.distanceAt(x, y) - HALF_LENGTH * scale);
+                        }
+                    }
+                }
+            }
+        }
+        // O arredondamento dos deslocamentos alcança paredes além de HALF_LENGTH * escala, mas no máximo
+        // meio pixel por eixo além: a margem descontada por `castRay`
+        assertTrue("excesso: " + worstExcess, worstExcess > 0);
+        assertTrue("excesso: " + worstExcess, worstExcess <= (float) Math.sqrt(0.5));
+    }
+
+    @Test
+    public void castRay_withMaskProbeMatchesUnitSteppingDespiteRoundedOffsets() {
+        int size = 400;
+        TrackOccupancyGrid grid = TrackOccupancyGrid.fromPixels(ringTrack(size, size, 7), size, size, TRACK);
+        TrackDistanceField field = TrackDistanceField.fromGrid(grid);
+        Random random = new Random(9);
+        int rays = 0;
+        for (float scale : new float[]{0.75f, 1.0f, 1.5f}) {
+            TrackClearanceMask mask = TrackClearanceMask.build(grid, HALF_LENGTH, HALF_WIDTH, scale, scale, BUCKETS);
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                double heading = bucket * 360.0 / BUCKETS;
+                TrackDistanceField.FootprintProbe probe =
+                        (x, y) -> mask.fits((int) (x * scale), (int) (y * scale), heading);
+                for (int i = 0; i < 400; i++) {
+                    float x = random.nextFloat() * size / scale;
+                    float y = random.nextFloat() * size / scale;
+                    if (!probe.fits(x, y)) {
+                        continue;
+                    }
+                    double radians = random.nextDouble() * 2 * Math.PI;
+                    double cos = Math.cos(radians);
+                    double sin = Math.sin(radians);
+                    int expected = -1;
+                    for (int d = 1; d <= 100; d++) {
+                        if (!probe.fits(x + (float) (cos * d), y + (float) (sin * d))) {
+                            expected = d;
+                            break;
+                        }
+                    }
+                    assertEquals("origem (" + x + "," + y + "), escala " + scale, expected,
+                            field.castRay(x, y, cos, sin, 100, scale, scale, HALF_LENGTH, probe));
+                    rays++;
+                }
+            }
+        }
+        assertTrue("raios: " + rays, rays > 1_000);
+    }
+
+    @Test
+    public void cacheKey_followsTrackContentAndOutlineParameters() throws Exception {
+        int size = 96;
+        int[] pixels = ringTrack(size, size, 3);
+        TrackOccupancyGrid grid = TrackOccupancyGrid.fromPixels(pixels, size, size, TRACK);
+        long key = TrackClearanceMask.cacheKey(grid, HALF_LENGTH, HALF_WIDTH, 1, 1, BUCKETS);
+
+        TrackOccupancyGrid same = TrackOccupancyGrid.fromPixels(pixels.clone(), size, size, TRACK);
+        assertEquals(key, TrackClearanceMask.cacheKey(same, HALF_LENGTH, HALF_WIDTH, 1, 1, BUCKETS));
+        int[] changed = pixels.clone();
+        changed[size * size / 2 + 10] = changed[size * size / 2 + 10] == TRACK ? WALL : TRACK;
+        TrackOccupancyGrid other = TrackOccupancyGrid.fromPixels(changed, size, size, TRACK);
+        assertNotEquals(key, TrackClearanceMask.cacheKey(other, HALF_LENGTH, HALF_WIDTH, 1, 1, BUCKETS));
+        assertNotEquals(key, TrackClearanceMask.cacheKey(grid, HALF_LENGTH, HALF_WIDTH, 1, 1.5f, BUCKETS));
+        assertNotEquals(key, TrackClearanceMask.cacheKey(grid, HALF_LENGTH, HALF_WIDTH, 1, 1, BUCKETS * 2));
+
+        TrackClearanceMask mask = TrackClearanceMask.build(grid, HALF_LENGTH, HALF_WIDTH, 1, 1, BUCKETS);
+        assertEquals(key, mask.getKey());
+        File file = File.createTempFile("clearance", ".bin");
+        file.deleteOnExit();
+        mask.writeTo(file);
+        assertNull(TrackClearanceMask.readFrom(file, key + 1));
+        TrackClearanceMask loaded = TrackClearanceMask.readFrom(file, key);
+        assertNotNull(loaded);
+        for (int heading = 0; heading < 360; heading += 15) {
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    assertEquals(mask.fits(x, y, heading), loaded.fits(x, y, heading));
+                }
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.TrackDistanceField;
+import com.example.mylibrary.utils.TrackOccupancyGrid;
+
+import java.util.Random;
+
+/**
+ * Benchmark dos sensores do carro: compara o raio de passo unitário com o *sphere tracing*
+ * sobre o campo de distâncias, para 8, 16 e 32 raios, e confere que as leituras coincidem.
+ * Executar pelo método main na JVM.
+ */
+public class TrackDistanceFieldBenchmark {
+
+    private static final int TRACK = 0xFFFFFFFF;
+    private static final int WALL = 0xFF000000;
+    private static final float CAR_WIDTH = 46;
+    private static final float CAR_HEIGHT = 20;
+    private static final int RANGE = 100;
+
+    public static void main(String[] args) {
+        int size = 1080;
+        float scale = 1.5f; // Tela de 720 unidades para uma imagem de 1080 pixels
+        TrackOccupancyGrid grid = TrackOccupancyGrid.fromPixels(createRingTrack(size), size, size, TRACK);
+
+        long start = System.nanoTime();
+        TrackDistanceField field = TrackDistanceField.fromGrid(grid);
+        System.out.printf("Transformada de distância: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        TrackDistanceField.FootprintProbe probe = (x, y) ->
+                isPointOnTrack(grid, x, y, scale) &&
+                isPointOnTrack(grid, x + CAR_WIDTH / 2, y, scale) &&
+                isPointOnTrack(grid, x - CAR_WIDTH / 2, y, scale) &&
+                isPointOnTrack(grid, x, y + CAR_HEIGHT / 2, scale) &&
+                isPointOnTrack(grid, x, y - CAR_HEIGHT / 2, scale);
+
+        // Posições de origem sorteadas dentro da pista
+        int origins = 20_000;
+        float[] xs = new float[origins];
+        float[] ys = new float[origins];
+        Random random = new Random(3);
+        for (int i = 0; i < origins; ) {
+            float x = random.nextFloat() * size / scale;
+            float y = random.nextFloat() * size / scale;
+            if (probe.fits(x, y)) {
+                xs[i] = x;
+                ys[i++] = y;
+            }
+        }
+
+        for (int rays : new int[]{8, 16, 32}) {
+            double[] cos = new double[rays];
+            double[] sin = new double[rays];
+            for (int r = 0; r < rays; r++) {
+                double radians = Math.toRadians(90 + 360.0 * r / rays);
+                cos[r] = Math.cos(radians);
+                sin[r] = Math.sin(radians);
+            }
+
+            long unitNanos = Long.MAX_VALUE;
+            long tracedNanos = Long.MAX_VALUE;
+            int maxDeviation = 0;
+            for (int round = 0; round < 3; round++) {
+                long t0 = System.nanoTime();
+                int[] unit = new int[origins * rays];
+                for (int i = 0; i < origins; i++) {
+                    for (int r = 0; r < rays; r++) {
+                        unit[i * rays + r] = unitStepRay(xs[i], ys[i], cos[r], sin[r], probe);
+                    }
+                }
+                long t1 = System.nanoTime();
+                int[] traced = new int[origins * rays];
+                for (int i = 0; i < origins; i++) {
+                    for (int r = 0; r < rays; r++) {
+                        traced[i * rays + r] = field.castRay(xs[i], ys[i], cos[r], sin[r], RANGE,
+                                scale, scale, CAR_WIDTH / 2, probe);
+                    }
+                }
+                long t2 = System.nanoTime();
+
+                unitNanos = Math.min(unitNanos, t1 - t0);
+                tracedNanos = Math.min(tracedNanos, t2 - t1);
+                for (int i = 0; i < unit.length; i++) {
+                    int a = unit[i] < 0 ? RANGE : unit[i];
+                    int b = traced[i] < 0 ? RANGE : traced[i];
+                    maxDeviation = Math.max(maxDeviation, Math.abs(a - b));
+                }
+            }
+
+            System.out.printf("%2d raios: passo unitário=%.1f µs/carro, sphere tracing=%.1f µs/carro, " +
+                            "speedup=%.1fx, desvio máximo=%d px%n",
+                    rays, unitNanos / 1000.0 / origins, tracedNanos / 1000.0 / origins,
+                    (double) unitNanos / tracedNanos, maxDeviation);
+        }
+    }
+
+    private static int unitStepRay(float x, float y, double cos, double sin, TrackDistanceField.FootprintProbe probe) {
+        for (int d = 1; d <= RANGE; d++) {
+            if (!probe.fits(x + (float) (cos * d), y + (float) (sin * d))) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isPointOnTrack(TrackOccupancyGrid grid, float x, float y, float scale) {
+        return grid.isOnTrack((int) (x * scale), (int) (y * scale));
+    }
+
+    private static int[] createRingTrack(int size) {
+        int[] pixels = new int[size * size];
+        float c = size / 2f;
+        float outer = size * 0.45f;
+        float inner = outer * 0.55f;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                float d = (float) Math.hypot(x - c, y - c);
+                pixels[y * size + x] = d <= outer && d >= inner ? TRACK : WALL;
+            }
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.TrackDistanceField;
+import com.example.mylibrary.utils.TrackOccupancyGrid;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TrackDistanceFieldTest {
+
+    private static final int TRACK = 0xFFFFFFFF;
+    private static final int WALL = 0xFF000000;
+
+    /**
+     * Pista aberta com obstáculos retangulares espalhados.
+     */
+    private static TrackOccupancyGrid randomTrack(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, TRACK);
+        for (int i = 0; i < 12; i++) {
+            int x0 = random.nextInt(width);
+            int y0 = random.nextInt(height);
+            int x1 = Math.min(width, x0 + 1 + random.nextInt(6));
+            int y1 = Math.min(height, y0 + 1 + random.nextInt(6));
+            for (int y = y0; y < y1; y++) {
+                Arrays.fill(pixels, y * width + x0, y * width + x1, WALL);
+            }
+        }
+        return TrackOccupancyGrid.fromPixels(pixels, width, height, TRACK);
+    }
+
+    /**
+     * Distância até o pixel fora da pista mais próximo, contando a borda ao redor da imagem como parede.
+     */
+    private static double bruteForceDistance(TrackOccupancyGrid grid, int x, int y) {
+        if (!grid.isOnTrack(x, y)) {
+            return 0;
+        }
+        double best = Double.MAX_VALUE;
+        for (int wy = -1; wy <= grid.getHeight(); wy++) {
+            for (int wx = -1; wx <= grid.getWidth(); wx++) {
+                if (!grid.isOnTrack(wx, wy)) {
+                    best = Math.min(best, Math.hypot(wx - x, wy - y));
+                }
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void distanceAt_matchesBruteForceNearestWall() {
+        TrackOccupancyGrid grid = randomTrack(70, 45, 3);
+        TrackDistanceField field = TrackDistanceField.fromGrid(grid);
+        double worstError = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                worstError = Math.max(worstError, Math.abs(field.distanceAt(x, y) - bruteForceDistance(grid, x, y)));
+            }
+        }
+        assertTrue("erro: " + worstError, worstError < 1e-3); // Transformada exata, não só dentro de 1 px
+        assertEquals(1f, field.distanceAt(0, 0), 0); // Fora da imagem conta como parede
+        assertEquals(0f, field.distanceAt(-1, 5), 0);
+        assertEquals(0f, field.distanceAt(5, grid.getHeight()), 0);
+    }
+
+    @Test
+    public void castRay_matchesUnitSteppingWithPointProbe() {
+        TrackOccupancyGrid grid = randomTrack(300, 200, 11);
+        TrackDistanceField field = TrackDistanceField.fromGrid(grid);
+        Random random = new Random(5);
+        int hits = 0;
+        for (float scale : new float[]{0.6f, 1.0f, 1.7f}) {
+            TrackDistanceField.FootprintProbe probe = (x, y) -> grid.isOnTrack((int) (x * scale), (int) (y * scale));
+            for (int i = 0; i < 2_000; i++) {
+                float x = random.nextFloat() * grid.getWidth() / scale;
+                float y = random.nextFloat() * grid.getHeight() / scale;
+                double radians = random.nextDouble() * 2 * Math.PI;
+                double cos = Math.cos(radians);
+                double sin = Math.sin(radians);
+                int expected = -1;
+                for (int d = 1; d <= 150; d++) {
+                    if (!probe.fits(x + (float) (cos * d), y + (float) (sin * d))) {
+                        expected = d;
+                        break;
+                    }
+                }
+                assertEquals("origem (" + x + "," + y + "), escala " + scale, expected,
+                        field.castRay(x, y, cos, sin, 150, scale, scale, 0, probe));
+                if (expected > 0) {
+                    hits++;
+                }
+            }
+        }
+        assertTrue("raios que atingiram a parede: " + hits, hits > 1_000);
+    }
+}
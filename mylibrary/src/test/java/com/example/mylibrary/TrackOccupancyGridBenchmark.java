@@ -0,0 +1,76 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.TrackOccupancyGrid;
+
+import java.util.Random;
+
+/**
+ * Microbenchmark que compara a consulta por pixel (comparação de cor em um array ARGB,
+ * equivalente ao `Bitmap.getPixel` fora do Android) com a grade de ocupação em bitset.
+ * Executar pelo método main na JVM.
+ */
+public class TrackOccupancyGridBenchmark {
+
+    private static final int TRACK = 0xFFFFFFFF;
+    private static final int WALL = 0xFF000000;
+
+    public static void main(String[] args) {
+        int width = 1080;
+        int height = 1080;
+        int[] pixels = createRingTrack(width, height);
+        TrackOccupancyGrid grid = TrackOccupancyGrid.fromPixels(pixels, width, height, TRACK);
+
+        // Pontos de consulta aleatórios, incluindo alguns fora da imagem
+        int probes = 4_000_000;
+        int[] xs = new int[probes];
+        int[] ys = new int[probes];
+        Random random = new Random(7);
+        for (int i = 0; i < probes; i++) {
+            xs[i] = random.nextInt(width + 40) - 20;
+            ys[i] = random.nextInt(height + 40) - 20;
+        }
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int hitsPixels = 0;
+            for (int i = 0; i < probes; i++) {
+                if (isPixelOnTrack(pixels, width, height, xs[i], ys[i])) hitsPixels++;
+            }
+            long pixelNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int hitsGrid = 0;
+            for (int i = 0; i < probes; i++) {
+                if (grid.isOnTrack(xs[i], ys[i])) hitsGrid++;
+            }
+            long gridNanos = System.nanoTime() - start;
+
+            System.out.printf("Rodada %d: pixel=%.2f ns/consulta, bitset=%.2f ns/consulta (acertos %d/%d)%n",
+                    round + 1, (double) pixelNanos / probes, (double) gridNanos / probes, hitsPixels, hitsGrid);
+        }
+        System.out.printf("Memória: pixels=%d KB, bitset=%d KB%n",
+                (long) pixels.length * 4 / 1024, (long) ((width + 63) / 64) * height * 8 / 1024);
+    }
+
+    private static boolean isPixelOnTrack(int[] pixels, int width, int height, int x, int y) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            return pixels[y * width + x] == TRACK;
+        }
+        return false;
+    }
+
+    private static int[] createRingTrack(int width, int height) {
+        int[] pixels = new int[width * height];
+        float cx = width / 2f;
+        float cy = height / 2f;
+        float outer = Math.min(width, height) * 0.45f;
+        float inner = outer * 0.6f;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                float d = (float) Math.hypot(x - cx, y - cy);
+                pixels[y * width + x] = d <= outer && d >= inner ? TRACK : WALL;
+            }
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.mylibrary;
+
+import com.example.mylibrary.utils.TrackOccupancyGrid;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testa a grade de ocupação da pista, comparando cada bit com o pixel de origem.
+ */
+public class TrackOccupancyGridTest {
+
+    private static final int TRACK = 0xFFFFFFFF;
+    private static final int WALL = 0xFF000000;
+
+    @Test
+    public void grid_matchesSourcePixels() {
+        // Largura que não é múltipla de 64 para exercitar o fim de cada linha
+        int width = 131;
+        int height = 47;
+        int[] pixels = new int[width * height];
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextBoolean() ? TRACK : WALL;
+        }
+
+        TrackOccupancyGrid grid = TrackOccupancyGrid.fromPixels(pixels, width, height, TRACK);
+
+        assertEquals(width, grid.getWidth());
+        assertEquals(height, grid.getHeight());
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals("Pixel (" + x + "," + y + ")",
+                        pixels[y * width + x] == TRACK, grid.isOnTrack(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void outOfBounds_isNotOnTrack() {
+        int[] pixels = new int[4 * 4];
+        java.util.Arrays.fill(pixels, TRACK);
+        TrackOccupancyGrid grid = TrackOccupancyGrid.fromPixels(pixels, 4, 4, TRACK);
+
+        assertTrue(grid.isOnTrack(0, 0));
+        assertTrue(grid.isOnTrack(3, 3));
+        assertFalse(grid.isOnTrack(-1, 0));
+        assertFalse(grid.isOnTrack(0, -1));
+        assertFalse(grid.isOnTrack(4, 0));
+        assertFalse(grid.isOnTrack(0, 4));
+        // Coordenadas que coincidem com o deslocamento de bits de outra palavra
+        assertFalse(grid.isOnTrack(64, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDimensions_areRejected() {
+        TrackOccupancyGrid.fromPixels(new int[10], 4, 4, TRACK);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.mylibrary2.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classe EventTracer
+ * Rastreamento de eventos sem alocação, para substituir `Log.d` em trechos executados a cada ciclo.
+ *
+ * Cada evento é registrado uma vez ({@link #register(int, String, String)}), com nível, tag e um
+ * formato em que `{}` é um inteiro, `{d}` um double (passado com {@link #d(double)}) e `{s}` uma
+ * string internada com {@link #internString(String)}. Os eventos guardam apenas o id e até quatro
+ * valores primitivos no buffer circular da thread que os gera, sem locks; a mensagem só é montada
+ * em {@link #dump(Appendable)}. Os níveis seguem os de `android.util.Log`; eventos abaixo de
+ * {@link #setMinLevel(int)} são descartados com uma comparação, sem alocar. Os buffers de threads
+ * encerradas são removidos depois de limpos ({@link ThreadRingRegistry}).
+ */
+public final class EventTracer {
+
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+    public static final int DEFAULT_CAPACITY = 1024; // Posições do buffer de cada thread; mantém uma a menos
+
+    private static final String[] LEVEL_NAMES = {"", "", "V", "D", "I", "W", "E"};
+
+    private static volatile int minLevel = DEBUG;
+    private static volatile int[] eventLevels = new int[0];
+    private static final List<String> eventTags = new ArrayList<>();
+    private static final List<String> eventFormats = new ArrayList<>();
+    private static final Map<String, Integer> stringIds = new ConcurrentHashMap<>();
+    private static final List<String> strings = new ArrayList<>();
+
+    private static final ThreadRingRegistry<TraceRing> rings =
+            new ThreadRingRegistry<>(owner -> new TraceRing(owner, DEFAULT_CAPACITY));
+
+    private EventTracer() {
+    }
+
+    /**
+     * Buffer circular de eventos de uma thread, com um único produtor.
+     */
+    private static final class TraceRing extends SingleWriterRing {
+        final long[] timestamps;
+        final int[] ids;
+        final long[] first;
+        final long[] second;
+        final long[] third;
+        final long[] fourth;
+
+        TraceRing(Thread owner, int capacity) {
+            super(owner, capacity);
+            int size = capacity();
+            this.timestamps = new long[size];
+            this.ids = new int[size];
+            this.first = new long[size];
+            this.second = new long[size];
+            this.third = new long[size];
+            this.fourth = new long[size];
+        }
+
+        void record(int eventId, long a, long b, long c, long d) {
+            long sequence = nextSequence();
+            int index = (int) sequence & mask;
+            timestamps[index] = System.nanoTime();
+            ids[index] = eventId;
+            first[index] = a;
+            second[index] = b;
+            third[index] = c;
+            fourth[index] = d;
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Registra um tipo de evento. Deve ser chamado uma vez, normalmente em um campo `static final`.
+     *
+     * @param level  Nível do evento (`VERBOSE` a `ERROR`).
+     * @param tag    Tag, como em `Log`.
+     * @param format Mensagem com `{}`, `{d}` e `{s}` para os valores, na ordem.
+     * @return Id do evento.
+     */
+    public static synchronized int register(int level, String tag, String format) {
+        int id = eventTags.size();
+        eventTags.add(tag);
+        eventFormats.add(format);
+        int[] levels = Arrays.copyOf(eventLevels, id + 1);
+        levels[id] = level;
+        eventLevels = levels;
+        return id;
+    }
+
+    /**
+     * Obtém o id de uma string para usar com `{s}`, registrando-a na primeira chamada.
+     */
+    public static int internString(String value) {
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        synchronized (strings) {
+            id = stringIds.get(value);
+            if (id == null) {
+                id = strings.size();
+                strings.add(value);
+                stringIds.put(value, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Codifica um double para um valor `{d}`.
+     */
+    public static long d(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    public static void setMinLevel(int level) {
+        minLevel = level;
+    }
+
+    /**
+     * Indica se o evento seria gravado. Não aloca.
+     */
+    public static boolean isLoggable(int eventId) {
+        return eventLevels[eventId] >= minLevel;
+    }
+
+    public static void trace(int eventId) {
+        trace(eventId, 0, 0, 0, 0);
+    }
+
+    public static void trace(int eventId, long a) {
+        trace(eventId, a, 0, 0, 0);
+    }
+
+    public static void trace(int eventId, long a, long b) {
+        trace(eventId, a, b, 0, 0);
+    }
+
+    public static void trace(int eventId, long a, long b, long c) {
+        trace(eventId, a, b, c, 0);
+    }
+
+    /**
+     * Grava um evento no buffer da thread atual, se o seu nível estiver habilitado.
+     */
+    public static void trace(int eventId, long a, long b, long c, long d) {
+        if (eventLevels[eventId] >= minLevel) {
+            rings.local().record(eventId, a, b, c, d);
+        }
+    }
+
+    /**
+     * Escreve os eventos ainda mantidos nos buffers, de todas as threads, em ordem de tempo.
+     * Formato de cada linha: `<instante em ms> <nível>/<tag> [<thread>]: <mensagem>`.
+     *
+     * @return Quantidade de eventos escritos.
+     */
+    public static synchronized int dump(Appendable out) throws IOException {
+        List<long[]> events = new ArrayList<>(); // {instante, id, a, b, c, d, índice do buffer}
+        List<TraceRing> sources;
+        synchronized (rings) {
+            sources = new ArrayList<>(rings.prune());
+        }
+        for (int r = 0; r < sources.size(); r++) {
+            TraceRing ring = sources.get(r);
+            long end = ring.published();
+            long start = ring.readStart(end);
+            List<long[]> copied = new ArrayList<>((int) (end - start));
+            for (long sequence = start; sequence < end; sequence++) {
+                int index = (int) sequence & ring.mask;
+                copied.add(new long[]{ring.timestamps[index], ring.ids[index], ring.first[index],
+                        ring.second[index], ring.third[index], ring.fourth[index], r});
+            }
+            // Eventos sobrescritos durante a cópia são descartados
+            long validStart = ring.firstIntact(start);
+            events.addAll(copied.subList((int) (validStart - start), copied.size()));
+        }
+        events.sort((x, y) -> Long.compare(x[0], y[0]));
+
+        StringBuilder line = new StringBuilder(128);
+        for (long[] event : events) {
+            int id = (int) event[1];
+            line.setLength(0);
+            line.append(String.format(Locale.US, "%.3f ", event[0] / 1_000_000.0))
+                    .append(LEVEL_NAMES[eventLevels[id]]).append('/').append(eventTags.get(id))
+                    .append(" [").append(sources.get((int) event[6]).threadName).append("]: ");
+            appendMessage(line, eventFormats.get(id), event);
+            out.append(line).append('\n');
+        }
+        return events.size();
+    }
+
+    private static void appendMessage(StringBuilder line, String format, long[] event) {
+        int next = 2; // Os valores ocupam as posições 2 a 5 do evento copiado
+        int end = 6;
+        int i = 0;
+        while (i < format.length()) {
+            char ch = format.charAt(i);
+            if (ch == '{' && next < end) {
+                int close = format.indexOf('}', i);
+                if (close == i + 1) {
+                    line.append(event[next++]);
+                    i = close + 1;
+                    continue;
+                }
+                if (close == i + 2 && format.charAt(i + 1) == 'd') {
+                    line.append(String.format(Locale.US, "%.3f", Double.longBitsToDouble(event[next++])));
+                    i = close + 1;
+                    continue;
+                }
+                if (close == i + 2 && format.charAt(i + 1) == 's') {
+                    line.append(stringAt((int) event[next++]));
+                    i = close + 1;
+                    continue;
+                }
+            }
+            line.append(ch);
+            i++;
+        }
+    }
+
+    private static String stringAt(int id) {
+        synchronized (strings) {
+            return id >= 0 && id < strings.size() ? strings.get(id) : "?";
+        }
+    }
+
+    /**
+     * Descarta, para os próximos `dump`, os eventos gravados até agora.
+     */
+    public static synchronized void clear() {
+        synchronized (rings) {
+            for (TraceRing ring : rings.prune()) {
+                ring.consumeTo(ring.published());
+            }
+            rings.takeDiscarded();
+        }
+    }
+}
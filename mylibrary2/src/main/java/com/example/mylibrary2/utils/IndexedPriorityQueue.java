@@ -0,0 +1,213 @@
+package com.example.mylibrary2.utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Classe IndexedPriorityQueue
+ * Heap binário em que cada elemento guarda a sua posição no array, o que permite
+ * reordenar um elemento já enfileirado em O(log n) e localizá-lo pelo nome em O(1).
+ *
+ * Quando a ordem de vários elementos muda de uma só vez, `heapify` reconstrói o heap
+ * inteiro em O(n), mais barato do que reposicionar cada elemento separadamente.
+ *
+ * @param <E> Tipo dos elementos, que devem estender {@link Entry}.
+ */
+public class IndexedPriorityQueue<E extends IndexedPriorityQueue.Entry> {
+
+    /**
+     * Elemento do heap. O índice é mantido pela fila e vale -1 enquanto o elemento não estiver enfileirado.
+     */
+    public abstract static class Entry {
+        int heapIndex = -1;
+
+        /**
+         * Nome usado para localizar o elemento na fila.
+         */
+        public abstract String key();
+
+        public boolean isQueued() {
+            return heapIndex >= 0;
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private final Map<String, E> byKey = new HashMap<>();
+    private Object[] heap;
+    private int size;
+
+    public IndexedPriorityQueue(Comparator<? super E> comparator) {
+        this(comparator, 16);
+    }
+
+    public IndexedPriorityQueue(Comparator<? super E> comparator, int initialCapacity) {
+        this.comparator = comparator;
+        this.heap = new Object[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Enfileira um elemento. Se já houver outro com o mesmo nome, a busca por nome passa a
+     * retornar o mais recente, mas ambos continuam na fila.
+     *
+     * @param entry Elemento a ser enfileirado.
+     * @throws IllegalStateException Se o elemento já estiver nesta ou em outra fila.
+     */
+    public void add(E entry) {
+        if (entry.heapIndex >= 0) {
+            throw new IllegalStateException("O elemento já está enfileirado: " + entry.key());
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        heap[size] = entry;
+        entry.heapIndex = size;
+        size++;
+        siftUp(entry.heapIndex);
+        byKey.put(entry.key(), entry);
+    }
+
+    /**
+     * Retorna o elemento de maior prioridade sem removê-lo.
+     */
+    public E peek() {
+        return size == 0 ? null : elementAt(0);
+    }
+
+    /**
+     * Remove e retorna o elemento de maior prioridade.
+     */
+    public E poll() {
+        if (size == 0) {
+            return null;
+        }
+        E head = elementAt(0);
+        removeAt(0);
+        return head;
+    }
+
+    /**
+     * Localiza o elemento enfileirado mais recentemente com o nome informado.
+     */
+    public E get(String key) {
+        return byKey.get(key);
+    }
+
+    /**
+     * Remove o elemento informado da fila.
+     *
+     * @return true se o elemento estava enfileirado.
+     */
+    public boolean remove(E entry) {
+        int index = entry.heapIndex;
+        if (index < 0 || index >= size || heap[index] != entry) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Reposiciona um elemento cuja chave de ordenação foi alterada (aumento ou redução de prioridade).
+     *
+     * @param entry Elemento já enfileirado.
+     * @throws IllegalArgumentException Se o elemento não pertencer a esta fila.
+     */
+    public void update(E entry) {
+        int index = entry.heapIndex;
+        if (index < 0 || index >= size || heap[index] != entry) {
+            throw new IllegalArgumentException("O elemento não está nesta fila: " + entry.key());
+        }
+        if (siftUp(index) == index) {
+            siftDown(index);
+        }
+    }
+
+    /**
+     * Reconstrói o heap inteiro em O(n). Deve ser chamado depois de alterar a chave de
+     * ordenação de vários elementos sem chamar `update` para cada um.
+     */
+    public void heapify() {
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void removeAt(int index) {
+        E removed = elementAt(index);
+        int last = --size;
+        if (index != last) {
+            E moved = elementAt(last);
+            heap[index] = moved;
+            moved.heapIndex = index;
+            heap[last] = null;
+            if (siftUp(index) == index) {
+                siftDown(index);
+            }
+        } else {
+            heap[last] = null;
+        }
+        removed.heapIndex = -1;
+        if (byKey.get(removed.key()) == removed) {
+            byKey.remove(removed.key());
+        }
+    }
+
+    /**
+     * Sobe o elemento na posição informada enquanto ele tiver prioridade maior que o pai.
+     *
+     * @return Posição final do elemento.
+     */
+    private int siftUp(int index) {
+        E entry = elementAt(index);
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            E parentEntry = elementAt(parent);
+            if (comparator.compare(entry, parentEntry) >= 0) {
+                break;
+            }
+            heap[index] = parentEntry;
+            parentEntry.heapIndex = index;
+            index = parent;
+        }
+        heap[index] = entry;
+        entry.heapIndex = index;
+        return index;
+    }
+
+    private void siftDown(int index) {
+        E entry = elementAt(index);
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            E childEntry = elementAt(child);
+            int right = child + 1;
+            if (right < size && comparator.compare(elementAt(right), childEntry) < 0) {
+                child = right;
+                childEntry = elementAt(right);
+            }
+            if (comparator.compare(entry, childEntry) <= 0) {
+                break;
+            }
+            heap[index] = childEntry;
+            childEntry.heapIndex = index;
+            index = child;
+        }
+        heap[index] = entry;
+        entry.heapIndex = index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int index) {
+        return (E) heap[index];
+    }
+}
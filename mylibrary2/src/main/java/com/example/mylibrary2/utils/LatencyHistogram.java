@@ -0,0 +1,149 @@
+package com.example.mylibrary2.utils;
+
+import java.util.Arrays;
+
+/**
+ * Classe LatencyHistogram
+ * Histograma log-linear de latências (no estilo HDR) com memória fixa.
+ * Valores até `2^precisionBits` têm baldes de largura 1; acima disso, cada potência de 2 é dividida
+ * em `2^(precisionBits - 1)` baldes, de modo que o erro relativo de qualquer percentil fica abaixo
+ * de `10^-significantDigits`. Valores acima do máximo rastreável são contados no último balde.
+ *
+ * Não é sincronizado: cada histograma deve ter um único produtor. Histogramas com a mesma
+ * configuração podem ser somados com `add`, por exemplo para juntar os de várias threads.
+ */
+public class LatencyHistogram {
+
+    private final long highestTrackableValue;
+    private final int significantDigits;
+    private final int precisionBits;
+    private final int halfSubBuckets;
+    private final long[] counts;
+    private long totalCount;
+    private long maxValue;
+
+    /**
+     * @param highestTrackableValue Maior valor distinguível (ex.: 60 s em nanossegundos).
+     * @param significantDigits     Dígitos significativos preservados, de 1 a 4.
+     * @throws IllegalArgumentException Se os parâmetros estiverem fora dos limites.
+     */
+    public LatencyHistogram(long highestTrackableValue, int significantDigits) {
+        if (significantDigits < 1 || significantDigits > 4) {
+            throw new IllegalArgumentException("Dígitos significativos devem estar entre 1 e 4.");
+        }
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("O maior valor rastreável deve ser pelo menos 2.");
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+        long resolution = 2 * (long) Math.pow(10, significantDigits);
+        this.precisionBits = 64 - Long.numberOfLeadingZeros(resolution - 1); // ceil(log2(resolution))
+        this.halfSubBuckets = 1 << (precisionBits - 1);
+        this.counts = new long[indexOf(highestTrackableValue) + 1];
+    }
+
+    /**
+     * Registra um valor. Valores negativos são tratados como 0.
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, highestTrackableValue));
+        counts[indexOf(clamped)]++;
+        totalCount++;
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    /**
+     * Soma as contagens de outro histograma com a mesma configuração.
+     *
+     * @throws IllegalArgumentException Se as configurações forem diferentes.
+     */
+    public void add(LatencyHistogram other) {
+        if (other.highestTrackableValue != highestTrackableValue || other.significantDigits != significantDigits) {
+            throw new IllegalArgumentException("Histogramas com configurações diferentes não podem ser somados.");
+        }
+        long added = 0;
+        for (int i = 0; i < counts.length; i++) {
+            long count = other.counts[i];
+            counts[i] += count;
+            added += count;
+        }
+        // Soma o que foi lido dos baldes, que é o que os percentis usam
+        totalCount += added;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * Retorna uma cópia vazia com a mesma configuração.
+     */
+    public LatencyHistogram emptyCopy() {
+        return new LatencyHistogram(highestTrackableValue, significantDigits);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+    }
+
+    /**
+     * Retorna o valor abaixo do qual está a porcentagem informada dos registros.
+     *
+     * @param percentile Percentil entre 0 e 100 (ex.: 99.9).
+     * @return Maior valor equivalente do balde que contém o percentil, ou 0 se estiver vazio.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double clamped = Math.max(0.0, Math.min(percentile, 100.0));
+        long target = Math.max(1, (long) Math.ceil(clamped / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Resumo com os percentis usuais, nas unidades dos valores registrados divididas por `unitDivisor`.
+     */
+    public String summary(double unitDivisor) {
+        return String.format("n=%d p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f",
+                totalCount,
+                getValueAtPercentile(50) / unitDivisor,
+                getValueAtPercentile(90) / unitDivisor,
+                getValueAtPercentile(99) / unitDivisor,
+                getValueAtPercentile(99.9) / unitDivisor,
+                maxValue / unitDivisor);
+    }
+
+    private int indexOf(long value) {
+        int shift = 64 - Long.numberOfLeadingZeros(value) - precisionBits; // floor(log2 v) - P + 1
+        if (shift <= 0) {
+            return (int) value; // Faixa linear
+        }
+        return shift * halfSubBuckets + (int) (value >>> shift);
+    }
+
+    private long highestEquivalentValue(int index) {
+        if (index < 2 * halfSubBuckets) {
+            return index;
+        }
+        int shift = (index >> (precisionBits - 1)) - 1;
+        long subBucket = index - (long) shift * halfSubBuckets;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.mylibrary2.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classe MetricColumnStore
+ * Armazenamento colunar de métricas em arrays primitivos, sem um objeto por amostra.
+ * Cada coluna é uma sequência de blocos de `CHUNK_SIZE` valores, de modo que uma consulta
+ * percorre apenas a coluna de que precisa. Cada amostra ocupa `BYTES_PER_SAMPLE` bytes:
+ *
+ * - instante (`long`, nanossegundos de `System.nanoTime`);
+ * - id da tarefa (`int`, nome internado por {@link #internTask(String)});
+ * - jitter e tempo de resposta (`int`, microssegundos, saturados em `Integer.MAX_VALUE`);
+ * - utilização do processador (`float`, %).
+ *
+ * A internação de nomes é segura entre threads; as demais operações devem ser feitas por uma
+ * thread por vez (o MetricsCollector as faz sob o seu monitor). Ao passar de `maxSamples`,
+ * o bloco mais antigo é descartado.
+ */
+public class MetricColumnStore {
+
+    public static final int CHUNK_SHIFT = 12;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    public static final int BYTES_PER_SAMPLE = 8 + 4 + 4 + 4 + 4;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final long NANOS_PER_MICRO = 1_000L;
+
+    private final Map<String, Integer> taskIds = new ConcurrentHashMap<>();
+    private final List<String> taskNames = new ArrayList<>();
+    private final int maxChunks;
+
+    private long[][] timestamps = new long[4][];
+    private int[][] tasks = new int[4][];
+    private int[][] jitterMicros = new int[4][];
+    private int[][] responseMicros = new int[4][];
+    private float[][] utilization = new float[4][];
+    private int chunkCount;
+    private int size;
+    private long evictedSamples;
+
+    /**
+     * @param maxSamples Limite de amostras mantidas (arredondado para blocos inteiros).
+     */
+    public MetricColumnStore(long maxSamples) {
+        long chunks = (maxSamples >> CHUNK_SHIFT) + ((maxSamples & CHUNK_MASK) == 0 ? 0 : 1);
+        this.maxChunks = (int) Math.max(1, Math.min(Integer.MAX_VALUE / CHUNK_SIZE, chunks));
+    }
+
+    /**
+     * Obtém o id inteiro de uma tarefa, registrando o nome na primeira chamada. Seguro entre threads.
+     */
+    public int internTask(String taskName) {
+        Integer id = taskIds.get(taskName);
+        if (id != null) {
+            return id;
+        }
+        synchronized (taskNames) {
+            id = taskIds.get(taskName);
+            if (id == null) {
+                id = taskNames.size();
+                taskNames.add(taskName);
+                taskIds.put(taskName, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Retorna o id de uma tarefa já internada, ou -1.
+     */
+    public int findTask(String taskName) {
+        Integer id = taskIds.get(taskName);
+        return id == null ? -1 : id;
+    }
+
+    public String getTaskName(int taskId) {
+        synchronized (taskNames) {
+            return taskNames.get(taskId);
+        }
+    }
+
+    /**
+     * Nomes internados, na ordem dos ids.
+     */
+    public List<String> getTaskNames() {
+        synchronized (taskNames) {
+            return new ArrayList<>(taskNames);
+        }
+    }
+
+    /**
+     * Acrescenta uma amostra.
+     *
+     * @param timestampNanos       Instante da coleta (`System.nanoTime`).
+     * @param taskId               Id obtido em {@link #internTask(String)}.
+     * @param jitterNanos          Jitter em nanossegundos.
+     * @param responseNanos        Tempo de resposta em nanossegundos.
+     * @param processorUtilization Utilização do processador (%).
+     */
+    public void append(long timestampNanos, int taskId, long jitterNanos, long responseNanos,
+                       double processorUtilization) {
+        int offset = size & CHUNK_MASK;
+        if (offset == 0) {
+            addChunk();
+        }
+        int chunk = chunkCount - 1;
+        timestamps[chunk][offset] = timestampNanos;
+        tasks[chunk][offset] = taskId;
+        jitterMicros[chunk][offset] = toMicros(jitterNanos);
+        responseMicros[chunk][offset] = toMicros(responseNanos);
+        utilization[chunk][offset] = (float) processorUtilization;
+        size++;
+    }
+
+    private void addChunk() {
+        if (chunkCount == maxChunks) {
+            evictOldestChunk();
+        }
+        if (chunkCount == timestamps.length) {
+            int capacity = Math.min(maxChunks, timestamps.length * 2);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            tasks = Arrays.copyOf(tasks, capacity);
+            jitterMicros = Arrays.copyOf(jitterMicros, capacity);
+            responseMicros = Arrays.copyOf(responseMicros, capacity);
+            utilization = Arrays.copyOf(utilization, capacity);
+        }
+        timestamps[chunkCount] = new long[CHUNK_SIZE];
+        tasks[chunkCount] = new int[CHUNK_SIZE];
+        jitterMicros[chunkCount] = new int[CHUNK_SIZE];
+        responseMicros[chunkCount] = new int[CHUNK_SIZE];
+        utilization[chunkCount] = new float[CHUNK_SIZE];
+        chunkCount++;
+    }
+
+    private void evictOldestChunk() {
+        shiftLeft(timestamps);
+        shiftLeft(tasks);
+        shiftLeft(jitterMicros);
+        shiftLeft(responseMicros);
+        shiftLeft(utilization);
+        chunkCount--;
+        size -= CHUNK_SIZE;
+        evictedSamples += CHUNK_SIZE;
+    }
+
+    private void shiftLeft(Object[] chunks) {
+        System.arraycopy(chunks, 1, chunks, 0, chunkCount - 1);
+        chunks[chunkCount - 1] = null;
+    }
+
+    private static int toMicros(long nanos) {
+        long micros = nanos / NANOS_PER_MICRO;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, micros));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Amostras descartadas por ultrapassarem `maxSamples`.
+     */
+    public long getEvictedSamples() {
+        return evictedSamples;
+    }
+
+    public long getTimestampNanos(int row) {
+        return timestamps[row >> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public int getTaskId(int row) {
+        return tasks[row >> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public int getJitterMicros(int row) {
+        return jitterMicros[row >> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public int getResponseMicros(int row) {
+        return responseMicros[row >> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public float getUtilization(int row) {
+        return utilization[row >> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    /**
+     * Soma a coluna de jitter, em microssegundos.
+     */
+    public long sumJitterMicros() {
+        return sumColumn(jitterMicros);
+    }
+
+    /**
+     * Soma a coluna de tempo de resposta, em microssegundos.
+     */
+    public long sumResponseMicros() {
+        return sumColumn(responseMicros);
+    }
+
+    private long sumColumn(int[][] column) {
+        long sum = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int[] values = column[chunk];
+            int length = chunkLength(chunk);
+            for (int i = 0; i < length; i++) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Média da coluna de utilização do processador.
+     */
+    public double averageUtilization() {
+        if (size == 0) {
+            return 0.0;
+        }
+        double sum = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            float[] values = utilization[chunk];
+            int length = chunkLength(chunk);
+            for (int i = 0; i < length; i++) {
+                sum += values[i];
+            }
+        }
+        return sum / size;
+    }
+
+    /**
+     * Conta as amostras de uma tarefa percorrendo apenas a coluna de ids.
+     */
+    public int countTask(int taskId) {
+        int count = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int[] values = tasks[chunk];
+            int length = chunkLength(chunk);
+            for (int i = 0; i < length; i++) {
+                if (values[i] == taskId) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int chunkLength(int chunk) {
+        return chunk < chunkCount - 1 ? CHUNK_SIZE : size - (chunk << CHUNK_SHIFT);
+    }
+
+    /**
+     * Remove todas as amostras; os nomes internados são mantidos.
+     */
+    public void clear() {
+        Arrays.fill(timestamps, null);
+        Arrays.fill(tasks, null);
+        Arrays.fill(jitterMicros, null);
+        Arrays.fill(responseMicros, null);
+        Arrays.fill(utilization, null);
+        chunkCount = 0;
+        size = 0;
+        evictedSamples = 0;
+    }
+}
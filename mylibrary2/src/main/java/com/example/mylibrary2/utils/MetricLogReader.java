@@ -0,0 +1,235 @@
+package com.example.mylibrary2.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe MetricLogReader
+ * Lê sequencialmente um log gravado por {@link MetricLogWriter}.
+ *
+ * Uso: chamar {@link #next()} até retornar false e, a cada registro, consultar os getters.
+ * {@link #convertToCsv(File, File)} converte o log para o CSV de {@link MetricsCollector#exportMetrics(String)}.
+ */
+public class MetricLogReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MICROS_PER_MILLI = 1_000L;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final List<String> taskNames = new ArrayList<>();
+    private int[] lastJitter = new int[8];
+    private int[] lastResponse = new int[8];
+    private int[] lastUtilization = new int[8];
+
+    private int taskId;
+    private long timestampMicros;
+    private int jitterMicros;
+    private int responseMicros;
+    private int utilization;
+
+    /**
+     * Abre o log e lê o cabeçalho.
+     *
+     * @throws IOException Se o conteúdo não for um log de métricas desta versão.
+     */
+    public MetricLogReader(InputStream in) throws IOException {
+        this.in = in;
+        for (byte expected : MetricLogWriter.MAGIC) {
+            if (readByte() != expected) {
+                throw new IOException("Arquivo não é um log de métricas.");
+            }
+        }
+        int version = readByte();
+        if (version != MetricLogWriter.VERSION) {
+            throw new IOException("Versão de log de métricas não suportada: " + version);
+        }
+        int count = (int) readVarint();
+        for (int i = 0; i < count; i++) {
+            addTask(i, readName());
+        }
+    }
+
+    /**
+     * Avança para o próximo registro de métrica.
+     *
+     * @return false ao fim do log.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (!fill()) {
+                return false;
+            }
+            int control = readByte() & 0xFF;
+            if (control == MetricLogWriter.TASK_DEFINITION) {
+                int id = (int) readVarint();
+                addTask(id, readName());
+                continue;
+            }
+            int task = control >>> 3;
+            taskId = task == MetricLogWriter.TASK_ESCAPE
+                    ? (int) (MetricLogWriter.TASK_ESCAPE - 1 + readVarint()) : task - 1;
+            if (taskId < 0 || taskId >= taskNames.size()) {
+                throw new IOException("Tarefa não definida no log: " + taskId);
+            }
+            timestampMicros += unzigzag(readVarint());
+            if ((control & MetricLogWriter.JITTER_PRESENT) != 0) {
+                lastJitter[taskId] += (int) unscaled(readVarint());
+            }
+            if ((control & MetricLogWriter.RESPONSE_PRESENT) != 0) {
+                lastResponse[taskId] += (int) unscaled(readVarint());
+            }
+            if ((control & MetricLogWriter.UTILIZATION_PRESENT) != 0) {
+                lastUtilization[taskId] += (int) unzigzag(readVarint());
+            }
+            jitterMicros = lastJitter[taskId];
+            responseMicros = lastResponse[taskId];
+            utilization = lastUtilization[taskId];
+            return true;
+        }
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public String getTaskName() {
+        return taskNames.get(taskId);
+    }
+
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    public int getJitterMicros() {
+        return jitterMicros;
+    }
+
+    public int getResponseMicros() {
+        return responseMicros;
+    }
+
+    public double getUtilization() {
+        return utilization / MetricLogWriter.UTILIZATION_SCALE;
+    }
+
+    /**
+     * Nomes das tarefas definidas até o registro atual, na ordem dos ids.
+     */
+    public List<String> getTaskNames() {
+        return new ArrayList<>(taskNames);
+    }
+
+    /**
+     * Escreve os registros restantes no layout CSV de {@link MetricsCollector.Metric}.
+     *
+     * @return Quantidade de registros escritos.
+     */
+    public long copyToCsv(Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        long rows = 0;
+        writer.write("Task Name,Jitter (ms),Response Time (ms),Processor Utilization (%)\n");
+        while (next()) {
+            line.setLength(0);
+            line.append(getTaskName()).append(',')
+                    .append(jitterMicros / MICROS_PER_MILLI).append(',')
+                    .append(responseMicros / MICROS_PER_MILLI).append(',')
+                    .append(getUtilization()).append('\n');
+            writer.append(line);
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Converte um log binário em um arquivo CSV.
+     *
+     * @return Quantidade de registros convertidos.
+     */
+    public static long convertToCsv(File logFile, File csvFile) throws IOException {
+        try (MetricLogReader reader = new MetricLogReader(new FileInputStream(logFile));
+             Writer writer = new BufferedWriter(new FileWriter(csvFile), BUFFER_SIZE)) {
+            return reader.copyToCsv(writer);
+        }
+    }
+
+    private void addTask(int id, String name) throws IOException {
+        if (id != taskNames.size()) {
+            throw new IOException("Id de tarefa fora de ordem no log: " + id);
+        }
+        taskNames.add(name);
+        if (id == lastJitter.length) {
+            lastJitter = Arrays.copyOf(lastJitter, id * 2);
+            lastResponse = Arrays.copyOf(lastResponse, id * 2);
+            lastUtilization = Arrays.copyOf(lastUtilization, id * 2);
+        }
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long unscaled(long value) {
+        long delta = unzigzag(value >>> 1);
+        return (value & 1) != 0 ? delta * MetricLogWriter.MILLI_UNIT : delta;
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        limit = in.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private int readByte() throws IOException {
+        if (!fill()) {
+            throw new EOFException("Log de métricas truncado.");
+        }
+        return buffer[position++];
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint inválido no log de métricas.");
+    }
+
+    private String readName() throws IOException {
+        byte[] bytes = new byte[(int) readVarint()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) readByte();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
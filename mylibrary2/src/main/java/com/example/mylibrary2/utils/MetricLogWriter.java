@@ -0,0 +1,233 @@
+package com.example.mylibrary2.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe MetricLogWriter
+ * Grava métricas em um log binário compacto, somente de acréscimo.
+ *
+ * Formato (lido por {@link MetricLogReader}):
+ *
+ * - cabeçalho: `MAGIC` (4 bytes), `VERSION` (1 byte), quantidade de tarefas (varint) e os nomes
+ *   internados (tamanho em varint + UTF-8), cujos ids são as posições na tabela;
+ * - registros: um byte de controle, o instante e os campos que mudaram, cada valor como a diferença
+ *   em relação ao anterior, codificada em zigzag varint. Os 5 bits altos do byte de controle guardam
+ *   `id da tarefa + 1` (`TASK_ESCAPE` indica que o id segue em varint, a partir de `TASK_ESCAPE - 1`)
+ *   e os 3 bits baixos indicam quais de jitter, tempo de resposta e utilização estão presentes;
+ *   campos ausentes repetem o valor anterior da tarefa;
+ * - as diferenças de jitter e de tempo de resposta levam no bit baixo a unidade: `1` indica
+ *   milissegundos inteiros ({@link #MILLI_UNIT}), `0` microssegundos. Métricas coletadas em
+ *   milissegundos ocupam assim um byte por campo, em vez de dois ou três;
+ * - tarefas que surgem depois do cabeçalho são definidas por um byte de controle `0`, seguido do id
+ *   e do nome.
+ *
+ * O instante é a diferença para o registro anterior (de qualquer tarefa), em microssegundos; jitter,
+ * tempo de resposta (µs) e utilização (centésimos de %, ponto fixo) são diferenças para o registro
+ * anterior da mesma tarefa. Com amostras periódicas, cada registro ocupa poucos bytes.
+ */
+public class MetricLogWriter implements Closeable, Flushable {
+
+    static final byte[] MAGIC = {'R', 'T', 'M', 'L'};
+    static final int VERSION = 2;
+    static final int TASK_DEFINITION = 0;
+    static final int TASK_ESCAPE = 31;
+    static final int JITTER_PRESENT = 1;
+    static final int RESPONSE_PRESENT = 2;
+    static final int UTILIZATION_PRESENT = 4;
+    static final long NANOS_PER_MICRO = 1_000L;
+    static final long MILLI_UNIT = 1_000L; // Microssegundos por milissegundo
+    static final double UTILIZATION_SCALE = 100.0; // Centésimos de ponto percentual
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RECORD_BYTES = 1 + 5 + 4 * 10;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private long bytesWritten;
+
+    private final Map<String, Integer> taskIds = new HashMap<>();
+    private long lastTimestampMicros;
+    private int[] lastJitter = new int[8];
+    private int[] lastResponse = new int[8];
+    private int[] lastUtilization = new int[8];
+
+    /**
+     * Abre o log e grava o cabeçalho com as tarefas já conhecidas.
+     *
+     * @param out       Destino. Não precisa ser bufferizado.
+     * @param taskNames Nomes das tarefas do cabeçalho; outras podem ser definidas depois.
+     */
+    public MetricLogWriter(OutputStream out, List<String> taskNames) throws IOException {
+        this.out = out;
+        System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+        position = MAGIC.length;
+        buffer[position++] = VERSION;
+        writeVarint(taskNames.size());
+        for (String taskName : taskNames) {
+            writeName(taskName);
+            register(taskName);
+        }
+    }
+
+    /**
+     * Obtém o id de uma tarefa no log, gravando a sua definição na primeira chamada.
+     */
+    public int defineTask(String taskName) throws IOException {
+        Integer id = taskIds.get(taskName);
+        if (id != null) {
+            return id;
+        }
+        int newId = register(taskName);
+        ensureCapacity(2 * 10);
+        buffer[position++] = TASK_DEFINITION;
+        writeVarint(newId);
+        writeName(taskName);
+        return newId;
+    }
+
+    private int register(String taskName) {
+        int id = taskIds.size();
+        taskIds.put(taskName, id);
+        if (id == lastJitter.length) {
+            lastJitter = Arrays.copyOf(lastJitter, id * 2);
+            lastResponse = Arrays.copyOf(lastResponse, id * 2);
+            lastUtilization = Arrays.copyOf(lastUtilization, id * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Acrescenta uma métrica.
+     *
+     * @param taskId               Id obtido em {@link #defineTask(String)}.
+     * @param timestampNanos       Instante da coleta (`System.nanoTime`); gravado em microssegundos.
+     * @param jitterMicros         Jitter em microssegundos.
+     * @param responseMicros       Tempo de resposta em microssegundos.
+     * @param processorUtilization Utilização do processador (%); gravada com duas casas decimais.
+     */
+    public void append(int taskId, long timestampNanos, int jitterMicros, int responseMicros,
+                       double processorUtilization) throws IOException {
+        ensureCapacity(MAX_RECORD_BYTES);
+        long timestampMicros = timestampNanos / NANOS_PER_MICRO;
+        int utilization = (int) Math.round(processorUtilization * UTILIZATION_SCALE);
+        long jitterDelta = (long) jitterMicros - lastJitter[taskId];
+        long responseDelta = (long) responseMicros - lastResponse[taskId];
+        long utilizationDelta = (long) utilization - lastUtilization[taskId];
+        int present = (jitterDelta != 0 ? JITTER_PRESENT : 0)
+                | (responseDelta != 0 ? RESPONSE_PRESENT : 0)
+                | (utilizationDelta != 0 ? UTILIZATION_PRESENT : 0);
+        if (taskId < TASK_ESCAPE - 1) {
+            buffer[position++] = (byte) (((taskId + 1) << 3) | present);
+        } else {
+            buffer[position++] = (byte) ((TASK_ESCAPE << 3) | present);
+            writeVarint(taskId - (TASK_ESCAPE - 1));
+        }
+        writeVarint(zigzag(timestampMicros - lastTimestampMicros));
+        if (jitterDelta != 0) writeVarint(scaled(jitterDelta));
+        if (responseDelta != 0) writeVarint(scaled(responseDelta));
+        if (utilizationDelta != 0) writeVarint(zigzag(utilizationDelta));
+        lastTimestampMicros = timestampMicros;
+        lastJitter[taskId] = jitterMicros;
+        lastResponse[taskId] = responseMicros;
+        lastUtilization[taskId] = utilization;
+    }
+
+    /**
+     * Acrescenta as linhas `[fromRow, toRow)` de um armazenamento colunar.
+     */
+    public void append(MetricColumnStore store, int fromRow, int toRow) throws IOException {
+        int[] logIds = new int[0];
+        for (int row = fromRow; row < toRow; row++) {
+            int storeId = store.getTaskId(row);
+            if (storeId >= logIds.length) {
+                int oldLength = logIds.length;
+                logIds = Arrays.copyOf(logIds, storeId + 1);
+                Arrays.fill(logIds, oldLength, logIds.length, -1);
+            }
+            if (logIds[storeId] < 0) {
+                logIds[storeId] = defineTask(store.getTaskName(storeId));
+            }
+            append(logIds[storeId], store.getTimestampNanos(row), store.getJitterMicros(row),
+                    store.getResponseMicros(row), store.getUtilization(row));
+        }
+    }
+
+    /**
+     * Bytes gravados até agora, incluindo os que ainda estão no buffer.
+     */
+    public long getBytesWritten() {
+        return bytesWritten + position;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Diferença em zigzag com a unidade no bit baixo: em milissegundos quando exata, senão em microssegundos.
+     */
+    static long scaled(long deltaMicros) {
+        if (deltaMicros % MILLI_UNIT == 0) {
+            return (zigzag(deltaMicros / MILLI_UNIT) << 1) | 1;
+        }
+        return zigzag(deltaMicros) << 1;
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeName(String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(5 + bytes.length);
+        writeVarint(bytes.length);
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            out.write(bytes);
+            bytesWritten += bytes.length;
+        } else {
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.length - position < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, position);
+        bytesWritten += position;
+        position = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.mylibrary2.utils;
+
+/**
+ * Classe MetricRingBuffer
+ * Buffer circular de métricas com um único produtor, armazenado em arrays primitivos pré-alocados.
+ * Cada thread que registra métricas tem o seu próprio buffer, de modo que o registro não usa
+ * locks nem aloca memória. Quando o buffer enche, os registros mais antigos são sobrescritos.
+ *
+ * Leitores transferem os registros para o {@link MetricColumnStore} sem bloquear o produtor e
+ * descartam os que foram sobrescritos durante a cópia, verificando o contador de publicação antes e depois.
+ * Os histogramas e totais por tarefa são preenchidos nessa transferência, e não pelo produtor.
+ */
+final class MetricRingBuffer extends SingleWriterRing {
+
+    private final long[] timestampNanos;
+    private final int[] taskIds;
+    private final long[] jitterNanos;
+    private final long[] responseNanos;
+    private final double[] utilization;
+
+    MetricRingBuffer(Thread owner, int capacity) {
+        super(owner, capacity);
+        int size = capacity();
+        this.timestampNanos = new long[size];
+        this.taskIds = new int[size];
+        this.jitterNanos = new long[size];
+        this.responseNanos = new long[size];
+        this.utilization = new double[size];
+    }
+
+    /**
+     * Registra uma métrica. Deve ser chamado apenas pela thread dona do buffer.
+     */
+    void record(long timestamp, int taskId, long jitter, long response, double processorUtilization) {
+        long sequence = nextSequence();
+        int index = (int) sequence & mask;
+        timestampNanos[index] = timestamp;
+        taskIds[index] = taskId;
+        jitterNanos[index] = jitter;
+        responseNanos[index] = response;
+        utilization[index] = processorUtilization;
+        publish(sequence); // Publica o registro sem barreira completa
+    }
+
+    /**
+     * Transfere para o armazenamento colunar os registros publicados desde a última transferência.
+     * Deve ser chamado sob o monitor do {@link ThreadRingRegistry} do buffer.
+     *
+     * @param store      Destino dos registros.
+     * @param histograms Histogramas por tarefa, atualizados com os registros transferidos.
+     * @return Quantidade de registros perdidos por sobrescrita antes de serem transferidos.
+     */
+    long drainTo(MetricColumnStore store, TaskHistograms histograms) {
+        long end = published();
+        long start = readStart(end);
+        int length = (int) (end - start);
+        long[] timestamps = new long[length];
+        int[] ids = new int[length];
+        long[] jitters = new long[length];
+        long[] responses = new long[length];
+        double[] utilizations = new double[length];
+        for (int i = 0; i < length; i++) {
+            int index = (int) (start + i) & mask;
+            timestamps[i] = timestampNanos[index];
+            ids[i] = taskIds[index];
+            jitters[i] = jitterNanos[index];
+            responses[i] = responseNanos[index];
+            utilizations[i] = utilization[index];
+        }
+
+        // Registros sobrescritos pelo produtor durante a cópia são descartados
+        long validStart = firstIntact(start);
+        for (int i = (int) (validStart - start); i < length; i++) {
+            store.append(timestamps[i], ids[i], jitters[i], responses[i], utilizations[i]);
+            histograms.record(ids[i], jitters[i], responses[i]);
+        }
+        long dropped = validStart - getConsumedAt();
+        consumeTo(end);
+        return dropped;
+    }
+
+    /**
+     * Descarta, para os leitores, os registros publicados até agora.
+     * Deve ser chamado sob o monitor do {@link ThreadRingRegistry} do buffer.
+     */
+    void clear() {
+        consumeTo(published());
+    }
+}
@@ -8,15 +8,34 @@ import android.util.Log;
 
 import androidx.core.content.ContextCompat;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * MetricsCollector
  * Responsável por coletar e registrar métricas de desempenho durante a execução.
+ *
+ * Cada thread produtora grava em seu próprio {@link MetricRingBuffer}, sem locks e sem alocação
+ * por métrica; os nomes de tarefa são convertidos em identificadores inteiros. As leituras
+ * (exportação e exibição) primeiro transferem os buffers para um {@link MetricColumnStore},
+ * sem bloquear os produtores, e então consultam o armazenamento colunar. Cada buffer guarda os
+ * últimos `ringCapacity - 1` registros da sua thread, por isso `drain` deve ser chamado periodicamente;
+ * os buffers de threads encerradas são removidos depois de transferidos ({@link ThreadRingRegistry}).
+ *
+ * Para cada tarefa também são mantidos histogramas de jitter e de tempo de resposta
+ * ({@link LatencyHistogram}), com memória fixa, que fornecem p50, p90, p99, p99.9 e máximo
+ * sobre todas as métricas transferidas, mesmo as já descartadas do armazenamento colunar. Há um
+ * par de histogramas por tarefa, preenchido no `drain`, independentemente de quantas threads
+ * registram métricas da tarefa.
+ *
+ * Com um {@link MetricsExporter} definido, cada `drain` entrega apenas as métricas novas para
+ * gravação contínua em segundo plano.
  */
 public class MetricsCollector {
 
@@ -43,12 +62,54 @@ public class MetricsCollector {
     }
 
     private static final String TAG = "MetricsCollector";
+    public static final int DEFAULT_RING_CAPACITY = 4096;
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+    private static final long HISTOGRAM_MAX_NANOS = 60_000_000_000L; // Latências acima de 60 s são agrupadas
+    public static final long DEFAULT_MAX_STORED_SAMPLES = 1 << 20; // ~24 MB no armazenamento colunar
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long MICROS_PER_MILLI = 1_000L;
+
     private final Context context;
-    private final List<Metric> metrics;
+    private final int ringCapacity;
+    private final TaskHistograms histograms;
+    private final MetricColumnStore store = new MetricColumnStore(DEFAULT_MAX_STORED_SAMPLES);
+    private long droppedMetrics;
+    private volatile long collectedSamples; // Total transferido para o armazenamento, incluindo os descartados por idade
+    private MetricsExporter exporter;
+    private final ThreadRingRegistry<MetricRingBuffer> rings;
 
     public MetricsCollector(Context context) {
+        this(context, DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * @param context      Contexto usado para verificar permissões de armazenamento.
+     * @param ringCapacity Registros mantidos por thread produtora (arredondado para potência de 2, menos um).
+     */
+    public MetricsCollector(Context context, int ringCapacity) {
+        this(context, ringCapacity, DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * @param context           Contexto usado para verificar permissões de armazenamento.
+     * @param ringCapacity      Registros mantidos por thread produtora (arredondado para potência de 2, menos um).
+     * @param significantDigits Precisão dos histogramas de latência, de 1 a 4 dígitos significativos.
+     */
+    public MetricsCollector(Context context, int ringCapacity, int significantDigits) {
         this.context = context;
-        this.metrics = new ArrayList<>();
+        this.ringCapacity = ringCapacity;
+        this.rings = new ThreadRingRegistry<>(owner -> new MetricRingBuffer(owner, ringCapacity));
+        this.histograms = new TaskHistograms(new LatencyHistogram(HISTOGRAM_MAX_NANOS, significantDigits));
+    }
+
+    /**
+     * Obtém o identificador inteiro de uma tarefa, registrando-a na primeira chamada.
+     *
+     * @param taskName Nome da tarefa/thread.
+     * @return Identificador usado por {@link #collectMetric(int, long, long, double)}.
+     */
+    public int registerTask(String taskName) {
+        return store.internTask(taskName);
     }
 
     /**
@@ -60,7 +121,167 @@ public class MetricsCollector {
      * @param processorUtilization Utilização do processador (%).
      */
     public void collectMetric(String taskName, long jitter, long responseTime, double processorUtilization) {
-        metrics.add(new Metric(taskName, jitter, responseTime, processorUtilization));
+        collectMetric(registerTask(taskName), jitter, responseTime, processorUtilization);
+    }
+
+    /**
+     * Coleta uma nova métrica para uma tarefa já registrada. Não aloca memória nem usa locks.
+     *
+     * @param taskId               Identificador obtido em {@link #registerTask(String)}.
+     * @param jitter               Jitter da tarefa (ms).
+     * @param responseTime         Tempo de resposta da tarefa (ms).
+     * @param processorUtilization Utilização do processador (%).
+     */
+    public void collectMetric(int taskId, long jitter, long responseTime, double processorUtilization) {
+        collectMetric(taskId, System.nanoTime(), jitter, responseTime, processorUtilization);
+    }
+
+    /**
+     * Coleta uma métrica com um instante já conhecido pelo chamador (ex.: o início do ciclo),
+     * evitando uma leitura extra do relógio por métrica.
+     *
+     * @param taskId               Identificador obtido em {@link #registerTask(String)}.
+     * @param timestampNanos       Instante da coleta (`System.nanoTime`).
+     * @param jitter               Jitter da tarefa (ms).
+     * @param responseTime         Tempo de resposta da tarefa (ms).
+     * @param processorUtilization Utilização do processador (%).
+     */
+    public void collectMetric(int taskId, long timestampNanos, long jitter, long responseTime,
+                              double processorUtilization) {
+        rings.local().record(timestampNanos, taskId, jitter * NANOS_PER_MILLI, responseTime * NANOS_PER_MILLI,
+                processorUtilization);
+    }
+
+    /**
+     * Coleta uma métrica medida em nanossegundos, sem arredondar para milissegundos.
+     *
+     * @param taskId               Identificador obtido em {@link #registerTask(String)}.
+     * @param timestampNanos       Instante da coleta (`System.nanoTime`).
+     * @param jitterNanos          Jitter da tarefa (ns).
+     * @param responseNanos        Tempo de resposta da tarefa (ns).
+     * @param processorUtilization Utilização do processador (%).
+     */
+    public void collectMetricNanos(int taskId, long timestampNanos, long jitterNanos, long responseNanos,
+                                   double processorUtilization) {
+        rings.local().record(timestampNanos, taskId, jitterNanos, responseNanos, processorUtilization);
+    }
+
+    /**
+     * Coleta o jitter e o tempo de resposta da última execução marcada por um {@link StepTimer},
+     * com o início da execução como instante.
+     *
+     * @param taskId               Identificador obtido em {@link #registerTask(String)}.
+     * @param timer                Marcações da execução já encerrada.
+     * @param processorUtilization Utilização do processador (%).
+     */
+    public void collectStep(int taskId, StepTimer timer, double processorUtilization) {
+        collectMetricNanos(taskId, timer.getStartNanos(), timer.getJitterNanos(), timer.getResponseNanos(),
+                processorUtilization);
+    }
+
+    /**
+     * Transfere as métricas de todos os buffers das threads para o armazenamento colunar.
+     * Não bloqueia os produtores.
+     */
+    public synchronized void drain() {
+        long totalBefore = store.size() + store.getEvictedSamples();
+        synchronized (rings) {
+            for (MetricRingBuffer ring : rings.prune()) {
+                droppedMetrics += ring.drainTo(store, histograms);
+            }
+            droppedMetrics += rings.takeDiscarded();
+        }
+        collectedSamples = store.size() + store.getEvictedSamples();
+        MetricsExporter target = exporter;
+        if (target != null) {
+            // Apenas as linhas novas são entregues, então o custo da exportação não cresce com o histórico
+            long appended = store.size() + store.getEvictedSamples() - totalBefore;
+            int fromRow = (int) Math.max(0, store.size() - appended);
+            target.offer(new MetricsExporter.Batch(store, fromRow, store.size()));
+        }
+    }
+
+    /**
+     * Quantidade de métricas transferidas até o último `drain`, contando também as já descartadas do
+     * armazenamento. Não bloqueia; usada como cursor das métricas nos checkpoints da corrida.
+     */
+    public long getCollectedSampleCount() {
+        return collectedSamples;
+    }
+
+    /**
+     * Define o exportador que recebe, a cada `drain`, as métricas transferidas dos buffers.
+     *
+     * @param exporter Exportador incremental, ou null para desativar a exportação contínua.
+     */
+    public synchronized void setExporter(MetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Retorna o armazenamento colunar, após transferir as métricas pendentes. Deve ser lido
+     * dentro de um bloco `synchronized` sobre este coletor, pois `drain` o modifica.
+     */
+    public synchronized MetricColumnStore getStore() {
+        drain();
+        return store;
+    }
+
+    /**
+     * Tira um instantâneo das métricas, agrupadas por thread produtora a cada transferência
+     * e, dentro de cada thread, na ordem de registro.
+     *
+     * @return Cópia das métricas mantidas no armazenamento colunar.
+     */
+    public synchronized List<Metric> snapshot() {
+        drain();
+        List<Metric> metrics = new ArrayList<>(store.size());
+        for (int row = 0; row < store.size(); row++) {
+            metrics.add(new Metric(store.getTaskName(store.getTaskId(row)),
+                    store.getJitterMicros(row) / MICROS_PER_MILLI, store.getResponseMicros(row) / MICROS_PER_MILLI,
+                    store.getUtilization(row)));
+        }
+        return metrics;
+    }
+
+    /**
+     * Retorna o histograma de jitter da tarefa, com as métricas de todas as threads produtoras,
+     * após transferir as métricas pendentes.
+     *
+     * @param taskName Nome da tarefa.
+     * @return Cópia do histograma, com valores em nanossegundos (vazia se a tarefa não tiver métricas).
+     */
+    public synchronized LatencyHistogram getJitterHistogram(String taskName) {
+        drain();
+        return histograms.copyJitter(store.findTask(taskName));
+    }
+
+    /**
+     * Retorna o histograma de tempo de resposta da tarefa, com as métricas de todas as threads
+     * produtoras, após transferir as métricas pendentes.
+     *
+     * @param taskName Nome da tarefa.
+     * @return Cópia do histograma, com valores em nanossegundos (vazia se a tarefa não tiver métricas).
+     */
+    public synchronized LatencyHistogram getResponseTimeHistogram(String taskName) {
+        drain();
+        return histograms.copyResponse(store.findTask(taskName));
+    }
+
+    /**
+     * Nomes de todas as tarefas que já registraram métricas, na ordem de registro.
+     */
+    public List<String> getTaskNames() {
+        return store.getTaskNames();
+    }
+
+    /**
+     * Quantidade de métricas perdidas desde a última limpeza: sobrescritas nos buffers antes de
+     * serem transferidas ou descartadas pelo limite do armazenamento colunar.
+     */
+    public synchronized long getDroppedMetricCount() {
+        drain();
+        return droppedMetrics + store.getEvictedSamples();
     }
 
     /**
@@ -69,7 +290,7 @@ public class MetricsCollector {
      * @param filePath Caminho completo para o arquivo.
      * @throws IOException Caso ocorra um erro ao escrever no arquivo.
      */
-    public void exportMetrics(String filePath) throws IOException {
+    public synchronized void exportMetrics(String filePath) throws IOException {
         if (!hasStoragePermission()) {
             Log.e(TAG, "Permissões de armazenamento não concedidas. Não é possível exportar métricas.");
             throw new IOException("Permissões de armazenamento não concedidas.");
@@ -84,12 +305,12 @@ public class MetricsCollector {
             throw new IOException("Erro ao criar diretório para " + filePath);
         }
 
-        try (FileWriter writer = new FileWriter(file)) {
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
             // Cabeçalho
             writer.write("Task Name,Jitter (ms),Response Time (ms),Processor Utilization (%)\n");
 
             // Escrita de métricas individuais
-            for (Metric metric : metrics) {
+            for (Metric metric : snapshot()) {
                 writer.write(metric.toString() + "\n");
             }
 
@@ -98,6 +319,14 @@ public class MetricsCollector {
             writer.write(String.format("Total Response Time (Ri),%d ms\n", calculateTotalResponseTime()));
             writer.write(String.format("Average Jitter (Ji),%.2f ms\n", calculateAverageJitter()));
 
+            // Percentis por tarefa, em milissegundos
+            writer.write("\n=== Percentis por Tarefa (ms) ===\n");
+            writer.write("Task Name,Metric,Count,p50,p90,p99,p99.9,Max\n");
+            for (String taskName : store.getTaskNames()) {
+                writePercentiles(writer, taskName, "Jitter", getJitterHistogram(taskName));
+                writePercentiles(writer, taskName, "Response Time", getResponseTimeHistogram(taskName));
+            }
+
             Log.d(TAG, "Métricas exportadas para: " + file.getAbsolutePath());
         } catch (IOException e) {
             Log.e(TAG, "Erro ao salvar métricas no arquivo: " + filePath, e);
@@ -105,6 +334,30 @@ public class MetricsCollector {
         }
     }
 
+    /**
+     * Exporta as métricas mantidas no armazenamento colunar para um log binário compacto
+     * ({@link MetricLogWriter}), que pode ser convertido para CSV com {@link MetricLogReader}.
+     *
+     * @param filePath Caminho completo para o arquivo.
+     * @throws IOException Caso ocorra um erro ao escrever no arquivo.
+     */
+    public synchronized void exportBinaryLog(String filePath) throws IOException {
+        drain();
+        try (MetricLogWriter writer = new MetricLogWriter(new FileOutputStream(filePath), store.getTaskNames())) {
+            writer.append(store, 0, store.size());
+            Log.d(TAG, "Log binário de métricas exportado para: " + filePath + " (" + writer.getBytesWritten() + " bytes)");
+        }
+    }
+
+    private void writePercentiles(Writer writer, String taskName, String metric, LatencyHistogram histogram)
+            throws IOException {
+        double millis = NANOS_PER_MILLI;
+        writer.write(String.format("%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f\n", taskName, metric, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / millis, histogram.getValueAtPercentile(90) / millis,
+                histogram.getValueAtPercentile(99) / millis, histogram.getValueAtPercentile(99.9) / millis,
+                histogram.getMaxValue() / millis));
+    }
+
     /**
      * Verifica se as permissões de armazenamento estão concedidas.
      *
@@ -119,21 +372,26 @@ public class MetricsCollector {
     }
 
     /**
-     * Calcula o tempo de resposta total (Ri).
+     * Calcula o tempo de resposta total (Ri), sobre as métricas transferidas desde a última limpeza,
+     * após transferir as métricas pendentes.
      *
      * @return Soma total dos tempos de resposta.
      */
-    public long calculateTotalResponseTime() {
-        return metrics.stream().mapToLong(m -> m.responseTime).sum();
+    public synchronized long calculateTotalResponseTime() {
+        drain();
+        return histograms.getTotalResponseNanos() / NANOS_PER_MILLI;
     }
 
     /**
-     * Calcula o jitter médio (Ji).
+     * Calcula o jitter médio (Ji), sobre as métricas transferidas desde a última limpeza,
+     * após transferir as métricas pendentes.
      *
      * @return Média dos valores de jitter.
      */
-    public double calculateAverageJitter() {
-        return metrics.stream().mapToLong(m -> m.jitter).average().orElse(0.0);
+    public synchronized double calculateAverageJitter() {
+        drain();
+        long count = histograms.getCount();
+        return count == 0 ? 0.0 : (double) histograms.getTotalJitterNanos() / count / NANOS_PER_MILLI;
     }
 
     /**
@@ -142,7 +400,7 @@ public class MetricsCollector {
     public void displayMetrics() {
         System.out.printf("%-15s %-15s %-20s %-20s%n",
                 "Task Name", "Jitter (ms)", "Response Time (ms)", "Processor Utilization (%)");
-        for (Metric metric : metrics) {
+        for (Metric metric : snapshot()) {
             System.out.printf("%-15s %-15d %-20d %-20.2f%n",
                     metric.taskName, metric.jitter, metric.responseTime, metric.processorUtilization);
         }
@@ -151,12 +409,25 @@ public class MetricsCollector {
         System.out.println("\n=== Métricas Acumuladas ===");
         System.out.printf("Tempo de Resposta Total (Ri): %d ms%n", calculateTotalResponseTime());
         System.out.printf("Jitter Médio (Ji): %.2f ms%n", calculateAverageJitter());
+        for (String taskName : store.getTaskNames()) {
+            System.out.printf("%s - Jitter (ms): %s%n", taskName, getJitterHistogram(taskName).summary(NANOS_PER_MILLI));
+            System.out.printf("%s - Tempo de Resposta (ms): %s%n", taskName,
+                    getResponseTimeHistogram(taskName).summary(NANOS_PER_MILLI));
+        }
     }
 
     /**
      * Limpa todas as métricas coletadas.
      */
-    public void clearMetrics() {
-        metrics.clear();
+    public synchronized void clearMetrics() {
+        synchronized (rings) {
+            for (MetricRingBuffer ring : rings.prune()) {
+                ring.clear();
+            }
+            rings.takeDiscarded();
+        }
+        store.clear();
+        histograms.clear();
+        droppedMetrics = 0;
     }
 }
@@ -0,0 +1,420 @@
+package com.example.mylibrary2.utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Classe MetricsExporter
+ * Exporta métricas de forma incremental, em uma thread de escrita dedicada.
+ *
+ * O MetricsCollector entrega apenas as métricas novas de cada `drain`, em lotes colocados em uma
+ * fila limitada sem bloquear quem os entrega; se a fila estiver cheia, ou a thread de escrita tiver
+ * parado após um erro, o lote é descartado e contado.
+ * Em CSV, a thread de escrita grava um arquivo por tarefa (`<prefixo>_<tarefa>_<parte>.csv`); no
+ * máximo `MAX_OPEN_FILES` ficam abertos, e o arquivo fechado há mais tempo é reaberto para acréscimo
+ * quando a tarefa volta a ter métricas (compactado, como um novo membro gzip do mesmo arquivo).
+ * As linhas de cada lote são agrupadas por tarefa, então cada arquivo é aberto no máximo uma vez por lote.
+ * No log binário de {@link MetricLogWriter} (`.rtml`), que identifica as tarefas em cada registro,
+ * todas as tarefas vão para um único arquivo (`<prefixo>_<parte>.rtml`).
+ * Os arquivos podem ser compactados (`.gz`), e são descarregados ao acumular `FLUSH_BYTES` ou a cada
+ * `FLUSH_INTERVAL_MILLIS`. Ao passar de `maxFileBytes` (sem compressão), o arquivo é fechado e uma
+ * nova parte é iniciada.
+ */
+public class MetricsExporter {
+
+    private static final String TAG = "MetricsExporter";
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int BUFFER_BYTES = 64 * 1024;       // Log binário único
+    private static final int TASK_BUFFER_BYTES = 8 * 1024;   // Cada arquivo CSV aberto
+    static final int MAX_OPEN_FILES = 32;
+    private static final long CLOSE_OFFER_MILLIS = 100;
+    private static final long FLUSH_BYTES = 256 * 1024;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    private static final String HEADER = "Timestamp (ns),Jitter (ms),Response Time (ms),Processor Utilization (%)\n";
+
+    /**
+     * Formato dos arquivos exportados.
+     */
+    public enum Format {
+        CSV,
+        /** Log binário compacto, ver {@link MetricLogWriter}. */
+        BINARY
+    }
+
+    /**
+     * Lote de métricas novas, em colunas primitivas copiadas do MetricColumnStore.
+     */
+    public static final class Batch {
+        final int size;
+        final long[] timestampNanos;
+        final int[] taskIds;
+        final int[] jitterMicros;
+        final int[] responseMicros;
+        final float[] utilization;
+        final MetricColumnStore names;
+
+        /**
+         * Copia as linhas `[fromRow, toRow)` do armazenamento colunar.
+         */
+        Batch(MetricColumnStore store, int fromRow, int toRow) {
+            this.size = toRow - fromRow;
+            this.timestampNanos = new long[size];
+            this.taskIds = new int[size];
+            this.jitterMicros = new int[size];
+            this.responseMicros = new int[size];
+            this.utilization = new float[size];
+            this.names = store;
+            for (int i = 0; i < size; i++) {
+                int row = fromRow + i;
+                timestampNanos[i] = store.getTimestampNanos(row);
+                taskIds[i] = store.getTaskId(row);
+                jitterMicros[i] = store.getJitterMicros(row);
+                responseMicros[i] = store.getResponseMicros(row);
+                utilization[i] = store.getUtilization(row);
+            }
+        }
+    }
+
+    /**
+     * Arquivo CSV de uma tarefa, aberto ou não.
+     */
+    private static final class TaskFile {
+        final String safeName;
+        int part;
+        File target;   // Parte atual, ou null antes da primeira linha e após a rotação
+        Writer writer; // null enquanto fechado
+        long bytes;
+
+        TaskFile(String safeName) {
+            this.safeName = safeName;
+        }
+    }
+
+    private static final Batch END_OF_STREAM = new Batch(new MetricColumnStore(1), 0, 0);
+
+    private final File directory;
+    private final String prefix;
+    private final Format format;
+    private final boolean gzip;
+    private final long maxFileBytes;
+    private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // Acessados só pela thread de escrita
+    private final Map<Integer, TaskFile> files = new HashMap<>();
+    private final LinkedHashMap<Integer, TaskFile> openFiles = new LinkedHashMap<>(16, 0.75f, true); // LRU
+    private MetricLogWriter log;
+    private int logPart;
+    private final Map<Integer, Integer> logTaskIds = new HashMap<>(); // Tarefa do coletor -> id no log atual
+    private final StringBuilder line = new StringBuilder(64);
+    private final Thread writerThread;
+    private volatile long droppedBatches;
+    private volatile long writtenRows;
+    private long bytesSinceFlush;
+    private long lastFlushMillis;
+
+    /**
+     * Cria um exportador em CSV.
+     *
+     * @see #MetricsExporter(File, String, Format, boolean, long)
+     */
+    public MetricsExporter(File directory, String prefix, boolean gzip, long maxFileBytes) throws IOException {
+        this(directory, prefix, Format.CSV, gzip, maxFileBytes);
+    }
+
+    /**
+     * @param directory    Diretório onde os arquivos serão criados.
+     * @param prefix       Prefixo dos nomes de arquivo.
+     * @param format       Formato dos arquivos.
+     * @param gzip         Se true, os arquivos são gravados compactados (`.gz`).
+     * @param maxFileBytes Tamanho sem compressão a partir do qual o arquivo da tarefa é rotacionado.
+     * @throws IOException Se o diretório não puder ser criado.
+     */
+    public MetricsExporter(File directory, String prefix, Format format, boolean gzip, long maxFileBytes)
+            throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Erro ao criar diretório para " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.format = format;
+        this.gzip = gzip;
+        this.maxFileBytes = maxFileBytes;
+        this.writerThread = new Thread(this::writeLoop, TAG);
+        this.writerThread.setPriority(Thread.MIN_PRIORITY);
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Entrega um lote para escrita sem bloquear. Se a fila estiver cheia, o lote é descartado.
+     *
+     * @return true se o lote foi aceito.
+     */
+    public boolean offer(Batch batch) {
+        if (batch.size == 0) {
+            return true;
+        }
+        if (!writerThread.isAlive() || !queue.offer(batch)) {
+            droppedBatches++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Grava os lotes pendentes, fecha os arquivos e encerra a thread de escrita. Se a thread já tiver
+     * parado após um erro de escrita, retorna sem esperar espaço na fila.
+     *
+     * @throws InterruptedException Se a espera pelo término for interrompida.
+     */
+    public void close() throws InterruptedException {
+        while (writerThread.isAlive()) {
+            if (queue.offer(END_OF_STREAM, CLOSE_OFFER_MILLIS, TimeUnit.MILLISECONDS)) {
+                writerThread.join();
+                return;
+            }
+        }
+    }
+
+    public long getDroppedBatches() {
+        return droppedBatches;
+    }
+
+    public long getWrittenRows() {
+        return writtenRows;
+    }
+
+    private void writeLoop() {
+        lastFlushMillis = System.currentTimeMillis();
+        try {
+            while (true) {
+                Batch batch = queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == END_OF_STREAM) {
+                    break;
+                }
+                if (batch != null) {
+                    write(batch);
+                }
+                if (bytesSinceFlush >= FLUSH_BYTES
+                        || System.currentTimeMillis() - lastFlushMillis >= FLUSH_INTERVAL_MILLIS) {
+                    flushAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Erro ao exportar métricas: " + e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void write(Batch batch) throws IOException {
+        if (format == Format.BINARY) {
+            writeLog(batch);
+        } else {
+            writeCsv(batch);
+        }
+        writtenRows += batch.size;
+    }
+
+    private void writeLog(Batch batch) throws IOException {
+        for (int i = 0; i < batch.size; i++) {
+            if (log != null && log.getBytesWritten() >= maxFileBytes) {
+                closeLog(); // Rotação: a próxima parte começa em um arquivo novo
+            }
+            if (log == null) {
+                openNextLogPart();
+            }
+            Integer logTaskId = logTaskIds.get(batch.taskIds[i]);
+            if (logTaskId == null) {
+                logTaskId = log.defineTask(batch.names.getTaskName(batch.taskIds[i]));
+                logTaskIds.put(batch.taskIds[i], logTaskId);
+            }
+            long before = log.getBytesWritten();
+            log.append(logTaskId, batch.timestampNanos[i], batch.jitterMicros[i], batch.responseMicros[i],
+                    batch.utilization[i]);
+            bytesSinceFlush += log.getBytesWritten() - before;
+        }
+    }
+
+    private void writeCsv(Batch batch) throws IOException {
+        // Ordena as linhas por tarefa, mantendo a ordem dentro de cada tarefa
+        long[] rows = new long[batch.size];
+        for (int i = 0; i < batch.size; i++) {
+            rows[i] = (long) batch.taskIds[i] << 32 | i;
+        }
+        Arrays.sort(rows);
+        TaskFile file = null;
+        int fileTaskId = -1;
+        for (long key : rows) {
+            int i = (int) key;
+            int taskId = (int) (key >>> 32);
+            if (file == null || taskId != fileTaskId) {
+                file = fileFor(taskId, batch.names);
+                fileTaskId = taskId;
+            } else if (file.bytes >= maxFileBytes) {
+                rotate(file, taskId);
+            }
+            line.setLength(0);
+            line.append(batch.timestampNanos[i]).append(',');
+            appendMillis(line, batch.jitterMicros[i]).append(',');
+            appendMillis(line, batch.responseMicros[i]).append(',');
+            line.append(batch.utilization[i]).append('\n');
+            file.writer.append(line);
+            file.bytes += line.length();
+            bytesSinceFlush += line.length();
+        }
+    }
+
+    /**
+     * Escreve microssegundos como milissegundos com três casas decimais, sem `String.format`.
+     */
+    private static StringBuilder appendMillis(StringBuilder builder, int micros) {
+        if (micros < 0) {
+            builder.append('-');
+            micros = -micros;
+        }
+        int fraction = micros % 1000;
+        builder.append(micros / 1000).append('.');
+        if (fraction < 100) builder.append('0');
+        if (fraction < 10) builder.append('0');
+        return builder.append(fraction);
+    }
+
+    private TaskFile fileFor(int taskId, MetricColumnStore names) throws IOException {
+        TaskFile file = files.get(taskId);
+        if (file == null) {
+            file = new TaskFile(names.getTaskName(taskId).replaceAll("[^A-Za-z0-9_-]", "_"));
+            files.put(taskId, file);
+        }
+        openFiles.get(taskId); // Marca como usado recentemente
+        if (file.writer != null && file.bytes >= maxFileBytes) {
+            rotate(file, taskId);
+        } else if (file.writer == null) {
+            open(file, taskId);
+        }
+        return file;
+    }
+
+    private void rotate(TaskFile file, int taskId) throws IOException {
+        closeFile(file, taskId);
+        file.target = null; // A próxima parte começa em um arquivo novo
+        open(file, taskId);
+    }
+
+    /**
+     * Abre a parte atual do arquivo da tarefa para acréscimo (ou uma nova parte), fechando o arquivo
+     * usado há mais tempo se já houver `MAX_OPEN_FILES` abertos.
+     */
+    private void open(TaskFile file, int taskId) throws IOException {
+        if (openFiles.size() >= MAX_OPEN_FILES) {
+            Iterator<Map.Entry<Integer, TaskFile>> eldest = openFiles.entrySet().iterator();
+            Map.Entry<Integer, TaskFile> entry = eldest.next();
+            eldest.remove();
+            closeWriter(entry.getValue());
+        }
+        if (file.target == null) {
+            do {
+                file.target = new File(directory, prefix + "_" + file.safeName + "_" + file.part + extension());
+                file.part++;
+            } while (file.target.exists());
+            file.bytes = 0;
+        }
+        OutputStream out = new FileOutputStream(file.target, true);
+        if (gzip) {
+            out = new GZIPOutputStream(out, TASK_BUFFER_BYTES); // Um novo membro a cada reabertura
+        }
+        file.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), TASK_BUFFER_BYTES);
+        openFiles.put(taskId, file);
+        if (file.bytes == 0) {
+            file.writer.write(HEADER);
+            file.bytes = HEADER.length();
+        }
+    }
+
+    private void openNextLogPart() throws IOException {
+        File target;
+        do {
+            target = new File(directory, prefix + "_" + logPart + extension());
+            logPart++;
+        } while (target.exists());
+        OutputStream out = new FileOutputStream(target);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_BYTES);
+        }
+        log = new MetricLogWriter(out, Collections.<String>emptyList()); // Tarefas definidas no primeiro uso
+        logTaskIds.clear();
+    }
+
+    private String extension() {
+        return (format == Format.BINARY ? ".rtml" : ".csv") + (gzip ? ".gz" : "");
+    }
+
+    private void flushAll() throws IOException {
+        for (TaskFile file : openFiles.values()) {
+            file.writer.flush();
+        }
+        if (log != null) {
+            log.flush();
+        }
+        bytesSinceFlush = 0;
+        lastFlushMillis = System.currentTimeMillis();
+    }
+
+    private void closeAll() {
+        for (TaskFile file : openFiles.values()) {
+            try {
+                closeWriter(file);
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar arquivo de métricas: " + e.getMessage());
+            }
+        }
+        openFiles.clear();
+        try {
+            closeLog();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar arquivo de métricas: " + e.getMessage());
+        }
+    }
+
+    private void closeFile(TaskFile file, int taskId) throws IOException {
+        openFiles.remove(taskId);
+        closeWriter(file);
+    }
+
+    private static void closeWriter(TaskFile file) throws IOException {
+        try {
+            if (file.writer != null) {
+                file.writer.close();
+            }
+        } finally {
+            file.writer = null;
+        }
+    }
+
+    private void closeLog() throws IOException {
+        try {
+            if (log != null) {
+                log.close();
+            }
+        } finally {
+            log = null;
+        }
+    }
+}
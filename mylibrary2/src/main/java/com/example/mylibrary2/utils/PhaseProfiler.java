@@ -0,0 +1,181 @@
+package com.example.mylibrary2.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Classe PhaseProfiler
+ * Mede quanto tempo cada etapa (fase) de um ciclo consome, com contadores de tamanho fixo por dono
+ * (ex.: um por carro): total, quantidade e máximo, em nanossegundos, para cada fase.
+ *
+ * Uso em cada ciclo, na thread que o executa:
+ *
+ *     long t = counters.start();
+ *     updateSensors();
+ *     t = counters.lap(PHASE_SENSORS, t);
+ *
+ * Pode ser ligado e desligado em execução. Desligado, `start` custa uma leitura volátil e `lap`
+ * apenas uma comparação, sem ler o relógio. Cada `Counters` tem um único escritor por vez; as
+ * leituras por {@link #snapshot()} não bloqueiam o escritor e podem ver um ciclo incompleto.
+ */
+public final class PhaseProfiler {
+
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    private final String[] phaseNames;
+    private final Map<String, Counters> counters = new LinkedHashMap<>();
+    private volatile boolean enabled;
+
+    /**
+     * @param phaseNames Nomes das fases; o índice de cada nome é o usado em {@link Counters#lap(int, long)}.
+     */
+    public PhaseProfiler(String... phaseNames) {
+        this.phaseNames = phaseNames.clone();
+    }
+
+    /**
+     * Contadores de um dono. Deve ser atualizado por uma thread por vez.
+     */
+    public final class Counters {
+        private final String owner;
+        private final long[] totalNanos = new long[phaseNames.length];
+        private final long[] counts = new long[phaseNames.length];
+        private final long[] maxNanos = new long[phaseNames.length];
+
+        private Counters(String owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Inicia a medição da primeira fase.
+         *
+         * @return Instante atual, ou `DISABLED` se o profiler estiver desligado.
+         */
+        public long start() {
+            return enabled ? System.nanoTime() : DISABLED;
+        }
+
+        /**
+         * Encerra a fase iniciada em `startNanos` e inicia a próxima.
+         *
+         * @param phase      Índice da fase encerrada.
+         * @param startNanos Valor retornado por `start` ou pelo `lap` anterior.
+         * @return Instante atual, ou `DISABLED` se a medição não estiver ativa.
+         */
+        public long lap(int phase, long startNanos) {
+            if (startNanos == DISABLED) {
+                return DISABLED;
+            }
+            long now = System.nanoTime();
+            long elapsed = now - startNanos;
+            totalNanos[phase] += elapsed;
+            counts[phase]++;
+            if (elapsed > maxNanos[phase]) {
+                maxNanos[phase] = elapsed;
+            }
+            return now;
+        }
+
+        void reset() {
+            Arrays.fill(totalNanos, 0);
+            Arrays.fill(counts, 0);
+            Arrays.fill(maxNanos, 0);
+        }
+    }
+
+    /**
+     * Cópia dos contadores de um dono.
+     */
+    public static final class Snapshot {
+        public final String owner;
+        public final String[] phaseNames;
+        public final long[] totalNanos;
+        public final long[] counts;
+        public final long[] maxNanos;
+
+        Snapshot(Counters source, String[] phaseNames) {
+            this.owner = source.owner;
+            this.phaseNames = phaseNames;
+            this.totalNanos = source.totalNanos.clone();
+            this.counts = source.counts.clone();
+            this.maxNanos = source.maxNanos.clone();
+        }
+
+        public double getAverageNanos(int phase) {
+            return counts[phase] == 0 ? 0.0 : (double) totalNanos[phase] / counts[phase];
+        }
+    }
+
+    /**
+     * Obtém os contadores de um dono, criando-os na primeira chamada. Um dono recriado com o
+     * mesmo nome (ex.: um carro de uma nova simulação) continua nos mesmos contadores.
+     */
+    public synchronized Counters counters(String owner) {
+        Counters existing = counters.get(owner);
+        if (existing == null) {
+            existing = new Counters(owner);
+            counters.put(owner, existing);
+        }
+        return existing;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String[] getPhaseNames() {
+        return phaseNames.clone();
+    }
+
+    /**
+     * Copia os contadores de todos os donos.
+     */
+    public synchronized List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>(counters.size());
+        for (Counters owner : counters.values()) {
+            snapshots.add(new Snapshot(owner, phaseNames));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Zera os contadores de todos os donos. Deve ser chamado com os ciclos parados ou o profiler
+     * desligado, pois os donos não são bloqueados.
+     */
+    public synchronized void reset() {
+        for (Counters owner : counters.values()) {
+            owner.reset();
+        }
+    }
+
+    /**
+     * Resumo em uma linha: tempo médio e máximo de cada fase por dono, em microssegundos.
+     * Ex.: "Car1[sensores 12.3/40.1 µs, movimento 8.0/22.5 µs] Car2[...]".
+     */
+    public String summaryLine() {
+        StringBuilder line = new StringBuilder();
+        for (Snapshot snapshot : snapshot()) {
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            line.append(snapshot.owner).append('[');
+            for (int phase = 0; phase < phaseNames.length; phase++) {
+                if (phase > 0) {
+                    line.append(", ");
+                }
+                line.append(String.format(Locale.US, "%s %.1f/%.1f µs", phaseNames[phase],
+                        snapshot.getAverageNanos(phase) / 1_000.0, snapshot.maxNanos[phase] / 1_000.0));
+            }
+            line.append(']');
+        }
+        return line.toString();
+    }
+}
@@ -1,22 +1,33 @@
 package com.example.mylibrary2.utils;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.Map;
 
 /**
  * Classe RealTimeScheduler
  * Gerencia o escalonamento de tarefas e threads em sistemas de tempo real.
+ *
+ * Antes de `start`, as tarefas ficam na fila por prioridade e só rodam via `executeTasks`.
+ * Depois de `start`, um executor EDF (earliest deadline first) libera as tarefas periódicas
+ * no seu período, executa as tarefas prontas por deadline absoluto em um pool de workers e
+ * registra, por tarefa, jitter de liberação, tempo de resposta e perdas de deadline em nanossegundos.
  */
 public class RealTimeScheduler {
 
-    public static class Task implements Comparable<Task> {
+    public static class Task extends IndexedPriorityQueue.Entry implements Comparable<Task> {
         public String taskName;
         public long deadline;
         public int priority;
         public Runnable action;
 
+        long releaseNanos;          // Instante de liberação (System.nanoTime)
+        long deadlineNanos;         // Deadline absoluto (System.nanoTime)
+        PeriodicTask source;        // Tarefa periódica que gerou esta execução, ou null
+
         public Task(String taskName, long deadline, int priority, Runnable action) {
             this.taskName = taskName;
             this.deadline = deadline;
@@ -31,12 +42,148 @@ public class RealTimeScheduler {
             }
             return Long.compare(this.deadline, other.deadline);
         }
+
+        @Override
+        public String key() {
+            return taskName;
+        }
+    }
+
+    /**
+     * Estatísticas de execução de uma tarefa, com tempos em nanossegundos.
+     */
+    public static class TaskStats {
+        private final String taskName;
+        private long releases;
+        private long completions;
+        private long deadlineMisses;
+        private long skippedReleases;
+        private long totalJitterNanos;
+        private long maxJitterNanos;
+        private long totalResponseNanos;
+        private long maxResponseNanos;
+
+        TaskStats(String taskName) {
+            this.taskName = taskName;
+        }
+
+        TaskStats(TaskStats other) {
+            this.taskName = other.taskName;
+            this.releases = other.releases;
+            this.completions = other.completions;
+            this.deadlineMisses = other.deadlineMisses;
+            this.skippedReleases = other.skippedReleases;
+            this.totalJitterNanos = other.totalJitterNanos;
+            this.maxJitterNanos = other.maxJitterNanos;
+            this.totalResponseNanos = other.totalResponseNanos;
+            this.maxResponseNanos = other.maxResponseNanos;
+        }
+
+        void recordCompletion(long jitterNanos, long responseNanos, boolean missed) {
+            completions++;
+            totalJitterNanos += jitterNanos;
+            maxJitterNanos = Math.max(maxJitterNanos, jitterNanos);
+            totalResponseNanos += responseNanos;
+            maxResponseNanos = Math.max(maxResponseNanos, responseNanos);
+            if (missed) {
+                deadlineMisses++;
+            }
+        }
+
+        public String getTaskName() {
+            return taskName;
+        }
+
+        public long getReleases() {
+            return releases;
+        }
+
+        public long getCompletions() {
+            return completions;
+        }
+
+        /** Execuções que terminaram depois do deadline ou foram descartadas por já estarem atrasadas. */
+        public long getDeadlineMisses() {
+            return deadlineMisses;
+        }
+
+        /** Liberações periódicas ignoradas porque a execução anterior ainda não havia terminado. */
+        public long getSkippedReleases() {
+            return skippedReleases;
+        }
+
+        public long getMaxJitterNanos() {
+            return maxJitterNanos;
+        }
+
+        public long getMaxResponseNanos() {
+            return maxResponseNanos;
+        }
+
+        public double getAverageJitterNanos() {
+            return completions == 0 ? 0.0 : (double) totalJitterNanos / completions;
+        }
+
+        public double getAverageResponseNanos() {
+            return completions == 0 ? 0.0 : (double) totalResponseNanos / completions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d liberações, %d concluídas, %d deadlines perdidos, %d liberações ignoradas, "
+                            + "jitter médio %.3f ms (máx. %.3f ms), resposta média %.3f ms (máx. %.3f ms)",
+                    taskName, releases, completions, deadlineMisses, skippedReleases,
+                    getAverageJitterNanos() / 1e6, maxJitterNanos / 1e6,
+                    getAverageResponseNanos() / 1e6, maxResponseNanos / 1e6);
+        }
+    }
+
+    /**
+     * Tarefa liberada a cada período, com deadline relativo à liberação.
+     */
+    static class PeriodicTask {
+        final String taskName;
+        final long periodNanos;
+        final long relativeDeadlineNanos;
+        final int priority;
+        final Runnable action;
+        long nextReleaseNanos;
+
+        PeriodicTask(String taskName, long periodNanos, long relativeDeadlineNanos, int priority, Runnable action,
+                     long firstReleaseNanos) {
+            this.taskName = taskName;
+            this.periodNanos = periodNanos;
+            this.relativeDeadlineNanos = relativeDeadlineNanos;
+            this.priority = priority;
+            this.action = action;
+            this.nextReleaseNanos = firstReleaseNanos;
+        }
     }
 
-    private final Queue<Task> taskQueue;
+    public static final long NO_RELEASE = Long.MIN_VALUE;
+    private static final ThreadLocal<Task> CURRENT_JOB = new ThreadLocal<>(); // Execução em andamento no worker
+
+    private final IndexedPriorityQueue<Task> taskQueue;
+    private final IndexedPriorityQueue<Task> readyQueue; // Fila EDF usada após `start`
+    private final Map<String, PeriodicTask> periodicTasks = new LinkedHashMap<>();
+    // Execução liberada e ainda não terminada de cada tarefa periódica. Indexado pelo nome, e não
+    // pela PeriodicTask, para que uma tarefa cancelada e agendada de novo não execute em paralelo
+    // com a execução anterior.
+    private final Map<String, Task> pendingPeriodicJobs = new HashMap<>();
+    private final Map<String, TaskStats> stats = new LinkedHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private Thread dispatcher;
+    private boolean executorRunning = false;
+    private volatile TimelineRecorder timeline; // Liberações e execuções na linha do tempo, se definido
 
     public RealTimeScheduler() {
-        this.taskQueue = new PriorityQueue<>();
+        this.taskQueue = new IndexedPriorityQueue<>(Task::compareTo);
+        this.readyQueue = new IndexedPriorityQueue<>((a, b) -> {
+            if (a.deadlineNanos != b.deadlineNanos) {
+                return Long.compare(a.deadlineNanos, b.deadlineNanos);
+            }
+            return Integer.compare(b.priority, a.priority);
+        });
     }
 
     /**
@@ -73,27 +220,365 @@ public class RealTimeScheduler {
         }
     }
 
-    public void adjustTaskPriority(String taskName, int newPriority) {
-        for (Task task : taskQueue) {
-            if (task.taskName.equals(taskName)) {
-                taskQueue.remove(task);
-                task.priority = newPriority;
-                taskQueue.add(task);
-                System.out.printf("Prioridade da tarefa %s ajustada para %d.%n", taskName, newPriority);
-                break;
+    /**
+     * Ajusta a prioridade de uma tarefa enfileirada, localizada pelo nome em O(1) e reposicionada em O(log n).
+     * Na fila EDF, a prioridade só desempata tarefas com o mesmo deadline.
+     *
+     * @param taskName    Nome da tarefa.
+     * @param newPriority Nova prioridade.
+     */
+    public synchronized void adjustTaskPriority(String taskName, int newPriority) {
+        IndexedPriorityQueue<Task> queue = queueHolding(taskName);
+        Task task = queue.get(taskName);
+        if (task == null || task.priority == newPriority) {
+            return;
+        }
+        task.priority = newPriority;
+        queue.update(task);
+        System.out.printf("Prioridade da tarefa %s ajustada para %d.%n", taskName, newPriority);
+    }
+
+    /**
+     * Ajusta a prioridade de várias tarefas de uma vez. Quando muitas tarefas mudam,
+     * o heap é reconstruído uma única vez em vez de reposicionar cada tarefa.
+     *
+     * @param newPriorities Nova prioridade por nome de tarefa; nomes não enfileirados são ignorados.
+     * @return Quantidade de tarefas cuja prioridade mudou.
+     */
+    public synchronized int adjustTaskPriorities(Map<String, Integer> newPriorities) {
+        IndexedPriorityQueue<Task> queue = executorRunning ? readyQueue : taskQueue;
+        int size = queue.size();
+        // Acima de n / log2(n) mudanças, reconstruir o heap em O(n) é mais barato que k * O(log n)
+        int heapifyThreshold = size / Math.max(1, 32 - Integer.numberOfLeadingZeros(size));
+        boolean rebuild = newPriorities.size() > heapifyThreshold;
+
+        int changed = 0;
+        for (Map.Entry<String, Integer> entry : newPriorities.entrySet()) {
+            Task task = queue.get(entry.getKey());
+            int newPriority = entry.getValue();
+            if (task == null || task.priority == newPriority) {
+                continue;
             }
+            task.priority = newPriority;
+            if (!rebuild) {
+                queue.update(task);
+            }
+            changed++;
+        }
+        if (rebuild && changed > 0) {
+            queue.heapify();
         }
+        return changed;
     }
 
-    public void scheduleTask(String taskName, long deadline, int priority, Runnable action) {
+    private IndexedPriorityQueue<Task> queueHolding(String taskName) {
+        return executorRunning && readyQueue.get(taskName) != null ? readyQueue : taskQueue;
+    }
+
+    /**
+     * Agenda uma tarefa única.
+     *
+     * @param taskName Nome da tarefa.
+     * @param deadline Deadline absoluto em milissegundos (`System.currentTimeMillis`).
+     * @param priority Prioridade, usada para desempate na fila EDF.
+     * @param action   Ação a ser executada.
+     */
+    public synchronized void scheduleTask(String taskName, long deadline, int priority, Runnable action) {
         Task task = new Task(taskName, deadline, priority, action);
-        taskQueue.add(task);
+        task.releaseNanos = System.nanoTime();
+        task.deadlineNanos = task.releaseNanos + (deadline - System.currentTimeMillis()) * 1_000_000L;
+        if (executorRunning) {
+            release(task);
+        } else {
+            taskQueue.add(task);
+        }
         System.out.printf("Tarefa %s agendada com prioridade %d e deadline em %d ms.%n", taskName, priority, deadline);
     }
 
+    /**
+     * Agenda uma tarefa periódica, executada pelo executor EDF após `start`.
+     * Se uma execução ainda não terminou quando a próxima seria liberada, essa liberação é ignorada,
+     * inclusive quando a execução é de uma tarefa com o mesmo nome que já foi cancelada.
+     *
+     * @param taskName         Nome único da tarefa periódica.
+     * @param periodMillis     Período em milissegundos.
+     * @param deadlineMillis   Deadline relativo à liberação, em milissegundos.
+     * @param priority         Prioridade, usada para desempate na fila EDF.
+     * @param action           Ação executada a cada período.
+     * @throws IllegalArgumentException Se o período ou o deadline não forem positivos, ou se já houver
+     *                                  uma tarefa periódica agendada com esse nome.
+     */
+    public synchronized void schedulePeriodicTask(String taskName, long periodMillis, long deadlineMillis,
+                                                  int priority, Runnable action) {
+        if (periodMillis <= 0 || deadlineMillis <= 0) {
+            throw new IllegalArgumentException("Período e deadline devem ser positivos.");
+        }
+        if (periodicTasks.containsKey(taskName)) {
+            throw new IllegalArgumentException("Tarefa periódica já agendada: " + taskName);
+        }
+        periodicTasks.put(taskName, new PeriodicTask(taskName, periodMillis * 1_000_000L,
+                deadlineMillis * 1_000_000L, priority, action, System.nanoTime()));
+        notifyAll(); // Acorda o despachante para considerar a nova liberação
+    }
+
+    /**
+     * Cancela uma tarefa periódica. Uma execução já liberada ainda pode terminar.
+     *
+     * @param taskName Nome da tarefa periódica.
+     */
+    public synchronized void cancelPeriodicTask(String taskName) {
+        periodicTasks.remove(taskName);
+    }
+
+    /**
+     * Inicia o executor EDF com o número de workers informado. As tarefas únicas já agendadas
+     * passam para a fila EDF.
+     *
+     * @param workerCount Número de threads de execução.
+     * @throws IllegalArgumentException Se o número de workers for menor que 1.
+     */
+    public synchronized void start(int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("O executor precisa de pelo menos um worker.");
+        }
+        if (executorRunning) {
+            return;
+        }
+        executorRunning = true;
+        Task pending;
+        while ((pending = taskQueue.poll()) != null) {
+            release(pending);
+        }
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::workerLoop, "RealTimeScheduler-worker-" + i);
+            worker.setPriority(Thread.MAX_PRIORITY);
+            workers.add(worker);
+            worker.start();
+        }
+        dispatcher = new Thread(this::dispatchLoop, "RealTimeScheduler-dispatcher");
+        dispatcher.setPriority(Thread.MAX_PRIORITY);
+        dispatcher.start();
+        System.out.printf("Executor EDF iniciado com %d workers.%n", workerCount);
+    }
+
+    /**
+     * Para o executor EDF. Execuções em andamento terminam; as pendentes são descartadas.
+     */
+    public void shutdown() {
+        List<Thread> threads;
+        synchronized (this) {
+            if (!executorRunning) {
+                return;
+            }
+            executorRunning = false;
+            Task discarded;
+            while ((discarded = readyQueue.poll()) != null) {
+                // Descarta execuções pendentes; as que estão em andamento continuam marcadas até terminar
+                pendingPeriodicJobs.remove(discarded.taskName, discarded);
+            }
+            threads = new ArrayList<>(workers);
+            threads.add(dispatcher);
+            workers.clear();
+            dispatcher = null;
+            notifyAll();
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        System.out.println("Executor EDF parado.");
+    }
+
+    public synchronized boolean isRunning() {
+        return executorRunning;
+    }
+
+    /**
+     * Retorna uma cópia das estatísticas de uma tarefa.
+     *
+     * @param taskName Nome da tarefa.
+     * @return Estatísticas acumuladas, ou null se a tarefa nunca foi liberada pelo executor.
+     */
+    public synchronized TaskStats getTaskStats(String taskName) {
+        TaskStats taskStats = stats.get(taskName);
+        return taskStats == null ? null : new TaskStats(taskStats);
+    }
+
+    /**
+     * Retorna uma cópia das estatísticas de todas as tarefas, na ordem da primeira liberação.
+     */
+    public synchronized List<TaskStats> getAllTaskStats() {
+        List<TaskStats> copy = new ArrayList<>(stats.size());
+        for (TaskStats taskStats : stats.values()) {
+            copy.add(new TaskStats(taskStats));
+        }
+        return copy;
+    }
+
+    private TaskStats statsFor(String taskName) {
+        TaskStats taskStats = stats.get(taskName);
+        if (taskStats == null) {
+            taskStats = new TaskStats(taskName);
+            stats.put(taskName, taskStats);
+        }
+        return taskStats;
+    }
+
+    /**
+     * Define onde registrar as liberações (eventos instantâneos na thread do despachante) e as
+     * execuções (intervalos nas threads de trabalho) das tarefas.
+     *
+     * @param timeline Linha do tempo, ou null para não registrar.
+     */
+    public void setTimelineRecorder(TimelineRecorder timeline) {
+        this.timeline = timeline;
+    }
+
+    /**
+     * Coloca uma execução na fila EDF. Deve ser chamado com o monitor do escalonador.
+     */
+    private void release(Task task) {
+        TimelineRecorder recorder = timeline;
+        if (recorder != null) {
+            recorder.instant("scheduler.release", task.taskName);
+        }
+        statsFor(task.taskName).releases++;
+        readyQueue.add(task);
+        notifyAll();
+    }
+
+    /**
+     * Libera as execuções periódicas no seu período e dorme até a próxima liberação.
+     */
+    private void dispatchLoop() {
+        synchronized (this) {
+            while (executorRunning) {
+                long now = System.nanoTime();
+                long nextRelease = Long.MAX_VALUE;
+                for (PeriodicTask periodic : periodicTasks.values()) {
+                    if (periodic.nextReleaseNanos <= now) {
+                        long releaseNanos = periodic.nextReleaseNanos;
+                        // Ciclos inteiros perdidos pelo despachante não são liberados em rajada
+                        long missedPeriods = (now - releaseNanos) / periodic.periodNanos;
+                        releaseNanos += missedPeriods * periodic.periodNanos;
+                        periodic.nextReleaseNanos = releaseNanos + periodic.periodNanos;
+
+                        if (pendingPeriodicJobs.containsKey(periodic.taskName)) {
+                            statsFor(periodic.taskName).skippedReleases++;
+                        } else {
+                            Task job = new Task(periodic.taskName, 0, periodic.priority, periodic.action);
+                            job.releaseNanos = releaseNanos;
+                            job.deadlineNanos = releaseNanos + periodic.relativeDeadlineNanos;
+                            job.source = periodic;
+                            pendingPeriodicJobs.put(periodic.taskName, job);
+                            release(job);
+                        }
+                    }
+                    nextRelease = Math.min(nextRelease, periodic.nextReleaseNanos);
+                }
+
+                try {
+                    if (nextRelease == Long.MAX_VALUE) {
+                        wait();
+                    } else {
+                        long waitNanos = nextRelease - System.nanoTime();
+                        if (waitNanos > 0) {
+                            wait(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retira da fila EDF a execução com o deadline mais próximo e a executa.
+     */
+    private void workerLoop() {
+        while (true) {
+            Task task;
+            synchronized (this) {
+                while (executorRunning && readyQueue.isEmpty()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!executorRunning) {
+                    return;
+                }
+                task = readyQueue.poll();
+            }
+            runJob(task);
+        }
+    }
+
+    /**
+     * Instante de liberação da execução em andamento na thread atual, para que a própria tarefa
+     * meça o jitter e o tempo de resposta das suas etapas.
+     *
+     * @return Liberação (`System.nanoTime`), ou `NO_RELEASE` fora de uma execução do executor EDF.
+     */
+    public static long currentReleaseNanos() {
+        Task task = CURRENT_JOB.get();
+        return task == null ? NO_RELEASE : task.releaseNanos;
+    }
+
+    private void runJob(Task task) {
+        TimelineRecorder recorder = timeline;
+        long startNanos = System.nanoTime();
+        boolean executed = false;
+        if (task.source == null && startNanos > task.deadlineNanos) {
+            // Tarefa única já atrasada: descartada, como em `executeTasks`
+            System.out.println("Tarefa atrasada: " + task.taskName);
+        } else {
+            CURRENT_JOB.set(task);
+            if (recorder != null) {
+                recorder.begin("scheduler", task.taskName);
+            }
+            try {
+                task.action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao executar a tarefa " + task.taskName + ": " + e.getMessage());
+            } finally {
+                CURRENT_JOB.set(null);
+                if (recorder != null) {
+                    recorder.end("scheduler", task.taskName);
+                }
+            }
+            executed = true;
+        }
+        long endNanos = System.nanoTime();
+        if (recorder != null && endNanos > task.deadlineNanos) {
+            recorder.instant("scheduler.deadline_miss", task.taskName);
+        }
+
+        synchronized (this) {
+            TaskStats taskStats = statsFor(task.taskName);
+            if (executed) {
+                taskStats.recordCompletion(startNanos - task.releaseNanos, endNanos - task.releaseNanos,
+                        endNanos > task.deadlineNanos);
+            } else {
+                taskStats.deadlineMisses++;
+            }
+            if (task.source != null) {
+                pendingPeriodicJobs.remove(task.taskName, task);
+            }
+        }
+    }
+
+    private synchronized Task pollTask() {
+        return taskQueue.poll();
+    }
+
     public void executeTasks() {
-        while (!taskQueue.isEmpty()) {
-            Task task = taskQueue.poll();
+        Task task;
+        while ((task = pollTask()) != null) {
             long currentTime = System.currentTimeMillis();
 
             if (currentTime > task.deadline) {
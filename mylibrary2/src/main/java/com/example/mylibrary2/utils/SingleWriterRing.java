@@ -0,0 +1,106 @@
+package com.example.mylibrary2.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Classe SingleWriterRing
+ * Base dos buffers circulares por thread, com um único produtor: a thread dona do buffer.
+ *
+ * O produtor escreve o registro na posição `sequence & mask` dos arrays da subclasse e o publica
+ * com {@link #publish(long)}, sem barreira completa. Leitores copiam a faixa publicada e descartam
+ * os registros sobrescritos durante a cópia com {@link #firstIntact(long)}; como a posição do próximo
+ * registro pode estar sendo escrita, os leitores veem no máximo `capacity - 1` registros. O cursor de leitura
+ * ({@link #getConsumedAt()}) marca até onde os registros já foram consumidos (transferidos ou
+ * descartados); é escrito apenas sob o monitor do {@link ThreadRingRegistry} que mantém o buffer.
+ *
+ * O buffer guarda a sua thread por referência fraca, para que o registro remova os buffers de
+ * threads encerradas.
+ */
+abstract class SingleWriterRing {
+
+    private static final AtomicLongFieldUpdater<SingleWriterRing> PUBLISHED =
+            AtomicLongFieldUpdater.newUpdater(SingleWriterRing.class, "published");
+
+    final long threadId;
+    final String threadName;
+    final int mask;
+    private final WeakReference<Thread> owner;
+    private volatile long published;  // Total de registros já publicados
+    private volatile long consumedAt; // Lido também ao registrar novas threads, fora do monitor do leitor
+
+    SingleWriterRing(Thread owner, int capacity) {
+        this.threadId = owner.getId();
+        this.threadName = owner.getName();
+        this.owner = new WeakReference<>(owner);
+        this.mask = (Integer.highestOneBit(Math.max(2, capacity - 1)) << 1) - 1;
+    }
+
+    /**
+     * Capacidade do buffer: a capacidade pedida, arredondada para potência de 2.
+     */
+    final int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Sequência do próximo registro. Deve ser chamado apenas pelo produtor.
+     */
+    final long nextSequence() {
+        return published;
+    }
+
+    /**
+     * Publica os registros até `sequence`, inclusive. Deve ser chamado apenas pelo produtor.
+     */
+    final void publish(long sequence) {
+        PUBLISHED.lazySet(this, sequence + 1);
+    }
+
+    final long published() {
+        return published;
+    }
+
+    /**
+     * Primeiro registro ainda não consumido e não sobrescrito, para uma leitura até `end`.
+     */
+    final long readStart(long end) {
+        return Math.max(consumedAt, end - capacity());
+    }
+
+    /**
+     * Primeiro registro de uma cópia iniciada em `start` que não foi sobrescrito durante a cópia.
+     * Deve ser chamado depois de copiar os registros. A posição do registro `published - capacity`
+     * também é descartada, pois o produtor pode estar escrevendo nela o próximo registro.
+     */
+    final long firstIntact(long start) {
+        return Math.max(start, published - capacity() + 1);
+    }
+
+    final long getConsumedAt() {
+        return consumedAt;
+    }
+
+    /**
+     * Marca os registros até `sequence`, exclusive, como consumidos. Deve ser chamado sob o
+     * monitor do registro que mantém o buffer.
+     */
+    final void consumeTo(long sequence) {
+        consumedAt = sequence;
+    }
+
+    /**
+     * Registros publicados e ainda não consumidos (incluindo os já sobrescritos).
+     */
+    final long unconsumed() {
+        return published - consumedAt;
+    }
+
+    /**
+     * Indica se a thread dona do buffer terminou: nenhum registro novo será publicado.
+     */
+    final boolean isOwnerTerminated() {
+        Thread thread = owner.get();
+        return thread == null || !thread.isAlive();
+    }
+}
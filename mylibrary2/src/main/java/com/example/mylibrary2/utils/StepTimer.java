@@ -0,0 +1,105 @@
+package com.example.mylibrary2.utils;
+
+/**
+ * Classe StepTimer
+ * Marca, com `System.nanoTime`, os instantes de cada execução de um passo periódico:
+ * a liberação prevista, o início e o término. A partir deles:
+ *
+ * - jitter = início - liberação prevista;
+ * - tempo de resposta = término - liberação prevista.
+ *
+ * Cada instância deve ser usada por uma thread por vez.
+ */
+public final class StepTimer {
+
+    private final long periodNanos;
+    private long releaseNanos;
+    private long startNanos;
+    private long endNanos;
+    private boolean started;
+
+    /**
+     * @param periodNanos Período do passo, usado por {@link #startPeriodic()}.
+     */
+    public StepTimer(long periodNanos) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("O período deve ser positivo.");
+        }
+        this.periodNanos = periodNanos;
+    }
+
+    /**
+     * Marca o início de uma execução liberada por um escalonador no instante informado.
+     *
+     * @param releaseNanos Liberação prevista (`System.nanoTime`).
+     */
+    public void start(long releaseNanos) {
+        this.startNanos = System.nanoTime();
+        this.releaseNanos = releaseNanos;
+        this.started = true;
+    }
+
+    /**
+     * Marca o início de uma execução de um laço próprio. A liberação prevista é a anterior mais um
+     * período; períodos inteiros já perdidos são pulados, como no RealTimeScheduler.
+     */
+    public void startPeriodic() {
+        long now = System.nanoTime();
+        if (!started) {
+            releaseNanos = now;
+        } else {
+            releaseNanos += periodNanos;
+            if (now - releaseNanos >= periodNanos) {
+                releaseNanos += (now - releaseNanos) / periodNanos * periodNanos;
+            }
+        }
+        startNanos = now;
+        started = true;
+    }
+
+    /**
+     * Marca o término da execução atual.
+     */
+    public void end() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Dorme até a próxima liberação prevista de {@link #startPeriodic()}.
+     *
+     * @throws InterruptedException Se a thread for interrompida.
+     */
+    public void sleepUntilNextRelease() throws InterruptedException {
+        long waitNanos = releaseNanos + periodNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+        }
+    }
+
+    public long getReleaseNanos() {
+        return releaseNanos;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getJitterNanos() {
+        return startNanos - releaseNanos;
+    }
+
+    public long getResponseNanos() {
+        return endNanos - releaseNanos;
+    }
+
+    /**
+     * Tempo entre o início e o término da execução.
+     */
+    public long getExecutionNanos() {
+        return endNanos - startNanos;
+    }
+}
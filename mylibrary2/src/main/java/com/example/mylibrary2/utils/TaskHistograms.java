@@ -0,0 +1,87 @@
+package com.example.mylibrary2.utils;
+
+import java.util.Arrays;
+
+/**
+ * Classe TaskHistograms
+ * Um histograma de jitter e um de tempo de resposta por tarefa, indexados pelo id da tarefa.
+ *
+ * Preenchidos pelo {@link MetricsCollector} ao transferir os buffers das threads, sob o seu monitor:
+ * a memória cresce com a quantidade de tarefas, não com a de threads produtoras. Os totais de
+ * jitter e de tempo de resposta, de todas as tarefas, são somados na mesma transferência.
+ */
+final class TaskHistograms {
+
+    private final LatencyHistogram template;
+    private LatencyHistogram[] jitter = new LatencyHistogram[0];
+    private LatencyHistogram[] response = new LatencyHistogram[0];
+    private long count;
+    private long totalJitterNanos;
+    private long totalResponseNanos;
+
+    TaskHistograms(LatencyHistogram template) {
+        this.template = template;
+    }
+
+    void record(int taskId, long jitterNanos, long responseNanos) {
+        if (taskId >= jitter.length) {
+            int length = Math.max(taskId + 1, jitter.length * 2);
+            jitter = Arrays.copyOf(jitter, length);
+            response = Arrays.copyOf(response, length);
+        }
+        if (jitter[taskId] == null) {
+            jitter[taskId] = template.emptyCopy(); // Só aloca na primeira métrica de cada tarefa
+            response[taskId] = template.emptyCopy();
+        }
+        jitter[taskId].record(jitterNanos);
+        response[taskId].record(responseNanos);
+        count++;
+        totalJitterNanos += jitterNanos;
+        totalResponseNanos += responseNanos;
+    }
+
+    /**
+     * Quantidade de métricas registradas, de todas as tarefas.
+     */
+    long getCount() {
+        return count;
+    }
+
+    long getTotalJitterNanos() {
+        return totalJitterNanos;
+    }
+
+    long getTotalResponseNanos() {
+        return totalResponseNanos;
+    }
+
+    /**
+     * Cópia do histograma de jitter da tarefa (vazia se a tarefa não tiver métricas).
+     */
+    LatencyHistogram copyJitter(int taskId) {
+        return copy(jitter, taskId);
+    }
+
+    /**
+     * Cópia do histograma de tempo de resposta da tarefa (vazia se a tarefa não tiver métricas).
+     */
+    LatencyHistogram copyResponse(int taskId) {
+        return copy(response, taskId);
+    }
+
+    private LatencyHistogram copy(LatencyHistogram[] histograms, int taskId) {
+        LatencyHistogram copy = template.emptyCopy();
+        if (taskId >= 0 && taskId < histograms.length && histograms[taskId] != null) {
+            copy.add(histograms[taskId]);
+        }
+        return copy;
+    }
+
+    void clear() {
+        jitter = new LatencyHistogram[0];
+        response = new LatencyHistogram[0];
+        count = 0;
+        totalJitterNanos = 0;
+        totalResponseNanos = 0;
+    }
+}
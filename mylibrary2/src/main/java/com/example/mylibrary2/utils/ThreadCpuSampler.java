@@ -0,0 +1,297 @@
+package com.example.mylibrary2.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classe ThreadCpuSampler
+ * Amostra periodicamente o tempo de CPU de cada thread registrada e calcula, por tarefa, a
+ * utilização do processador em uma janela deslizante das últimas `windowSamples` amostras.
+ *
+ * O tempo de CPU vem do `ThreadMXBean` quando disponível (JVM) e, caso contrário (Android), de
+ * `/proc/self/task/<tid>/stat` (campos utime + stime, em ticks de `CLOCK_TICKS_PER_SECOND`).
+ * Cada thread se registra com {@link #registerCurrentThread(String)} usando o nome da tarefa que
+ * executa; várias threads podem somar na mesma tarefa. As leituras não bloqueiam os registros.
+ */
+public class ThreadCpuSampler {
+
+    private static final long CLOCK_TICKS_PER_SECOND = 100; // USER_HZ do Linux/Android
+    private static final long NANOS_PER_TICK = 1_000_000_000L / CLOCK_TICKS_PER_SECOND;
+
+    /**
+     * Utilização de uma tarefa na janela atual. Escrita apenas pela thread de amostragem.
+     */
+    private static final class TaskCpu {
+        volatile double utilization;   // % de um núcleo, somando as threads da tarefa
+        volatile long windowCpuNanos;  // Tempo de CPU consumido na janela
+        volatile long windowNanos;     // Duração da janela
+        long accumulatedCpuNanos;
+        long accumulatedWallNanos;
+    }
+
+    /**
+     * Histórico de amostras de uma thread registrada.
+     */
+    private static final class ThreadCpu {
+        final Thread thread;
+        final int nativeTid;
+        final TaskCpu task;
+        final long[] cpuNanos;
+        final long[] wallNanos;
+        int samples;
+
+        ThreadCpu(Thread thread, int nativeTid, TaskCpu task, int windowSamples) {
+            this.thread = thread;
+            this.nativeTid = nativeTid;
+            this.task = task;
+            this.cpuNanos = new long[windowSamples + 1];
+            this.wallNanos = new long[windowSamples + 1];
+        }
+    }
+
+    private final long sampleIntervalMillis;
+    private final int windowSamples;
+    private final Map<Long, ThreadCpu> threads = new ConcurrentHashMap<>();
+    private final Map<String, TaskCpu> tasks = new ConcurrentHashMap<>();
+    private final Object threadMXBean;
+    private final Method getThreadCpuTime;
+    private Thread samplerThread;
+    private volatile boolean running;
+
+    /**
+     * @param sampleIntervalMillis Intervalo entre amostras.
+     * @param windowSamples        Quantidade de intervalos na janela deslizante.
+     */
+    public ThreadCpuSampler(long sampleIntervalMillis, int windowSamples) {
+        if (sampleIntervalMillis <= 0 || windowSamples <= 0) {
+            throw new IllegalArgumentException("Intervalo e janela devem ser positivos.");
+        }
+        this.sampleIntervalMillis = sampleIntervalMillis;
+        this.windowSamples = windowSamples;
+
+        Object bean = null;
+        Method cpuTime = null;
+        try {
+            // java.lang.management não existe no Android; a reflexão evita a dependência
+            Class<?> factory = Class.forName("java.lang.management.ManagementFactory");
+            bean = factory.getMethod("getThreadMXBean").invoke(null);
+            Class<?> beanClass = Class.forName("java.lang.management.ThreadMXBean");
+            if ((Boolean) beanClass.getMethod("isThreadCpuTimeSupported").invoke(bean)) {
+                beanClass.getMethod("setThreadCpuTimeEnabled", boolean.class).invoke(bean, true);
+                cpuTime = beanClass.getMethod("getThreadCpuTime", long.class);
+            }
+        } catch (Exception | LinkageError e) {
+            cpuTime = null;
+        }
+        this.threadMXBean = cpuTime == null ? null : bean;
+        this.getThreadCpuTime = cpuTime;
+    }
+
+    /**
+     * Indica se o tempo de CPU é lido pelo `ThreadMXBean` (true) ou por `/proc` (false).
+     */
+    public boolean usesThreadMXBean() {
+        return getThreadCpuTime != null;
+    }
+
+    /**
+     * Registra a thread atual como executora da tarefa. Chamadas repetidas na mesma thread são ignoradas.
+     *
+     * @param taskName Nome da tarefa, o mesmo usado no MetricsCollector.
+     */
+    public void registerCurrentThread(String taskName) {
+        Thread current = Thread.currentThread();
+        if (threads.containsKey(current.getId())) {
+            return;
+        }
+        TaskCpu task = tasks.get(taskName);
+        if (task == null) {
+            tasks.putIfAbsent(taskName, new TaskCpu());
+            task = tasks.get(taskName);
+        }
+        threads.put(current.getId(), new ThreadCpu(current, currentNativeTid(), task, windowSamples));
+    }
+
+    /**
+     * Inicia a amostragem em uma thread de baixa prioridade.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        samplerThread = new Thread(this::sampleLoop, "ThreadCpuSampler");
+        samplerThread.setDaemon(true);
+        samplerThread.setPriority(Thread.MIN_PRIORITY);
+        samplerThread.start();
+    }
+
+    /**
+     * Encerra a amostragem; os últimos valores continuam disponíveis.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (samplerThread != null) {
+            samplerThread.interrupt();
+            samplerThread = null;
+        }
+    }
+
+    /**
+     * Utilização da tarefa na janela deslizante, em % de um núcleo (pode passar de 100 com várias threads).
+     *
+     * @return Utilização, ou 0 se a tarefa não tiver threads registradas ou amostras suficientes.
+     */
+    public double getUtilization(String taskName) {
+        TaskCpu task = tasks.get(taskName);
+        return task == null ? 0.0 : task.utilization;
+    }
+
+    /**
+     * Tempo de CPU que a tarefa consome, em média, a cada período, medido na janela deslizante.
+     *
+     * @param taskName    Nome da tarefa.
+     * @param periodNanos Período da tarefa.
+     * @return Tempo de execução por período, em nanossegundos.
+     */
+    public long getExecutionTimePerPeriod(String taskName, long periodNanos) {
+        TaskCpu task = tasks.get(taskName);
+        if (task == null || task.windowNanos == 0) {
+            return 0;
+        }
+        return (long) ((double) task.windowCpuNanos * periodNanos / task.windowNanos);
+    }
+
+    /**
+     * Tempos de execução por período medidos para cada tarefa, na ordem de `taskNames`,
+     * prontos para {@link DeadlineUtils#calculateProcessorUtilization(List, List)}.
+     */
+    public List<Long> getExecutionTimes(List<String> taskNames, List<Long> periodsNanos) {
+        if (taskNames.size() != periodsNanos.size()) {
+            throw new IllegalArgumentException("As listas de tarefas e períodos devem ter o mesmo tamanho.");
+        }
+        List<Long> executionTimes = new ArrayList<>(taskNames.size());
+        for (int i = 0; i < taskNames.size(); i++) {
+            executionTimes.add(getExecutionTimePerPeriod(taskNames.get(i), periodsNanos.get(i)));
+        }
+        return executionTimes;
+    }
+
+    public List<String> getTaskNames() {
+        return new ArrayList<>(tasks.keySet());
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            sampleNow();
+            try {
+                Thread.sleep(sampleIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lê o tempo de CPU de todas as threads registradas e atualiza a utilização das tarefas.
+     * Chamado pela thread de amostragem; visível no pacote para testes.
+     */
+    synchronized void sampleNow() {
+        for (TaskCpu task : tasks.values()) {
+            task.accumulatedCpuNanos = 0;
+            task.accumulatedWallNanos = 0;
+        }
+        for (ThreadCpu entry : threads.values()) {
+            long cpu = readCpuNanos(entry);
+            if (cpu < 0) {
+                threads.remove(entry.thread.getId()); // Thread encerrada
+                continue;
+            }
+            long wall = System.nanoTime();
+            int slot = entry.samples % entry.cpuNanos.length;
+            entry.cpuNanos[slot] = cpu;
+            entry.wallNanos[slot] = wall;
+            entry.samples++;
+
+            int oldest = entry.samples > windowSamples ? entry.samples % entry.cpuNanos.length : 0;
+            long windowWall = wall - entry.wallNanos[oldest];
+            if (windowWall > 0) {
+                entry.task.accumulatedCpuNanos += cpu - entry.cpuNanos[oldest];
+                entry.task.accumulatedWallNanos = Math.max(entry.task.accumulatedWallNanos, windowWall);
+            }
+        }
+        for (TaskCpu task : tasks.values()) {
+            long wall = task.accumulatedWallNanos;
+            task.windowCpuNanos = task.accumulatedCpuNanos;
+            task.windowNanos = wall;
+            task.utilization = wall == 0 ? 0.0 : 100.0 * task.accumulatedCpuNanos / wall;
+        }
+    }
+
+    private long readCpuNanos(ThreadCpu entry) {
+        if (!entry.thread.isAlive()) {
+            return -1;
+        }
+        if (getThreadCpuTime != null) {
+            try {
+                return (Long) getThreadCpuTime.invoke(threadMXBean, entry.thread.getId());
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+        return entry.nativeTid < 0 ? -1 : readProcCpuNanos(entry.nativeTid);
+    }
+
+    /**
+     * Lê utime + stime de `/proc/self/task/<tid>/stat`.
+     *
+     * @return Tempo de CPU em nanossegundos, ou -1 se o arquivo não puder ser lido.
+     */
+    static long readProcCpuNanos(int tid) {
+        byte[] buffer = new byte[512];
+        int length;
+        try (FileInputStream in = new FileInputStream("/proc/self/task/" + tid + "/stat")) {
+            length = in.read(buffer);
+        } catch (IOException e) {
+            return -1;
+        }
+        if (length <= 0) {
+            return -1;
+        }
+        String stat = new String(buffer, 0, length, StandardCharsets.US_ASCII);
+        // O nome da thread (campo 2) pode conter espaços e parênteses: os campos seguem o último ')'
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        if (fields.length < 13) {
+            return -1;
+        }
+        long utime = Long.parseLong(fields[11]); // Campo 14
+        long stime = Long.parseLong(fields[12]); // Campo 15
+        return (utime + stime) * NANOS_PER_TICK;
+    }
+
+    /**
+     * Identificador da thread atual no kernel, usado para ler `/proc`.
+     *
+     * @return O tid, ou -1 se não puder ser obtido.
+     */
+    private static int currentNativeTid() {
+        try {
+            return Integer.parseInt(new File("/proc/thread-self").getCanonicalFile().getName());
+        } catch (IOException | NumberFormatException e) {
+            // Kernels sem /proc/thread-self: usa android.os.Process.myTid por reflexão
+        }
+        try {
+            return (Integer) Class.forName("android.os.Process").getMethod("myTid").invoke(null);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
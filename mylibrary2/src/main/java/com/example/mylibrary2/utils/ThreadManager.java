@@ -7,10 +7,12 @@ import java.util.concurrent.Executors;
 
 /**
  * Classe responsável por configurar os processadores e gerenciar o uso de recursos pelas threads.
+ * A configuração e o pool são trocados sob o monitor da classe, de modo que uma reconfiguração e a
+ * criação do pool em `getExecutorService` não se intercalem (dois pools criados, um nunca encerrado).
  */
 public class ThreadManager {
 
-    private static int configuredProcessors = Runtime.getRuntime().availableProcessors();
+    private static volatile int configuredProcessors = Runtime.getRuntime().availableProcessors();
     private static ExecutorService executorService;
 
     /**
@@ -19,7 +21,7 @@ public class ThreadManager {
      * @param numCores O número de núcleos desejado.
      * @throws IllegalArgumentException Se o número de núcleos for inválido.
      */
-    public static void configureProcessors(int numCores) {
+    public static synchronized void configureProcessors(int numCores) {
         int availableProcessors = Runtime.getRuntime().availableProcessors();
 
         if (numCores < 1 || numCores > availableProcessors) {
@@ -46,6 +48,18 @@ public class ThreadManager {
         return configuredProcessors;
     }
 
+    /**
+     * Obtém o pool de threads configurado, criando-o caso ainda não exista ou tenha sido encerrado.
+     *
+     * @return O pool com `getConfiguredProcessors()` threads.
+     */
+    public static synchronized ExecutorService getExecutorService() {
+        if (executorService == null || executorService.isShutdown()) {
+            executorService = Executors.newFixedThreadPool(configuredProcessors);
+        }
+        return executorService;
+    }
+
     /**
      * Reseta a configuração de processadores para o máximo disponível no sistema.
      */
@@ -62,11 +76,12 @@ public class ThreadManager {
      * @param filePath    Caminho do arquivo CSV para exportar os resultados.
      */
     public static void measureExecutionTime(Runnable task, String description, String filePath) {
+        ExecutorService executor = getExecutorService();
         long startTime = System.nanoTime();
 
-        executorService.submit(task);
-        executorService.shutdown();
-        while (!executorService.isTerminated()) {
+        executor.submit(task);
+        executor.shutdown();
+        while (!executor.isTerminated()) {
             // Aguarda até que todas as threads finalizem
         }
 
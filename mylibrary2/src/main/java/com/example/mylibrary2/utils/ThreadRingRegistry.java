@@ -0,0 +1,96 @@
+package com.example.mylibrary2.utils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Classe ThreadRingRegistry
+ * Mantém um {@link SingleWriterRing} por thread produtora: o buffer é criado e registrado na
+ * primeira gravação da thread ({@link #local()}), e depois obtido sem locks.
+ *
+ * Buffers de threads encerradas são removidos assim que todos os seus registros forem consumidos.
+ * Os que ainda têm registros não consumidos são mantidos, no máximo {@link #MAX_RETIRED_RINGS};
+ * além disso, os registros dos mais antigos são descartados e contados em {@link #takeDiscarded()}.
+ * Assim a memória acompanha as threads vivas, e não todas as que já gravaram (ex.: as threads dos
+ * carros, recriadas a cada corrida).
+ *
+ * Leitores que avançam o cursor dos buffers devem fazê-lo sob o monitor do registro, o mesmo
+ * usado ao registrar uma thread nova, para que nenhum registro seja lido e descartado ao mesmo tempo.
+ */
+final class ThreadRingRegistry<R extends SingleWriterRing> {
+
+    /**
+     * Cria o buffer de uma thread.
+     */
+    interface Factory<R> {
+        R create(Thread owner);
+    }
+
+    static final int MAX_RETIRED_RINGS = 64;
+
+    private final Factory<R> factory;
+    private final List<R> rings = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<R> localRing = new ThreadLocal<R>() {
+        @Override
+        protected R initialValue() {
+            return register(factory.create(Thread.currentThread()));
+        }
+    };
+    private long discarded; // Registros descartados de buffers removidos antes de serem consumidos
+
+    ThreadRingRegistry(Factory<R> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Buffer da thread atual, criado na primeira chamada.
+     */
+    R local() {
+        return localRing.get();
+    }
+
+    private synchronized R register(R ring) {
+        prune();
+        rings.add(ring);
+        return ring;
+    }
+
+    /**
+     * Remove os buffers de threads encerradas já consumidos e limita os que ainda não foram.
+     * Deve ser chamado sob o monitor do registro.
+     *
+     * @return Buffers mantidos, na ordem de registro. A lista pode ser percorrida sem locks.
+     */
+    List<R> prune() {
+        int retired = 0;
+        for (R ring : rings) {
+            if (ring.isOwnerTerminated()) {
+                if (ring.unconsumed() == 0) {
+                    rings.remove(ring);
+                } else {
+                    retired++;
+                }
+            }
+        }
+        // Descarta os mais antigos primeiro: a lista está em ordem de registro
+        for (Iterator<R> it = rings.iterator(); retired > MAX_RETIRED_RINGS && it.hasNext(); ) {
+            R ring = it.next();
+            if (ring.isOwnerTerminated()) {
+                discarded += ring.unconsumed();
+                rings.remove(ring);
+                retired--;
+            }
+        }
+        return rings;
+    }
+
+    /**
+     * Registros descartados desde a última chamada. Deve ser chamado sob o monitor do registro.
+     */
+    long takeDiscarded() {
+        long count = discarded;
+        discarded = 0;
+        return count;
+    }
+}
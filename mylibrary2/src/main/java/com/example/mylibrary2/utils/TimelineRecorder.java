@@ -0,0 +1,206 @@
+package com.example.mylibrary2.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Classe TimelineRecorder
+ * Registra uma linha do tempo das threads da simulação: intervalos (`begin`/`end`) e eventos
+ * instantâneos (`instant`), com o id da thread e o instante em nanossegundos (`System.nanoTime`).
+ *
+ * Cada thread grava no seu próprio buffer circular, sem locks; quando o buffer enche, os eventos
+ * mais antigos são sobrescritos. Nomes e categorias são guardados por referência, então devem ser
+ * constantes ou strings já existentes para que a gravação não aloque. {@link #writeChromeTrace(Writer)}
+ * exporta os eventos no formato Chrome trace-event (JSON), aberto no Perfetto ou em chrome://tracing.
+ * As linhas do tempo de threads encerradas são removidas depois de limpas ({@link ThreadRingRegistry}).
+ *
+ * Desligado por padrão; desligado, cada chamada custa uma leitura volátil.
+ */
+public final class TimelineRecorder {
+
+    public static final int DEFAULT_CAPACITY = 4096; // Posições do buffer de cada thread; mantém uma a menos
+
+    private static final byte PHASE_BEGIN = 'B';
+    private static final byte PHASE_END = 'E';
+    private static final byte PHASE_INSTANT = 'i';
+    private static final int PROCESS_ID = 1;
+
+    private final int capacity;
+    private final long originNanos = System.nanoTime();
+    private final ThreadRingRegistry<ThreadTimeline> timelines;
+    private volatile boolean enabled;
+
+    /**
+     * Eventos de uma thread, com um único produtor.
+     */
+    private static final class ThreadTimeline extends SingleWriterRing {
+        final long[] timestamps;
+        final byte[] phases;
+        final String[] categories;
+        final String[] names;
+
+        ThreadTimeline(Thread owner, int capacity) {
+            super(owner, capacity);
+            int size = capacity();
+            this.timestamps = new long[size];
+            this.phases = new byte[size];
+            this.categories = new String[size];
+            this.names = new String[size];
+        }
+
+        void record(byte phase, String category, String name) {
+            long sequence = nextSequence();
+            int index = (int) sequence & mask;
+            timestamps[index] = System.nanoTime();
+            phases[index] = phase;
+            categories[index] = category;
+            names[index] = name;
+            publish(sequence);
+        }
+    }
+
+    /**
+     * @param capacityPerThread Quantidade de eventos mantidos por thread (arredondada para potência de 2, menos um).
+     */
+    public TimelineRecorder(int capacityPerThread) {
+        if (capacityPerThread <= 0) {
+            throw new IllegalArgumentException("A capacidade deve ser positiva.");
+        }
+        this.capacity = capacityPerThread;
+        this.timelines = new ThreadRingRegistry<>(owner -> new ThreadTimeline(owner, capacity));
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inicia um intervalo na thread atual. Deve ser encerrado por {@link #end(String, String)} na mesma thread.
+     *
+     * @param category Categoria do evento (ex.: "car", "scheduler").
+     * @param name     Nome do intervalo.
+     */
+    public void begin(String category, String name) {
+        if (enabled) {
+            timelines.local().record(PHASE_BEGIN, category, name);
+        }
+    }
+
+    /**
+     * Encerra o intervalo mais recente iniciado na thread atual.
+     */
+    public void end(String category, String name) {
+        if (enabled) {
+            timelines.local().record(PHASE_END, category, name);
+        }
+    }
+
+    /**
+     * Registra um evento instantâneo na thread atual (ex.: semáforo liberado, pausa, evento aperiódico).
+     */
+    public void instant(String category, String name) {
+        if (enabled) {
+            timelines.local().record(PHASE_INSTANT, category, name);
+        }
+    }
+
+    /**
+     * Exporta os eventos mantidos de todas as threads no formato Chrome trace-event. Os instantes
+     * (`ts`) são em microssegundos, com três casas decimais (resolução de nanossegundos), a partir
+     * da criação do recorder; `args.nanos` traz o valor original de `System.nanoTime`.
+     *
+     * @return Quantidade de eventos exportados, sem contar os nomes das threads.
+     */
+    public synchronized int writeChromeTrace(Writer out) throws IOException {
+        out.write("{\"displayTimeUnit\":\"ns\",\"traceEvents\":[");
+        boolean first = true;
+        int written = 0;
+        StringBuilder event = new StringBuilder(160);
+        List<ThreadTimeline> sources;
+        synchronized (timelines) {
+            sources = timelines.prune();
+        }
+        for (ThreadTimeline timeline : sources) {
+            event.setLength(0);
+            event.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":").append(PROCESS_ID)
+                    .append(",\"tid\":").append(timeline.threadId).append(",\"args\":{\"name\":");
+            appendJsonString(event, timeline.threadName);
+            event.append("}}");
+            first = writeEvent(out, event, first);
+
+            long end = timeline.published();
+            long start = timeline.readStart(end);
+            for (long sequence = start; sequence < end; sequence++) {
+                int index = (int) sequence & timeline.mask;
+                long nanos = timeline.timestamps[index];
+                byte phase = timeline.phases[index];
+                String category = timeline.categories[index];
+                String name = timeline.names[index];
+                if (sequence < timeline.firstIntact(sequence)) {
+                    continue; // Sobrescrito durante a exportação
+                }
+
+                event.setLength(0);
+                event.append("{\"name\":");
+                appendJsonString(event, name);
+                event.append(",\"cat\":");
+                appendJsonString(event, category);
+                event.append(",\"ph\":\"").append((char) phase).append("\",\"ts\":")
+                        .append(String.format(Locale.US, "%.3f", (nanos - originNanos) / 1_000.0))
+                        .append(",\"pid\":").append(PROCESS_ID).append(",\"tid\":").append(timeline.threadId);
+                if (phase == PHASE_INSTANT) {
+                    event.append(",\"s\":\"t\"");
+                }
+                event.append(",\"args\":{\"nanos\":").append(nanos).append("}}");
+                first = writeEvent(out, event, first);
+                written++;
+            }
+        }
+        out.write("]}\n");
+        out.flush();
+        return written;
+    }
+
+    /**
+     * Descarta, para as próximas exportações, os eventos gravados até agora.
+     */
+    public synchronized void clear() {
+        synchronized (timelines) {
+            for (ThreadTimeline timeline : timelines.prune()) {
+                timeline.consumeTo(timeline.published());
+            }
+            timelines.takeDiscarded();
+        }
+    }
+
+    private static boolean writeEvent(Writer out, CharSequence event, boolean first) throws IOException {
+        if (!first) {
+            out.write(',');
+        }
+        out.write('\n');
+        out.append(event);
+        return false;
+    }
+
+    private static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        String text = value == null ? "" : value;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.EventTracer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventTracerTest {
+
+    @Test
+    public void dump_formatsEventsOfAllThreadsInOrderAndSkipsDisabledLevels() throws Exception {
+        int lap = EventTracer.register(EventTracer.DEBUG, "Car", "{s} completou {} voltas.");
+        int metrics = EventTracer.register(EventTracer.VERBOSE, "Car", "{s}: utilização={d}%");
+        int car = EventTracer.internString("Car1");
+        assertEquals(car, EventTracer.internString("Car1"));
+        EventTracer.clear();
+
+        EventTracer.setMinLevel(EventTracer.DEBUG);
+        assertFalse(EventTracer.isLoggable(metrics));
+        EventTracer.trace(metrics, car, EventTracer.d(12.5)); // Abaixo do nível mínimo: descartado
+        EventTracer.trace(lap, car, 1);
+        Thread other = new Thread(() -> EventTracer.trace(lap, EventTracer.internString("Car2"), 2), "Car2Thread");
+        other.start();
+        other.join();
+
+        EventTracer.setMinLevel(EventTracer.VERBOSE);
+        assertTrue(EventTracer.isLoggable(metrics));
+        EventTracer.trace(metrics, car, EventTracer.d(12.5));
+        EventTracer.setMinLevel(EventTracer.DEBUG);
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(3, EventTracer.dump(out));
+        String main = Thread.currentThread().getName();
+        String[] lines = out.toString().split("\n");
+        assertTrue(lines[0], lines[0].endsWith("D/Car [" + main + "]: Car1 completou 1 voltas."));
+        assertTrue(lines[1], lines[1].endsWith("D/Car [Car2Thread]: Car2 completou 2 voltas."));
+        assertTrue(lines[2], lines[2].endsWith("V/Car [" + main + "]: Car1: utilização=12.500%"));
+
+        EventTracer.clear();
+        assertEquals(0, EventTracer.dump(new StringBuilder()));
+    }
+
+    @Test
+    public void dump_keepsOnlyTheMostRecentEventsPerThread() throws Exception {
+        int tick = EventTracer.register(EventTracer.INFO, "Tick", "tick {}");
+        EventTracer.clear();
+        for (int i = 0; i < EventTracer.DEFAULT_CAPACITY + 10; i++) {
+            EventTracer.trace(tick, i);
+        }
+
+        StringBuilder out = new StringBuilder();
+        // A posição do próximo evento não é lida: pode estar sendo escrita pelo produtor
+        assertEquals(EventTracer.DEFAULT_CAPACITY - 1, EventTracer.dump(out));
+        assertTrue(out.toString().startsWith("tick 11\n", out.indexOf(": ") + 2));
+        EventTracer.clear();
+    }
+}
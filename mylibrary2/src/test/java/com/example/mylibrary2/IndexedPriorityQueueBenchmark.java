@@ -0,0 +1,118 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.IndexedPriorityQueue;
+import com.example.mylibrary2.utils.RealTimeScheduler.Task;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Benchmark do ajuste de prioridade com 10, 1.000 e 100.000 tarefas enfileiradas.
+ * Compara a abordagem anterior (`PriorityQueue` com busca linear, `remove` e `add`) com o
+ * heap indexado, tanto em ajustes individuais quanto em um lote que reprioriza todas as tarefas.
+ * Executar pelo método main na JVM.
+ */
+public class IndexedPriorityQueueBenchmark {
+
+    private static final int[] PRIORITIES = {Thread.NORM_PRIORITY, Thread.NORM_PRIORITY + 2, Thread.MAX_PRIORITY};
+
+    public static void main(String[] args) {
+        for (int tasks : new int[]{10, 1_000, 100_000}) {
+            run(tasks);
+        }
+    }
+
+    private static void run(int count) {
+        Task[] legacyTasks = createTasks(count);
+        Task[] indexedTasks = createTasks(count);
+
+        PriorityQueue<Task> legacy = new PriorityQueue<>();
+        IndexedPriorityQueue<Task> indexed = new IndexedPriorityQueue<>(Task::compareTo, count);
+        for (int i = 0; i < count; i++) {
+            legacy.add(legacyTasks[i]);
+            indexed.add(indexedTasks[i]);
+        }
+
+        // A abordagem linear fica inviável com 100.000 tarefas; limita o número de ajustes medidos
+        int adjustments = Math.max(1_000, Math.min(200_000, 20_000_000 / count));
+        Random random = new Random(3);
+        int[] names = new int[adjustments];
+        int[] priorities = new int[adjustments];
+        for (int i = 0; i < adjustments; i++) {
+            names[i] = random.nextInt(count);
+            priorities[i] = PRIORITIES[random.nextInt(PRIORITIES.length)];
+        }
+
+        double legacyNanos = measure(() -> {
+            for (int i = 0; i < adjustments; i++) {
+                adjustLegacy(legacy, "Task" + names[i], priorities[i]);
+            }
+        }) / adjustments;
+        double indexedNanos = measure(() -> {
+            for (int i = 0; i < adjustments; i++) {
+                Task task = indexed.get("Task" + names[i]);
+                task.priority = priorities[i];
+                indexed.update(task);
+            }
+        }) / adjustments;
+        double batchNanos = measure(() -> {
+            for (Task task : indexedTasks) {
+                task.priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+            }
+            indexed.heapify();
+        }) / count;
+
+        checkHeapOrder(indexed, count);
+        System.out.printf("%7d tarefas: linear %10.1f ns/ajuste | indexado %6.1f ns/ajuste (%.0fx) | lote %5.1f ns/tarefa%n",
+                count, legacyNanos, indexedNanos, legacyNanos / indexedNanos, batchNanos);
+    }
+
+    private static Task[] createTasks(int count) {
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task("Task" + i, 1_000L + i, Thread.NORM_PRIORITY, () -> { });
+        }
+        return tasks;
+    }
+
+    /**
+     * Cópia da implementação anterior de `RealTimeScheduler.adjustTaskPriority`.
+     */
+    private static void adjustLegacy(PriorityQueue<Task> queue, String taskName, int newPriority) {
+        for (Task task : queue) {
+            if (task.taskName.equals(taskName)) {
+                queue.remove(task);
+                task.priority = newPriority;
+                queue.add(task);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Executa a carga três vezes para aquecimento e retorna o menor tempo de outras cinco execuções.
+     */
+    private static double measure(Runnable workload) {
+        for (int i = 0; i < 3; i++) {
+            workload.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            workload.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void checkHeapOrder(IndexedPriorityQueue<Task> queue, int count) {
+        Task previous = queue.poll();
+        for (int i = 1; i < count; i++) {
+            Task next = queue.poll();
+            if (previous.compareTo(next) > 0) {
+                throw new IllegalStateException("Heap fora de ordem após os ajustes.");
+            }
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.IndexedPriorityQueue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IndexedPriorityQueueTest {
+
+    private static final class Item extends IndexedPriorityQueue.Entry {
+        final String name;
+        long deadline;
+
+        Item(String name, long deadline) {
+            this.name = name;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public String key() {
+            return name;
+        }
+    }
+
+    private static final Comparator<Item> BY_DEADLINE = (a, b) -> Long.compare(a.deadline, b.deadline);
+
+    private static Item earliest(List<Item> items) {
+        Item best = null;
+        for (Item item : items) {
+            if (best == null || item.deadline < best.deadline) {
+                best = item;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void operations_matchLinearScanOverRandomSequence() {
+        Random random = new Random(21);
+        IndexedPriorityQueue<Item> queue = new IndexedPriorityQueue<>(BY_DEADLINE, 2);
+        List<Item> expected = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 4 || expected.isEmpty()) {
+                Item item = new Item("T" + step, random.nextInt(1_000));
+                queue.add(item);
+                expected.add(item);
+            } else if (operation < 6) {
+                Item head = queue.poll();
+                assertEquals(earliest(expected).deadline, head.deadline);
+                assertTrue(expected.remove(head));
+                assertFalse(head.isQueued());
+            } else if (operation < 8) {
+                Item item = expected.get(random.nextInt(expected.size()));
+                item.deadline = random.nextInt(1_000); // Aumento ou redução de prioridade
+                queue.update(item);
+            } else if (operation < 9) {
+                Item item = expected.remove(random.nextInt(expected.size()));
+                assertTrue(queue.remove(item));
+                assertFalse(queue.remove(item));
+                assertNull(queue.get(item.name));
+            } else {
+                for (Item item : expected) {
+                    item.deadline = random.nextInt(1_000);
+                }
+                queue.heapify();
+            }
+            assertEquals(expected.size(), queue.size());
+            if (!expected.isEmpty()) {
+                assertEquals(earliest(expected).deadline, queue.peek().deadline);
+                Item any = expected.get(random.nextInt(expected.size()));
+                assertSame(any, queue.get(any.name));
+                assertTrue(any.isQueued());
+            }
+        }
+
+        long last = Long.MIN_VALUE;
+        while (!queue.isEmpty()) {
+            Item head = queue.poll();
+            assertTrue(head.deadline >= last);
+            last = head.deadline;
+        }
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+    }
+
+    @Test
+    public void get_returnsNewestEntryWithTheSameKey() {
+        IndexedPriorityQueue<Item> queue = new IndexedPriorityQueue<>(BY_DEADLINE);
+        Item older = new Item("Ciclo", 10);
+        Item newer = new Item("Ciclo", 20);
+        queue.add(older);
+        queue.add(newer);
+        assertSame(newer, queue.get("Ciclo"));
+
+        assertSame(older, queue.poll()); // A mais antiga sai sem esconder a mais recente
+        assertSame(newer, queue.get("Ciclo"));
+        assertEquals(1, queue.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void add_rejectsEntryAlreadyQueued() {
+        IndexedPriorityQueue<Item> queue = new IndexedPriorityQueue<>(BY_DEADLINE);
+        Item item = new Item("A", 1);
+        queue.add(item);
+        queue.add(item);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void update_rejectsEntryFromAnotherQueue() {
+        IndexedPriorityQueue<Item> queue = new IndexedPriorityQueue<>(BY_DEADLINE);
+        IndexedPriorityQueue<Item> other = new IndexedPriorityQueue<>(BY_DEADLINE);
+        Item foreign = new Item("B", 1);
+        queue.add(new Item("A", 1));
+        other.add(foreign);
+        queue.update(foreign); // Mesmo índice 0, mas não é o elemento desta fila
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.LatencyHistogram;
+import com.example.mylibrary2.utils.MetricsCollector;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    private static final long MAX_NANOS = 60_000_000_000L;
+
+    @Test
+    public void percentiles_stayWithinConfiguredPrecision() {
+        Random random = new Random(5);
+        long[] values = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram(MAX_NANOS, 2);
+        for (int i = 0; i < values.length; i++) {
+            // Distribuição de cauda longa entre 1 µs e alguns segundos
+            values[i] = (long) (1_000 * Math.exp(random.nextDouble() * 15));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.getValueAtPercentile(percentile);
+            assertTrue("p" + percentile + " fora da precisão: " + estimate + " vs " + exact,
+                    Math.abs(estimate - exact) <= exact / 100);
+        }
+        assertEquals(values[values.length - 1], histogram.getMaxValue());
+        assertEquals(values.length, histogram.getTotalCount());
+    }
+
+    @Test
+    public void add_mergesHistogramsFromDifferentProducers() {
+        LatencyHistogram first = new LatencyHistogram(MAX_NANOS, 3);
+        LatencyHistogram second = first.emptyCopy();
+        LatencyHistogram combined = first.emptyCopy();
+        for (long value = 1; value <= 10_000; value++) {
+            (value % 2 == 0 ? first : second).record(value * 1_000);
+            combined.record(value * 1_000);
+        }
+
+        LatencyHistogram merged = first.emptyCopy();
+        merged.add(first);
+        merged.add(second);
+        assertEquals(combined.getTotalCount(), merged.getTotalCount());
+        assertEquals(combined.getMaxValue(), merged.getMaxValue());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            assertEquals(combined.getValueAtPercentile(percentile), merged.getValueAtPercentile(percentile));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_rejectsDifferentPrecision() {
+        new LatencyHistogram(MAX_NANOS, 2).add(new LatencyHistogram(MAX_NANOS, 3));
+    }
+
+    @Test
+    public void collector_mergesEveryProducerThreadIntoOneHistogramPerTask() throws Exception {
+        MetricsCollector collector = new MetricsCollector(null, 1 << 12);
+        int car = collector.registerTask("Car1");
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            long jitterNanos = (t + 1) * 1_000_000L;
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    collector.collectMetricNanos(car, i, jitterNanos, 50_000_000L, 10.0);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        LatencyHistogram jitter = collector.getJitterHistogram("Car1");
+        assertEquals(4_000, jitter.getTotalCount());
+        assertEquals(4_000_000L, jitter.getMaxValue(), 4_000_000L / 100);
+        assertEquals(2_000_000L, jitter.getValueAtPercentile(50), 2_000_000L / 100);
+        assertEquals(4_000, collector.getResponseTimeHistogram("Car1").getTotalCount());
+        assertEquals(0, collector.getJitterHistogram("Car2").getTotalCount());
+
+        collector.clearMetrics();
+        assertEquals(0, collector.getJitterHistogram("Car1").getTotalCount());
+        collector.collectMetricNanos(car, 0, 1_000L, 1_000L, 10.0);
+        assertEquals(1, collector.getJitterHistogram("Car1").getTotalCount());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.MetricColumnStore;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricColumnStoreTest {
+
+    @Test
+    public void append_usesAboutTwentyFourBytesPerSample() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        MetricColumnStore store = new MetricColumnStore(Long.MAX_VALUE);
+        int taskId = store.internTask("Car1");
+        int samples = 64 * MetricColumnStore.CHUNK_SIZE;
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < samples; i++) {
+            store.append(i, taskId, 1_000_000L, 5_000_000L, 42.0);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        double bytesPerSample = (double) allocated / samples;
+        assertEquals(24, MetricColumnStore.BYTES_PER_SAMPLE);
+        // Cabeçalhos dos arrays e o array de blocos somam bem menos de 1 byte por amostra
+        assertTrue("Bytes por amostra: " + bytesPerSample,
+                bytesPerSample >= MetricColumnStore.BYTES_PER_SAMPLE && bytesPerSample < 25);
+    }
+
+    @Test
+    public void columnScans_matchAppendedValues() {
+        MetricColumnStore store = new MetricColumnStore(Long.MAX_VALUE);
+        int car1 = store.internTask("Car1");
+        int car2 = store.internTask("Car2");
+        assertEquals(car1, store.internTask("Car1"));
+
+        int samples = 3 * MetricColumnStore.CHUNK_SIZE + 17;
+        long expectedJitter = 0;
+        for (int i = 0; i < samples; i++) {
+            store.append(i, i % 3 == 0 ? car2 : car1, i * 1_000L, 2_000L, 50.0);
+            expectedJitter += i;
+        }
+
+        assertEquals(samples, store.size());
+        assertEquals(expectedJitter, store.sumJitterMicros());
+        assertEquals(2L * samples, store.sumResponseMicros());
+        assertEquals(50.0, store.averageUtilization(), 1e-9);
+        assertEquals((samples + 2) / 3, store.countTask(car2));
+        assertEquals((samples - 1) % 3 == 0 ? "Car2" : "Car1", store.getTaskName(store.getTaskId(samples - 1)));
+        assertEquals(samples - 1, store.getTimestampNanos(samples - 1));
+    }
+
+    @Test
+    public void append_evictsOldestChunkAtLimit() {
+        MetricColumnStore store = new MetricColumnStore(2L * MetricColumnStore.CHUNK_SIZE);
+        int taskId = store.internTask("Car1");
+        for (int i = 0; i < 2 * MetricColumnStore.CHUNK_SIZE + 1; i++) {
+            store.append(i, taskId, 0, 0, 0);
+        }
+
+        assertEquals(MetricColumnStore.CHUNK_SIZE + 1, store.size());
+        assertEquals(MetricColumnStore.CHUNK_SIZE, store.getEvictedSamples());
+        assertEquals(MetricColumnStore.CHUNK_SIZE, store.getTimestampNanos(0));
+    }
+}
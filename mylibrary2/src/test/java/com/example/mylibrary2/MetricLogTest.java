@@ -0,0 +1,91 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.MetricColumnStore;
+import com.example.mylibrary2.utils.MetricLogReader;
+import com.example.mylibrary2.utils.MetricLogWriter;
+import com.example.mylibrary2.utils.MetricsCollector;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricLogTest {
+
+    @Test
+    public void reader_returnsWhatWriterAppended() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MetricLogWriter writer = new MetricLogWriter(bytes, Collections.singletonList("Car1"))) {
+            int car1 = writer.defineTask("Car1");
+            int safetyCar = writer.defineTask("SafetyCar"); // Definida depois do cabeçalho
+            writer.append(car1, 5_000_000L, 1_500, 50_000, 42.37);
+            writer.append(safetyCar, 4_000_000L, -20, Integer.MAX_VALUE, 0.0);
+            writer.append(car1, 55_000_000L, 900, 49_000, 100.0);
+        }
+
+        try (MetricLogReader reader = new MetricLogReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertTrue(reader.next());
+            assertEquals("Car1", reader.getTaskName());
+            assertEquals(5_000, reader.getTimestampMicros());
+            assertEquals(1_500, reader.getJitterMicros());
+            assertEquals(50_000, reader.getResponseMicros());
+            assertEquals(42.37, reader.getUtilization(), 1e-9);
+
+            assertTrue(reader.next());
+            assertEquals("SafetyCar", reader.getTaskName());
+            assertEquals(4_000, reader.getTimestampMicros());
+            assertEquals(-20, reader.getJitterMicros());
+            assertEquals(Integer.MAX_VALUE, reader.getResponseMicros());
+
+            assertTrue(reader.next());
+            assertEquals("Car1", reader.getTaskName());
+            assertEquals(55_000, reader.getTimestampMicros());
+            assertEquals(900, reader.getJitterMicros());
+            assertEquals(100.0, reader.getUtilization(), 1e-9);
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void periodicSamples_areSeveralTimesSmallerThanCsv() throws Exception {
+        // Ciclos de 50 ms com jitter de poucos ms e velocidade que varia aos poucos, como na simulação
+        MetricsCollector collector = new MetricsCollector(null, 1 << 17);
+        String[] cars = {"Car1", "Car2", "Car3", "Car4", "SafetyCar"};
+        double[] speed = new double[cars.length];
+        Random random = new Random(7);
+        long timestamp = 1_000_000_000L;
+        for (int tick = 0; tick < 20_000; tick++) {
+            timestamp += 50_000_000L + random.nextInt(500_000);
+            for (int car = 0; car < cars.length; car++) {
+                speed[car] = Math.max(0, Math.min(100, speed[car] + random.nextGaussian()));
+                collector.collectMetric(collector.registerTask(cars[car]), timestamp + random.nextInt(50_000),
+                        random.nextInt(3), 50 + random.nextInt(2), speed[car]);
+            }
+        }
+        long csvBytes = 0;
+        for (MetricsCollector.Metric metric : collector.snapshot()) {
+            csvBytes += metric.toString().length() + 1;
+        }
+
+        MetricColumnStore store = collector.getStore();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MetricLogWriter writer = new MetricLogWriter(bytes, store.getTaskNames())) {
+            writer.append(store, 0, store.size());
+        }
+        StringWriter csv = new StringWriter();
+        try (MetricLogReader reader = new MetricLogReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(store.size(), reader.copyToCsv(csv));
+        }
+
+        double ratio = (double) csvBytes / bytes.size();
+        assertTrue("CSV/binário: " + ratio, ratio >= 5);
+        assertTrue(csv.toString().startsWith("Task Name,Jitter (ms),Response Time (ms),Processor Utilization (%)\nCar1,"));
+    }
+}
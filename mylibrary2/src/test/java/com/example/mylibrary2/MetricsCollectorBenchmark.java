@@ -0,0 +1,82 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.MetricsCollector;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark do registro de métricas com 1, 8 e 100 threads produtoras simultâneas.
+ * Mede o custo médio por chamada de `collectMetric` em tempo de CPU de cada produtora (não é afetado
+ * quando há mais threads que núcleos) e os bytes alocados pelas produtoras durante a medição
+ * (via `com.sun.management.ThreadMXBean`, disponível na JVM do host).
+ * Executar pelo método main na JVM.
+ */
+public class MetricsCollectorBenchmark {
+
+    private static final int RECORDS_PER_THREAD = 2_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int producers : new int[]{1, 8, 100}) {
+            run(producers);
+        }
+    }
+
+    private static void run(int producers) throws InterruptedException {
+        MetricsCollector collector = new MetricsCollector(null, 4096);
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        AtomicLong totalNanos = new AtomicLong();
+        AtomicLong allocatedBytes = new AtomicLong();
+        CountDownLatch ready = new CountDownLatch(producers);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            String taskName = "Car" + p;
+            new Thread(() -> {
+                int taskId = collector.registerTask(taskName);
+                // Aquecimento: cria o buffer da thread e compila o caminho de registro
+                for (int i = 0; i < 200_000; i++) {
+                    collector.collectMetric(taskId, i, i & 63, i & 255, 50.0);
+                }
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                long threadId = Thread.currentThread().getId();
+                long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+                long start = threadBean.getCurrentThreadCpuTime();
+                long timestamp = System.nanoTime();
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                    // Instante fornecido pelo chamador, como no ciclo da simulação: mede só o registro
+                    collector.collectMetric(taskId, timestamp + i, i & 63, i & 255, 50.0);
+                }
+                totalNanos.addAndGet(threadBean.getCurrentThreadCpuTime() - start);
+                allocatedBytes.addAndGet(threadBean.getThreadAllocatedBytes(threadId) - bytesBefore);
+                done.countDown();
+            }).start();
+        }
+
+        ready.await();
+        go.countDown();
+        // Transferências concorrentes para o armazenamento colunar enquanto os produtores gravam
+        int snapshots = 0;
+        while (done.getCount() > 0) {
+            collector.drain();
+            snapshots++;
+        }
+        done.await();
+
+        double nanosPerRecord = (double) totalNanos.get() / ((long) producers * RECORDS_PER_THREAD);
+        System.out.printf("%3d produtores: %5.1f ns de CPU/métrica, %d bytes alocados pelos produtores, "
+                        + "%d transferências concorrentes, %d métricas retidas%n",
+                producers, nanosPerRecord, allocatedBytes.get(), snapshots, collector.getStore().size());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.MetricsCollector;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsCollectorTest {
+
+    private static void recordInNewThread(MetricsCollector collector, int taskId, long responseMillis)
+            throws InterruptedException {
+        Thread car = new Thread(() -> collector.collectMetric(taskId, 1, responseMillis, 50.0), "Car");
+        car.start();
+        car.join();
+    }
+
+    @Test
+    public void drain_keepsMetricsOfTerminatedThreadsUntilTransferred() throws Exception {
+        MetricsCollector collector = new MetricsCollector(null, 16);
+        int task = collector.registerTask("Car");
+        long expectedMillis = 0;
+        for (int i = 0; i < 200; i++) {
+            recordInNewThread(collector, task, i);
+            expectedMillis += i;
+            if (i % 10 == 9) {
+                collector.drain(); // Os buffers das threads encerradas são transferidos e removidos
+            }
+        }
+
+        assertEquals(200, collector.snapshot().size());
+        assertEquals(0, collector.getDroppedMetricCount());
+        assertEquals(expectedMillis, collector.calculateTotalResponseTime());
+        assertEquals(1.0, collector.calculateAverageJitter(), 1e-9);
+    }
+
+    @Test
+    public void registration_discardsOldestUntransferredBuffersOfTerminatedThreads() throws Exception {
+        MetricsCollector collector = new MetricsCollector(null, 16);
+        int task = collector.registerTask("Car");
+        for (int i = 0; i < 100; i++) {
+            recordInNewThread(collector, task, i);
+        }
+
+        // Só os buffers das 64 threads encerradas mais recentes são mantidos até a transferência
+        assertEquals(64, collector.snapshot().size());
+        assertEquals(36, collector.getDroppedMetricCount());
+        long expectedMillis = 0;
+        for (int i = 36; i < 100; i++) {
+            expectedMillis += i;
+        }
+        assertEquals(expectedMillis, collector.calculateTotalResponseTime());
+    }
+
+    @Test
+    public void totals_includePendingMetricsAndResetOnClear() {
+        MetricsCollector collector = new MetricsCollector(null, 16);
+        int task = collector.registerTask("Car");
+        collector.collectMetric(task, 2, 10, 50.0);
+        collector.collectMetric(task, 4, 30, 50.0);
+        assertEquals(40, collector.calculateTotalResponseTime()); // Transfere as métricas pendentes
+        assertEquals(3.0, collector.calculateAverageJitter(), 1e-9);
+
+        collector.clearMetrics();
+        assertEquals(0, collector.calculateTotalResponseTime());
+        assertEquals(0.0, collector.calculateAverageJitter(), 0);
+        collector.collectMetric(task, 6, 5, 50.0);
+        assertEquals(5, collector.calculateTotalResponseTime());
+        assertEquals(6.0, collector.calculateAverageJitter(), 1e-9);
+    }
+}
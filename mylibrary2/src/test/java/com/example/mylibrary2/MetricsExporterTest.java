@@ -0,0 +1,185 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.MetricLogReader;
+import com.example.mylibrary2.utils.MetricsCollector;
+import com.example.mylibrary2.utils.MetricsExporter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsExporterTest {
+
+    private static final String HEADER = "Timestamp (ns),Jitter (ms),Response Time (ms),Processor Utilization (%)";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Registra `rows` métricas por tarefa, com instantes crescentes a partir de `firstTimestamp`.
+     */
+    private static void collect(MetricsCollector collector, String[] tasks, long firstTimestamp, int rows) {
+        for (int row = 0; row < rows; row++) {
+            for (String task : tasks) {
+                collector.collectMetric(collector.registerTask(task), firstTimestamp + row, 1, 50, 42.0);
+            }
+        }
+    }
+
+    private static List<String> readLines(File file) throws Exception {
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(".gz")) {
+            in = new GZIPInputStream(in); // Lê todos os membros concatenados
+        }
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static File[] filesOf(File dir, String prefix) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(prefix));
+        Arrays.sort(files);
+        return files;
+    }
+
+    @Test
+    public void drain_appendsOnlyNewRowsToPerTaskCsv() throws Exception {
+        File dir = temporaryFolder.newFolder("metrics");
+        MetricsCollector collector = new MetricsCollector(null, 1 << 12);
+        MetricsExporter exporter = new MetricsExporter(dir, "run", false, Long.MAX_VALUE);
+        collector.setExporter(exporter);
+        String[] tasks = {"Car1", "Safety Car"};
+        collect(collector, tasks, 1_000, 10);
+        collector.drain();
+        collect(collector, tasks, 2_000, 5);
+        collector.drain();
+        collector.drain(); // Sem métricas novas: nada é reescrito
+        exporter.close();
+
+        assertEquals(30, exporter.getWrittenRows());
+        assertEquals(0, exporter.getDroppedBatches());
+        List<String> car1 = readLines(new File(dir, "run_Car1_0.csv"));
+        assertEquals(HEADER, car1.get(0));
+        assertEquals(1 + 15, car1.size());
+        assertEquals("1000,1.000,50.000,42.0", car1.get(1));
+        assertEquals("2004,1.000,50.000,42.0", car1.get(15));
+        assertEquals(1 + 15, readLines(new File(dir, "run_Safety_Car_0.csv")).size());
+    }
+
+    @Test
+    public void rotation_startsNewPartsWithHeaderAndKeepsEveryRow() throws Exception {
+        File dir = temporaryFolder.newFolder("metrics");
+        MetricsCollector collector = new MetricsCollector(null, 1 << 12);
+        MetricsExporter exporter = new MetricsExporter(dir, "run", false, 500);
+        collector.setExporter(exporter);
+        collect(collector, new String[]{"Car1"}, 1_000, 100);
+        collector.drain();
+        exporter.close();
+
+        File[] parts = filesOf(dir, "run_Car1_");
+        assertTrue("partes: " + parts.length, parts.length > 1);
+        long timestamp = 1_000;
+        for (File part : parts) {
+            assertTrue(part.length() <= 500 + 64); // Rotaciona ao passar do limite, após a linha atual
+            List<String> lines = readLines(part);
+            assertEquals(HEADER, lines.get(0));
+            for (String line : lines.subList(1, lines.size())) {
+                assertEquals(timestamp++, Long.parseLong(line.substring(0, line.indexOf(','))));
+            }
+        }
+        assertEquals(1_100, timestamp);
+    }
+
+    @Test
+    public void gzipCsv_reopensClosedTaskFilesForAppendBeyondOpenFileLimit() throws Exception {
+        File dir = temporaryFolder.newFolder("metrics");
+        MetricsCollector collector = new MetricsCollector(null, 1 << 14);
+        MetricsExporter exporter = new MetricsExporter(dir, "run", true, Long.MAX_VALUE);
+        collector.setExporter(exporter);
+        String[] tasks = new String[100]; // Mais tarefas que arquivos abertos ao mesmo tempo
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = "Car" + i;
+        }
+        collect(collector, tasks, 1_000, 3);
+        collector.drain();
+        collect(collector, tasks, 2_000, 2);
+        collector.drain();
+        exporter.close();
+
+        assertEquals(tasks.length, filesOf(dir, "run_").length); // Uma única parte por tarefa
+        List<String> lines = readLines(new File(dir, "run_Car7_0.csv.gz"));
+        assertEquals(Arrays.asList(HEADER, "1000,1.000,50.000,42.0", "1001,1.000,50.000,42.0",
+                "1002,1.000,50.000,42.0", "2000,1.000,50.000,42.0", "2001,1.000,50.000,42.0"), lines);
+    }
+
+    @Test
+    public void binaryGzip_writesAllTasksToOneSharedLog() throws Exception {
+        File dir = temporaryFolder.newFolder("metrics");
+        MetricsCollector collector = new MetricsCollector(null, 1 << 12);
+        MetricsExporter exporter = new MetricsExporter(dir, "run", MetricsExporter.Format.BINARY, true, Long.MAX_VALUE);
+        collector.setExporter(exporter);
+        String[] tasks = {"Car1", "Car2", "SafetyCar"};
+        collect(collector, tasks, 1_000_000, 20);
+        collector.drain();
+        collect(collector, tasks, 2_000_000, 20);
+        collector.drain();
+        exporter.close();
+
+        File[] files = filesOf(dir, "run_");
+        assertEquals(1, files.length);
+        assertEquals("run_0.rtml.gz", files[0].getName());
+        Map<String, Integer> rows = new HashMap<>();
+        try (MetricLogReader reader = new MetricLogReader(new GZIPInputStream(new FileInputStream(files[0])))) {
+            while (reader.next()) {
+                rows.merge(reader.getTaskName(), 1, Integer::sum);
+                assertEquals(50_000, reader.getResponseMicros());
+            }
+        }
+        assertEquals(3, rows.size());
+        assertEquals(Integer.valueOf(40), rows.get("SafetyCar"));
+    }
+
+    @Test(timeout = 5_000)
+    public void close_returnsAfterWriterStoppedOnError() throws Exception {
+        File dir = temporaryFolder.newFolder("metrics");
+        MetricsCollector collector = new MetricsCollector(null, 1 << 12);
+        MetricsExporter exporter = new MetricsExporter(dir, "run", false, Long.MAX_VALUE);
+        collector.setExporter(exporter);
+        assertTrue(dir.delete());
+        assertTrue(dir.createNewFile()); // Os arquivos das tarefas não podem mais ser criados
+
+        collect(collector, new String[]{"Car1"}, 1_000, 1);
+        collector.drain();
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (exporter.getDroppedBatches() == 0 && System.currentTimeMillis() < deadline) {
+            collect(collector, new String[]{"Car1"}, 1_000, 1);
+            collector.drain(); // Depois do erro, os lotes são descartados sem encher a fila
+            Thread.sleep(5);
+        }
+        assertTrue(exporter.getDroppedBatches() > 0);
+        exporter.close();
+        assertEquals(0, exporter.getWrittenRows());
+        assertFalse(dir.isDirectory());
+    }
+}
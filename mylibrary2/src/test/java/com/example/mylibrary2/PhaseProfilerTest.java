@@ -0,0 +1,43 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.PhaseProfiler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PhaseProfilerTest {
+
+    @Test
+    public void lap_accumulatesPerPhaseOnlyWhileEnabled() throws Exception {
+        PhaseProfiler profiler = new PhaseProfiler("a", "b");
+        PhaseProfiler.Counters car = profiler.counters("Car1");
+        assertSame(car, profiler.counters("Car1"));
+
+        long t = car.start();
+        assertEquals(PhaseProfiler.DISABLED, car.lap(0, t)); // Desligado: nada é medido
+
+        profiler.setEnabled(true);
+        for (int i = 0; i < 3; i++) {
+            t = car.start();
+            Thread.sleep(2);
+            t = car.lap(0, t);
+            car.lap(1, t);
+        }
+        profiler.setEnabled(false);
+
+        PhaseProfiler.Snapshot snapshot = profiler.snapshot().get(0);
+        assertEquals("Car1", snapshot.owner);
+        assertEquals(3, snapshot.counts[0]);
+        assertEquals(3, snapshot.counts[1]);
+        assertTrue(snapshot.getAverageNanos(0) >= 2_000_000);
+        assertTrue(snapshot.maxNanos[0] >= snapshot.getAverageNanos(0));
+        assertTrue(snapshot.getAverageNanos(1) < snapshot.getAverageNanos(0));
+        assertTrue(profiler.summaryLine().startsWith("Car1[a "));
+
+        profiler.reset();
+        assertEquals(0, profiler.snapshot().get(0).counts[0]);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.RealTimeScheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RealTimeSchedulerTest {
+
+    /**
+     * Ação que conta as execuções simultâneas e guarda o maior número observado.
+     */
+    private static final class OverlapProbe implements Runnable {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger runs = new AtomicInteger();
+        final long sleepMillis;
+
+        OverlapProbe(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void run() {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+                runs.incrementAndGet();
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void executor_runsReadyTasksByEarliestAbsoluteDeadline() throws Exception {
+        RealTimeScheduler scheduler = new RealTimeScheduler();
+        scheduler.start(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        long now = System.currentTimeMillis();
+        scheduler.scheduleTask("Bloqueio", now + 5_000, 1, () -> {
+            blocked.countDown();
+            await(release);
+        });
+        await(blocked); // O único worker está ocupado: as próximas tarefas ficam prontas na fila
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+        // A prioridade só desempata deadlines iguais: a mais alta não passa à frente de um deadline mais próximo
+        scheduler.scheduleTask("C", now + 3_000, 10, () -> { order.add("C"); done.countDown(); });
+        scheduler.scheduleTask("A", now + 1_000, 1, () -> { order.add("A"); done.countDown(); });
+        scheduler.scheduleTask("B", now + 2_000, 5, () -> { order.add("B"); done.countDown(); });
+        release.countDown();
+        await(done);
+        scheduler.shutdown();
+
+        assertEquals(Arrays.asList("A", "B", "C"), order);
+        assertEquals(1, scheduler.getTaskStats("A").getCompletions());
+        assertEquals(0, scheduler.getTaskStats("A").getDeadlineMisses());
+    }
+
+    @Test(timeout = 10_000)
+    public void executor_countsMissedDeadlinesAndDropsLateOneShotTasks() throws Exception {
+        RealTimeScheduler scheduler = new RealTimeScheduler();
+        AtomicInteger lateRuns = new AtomicInteger();
+        scheduler.scheduleTask("Atrasada", System.currentTimeMillis() - 10, 1, lateRuns::incrementAndGet);
+        OverlapProbe slow = new OverlapProbe(15);
+        scheduler.schedulePeriodicTask("Lenta", 50, 5, 1, slow); // Termina sempre depois do deadline de 5 ms
+        scheduler.start(2);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (slow.runs.get() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        scheduler.shutdown();
+
+        assertEquals(0, lateRuns.get());
+        RealTimeScheduler.TaskStats late = scheduler.getTaskStats("Atrasada");
+        assertEquals(0, late.getCompletions());
+        assertEquals(1, late.getDeadlineMisses());
+        RealTimeScheduler.TaskStats slowStats = scheduler.getTaskStats("Lenta");
+        assertTrue(slowStats.getCompletions() >= 3);
+        assertEquals(slowStats.getCompletions(), slowStats.getDeadlineMisses());
+        assertTrue(slowStats.getMaxResponseNanos() >= TimeUnit.MILLISECONDS.toNanos(15));
+    }
+
+    @Test(timeout = 10_000)
+    public void periodicTask_skipsReleasesWhileTheLastRunIsUnfinished() throws Exception {
+        RealTimeScheduler scheduler = new RealTimeScheduler();
+        OverlapProbe probe = new OverlapProbe(40);
+        scheduler.schedulePeriodicTask("Ciclo", 10, 10, 1, probe); // Cada execução dura 4 períodos
+        scheduler.start(4);
+        Thread.sleep(300);
+        scheduler.shutdown();
+
+        assertEquals(1, probe.maxRunning.get());
+        RealTimeScheduler.TaskStats stats = scheduler.getTaskStats("Ciclo");
+        assertTrue(stats.toString(), stats.getSkippedReleases() > 0);
+        assertTrue(stats.toString(), stats.getReleases() <= stats.getCompletions() + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void schedulePeriodicTask_rejectsDuplicateName() {
+        RealTimeScheduler scheduler = new RealTimeScheduler();
+        scheduler.schedulePeriodicTask("Ciclo", 10, 10, 1, () -> { });
+        scheduler.schedulePeriodicTask("Ciclo", 20, 20, 1, () -> { });
+    }
+
+    @Test(timeout = 10_000)
+    public void cancelAndReschedule_doesNotOverlapTheRunStillInProgress() throws Exception {
+        RealTimeScheduler scheduler = new RealTimeScheduler();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.schedulePeriodicTask("Ciclo", 10, 10, 1, () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            await(release);
+            running.decrementAndGet();
+        });
+        scheduler.start(2);
+        await(started);
+
+        scheduler.cancelPeriodicTask("Ciclo");
+        OverlapProbe replacement = new OverlapProbe(0);
+        scheduler.schedulePeriodicTask("Ciclo", 10, 10, 1, () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            running.decrementAndGet();
+            replacement.run();
+        });
+        Thread.sleep(100); // Vários períodos com a execução anterior ainda em andamento
+        assertEquals(0, replacement.runs.get());
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (replacement.runs.get() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        scheduler.cancelPeriodicTask("Ciclo");
+        Thread.sleep(50);
+        int runsAfterCancel = replacement.runs.get();
+        Thread.sleep(100);
+        scheduler.shutdown();
+
+        assertEquals(1, maxRunning.get());
+        assertTrue(runsAfterCancel >= 3);
+        assertEquals(runsAfterCancel, replacement.runs.get()); // Cancelada: não é mais liberada
+    }
+
+    @Test(timeout = 10_000)
+    public void shutdown_discardsQueuedTasksAndStopsReleasing() throws Exception {
+        RealTimeScheduler scheduler = new RealTimeScheduler();
+        scheduler.start(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        long now = System.currentTimeMillis();
+        scheduler.scheduleTask("Bloqueio", now + 5_000, 1, () -> {
+            blocked.countDown();
+            await(release);
+        });
+        await(blocked);
+        AtomicInteger queuedRuns = new AtomicInteger();
+        scheduler.scheduleTask("Enfileirada", now + 5_000, 1, queuedRuns::incrementAndGet);
+        OverlapProbe periodic = new OverlapProbe(0);
+        scheduler.schedulePeriodicTask("Ciclo", 10, 10, 1, periodic);
+
+        scheduler.shutdown();
+        assertFalse(scheduler.isRunning());
+        release.countDown(); // A execução em andamento termina normalmente
+        Thread.sleep(100);
+
+        assertEquals(0, queuedRuns.get());
+        assertEquals(0, periodic.runs.get());
+        assertEquals(1, scheduler.getTaskStats("Bloqueio").getCompletions());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.StepTimer;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StepTimerTest {
+
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    public void startPeriodic_skipsWholeMissedPeriods() throws Exception {
+        StepTimer timer = new StepTimer(PERIOD);
+        timer.startPeriodic();
+        long first = timer.getReleaseNanos();
+        assertEquals(0, timer.getJitterNanos()); // A primeira liberação é o próprio início
+
+        Thread.sleep(75); // Mais de três períodos: a execução perdeu as liberações intermediárias
+        timer.startPeriodic();
+        long skipped = timer.getReleaseNanos() - first;
+        assertEquals(0, skipped % PERIOD);
+        assertTrue("liberação: +" + skipped, skipped >= 3 * PERIOD);
+        assertTrue("jitter: " + timer.getJitterNanos(), timer.getJitterNanos() >= 0 && timer.getJitterNanos() < PERIOD);
+    }
+
+    @Test
+    public void startPeriodic_keepsTheScheduleWhenLateByLessThanOnePeriod() throws Exception {
+        long period = TimeUnit.MILLISECONDS.toNanos(50); // Folga para o atraso do sono do sistema
+        StepTimer timer = new StepTimer(period);
+        timer.startPeriodic();
+        long first = timer.getReleaseNanos();
+        for (int i = 1; i <= 3; i++) {
+            timer.end();
+            timer.sleepUntilNextRelease();
+            timer.startPeriodic();
+            assertEquals(first + i * period, timer.getReleaseNanos()); // Sem deriva acumulada
+            assertTrue(timer.getJitterNanos() >= 0);
+        }
+
+        Thread.sleep(75); // Meio período além da próxima liberação
+        timer.startPeriodic();
+        assertEquals(first + 4 * period, timer.getReleaseNanos());
+        assertTrue(timer.getJitterNanos() >= TimeUnit.MILLISECONDS.toNanos(25));
+    }
+
+    @Test
+    public void start_measuresJitterAndResponseFromTheGivenRelease() throws Exception {
+        StepTimer timer = new StepTimer(PERIOD);
+        long release = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5); // Liberada há 5 ms
+        timer.start(release);
+        Thread.sleep(10);
+        timer.end();
+
+        assertEquals(release, timer.getReleaseNanos());
+        assertTrue(timer.getJitterNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(timer.getExecutionNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(timer.getJitterNanos() + timer.getExecutionNanos(), timer.getResponseNanos());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsNonPositivePeriod() {
+        new StepTimer(0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.DeadlineUtils;
+import com.example.mylibrary2.utils.ThreadCpuSampler;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ThreadCpuSamplerTest {
+
+    @Test
+    public void busyThread_reportsHigherUtilizationThanSleepingThread() throws Exception {
+        ThreadCpuSampler sampler = new ThreadCpuSampler(20, 10);
+        CountDownLatch registered = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread busy = new Thread(() -> {
+            sampler.registerCurrentThread("Busy");
+            registered.countDown();
+            long sink = 0;
+            while (done.getCount() > 0) {
+                sink += System.nanoTime() % 7;
+            }
+            if (sink == 42) System.out.print("");
+        });
+        Thread idle = new Thread(() -> {
+            sampler.registerCurrentThread("Idle");
+            registered.countDown();
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        busy.start();
+        idle.start();
+        registered.await();
+
+        sampler.start();
+        Thread.sleep(400);
+        double busyUtilization = sampler.getUtilization("Busy");
+        double idleUtilization = sampler.getUtilization("Idle");
+        List<Long> periods = Arrays.asList(50_000_000L, 50_000_000L);
+        List<Long> executionTimes = sampler.getExecutionTimes(Arrays.asList("Busy", "Idle"), periods);
+        sampler.stop();
+        done.countDown();
+        busy.join();
+        idle.join();
+
+        assertTrue("Busy: " + busyUtilization, busyUtilization > 40);
+        assertTrue("Idle: " + idleUtilization, idleUtilization < 10);
+        assertEquals(busyUtilization / 100 + idleUtilization / 100,
+                DeadlineUtils.calculateProcessorUtilization(executionTimes, periods), 0.01);
+        assertEquals(0.0, sampler.getUtilization("Unknown"), 0.0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.ThreadManager;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ThreadManagerTest {
+
+    @Test
+    public void configureProcessors_replacesAndShutsDownThePreviousPool() {
+        ThreadManager.configureProcessors(1);
+        ExecutorService first = ThreadManager.getExecutorService();
+        assertSame(first, ThreadManager.getExecutorService());
+        assertEquals(1, ThreadManager.getConfiguredProcessors());
+
+        ThreadManager.resetToMaxProcessors();
+        ExecutorService second = ThreadManager.getExecutorService();
+        assertNotSame(first, second);
+        assertTrue(first.isShutdown());
+        assertEquals(Runtime.getRuntime().availableProcessors(), ThreadManager.getConfiguredProcessors());
+        second.shutdown();
+        ExecutorService third = ThreadManager.getExecutorService();
+        assertNotSame(second, third); // Recriado após o encerramento
+        third.shutdown();
+    }
+}
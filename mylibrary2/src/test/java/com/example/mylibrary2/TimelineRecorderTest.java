@@ -0,0 +1,90 @@
+package com.example.mylibrary2;
+
+import com.example.mylibrary2.utils.TimelineRecorder;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimelineRecorderTest {
+
+    @Test
+    public void writeChromeTrace_exportsSpansAndInstantsWithThreadIds() throws Exception {
+        TimelineRecorder recorder = new TimelineRecorder(16);
+        recorder.begin("car", "ignorado"); // Desligado: nada é registrado
+        recorder.setEnabled(true);
+
+        recorder.begin("car", "Car1");
+        recorder.instant("car", "semáforo \"liberado\"");
+        recorder.end("car", "Car1");
+        Thread other = new Thread(() -> recorder.instant("scheduler.release", "SimulationTick"), "Dispatcher");
+        other.start();
+        other.join();
+
+        StringWriter out = new StringWriter();
+        assertEquals(4, recorder.writeChromeTrace(out));
+        String json = out.toString();
+        long mainId = Thread.currentThread().getId();
+        assertTrue(json, json.startsWith("{\"displayTimeUnit\":\"ns\",\"traceEvents\":["));
+        assertTrue(json, json.trim().endsWith("]}"));
+        assertTrue(json, json.contains("{\"name\":\"Car1\",\"cat\":\"car\",\"ph\":\"B\",\"ts\":"));
+        assertTrue(json, json.contains("\"ph\":\"E\""));
+        assertTrue(json, json.contains("{\"name\":\"semáforo \\\"liberado\\\"\",\"cat\":\"car\",\"ph\":\"i\""));
+        assertTrue(json, json.contains("\"tid\":" + mainId + ","));
+        assertTrue(json, json.contains("\"tid\":" + other.getId() + ",\"args\":{\"name\":\"Dispatcher\"}"));
+        assertTrue(json, !json.contains("ignorado"));
+    }
+
+    @Test
+    public void writeChromeTrace_keepsOnlyTheMostRecentEventsPerThread() throws Exception {
+        TimelineRecorder recorder = new TimelineRecorder(8);
+        recorder.setEnabled(true);
+        for (int i = 0; i < 20; i++) {
+            recorder.instant("tick", "tick");
+        }
+        assertTrue(recorder.writeChromeTrace(new StringWriter()) <= 8);
+
+        recorder.clear();
+        assertEquals(0, recorder.writeChromeTrace(new StringWriter()));
+    }
+
+    @Test
+    public void clear_removesTimelinesOfTerminatedThreads() throws Exception {
+        TimelineRecorder recorder = new TimelineRecorder(8);
+        recorder.setEnabled(true);
+        Thread car = new Thread(() -> recorder.instant("car", "volta"), "Car1");
+        car.start();
+        car.join();
+
+        StringWriter before = new StringWriter();
+        assertEquals(1, recorder.writeChromeTrace(before));
+        assertTrue(before.toString().contains("{\"name\":\"Car1\"}")); // Eventos ainda não limpos são mantidos
+
+        recorder.clear();
+        StringWriter after = new StringWriter();
+        assertEquals(0, recorder.writeChromeTrace(after));
+        assertFalse(after.toString().contains("Car1"));
+    }
+
+    @Test
+    public void writeChromeTrace_keepsBoundedTimelinesOfTerminatedThreads() throws Exception {
+        TimelineRecorder recorder = new TimelineRecorder(8);
+        recorder.setEnabled(true);
+        for (int i = 0; i < 100; i++) {
+            Thread car = new Thread(() -> recorder.instant("car", "volta"), "Car" + i); // Uma thread por corrida
+            car.start();
+            car.join();
+        }
+
+        StringWriter out = new StringWriter();
+        int events = recorder.writeChromeTrace(out);
+        assertEquals(64, events); // Apenas as linhas do tempo das threads encerradas mais recentes
+        assertFalse(out.toString().contains("\"Car35\""));
+        assertTrue(out.toString().contains("\"Car36\""));
+        assertTrue(out.toString().contains("\"Car99\""));
+    }
+}